@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) 2015-present, Facebook, Inc.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.facebook.react.common;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nullable;
+
+/**
+ * Bounded, lock-free FIFO for handing objects from exactly one producer thread to exactly one
+ * consumer thread. Backed by a preallocated array, so neither {@link #offer} nor {@link #poll}
+ * allocate.
+ *
+ * Calling {@link #offer} from more than one thread, or {@link #poll} from more than one thread, is
+ * not supported.
+ */
+public class SingleProducerRingBuffer<T> {
+
+  private final Object[] mBuffer;
+  private final int mMask;
+
+  // Next slot to read, only written by the consumer
+  private final AtomicInteger mHead = new AtomicInteger();
+  // Next slot to write, only written by the producer
+  private final AtomicInteger mTail = new AtomicInteger();
+
+  /**
+   * @param capacity rounded up to the next power of two
+   */
+  public SingleProducerRingBuffer(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+    }
+    int size = Integer.highestOneBit(capacity);
+    if (size < capacity) {
+      size <<= 1;
+    }
+    mBuffer = new Object[size];
+    mMask = size - 1;
+  }
+
+  /**
+   * Producer only. Returns false without enqueueing if the buffer is full.
+   */
+  public boolean offer(T item) {
+    int tail = mTail.get();
+    if (tail - mHead.get() == mBuffer.length) {
+      return false;
+    }
+    mBuffer[tail & mMask] = item;
+    // Publishes the slot write above to the consumer
+    mTail.lazySet(tail + 1);
+    return true;
+  }
+
+  /**
+   * Consumer only. Returns null if the buffer is empty.
+   */
+  @SuppressWarnings("unchecked")
+  public @Nullable T poll() {
+    int head = mHead.get();
+    if (head == mTail.get()) {
+      return null;
+    }
+    int index = head & mMask;
+    T item = (T) mBuffer[index];
+    mBuffer[index] = null;
+    mHead.lazySet(head + 1);
+    return item;
+  }
+
+  /**
+   * Safe to call from either side, but only a snapshot.
+   */
+  public boolean isEmpty() {
+    return mHead.get() == mTail.get();
+  }
+
+  public int capacity() {
+    return mBuffer.length;
+  }
+}
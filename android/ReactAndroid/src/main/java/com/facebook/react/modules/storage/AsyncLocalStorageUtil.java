@@ -85,7 +85,7 @@ public class AsyncLocalStorageUtil {
   /**
    * Sets the value for the key given, returns true if successful, false otherwise.
    */
-  /* package */ static boolean setItemImpl(SQLiteDatabase db, String key, String value) {
+  public static boolean setItemImpl(SQLiteDatabase db, String key, String value) {
     ContentValues contentValues = new ContentValues();
     contentValues.put(KEY_COLUMN, key);
     contentValues.put(VALUE_COLUMN, value);
@@ -104,7 +104,7 @@ public class AsyncLocalStorageUtil {
    * NB: This assumes that a database lock is already in effect!
    * @return the errorCode of the operation
    */
-  /* package */ static boolean mergeImpl(SQLiteDatabase db, String key, String value)
+  public static boolean mergeImpl(SQLiteDatabase db, String key, String value)
       throws JSONException {
     String oldValue = getItemImpl(db, key);
     String newValue;
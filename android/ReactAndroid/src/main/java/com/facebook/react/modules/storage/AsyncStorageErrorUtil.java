@@ -20,7 +20,7 @@ public class AsyncStorageErrorUtil {
   /**
    * Create Error object to be passed back to the JS callback.
    */
-  /* package */ static WritableMap getError(@Nullable String key, String errorMessage) {
+  public static WritableMap getError(@Nullable String key, String errorMessage) {
     WritableMap errorMap = Arguments.createMap();
     errorMap.putString("message", errorMessage);
     if (key != null) {
@@ -29,15 +29,15 @@ public class AsyncStorageErrorUtil {
     return errorMap;
   }
 
-  /* package */ static WritableMap getInvalidKeyError(@Nullable String key) {
+  public static WritableMap getInvalidKeyError(@Nullable String key) {
     return getError(key, "Invalid key");
   }
 
-  /* package */ static WritableMap getInvalidValueError(@Nullable String key) {
+  public static WritableMap getInvalidValueError(@Nullable String key) {
     return getError(key, "Invalid Value");
   }
 
-  /* package */ static WritableMap getDBError(@Nullable String key) {
+  public static WritableMap getDBError(@Nullable String key) {
     return getError(key, "Database Error");
   }
 
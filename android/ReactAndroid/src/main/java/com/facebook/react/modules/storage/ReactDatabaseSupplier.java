@@ -70,7 +70,7 @@ public class ReactDatabaseSupplier extends SQLiteOpenHelper {
    * Verify the database exists and is open.
    */
     /* package */
-    synchronized boolean ensureDatabase() {
+    public synchronized boolean ensureDatabase() {
         if (mDb != null && mDb.isOpen()) {
             return true;
         }
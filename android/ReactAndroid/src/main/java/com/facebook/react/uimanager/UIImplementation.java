@@ -68,11 +68,26 @@ public class UIImplementation {
       UIManagerModule.ViewManagerResolver viewManagerResolver,
       EventDispatcher eventDispatcher,
       int minTimeLeftInFrameForNonBatchedOperationMs) {
+    this(
+        reactContext,
+        viewManagerResolver,
+        eventDispatcher,
+        minTimeLeftInFrameForNonBatchedOperationMs,
+        false /* usePooledOperations */);
+  }
+
+  public UIImplementation(
+      ReactApplicationContext reactContext,
+      UIManagerModule.ViewManagerResolver viewManagerResolver,
+      EventDispatcher eventDispatcher,
+      int minTimeLeftInFrameForNonBatchedOperationMs,
+      boolean usePooledOperations) {
     this(
         reactContext,
         new ViewManagerRegistry(viewManagerResolver),
         eventDispatcher,
-        minTimeLeftInFrameForNonBatchedOperationMs);
+        minTimeLeftInFrameForNonBatchedOperationMs,
+        usePooledOperations);
   }
 
   public UIImplementation(
@@ -80,25 +95,42 @@ public class UIImplementation {
       List<ViewManager> viewManagers,
       EventDispatcher eventDispatcher,
       int minTimeLeftInFrameForNonBatchedOperationMs) {
+    this(
+        reactContext,
+        viewManagers,
+        eventDispatcher,
+        minTimeLeftInFrameForNonBatchedOperationMs,
+        false /* usePooledOperations */);
+  }
+
+  public UIImplementation(
+      ReactApplicationContext reactContext,
+      List<ViewManager> viewManagers,
+      EventDispatcher eventDispatcher,
+      int minTimeLeftInFrameForNonBatchedOperationMs,
+      boolean usePooledOperations) {
     this(
         reactContext,
         new ViewManagerRegistry(viewManagers),
         eventDispatcher,
-        minTimeLeftInFrameForNonBatchedOperationMs);
+        minTimeLeftInFrameForNonBatchedOperationMs,
+        usePooledOperations);
   }
 
   private UIImplementation(
       ReactApplicationContext reactContext,
       ViewManagerRegistry viewManagers,
       EventDispatcher eventDispatcher,
-      int minTimeLeftInFrameForNonBatchedOperationMs) {
+      int minTimeLeftInFrameForNonBatchedOperationMs,
+      boolean usePooledOperations) {
     this(
         reactContext,
         viewManagers,
         new UIViewOperationQueue(
             reactContext,
             new NativeViewHierarchyManager(viewManagers),
-            minTimeLeftInFrameForNonBatchedOperationMs),
+            minTimeLeftInFrameForNonBatchedOperationMs,
+            usePooledOperations),
         eventDispatcher);
   }
 
@@ -275,6 +307,10 @@ public class UIImplementation {
     return mOperationsQueue.getProfiledBatchPerfCounters();
   }
 
+  public void setFrameBudgetMs(int frameBudgetMs) {
+    mOperationsQueue.setFrameBudgetMs(frameBudgetMs);
+  }
+
   /**
    * Invoked by React to create a new node with a given tag, class name and properties.
    */
@@ -125,6 +125,23 @@ public class UIManagerModule extends ReactContextBaseJavaModule implements
       ReactApplicationContext reactContext,
       ViewManagerResolver viewManagerResolver,
       int minTimeLeftInFrameForNonBatchedOperationMs) {
+    this(
+        reactContext,
+        viewManagerResolver,
+        minTimeLeftInFrameForNonBatchedOperationMs,
+        false /* usePooledOperations */);
+  }
+
+  /**
+   * @param usePooledOperations recycle the most frequent UI operations and hand batches to the UI
+   *     thread through a lock-free ring buffer, see {@link UIViewOperationQueue}. Only pass true if
+   *     every UI operation is enqueued from the native modules thread
+   */
+  public UIManagerModule(
+      ReactApplicationContext reactContext,
+      ViewManagerResolver viewManagerResolver,
+      int minTimeLeftInFrameForNonBatchedOperationMs,
+      boolean usePooledOperations) {
     super(reactContext);
     DisplayMetricsHolder.initDisplayMetricsIfNotInitialized(reactContext);
     mEventDispatcher = new EventDispatcher(reactContext);
@@ -135,7 +152,8 @@ public class UIManagerModule extends ReactContextBaseJavaModule implements
             reactContext,
             viewManagerResolver,
             mEventDispatcher,
-            minTimeLeftInFrameForNonBatchedOperationMs);
+            minTimeLeftInFrameForNonBatchedOperationMs,
+            usePooledOperations);
 
     reactContext.addLifecycleEventListener(this);
   }
@@ -144,6 +162,18 @@ public class UIManagerModule extends ReactContextBaseJavaModule implements
       ReactApplicationContext reactContext,
       List<ViewManager> viewManagersList,
       int minTimeLeftInFrameForNonBatchedOperationMs) {
+    this(
+        reactContext,
+        viewManagersList,
+        minTimeLeftInFrameForNonBatchedOperationMs,
+        false /* usePooledOperations */);
+  }
+
+  public UIManagerModule(
+      ReactApplicationContext reactContext,
+      List<ViewManager> viewManagersList,
+      int minTimeLeftInFrameForNonBatchedOperationMs,
+      boolean usePooledOperations) {
     super(reactContext);
     DisplayMetricsHolder.initDisplayMetricsIfNotInitialized(reactContext);
     mEventDispatcher = new EventDispatcher(reactContext);
@@ -154,7 +184,8 @@ public class UIManagerModule extends ReactContextBaseJavaModule implements
             reactContext,
             viewManagersList,
             mEventDispatcher,
-            minTimeLeftInFrameForNonBatchedOperationMs);
+            minTimeLeftInFrameForNonBatchedOperationMs,
+            usePooledOperations);
 
     reactContext.addLifecycleEventListener(this);
   }
@@ -292,6 +323,14 @@ public class UIManagerModule extends ReactContextBaseJavaModule implements
     return mUIImplementation.getProfiledBatchPerfCounters();
   }
 
+  /**
+   * Limits how much of each frame is spent applying UI operation batches, see
+   * {@link UIViewOperationQueue#setFrameBudgetMs}.
+   */
+  public void setFrameBudgetMs(int frameBudgetMs) {
+    mUIImplementation.setFrameBudgetMs(frameBudgetMs);
+  }
+
   /**
    * Registers a new root view. JS can use the returned tag with manageChildren to add/remove
    * children to this view.
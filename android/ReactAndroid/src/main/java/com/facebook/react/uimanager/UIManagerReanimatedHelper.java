@@ -1,5 +1,9 @@
 package com.facebook.react.uimanager;
 
+import android.view.View;
+
+import javax.annotation.Nullable;
+
 /**
  * This file is pulled into ReactAndroid manually from react-native-reanimated
  * Make sure it stays up-to-date whenever react-native-reanimated is updated!!!!!!!!
@@ -16,5 +20,36 @@ public class UIManagerReanimatedHelper {
   public static boolean isOperationQueueEmpty(UIImplementation uiImplementation) {
     return uiImplementation.getUIViewOperationQueue().isEmpty();
   }
+
+  /**
+   * Returns the native view with the given tag, or null if it doesn't exist (anymore). Used to set
+   * animated props on views directly instead of going through
+   * {@link UIImplementation#synchronouslyUpdateViewOnUIThread}.
+   */
+  public static @Nullable View resolveView(UIImplementation uiImplementation, int tag) {
+    try {
+      return uiImplementation.getUIViewOperationQueue().getNativeViewHierarchyManager().resolveView(tag);
+    } catch (IllegalViewOperationException e) {
+      return null;
+    }
+  }
+
+  public static @Nullable ViewManager resolveViewManager(UIImplementation uiImplementation, int tag) {
+    try {
+      return uiImplementation.getUIViewOperationQueue().getNativeViewHierarchyManager().resolveViewManager(tag);
+    } catch (IllegalViewOperationException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Lets the view manager finish an update of props that were set on the view directly, like
+   * {@link ViewManager#updateProperties} does after setting them from a map. Managers rely on it to
+   * e.g. redraw or rebuild backgrounds once all props of an update are in.
+   */
+  @SuppressWarnings("unchecked")
+  public static void onAfterUpdateTransaction(ViewManager viewManager, View view) {
+    viewManager.onAfterUpdateTransaction(view);
+  }
 }
 
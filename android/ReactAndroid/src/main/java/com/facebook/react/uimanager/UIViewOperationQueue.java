@@ -20,6 +20,7 @@ import com.facebook.react.bridge.ReadableMap;
 import com.facebook.react.bridge.SoftAssertions;
 import com.facebook.react.bridge.UiThreadUtil;
 import com.facebook.react.common.ReactConstants;
+import com.facebook.react.common.SingleProducerRingBuffer;
 import com.facebook.react.modules.core.ReactChoreographer;
 import com.facebook.react.uimanager.common.SizeMonitoringFrameLayout;
 import com.facebook.react.uimanager.debug.NotThreadSafeViewHierarchyUpdateDebugListener;
@@ -29,6 +30,7 @@ import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.GuardedBy;
 
@@ -38,15 +40,24 @@ import javax.annotation.concurrent.GuardedBy;
  * executing commands immediately it enqueues those operations in a queue that is then flushed from
  * {@link UIManagerModule} once JS batch of ui operations is finished. This is to make sure that we
  * execute all the JS operation coming from a single batch a single loop of the main (UI) android
- * looper.
+ * looper. {@link #setFrameBudgetMs} trades that guarantee for smoothness by letting a batch that
+ * runs over the budget continue on the next frame.
  *
- * TODO(7135923): Pooling of operation objects
- * TODO(5694019): Consider a better data structure for operations queue to save on allocations
+ * <p>When created with {@code usePooledOperations}, the most frequent operations (property, layout
+ * and children updates) are recycled once they have been executed, per-batch operation lists are
+ * reused, and finished batches are handed to the UI thread through a lock-free ring buffer instead
+ * of a list guarded by {@link #mDispatchRunnablesLock}. The number of objects each batch allocated
+ * is reported as the "AllocationCount" perf counter. The ring buffers take a single producer, so in
+ * that mode every {@code enqueue*} and {@link #dispatchViewUpdates} call has to come from the native
+ * modules thread.
  */
 public class UIViewOperationQueue {
 
   public static final int DEFAULT_MIN_TIME_LEFT_IN_FRAME_FOR_NONBATCHED_OPERATION_MS = 8;
 
+  private static final int PENDING_BATCHES_CAPACITY = 16;
+  private static final int RECYCLED_OPERATIONS_CAPACITY = 1024;
+
   private final int[] mMeasureBuffer = new int[4];
 
   /**
@@ -57,6 +68,14 @@ public class UIViewOperationQueue {
     void execute();
   }
 
+  /**
+   * An operation that can be reused once it has been executed. Only used in pooled mode.
+   */
+  private interface RecyclableOperation {
+
+    void recycle();
+  }
+
   /**
    * A spec for an operation on the native View hierarchy.
    */
@@ -81,9 +100,10 @@ public class UIViewOperationQueue {
     }
   }
 
-  private final class UpdatePropertiesOperation extends ViewOperation {
+  private final class UpdatePropertiesOperation extends ViewOperation
+      implements RecyclableOperation {
 
-    private final ReactStylesDiffMap mProps;
+    private @Nullable ReactStylesDiffMap mProps;
 
     private UpdatePropertiesOperation(int tag, ReactStylesDiffMap props) {
       super(tag);
@@ -94,6 +114,12 @@ public class UIViewOperationQueue {
     public void execute() {
       mNativeViewHierarchyManager.updateProperties(mTag, mProps);
     }
+
+    @Override
+    public void recycle() {
+      mProps = null;
+      mRecycledUpdatePropertiesOperations.offer(this);
+    }
   }
 
   private final class EmitOnLayoutEventOperation extends ViewOperation {
@@ -149,9 +175,9 @@ public class UIViewOperationQueue {
    * by a {@link UIManagerModule} call from JS. Instead it gets inflated using computed position
    * and size values by CSSNodeDEPRECATED hierarchy.
    */
-  private final class UpdateLayoutOperation extends ViewOperation {
+  private final class UpdateLayoutOperation extends ViewOperation implements RecyclableOperation {
 
-    private final int mParentTag, mX, mY, mWidth, mHeight;
+    private int mParentTag, mX, mY, mWidth, mHeight;
 
     public UpdateLayoutOperation(
         int parentTag,
@@ -161,6 +187,11 @@ public class UIViewOperationQueue {
         int width,
         int height) {
       super(tag);
+      init(parentTag, tag, x, y, width, height);
+    }
+
+    private void init(int parentTag, int tag, int x, int y, int width, int height) {
+      mTag = tag;
       mParentTag = parentTag;
       mX = x;
       mY = y;
@@ -174,6 +205,11 @@ public class UIViewOperationQueue {
       Systrace.endAsyncFlow(Systrace.TRACE_TAG_REACT_VIEW, "updateLayout", mTag);
       mNativeViewHierarchyManager.updateLayout(mParentTag, mTag, mX, mY, mWidth, mHeight);
     }
+
+    @Override
+    public void recycle() {
+      mRecycledUpdateLayoutOperations.offer(this);
+    }
   }
 
   private final class CreateViewOperation extends ViewOperation {
@@ -205,11 +241,12 @@ public class UIViewOperationQueue {
     }
   }
 
-  private final class ManageChildrenOperation extends ViewOperation {
+  private final class ManageChildrenOperation extends ViewOperation
+      implements RecyclableOperation {
 
-    private final @Nullable int[] mIndicesToRemove;
-    private final @Nullable ViewAtIndex[] mViewsToAdd;
-    private final @Nullable int[] mTagsToDelete;
+    private @Nullable int[] mIndicesToRemove;
+    private @Nullable ViewAtIndex[] mViewsToAdd;
+    private @Nullable int[] mTagsToDelete;
 
     public ManageChildrenOperation(
         int tag,
@@ -230,6 +267,14 @@ public class UIViewOperationQueue {
           mViewsToAdd,
           mTagsToDelete);
     }
+
+    @Override
+    public void recycle() {
+      mIndicesToRemove = null;
+      mViewsToAdd = null;
+      mTagsToDelete = null;
+      mRecycledManageChildrenOperations.offer(this);
+    }
   }
 
   private final class SetChildrenOperation extends ViewOperation {
@@ -583,6 +628,48 @@ public class UIViewOperationQueue {
     }
   }
 
+  /**
+   * Operations enqueued between two calls to {@link #dispatchViewUpdates}, plus the non-batched
+   * operations that have to run before them. Keeps track of how far it got so a batch can be run
+   * over several frames. Reused across batches in pooled mode.
+   */
+  private static final class OperationBatch {
+
+    private final @Nullable ArrayList<UIOperation> mOperations;
+    private final @Nullable ArrayDeque<UIOperation> mNonBatchedOperations;
+    private int mNextOperationIndex;
+    private int mBatchId;
+    private long mCommitStartTime;
+    private long mLayoutTime;
+    private long mDispatchViewUpdatesTime;
+    private long mRunStartTime;
+    private int mSliceCount;
+    private int mAllocationCount;
+
+    private OperationBatch(
+        @Nullable ArrayList<UIOperation> operations,
+        @Nullable ArrayDeque<UIOperation> nonBatchedOperations) {
+      mOperations = operations;
+      mNonBatchedOperations = nonBatchedOperations;
+    }
+
+    private boolean hasRemainingOperations() {
+      return (mNonBatchedOperations != null && !mNonBatchedOperations.isEmpty())
+          || (mOperations != null && mNextOperationIndex < mOperations.size());
+    }
+
+    private void reset() {
+      if (mOperations != null) {
+        mOperations.clear();
+      }
+      if (mNonBatchedOperations != null) {
+        mNonBatchedOperations.clear();
+      }
+      mNextOperationIndex = 0;
+      mSliceCount = 0;
+    }
+  }
+
   private final NativeViewHierarchyManager mNativeViewHierarchyManager;
   private final AnimationRegistry mAnimationRegistry;
   private final Object mDispatchRunnablesLock = new Object();
@@ -591,10 +678,13 @@ public class UIViewOperationQueue {
   private final ReactApplicationContext mReactApplicationContext;
 
   // Only called from the UIManager queue?
-  private ArrayList<UIOperation> mOperations = new ArrayList<>();
+  private ArrayList<UIOperation> mOperations;
 
   @GuardedBy("mDispatchRunnablesLock")
-  private ArrayList<Runnable> mDispatchUIRunnables = new ArrayList<>();
+  private final ArrayList<OperationBatch> mDispatchUIBatches = new ArrayList<>();
+
+  // UI thread only. Dispatched batches that haven't finished running, oldest first.
+  private final ArrayDeque<OperationBatch> mBatchesToRun = new ArrayDeque<>();
 
   @GuardedBy("mNonBatchedOperationsLock")
   private ArrayDeque<UIOperation> mNonBatchedOperations = new ArrayDeque<>();
@@ -604,17 +694,76 @@ public class UIViewOperationQueue {
   private boolean mIsInIllegalUIState = false;
   private boolean mIsProfilingNextBatch = false;
   private long mNonBatchedExecutionTotalTime;
+  private long mBatchedExecutionStartTime;
+  private long mBatchedExecutionTotalTime;
+  private volatile int mFrameBudgetMs = 0;
   private long mProfiledBatchCommitStartTime;
   private long mProfiledBatchLayoutTime;
   private long mProfiledBatchDispatchViewUpdatesTime;
   private long mProfiledBatchRunStartTime;
   private long mProfiledBatchBatchedExecutionTime;
   private long mProfiledBatchNonBatchedExecutionTime;
+  private long mProfiledBatchAllocationCount;
+  private long mProfiledBatchSliceCount;
+
+  // Pooled mode only. Batches go from the native modules thread to the UI thread through
+  // mPendingBatches and come back through mRecycledBatches; recycled operations only travel from
+  // the UI thread back to the native modules thread.
+  private final boolean mUsePooledOperations;
+  private final SingleProducerRingBuffer<OperationBatch> mPendingBatches;
+  private final SingleProducerRingBuffer<OperationBatch> mRecycledBatches;
+  private final SingleProducerRingBuffer<UpdatePropertiesOperation>
+      mRecycledUpdatePropertiesOperations;
+  private final SingleProducerRingBuffer<UpdateLayoutOperation> mRecycledUpdateLayoutOperations;
+  private final SingleProducerRingBuffer<ManageChildrenOperation>
+      mRecycledManageChildrenOperations;
+
+  // Batches that didn't fit in mPendingBatches because the UI thread fell behind. Once this is
+  // non-empty every new batch goes here too, so batches still run in order.
+  @GuardedBy("mDispatchRunnablesLock")
+  private final ArrayDeque<OperationBatch> mOverflowBatches = new ArrayDeque<>();
+  private final AtomicInteger mOverflowBatchCount = new AtomicInteger();
+
+  private @Nullable OperationBatch mCurrentBatch;
+  private int mCurrentBatchAllocationCount;
+  private int mCurrentBatchRecycledOperationCount;
 
   public UIViewOperationQueue(
       ReactApplicationContext reactContext,
       NativeViewHierarchyManager nativeViewHierarchyManager,
       int minTimeLeftInFrameForNonBatchedOperationMs) {
+    this(
+        reactContext,
+        nativeViewHierarchyManager,
+        minTimeLeftInFrameForNonBatchedOperationMs,
+        false /* usePooledOperations */);
+  }
+
+  public UIViewOperationQueue(
+      ReactApplicationContext reactContext,
+      NativeViewHierarchyManager nativeViewHierarchyManager,
+      int minTimeLeftInFrameForNonBatchedOperationMs,
+      boolean usePooledOperations) {
+    mUsePooledOperations = usePooledOperations;
+    if (usePooledOperations) {
+      mPendingBatches = new SingleProducerRingBuffer<>(PENDING_BATCHES_CAPACITY);
+      mRecycledBatches = new SingleProducerRingBuffer<>(PENDING_BATCHES_CAPACITY);
+      mRecycledUpdatePropertiesOperations =
+          new SingleProducerRingBuffer<>(RECYCLED_OPERATIONS_CAPACITY);
+      mRecycledUpdateLayoutOperations = new SingleProducerRingBuffer<>(RECYCLED_OPERATIONS_CAPACITY);
+      mRecycledManageChildrenOperations =
+          new SingleProducerRingBuffer<>(RECYCLED_OPERATIONS_CAPACITY);
+      mCurrentBatch =
+          new OperationBatch(new ArrayList<UIOperation>(), new ArrayDeque<UIOperation>());
+      mOperations = mCurrentBatch.mOperations;
+    } else {
+      mPendingBatches = null;
+      mRecycledBatches = null;
+      mRecycledUpdatePropertiesOperations = null;
+      mRecycledUpdateLayoutOperations = null;
+      mRecycledManageChildrenOperations = null;
+      mOperations = new ArrayList<>();
+    }
     mNativeViewHierarchyManager = nativeViewHierarchyManager;
     mAnimationRegistry = nativeViewHierarchyManager.getAnimationRegistry();
     mDispatchUIFrameCallback =
@@ -648,9 +797,21 @@ public class UIViewOperationQueue {
     perfMap.put("RunStartTime", mProfiledBatchRunStartTime);
     perfMap.put("BatchedExecutionTime", mProfiledBatchBatchedExecutionTime);
     perfMap.put("NonBatchedExecutionTime", mProfiledBatchNonBatchedExecutionTime);
+    perfMap.put("AllocationCount", mProfiledBatchAllocationCount);
+    perfMap.put("BatchedExecutionSliceCount", mProfiledBatchSliceCount);
     return perfMap;
   }
 
+  /**
+   * Caps how long the DISPATCH_UI frame callback spends running dispatched batches each frame.
+   * Operations that don't fit run in the following frames, before anything dispatched later, so a
+   * large batch can be visible half applied for a few frames instead of dropping them. 0, the
+   * default, runs every dispatched batch in one go.
+   */
+  public void setFrameBudgetMs(int frameBudgetMs) {
+    mFrameBudgetMs = frameBudgetMs;
+  }
+
   public boolean isEmpty() {
     return mOperations.isEmpty();
   }
@@ -735,7 +896,18 @@ public class UIViewOperationQueue {
   }
 
   public void enqueueUpdateProperties(int reactTag, String className, ReactStylesDiffMap props) {
-    mOperations.add(new UpdatePropertiesOperation(reactTag, props));
+    UpdatePropertiesOperation operation = null;
+    if (mUsePooledOperations) {
+      operation = mRecycledUpdatePropertiesOperations.poll();
+    }
+    if (operation == null) {
+      operation = new UpdatePropertiesOperation(reactTag, props);
+    } else {
+      mCurrentBatchRecycledOperationCount++;
+      operation.mTag = reactTag;
+      operation.mProps = props;
+    }
+    mOperations.add(operation);
   }
 
   public void enqueueOnLayoutEvent(
@@ -755,8 +927,17 @@ public class UIViewOperationQueue {
       int y,
       int width,
       int height) {
-    mOperations.add(
-        new UpdateLayoutOperation(parentTag, reactTag, x, y, width, height));
+    UpdateLayoutOperation operation = null;
+    if (mUsePooledOperations) {
+      operation = mRecycledUpdateLayoutOperations.poll();
+    }
+    if (operation == null) {
+      operation = new UpdateLayoutOperation(parentTag, reactTag, x, y, width, height);
+    } else {
+      mCurrentBatchRecycledOperationCount++;
+      operation.init(parentTag, reactTag, x, y, width, height);
+    }
+    mOperations.add(operation);
   }
 
   public void enqueueManageChildren(
@@ -764,8 +945,20 @@ public class UIViewOperationQueue {
       @Nullable int[] indicesToRemove,
       @Nullable ViewAtIndex[] viewsToAdd,
       @Nullable int[] tagsToDelete) {
-    mOperations.add(
-        new ManageChildrenOperation(reactTag, indicesToRemove, viewsToAdd, tagsToDelete));
+    ManageChildrenOperation operation = null;
+    if (mUsePooledOperations) {
+      operation = mRecycledManageChildrenOperations.poll();
+    }
+    if (operation == null) {
+      operation = new ManageChildrenOperation(reactTag, indicesToRemove, viewsToAdd, tagsToDelete);
+    } else {
+      mCurrentBatchRecycledOperationCount++;
+      operation.mTag = reactTag;
+      operation.mIndicesToRemove = indicesToRemove;
+      operation.mViewsToAdd = viewsToAdd;
+      operation.mTagsToDelete = tagsToDelete;
+    }
+    mOperations.add(operation);
   }
 
   public void enqueueSetChildren(
@@ -847,6 +1040,11 @@ public class UIViewOperationQueue {
     try {
       final long dispatchViewUpdatesTime = SystemClock.uptimeMillis();
 
+      if (mUsePooledOperations) {
+        dispatchPooledViewUpdates(batchId, commitStartTime, layoutTime, dispatchViewUpdatesTime);
+        return;
+      }
+
       // Store the current operation queues to dispatch and create new empty ones to continue
       // receiving new operations
       final ArrayList<UIOperation> batchedOperations;
@@ -871,72 +1069,18 @@ public class UIViewOperationQueue {
         mViewHierarchyUpdateDebugListener.onViewHierarchyUpdateEnqueued();
       }
 
-      Runnable runOperations =
-          new Runnable() {
-            @Override
-            public void run() {
-              SystraceMessage.beginSection(Systrace.TRACE_TAG_REACT_JAVA_BRIDGE, "DispatchUI")
-                  .arg("BatchId", batchId)
-                  .flush();
-              try {
-                long runStartTime = SystemClock.uptimeMillis();
-
-                // All nonBatchedOperations should be executed before regular operations as
-                // regular operations may depend on them
-                if (nonBatchedOperations != null) {
-                  for (UIOperation op : nonBatchedOperations) {
-                    op.execute();
-                  }
-                }
-
-                if (batchedOperations != null) {
-                  for (UIOperation op : batchedOperations) {
-                    op.execute();
-                  }
-                }
-
-                if (mIsProfilingNextBatch && mProfiledBatchCommitStartTime == 0) {
-                  mProfiledBatchCommitStartTime = commitStartTime;
-                  mProfiledBatchLayoutTime = layoutTime;
-                  mProfiledBatchDispatchViewUpdatesTime = dispatchViewUpdatesTime;
-                  mProfiledBatchRunStartTime = runStartTime;
-
-                  Systrace.beginAsyncSection(
-                      Systrace.TRACE_TAG_REACT_JAVA_BRIDGE,
-                      "delayBeforeDispatchViewUpdates",
-                      0,
-                      mProfiledBatchCommitStartTime * 1000000);
-                  Systrace.endAsyncSection(
-                      Systrace.TRACE_TAG_REACT_JAVA_BRIDGE,
-                      "delayBeforeDispatchViewUpdates",
-                      0,
-                      mProfiledBatchDispatchViewUpdatesTime * 1000000);
-                  Systrace.beginAsyncSection(
-                      Systrace.TRACE_TAG_REACT_JAVA_BRIDGE,
-                      "delayBeforeBatchRunStart",
-                      0,
-                      mProfiledBatchDispatchViewUpdatesTime * 1000000);
-                  Systrace.endAsyncSection(
-                      Systrace.TRACE_TAG_REACT_JAVA_BRIDGE,
-                      "delayBeforeBatchRunStart",
-                      0,
-                      mProfiledBatchRunStartTime * 1000000);
-                }
-
-                // Clear layout animation, as animation only apply to current UI operations batch.
-                mNativeViewHierarchyManager.clearLayoutAnimation();
-
-                if (mViewHierarchyUpdateDebugListener != null) {
-                  mViewHierarchyUpdateDebugListener.onViewHierarchyUpdateFinished();
-                }
-              } catch (Exception e) {
-                mIsInIllegalUIState = true;
-                throw e;
-              } finally {
-                Systrace.endSection(Systrace.TRACE_TAG_REACT_JAVA_BRIDGE);
-              }
-            }
-          };
+      OperationBatch batch = new OperationBatch(batchedOperations, nonBatchedOperations);
+      batch.mBatchId = batchId;
+      batch.mCommitStartTime = commitStartTime;
+      batch.mLayoutTime = layoutTime;
+      batch.mDispatchViewUpdatesTime = dispatchViewUpdatesTime;
+      // One per operation, plus the swapped out collections and the batch itself
+      batch.mAllocationCount =
+          1
+              + (batchedOperations != null ? batchedOperations.size() + 1 : 0)
+              + (nonBatchedOperations != null ? nonBatchedOperations.size() + 1 : 0);
+      Systrace.traceCounter(
+          Systrace.TRACE_TAG_REACT_JAVA_BRIDGE, "UIOperationAllocations", batch.mAllocationCount);
 
       SystraceMessage.beginSection(
         Systrace.TRACE_TAG_REACT_JAVA_BRIDGE,
@@ -945,26 +1089,76 @@ public class UIViewOperationQueue {
         .flush();
       synchronized (mDispatchRunnablesLock) {
         Systrace.endSection(Systrace.TRACE_TAG_REACT_JAVA_BRIDGE);
-        mDispatchUIRunnables.add(runOperations);
+        mDispatchUIBatches.add(batch);
       }
 
-      // In the case where the frame callback isn't enqueued, the UI isn't being displayed or is being
-      // destroyed. In this case it's no longer important to align to frames, but it is important to make
-      // sure any late-arriving UI commands are executed.
-      if (!mIsDispatchUIFrameCallbackEnqueued) {
-        UiThreadUtil.runOnUiThread(
-          new GuardedRunnable(mReactApplicationContext) {
-            @Override
-            public void runGuarded() {
-              flushPendingBatches();
-            }
-          });
-      }
+      flushOnUiThreadIfFrameCallbackPaused();
     } finally {
       Systrace.endSection(Systrace.TRACE_TAG_REACT_JAVA_BRIDGE);
     }
   }
 
+  private void dispatchPooledViewUpdates(
+      int batchId, long commitStartTime, long layoutTime, long dispatchViewUpdatesTime) {
+    // The ring buffers only allow one producer, see the class comment
+    mReactApplicationContext.assertOnNativeModulesQueueThread();
+    OperationBatch batch = mCurrentBatch;
+    synchronized (mNonBatchedOperationsLock) {
+      while (!mNonBatchedOperations.isEmpty()) {
+        batch.mNonBatchedOperations.addLast(mNonBatchedOperations.pollFirst());
+      }
+    }
+
+    batch.mBatchId = batchId;
+    batch.mCommitStartTime = commitStartTime;
+    batch.mLayoutTime = layoutTime;
+    batch.mDispatchViewUpdatesTime = dispatchViewUpdatesTime;
+
+    OperationBatch nextBatch = mRecycledBatches.poll();
+    if (nextBatch == null) {
+      nextBatch = new OperationBatch(new ArrayList<UIOperation>(), new ArrayDeque<UIOperation>());
+      mCurrentBatchAllocationCount++;
+    }
+    mCurrentBatch = nextBatch;
+    mOperations = nextBatch.mOperations;
+
+    int operationCount = batch.mOperations.size() + batch.mNonBatchedOperations.size();
+    batch.mAllocationCount =
+        mCurrentBatchAllocationCount + operationCount - mCurrentBatchRecycledOperationCount;
+    mCurrentBatchAllocationCount = 0;
+    mCurrentBatchRecycledOperationCount = 0;
+    Systrace.traceCounter(
+        Systrace.TRACE_TAG_REACT_JAVA_BRIDGE, "UIOperationAllocations", batch.mAllocationCount);
+
+    if (mViewHierarchyUpdateDebugListener != null) {
+      mViewHierarchyUpdateDebugListener.onViewHierarchyUpdateEnqueued();
+    }
+
+    if (mOverflowBatchCount.get() > 0 || !mPendingBatches.offer(batch)) {
+      synchronized (mDispatchRunnablesLock) {
+        mOverflowBatches.addLast(batch);
+        mOverflowBatchCount.incrementAndGet();
+      }
+    }
+
+    flushOnUiThreadIfFrameCallbackPaused();
+  }
+
+  private void flushOnUiThreadIfFrameCallbackPaused() {
+    // In the case where the frame callback isn't enqueued, the UI isn't being displayed or is being
+    // destroyed. In this case it's no longer important to align to frames, but it is important to make
+    // sure any late-arriving UI commands are executed.
+    if (!mIsDispatchUIFrameCallbackEnqueued) {
+      UiThreadUtil.runOnUiThread(
+        new GuardedRunnable(mReactApplicationContext) {
+          @Override
+          public void runGuarded() {
+            flushPendingBatches();
+          }
+        });
+    }
+  }
+
   /* package */ void resumeFrameCallback() {
     mIsDispatchUIFrameCallbackEnqueued = true;
     ReactChoreographer.getInstance()
@@ -979,6 +1173,16 @@ public class UIViewOperationQueue {
   }
 
   private void flushPendingBatches() {
+    // Without a frame callback nothing would resume a batch we cut short, so run everything
+    flushPendingBatches(Long.MAX_VALUE);
+  }
+
+  /**
+   * Runs dispatched batches in order until they are all done or {@code deadlineNanos} (in
+   * {@link System#nanoTime()} time) has passed. A batch that gets cut short is resumed by the next
+   * call, before any batch dispatched after it.
+   */
+  private void flushPendingBatches(long deadlineNanos) {
     if (mIsInIllegalUIState) {
       FLog.w(
         ReactConstants.TAG,
@@ -986,23 +1190,37 @@ public class UIViewOperationQueue {
       return;
     }
 
-    final ArrayList<Runnable> runnables;
-    synchronized (mDispatchRunnablesLock) {
-      if (!mDispatchUIRunnables.isEmpty()) {
-        runnables = mDispatchUIRunnables;
-        mDispatchUIRunnables = new ArrayList<>();
-      } else {
-        return;
+    takeDispatchedBatches();
+    if (mBatchesToRun.isEmpty()) {
+      return;
+    }
+
+    final long sliceStartTime = SystemClock.uptimeMillis();
+    if (mBatchedExecutionStartTime == 0) {
+      mBatchedExecutionStartTime = sliceStartTime;
+    }
+
+    while (!mBatchesToRun.isEmpty()) {
+      OperationBatch batch = mBatchesToRun.peekFirst();
+      if (!runBatch(batch, deadlineNanos)) {
+        break;
+      }
+      mBatchesToRun.pollFirst();
+      if (mUsePooledOperations) {
+        batch.reset();
+        // If the native modules thread already has enough spare batches this one is left to the GC
+        mRecycledBatches.offer(batch);
       }
     }
+    mBatchedExecutionTotalTime += SystemClock.uptimeMillis() - sliceStartTime;
 
-    final long batchedExecutionStartTime = SystemClock.uptimeMillis();
-    for (Runnable runnable : runnables) {
-      runnable.run();
+    if (!mBatchesToRun.isEmpty()) {
+      // Picked up by the next DISPATCH_UI frame callback
+      return;
     }
 
     if (mIsProfilingNextBatch) {
-      mProfiledBatchBatchedExecutionTime = SystemClock.uptimeMillis() - batchedExecutionStartTime;
+      mProfiledBatchBatchedExecutionTime = mBatchedExecutionTotalTime;
       mProfiledBatchNonBatchedExecutionTime = mNonBatchedExecutionTotalTime;
       mIsProfilingNextBatch = false;
 
@@ -1010,12 +1228,144 @@ public class UIViewOperationQueue {
           Systrace.TRACE_TAG_REACT_JAVA_BRIDGE,
           "batchedExecutionTime",
           0,
-          batchedExecutionStartTime * 1000000);
+          mBatchedExecutionStartTime * 1000000);
       Systrace.endAsyncSection(Systrace.TRACE_TAG_REACT_JAVA_BRIDGE, "batchedExecutionTime", 0);
     }
+    mBatchedExecutionStartTime = 0;
+    mBatchedExecutionTotalTime = 0;
     mNonBatchedExecutionTotalTime = 0;
   }
 
+  private void takeDispatchedBatches() {
+    if (!mUsePooledOperations) {
+      synchronized (mDispatchRunnablesLock) {
+        if (!mDispatchUIBatches.isEmpty()) {
+          mBatchesToRun.addAll(mDispatchUIBatches);
+          mDispatchUIBatches.clear();
+        }
+      }
+      return;
+    }
+
+    OperationBatch batch = mPendingBatches.poll();
+    while (batch != null) {
+      mBatchesToRun.addLast(batch);
+      batch = mPendingBatches.poll();
+    }
+
+    // Overflowed batches were all dispatched after the ones in the ring buffer
+    if (mOverflowBatchCount.get() > 0) {
+      synchronized (mDispatchRunnablesLock) {
+        while (!mOverflowBatches.isEmpty()) {
+          mBatchesToRun.addLast(mOverflowBatches.pollFirst());
+        }
+        mOverflowBatchCount.set(0);
+      }
+    }
+  }
+
+  /**
+   * Runs the rest of {@code batch}. Returns false if it stopped because {@code deadlineNanos}
+   * passed. At least one operation runs per call, so a batch makes progress however small the
+   * budget.
+   */
+  private boolean runBatch(OperationBatch batch, long deadlineNanos) {
+    SystraceMessage.beginSection(Systrace.TRACE_TAG_REACT_JAVA_BRIDGE, "DispatchUI")
+        .arg("BatchId", batch.mBatchId)
+        .flush();
+    try {
+      if (batch.mSliceCount == 0) {
+        batch.mRunStartTime = SystemClock.uptimeMillis();
+        Systrace.beginAsyncSection(
+            Systrace.TRACE_TAG_REACT_JAVA_BRIDGE, "runBatch", batch.mBatchId);
+      }
+      batch.mSliceCount++;
+
+      // All nonBatchedOperations should be executed before regular operations as
+      // regular operations may depend on them
+      ArrayDeque<UIOperation> nonBatchedOperations = batch.mNonBatchedOperations;
+      if (nonBatchedOperations != null) {
+        while (!nonBatchedOperations.isEmpty()) {
+          executeOperation(nonBatchedOperations.pollFirst());
+          if (isPastDeadline(deadlineNanos) && batch.hasRemainingOperations()) {
+            return false;
+          }
+        }
+      }
+
+      // Indexed loop, an iterator would be one more allocation per batch
+      ArrayList<UIOperation> operations = batch.mOperations;
+      if (operations != null) {
+        while (batch.mNextOperationIndex < operations.size()) {
+          executeOperation(operations.get(batch.mNextOperationIndex++));
+          if (isPastDeadline(deadlineNanos) && batch.hasRemainingOperations()) {
+            return false;
+          }
+        }
+      }
+
+      Systrace.endAsyncSection(Systrace.TRACE_TAG_REACT_JAVA_BRIDGE, "runBatch", batch.mBatchId);
+
+      if (mIsProfilingNextBatch && mProfiledBatchCommitStartTime == 0) {
+        recordProfiledBatch(batch);
+      }
+
+      // Clear layout animation, as animation only apply to current UI operations batch.
+      mNativeViewHierarchyManager.clearLayoutAnimation();
+
+      if (mViewHierarchyUpdateDebugListener != null) {
+        mViewHierarchyUpdateDebugListener.onViewHierarchyUpdateFinished();
+      }
+      return true;
+    } catch (Exception e) {
+      mIsInIllegalUIState = true;
+      throw e;
+    } finally {
+      Systrace.endSection(Systrace.TRACE_TAG_REACT_JAVA_BRIDGE);
+    }
+  }
+
+  private static boolean isPastDeadline(long deadlineNanos) {
+    return deadlineNanos != Long.MAX_VALUE && System.nanoTime() > deadlineNanos;
+  }
+
+  private void executeOperation(UIOperation operation) {
+    operation.execute();
+    if (mUsePooledOperations && operation instanceof RecyclableOperation) {
+      ((RecyclableOperation) operation).recycle();
+    }
+  }
+
+  private void recordProfiledBatch(OperationBatch batch) {
+    mProfiledBatchCommitStartTime = batch.mCommitStartTime;
+    mProfiledBatchLayoutTime = batch.mLayoutTime;
+    mProfiledBatchDispatchViewUpdatesTime = batch.mDispatchViewUpdatesTime;
+    mProfiledBatchRunStartTime = batch.mRunStartTime;
+    mProfiledBatchAllocationCount = batch.mAllocationCount;
+    mProfiledBatchSliceCount = batch.mSliceCount;
+
+    Systrace.beginAsyncSection(
+        Systrace.TRACE_TAG_REACT_JAVA_BRIDGE,
+        "delayBeforeDispatchViewUpdates",
+        0,
+        mProfiledBatchCommitStartTime * 1000000);
+    Systrace.endAsyncSection(
+        Systrace.TRACE_TAG_REACT_JAVA_BRIDGE,
+        "delayBeforeDispatchViewUpdates",
+        0,
+        mProfiledBatchDispatchViewUpdatesTime * 1000000);
+    Systrace.beginAsyncSection(
+        Systrace.TRACE_TAG_REACT_JAVA_BRIDGE,
+        "delayBeforeBatchRunStart",
+        0,
+        mProfiledBatchDispatchViewUpdatesTime * 1000000);
+    Systrace.endAsyncSection(
+        Systrace.TRACE_TAG_REACT_JAVA_BRIDGE,
+        "delayBeforeBatchRunStart",
+        0,
+        mProfiledBatchRunStartTime * 1000000);
+  }
+
   /**
    * Choreographer FrameCallback responsible for actually dispatching view updates on the UI thread
    * that were enqueued via {@link #dispatchViewUpdates(int)}. The reason we don't just enqueue
@@ -1051,14 +1401,21 @@ public class UIViewOperationQueue {
         return;
       }
 
-      Systrace.beginSection(Systrace.TRACE_TAG_REACT_JAVA_BRIDGE, "dispatchNonBatchedUIOperations");
-      try {
-        dispatchPendingNonBatchedOperations(frameTimeNanos);
-      } finally {
-        Systrace.endSection(Systrace.TRACE_TAG_REACT_JAVA_BRIDGE);
+      // A batch cut short by the frame budget finishes before we spend time on non-batched
+      // operations of later batches
+      if (mBatchesToRun.isEmpty()) {
+        Systrace.beginSection(
+            Systrace.TRACE_TAG_REACT_JAVA_BRIDGE, "dispatchNonBatchedUIOperations");
+        try {
+          dispatchPendingNonBatchedOperations(frameTimeNanos);
+        } finally {
+          Systrace.endSection(Systrace.TRACE_TAG_REACT_JAVA_BRIDGE);
+        }
       }
 
-      flushPendingBatches();
+      int frameBudgetMs = mFrameBudgetMs;
+      flushPendingBatches(
+          frameBudgetMs > 0 ? System.nanoTime() + frameBudgetMs * 1000000L : Long.MAX_VALUE);
 
       ReactChoreographer.getInstance().postFrameCallback(
         ReactChoreographer.CallbackType.DISPATCH_UI, this);
@@ -25,6 +25,12 @@ public abstract class Event<T extends Event> {
   private long mTimestampMs;
   private int mUniqueID = sUniqueID++;
 
+  // Next event in EventDispatcher's staging list, only set while the event is staged
+  /*package*/ Event mNextStagedEvent;
+  // Set from dispatch until the event leaves the staging list, staging it twice would link it into
+  // a cycle
+  /*package*/ volatile boolean mIsStaged;
+
   protected Event() {
   }
 
@@ -7,7 +7,6 @@
 
 package com.facebook.react.uimanager.events;
 
-import android.util.LongSparseArray;
 import com.facebook.infer.annotation.Assertions;
 import com.facebook.react.bridge.LifecycleEventListener;
 import com.facebook.react.bridge.ReactApplicationContext;
@@ -19,9 +18,9 @@ import com.facebook.react.uimanager.common.UIManagerType;
 import com.facebook.systrace.Systrace;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Comparator;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import javax.annotation.Nullable;
 
 /**
@@ -55,40 +54,106 @@ import javax.annotation.Nullable;
  * VIEW_TAG_MASK =       0x00000000ffffffff
  * EVENT_TYPE_ID_MASK =  0x0000ffff00000000
  * COALESCING_KEY_MASK = 0xffff000000000000
+ *
+ * Each cookie maps to a single slot in the dispatch queue, so coalescing an event is a hash lookup
+ * and events reach JS in the order they were dispatched without any sorting. Dispatching an event
+ * pushes it onto a lock-free staging list, so any thread can dispatch events without contending on
+ * a lock.
  */
 public class EventDispatcher implements LifecycleEventListener {
 
-  private static final Comparator<Event> EVENT_COMPARATOR = new Comparator<Event>() {
-    @Override
-    public int compare(Event lhs, Event rhs) {
-      if (lhs == null && rhs == null) {
-        return 0;
+  /**
+   * Open-addressing map from event cookie to the index of the latest event with that cookie in
+   * mEventsToDispatch. Slots written before the last {@link #clear} count as empty, so clearing
+   * doesn't touch the arrays.
+   */
+  private static final class CoalescingSlots {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private long[] mCookies = new long[INITIAL_CAPACITY];
+    private int[] mIndices = new int[INITIAL_CAPACITY];
+    private int[] mGenerations = new int[INITIAL_CAPACITY];
+    private int mGeneration = 1;
+    private int mSize = 0;
+
+    /**
+     * @return the index stored for this cookie, or -1
+     */
+    int get(long cookie) {
+      int mask = mCookies.length - 1;
+      for (int slot = hash(cookie) & mask; ; slot = (slot + 1) & mask) {
+        if (mGenerations[slot] != mGeneration) {
+          return -1;
+        }
+        if (mCookies[slot] == cookie) {
+          return mIndices[slot];
+        }
       }
-      if (lhs == null) {
-        return -1;
+    }
+
+    void put(long cookie, int index) {
+      // Keep the load factor at or below 1/2 so probe sequences stay short
+      if ((mSize + 1) * 2 > mCookies.length) {
+        grow();
+      }
+      int mask = mCookies.length - 1;
+      for (int slot = hash(cookie) & mask; ; slot = (slot + 1) & mask) {
+        if (mGenerations[slot] != mGeneration) {
+          mGenerations[slot] = mGeneration;
+          mCookies[slot] = cookie;
+          mIndices[slot] = index;
+          mSize++;
+          return;
+        }
+        if (mCookies[slot] == cookie) {
+          mIndices[slot] = index;
+          return;
+        }
       }
-      if (rhs == null) {
-        return 1;
+    }
+
+    void clear() {
+      mSize = 0;
+      mGeneration++;
+      if (mGeneration == 0) {
+        // Wrapped around, stale slots could now look current
+        Arrays.fill(mGenerations, 0);
+        mGeneration = 1;
       }
+    }
 
-      long diff = lhs.getTimestampMs() - rhs.getTimestampMs();
-      if (diff == 0) {
-        return 0;
-      } else if (diff < 0) {
-        return -1;
-      } else {
-        return 1;
+    private void grow() {
+      long[] cookies = mCookies;
+      int[] indices = mIndices;
+      int[] generations = mGenerations;
+      int generation = mGeneration;
+
+      mCookies = new long[cookies.length * 2];
+      mIndices = new int[cookies.length * 2];
+      mGenerations = new int[cookies.length * 2];
+      mGeneration = 1;
+      mSize = 0;
+      for (int i = 0; i < cookies.length; i++) {
+        if (generations[i] == generation) {
+          put(cookies[i], indices[i]);
+        }
       }
     }
-  };
 
-  private final Object mEventsStagingLock = new Object();
+    private static int hash(long cookie) {
+      int h = (int) (cookie ^ (cookie >>> 32)) * 0x9E3779B9;
+      return h ^ (h >>> 16);
+    }
+  }
+
   private final Object mEventsToDispatchLock = new Object();
   private final ReactApplicationContext mReactContext;
-  private final LongSparseArray<Integer> mEventCookieToLastEventIdx = new LongSparseArray<>();
+  private final CoalescingSlots mEventCookieToLastEventIdx = new CoalescingSlots();
   private final Map<String, Short> mEventNameToEventId = MapBuilder.newHashMap();
   private final DispatchEventsRunnable mDispatchEventsRunnable = new DispatchEventsRunnable();
-  private final ArrayList<Event> mEventStaging = new ArrayList<>();
+  // Most recently dispatched event first, linked through Event#mNextStagedEvent
+  private final AtomicReference<Event> mStagedEventsHead = new AtomicReference<>();
   private final ArrayList<EventDispatcherListener> mListeners = new ArrayList<>();
   private final ScheduleDispatchFrameCallback mCurrentFrameCallback =
     new ScheduleDispatchFrameCallback();
@@ -99,6 +164,8 @@ public class EventDispatcher implements LifecycleEventListener {
   private volatile ReactEventEmitter mReactEventEmitter;
   private short mNextEventTypeId = 0;
   private volatile boolean mHasDispatchScheduled = false;
+  private volatile int mLastFrameCoalescedEventCount = 0;
+  private volatile int mLastDispatchDeliveredEventCount = 0;
 
   public EventDispatcher(ReactApplicationContext reactContext) {
     mReactContext = reactContext;
@@ -111,18 +178,22 @@ public class EventDispatcher implements LifecycleEventListener {
    */
   public void dispatchEvent(Event event) {
     Assertions.assertCondition(event.isInitialized(), "Dispatched event hasn't been initialized");
+    Assertions.assertCondition(!event.mIsStaged, "Dispatched event is already staged");
+    event.mIsStaged = true;
 
-    for (EventDispatcherListener listener : mListeners) {
-      listener.onEventDispatch(event);
-    }
-    
-    synchronized (mEventsStagingLock) {
-      mEventStaging.add(event);
-      Systrace.startAsyncFlow(
-          Systrace.TRACE_TAG_REACT_JAVA_BRIDGE,
-          event.getEventName(),
-          event.getUniqueID());
+    for (int i = 0; i < mListeners.size(); i++) {
+      mListeners.get(i).onEventDispatch(event);
     }
+
+    Systrace.startAsyncFlow(
+        Systrace.TRACE_TAG_REACT_JAVA_BRIDGE,
+        event.getEventName(),
+        event.getUniqueID());
+    Event head;
+    do {
+      head = mStagedEventsHead.get();
+      event.mNextStagedEvent = head;
+    } while (!mStagedEventsHead.compareAndSet(head, event));
     if (mReactEventEmitter != null) {
       // If the host activity is paused, the frame callback may not be currently
       // posted. Ensure that it is so that this event gets delivered promptly.
@@ -135,6 +206,20 @@ public class EventDispatcher implements LifecycleEventListener {
     }
   }
 
+  /**
+   * @return how many staged events were coalesced into others in the last frame
+   */
+  public int getLastFrameCoalescedEventCount() {
+    return mLastFrameCoalescedEventCount;
+  }
+
+  /**
+   * @return how many events the last dispatch to JS delivered
+   */
+  public int getLastDispatchDeliveredEventCount() {
+    return mLastDispatchDeliveredEventCount;
+  }
+
   /**
    * Add a listener to this EventDispatcher.
    */
@@ -185,51 +270,74 @@ public class EventDispatcher implements LifecycleEventListener {
    * frame and another from this frame during the next.
    */
   private void moveStagedEventsToDispatchQueue() {
-    synchronized (mEventsStagingLock) {
-      synchronized (mEventsToDispatchLock) {
-        for (int i = 0; i < mEventStaging.size(); i++) {
-          Event event = mEventStaging.get(i);
-
-          if (!event.canCoalesce()) {
-            addEventToEventsToDispatch(event);
-            continue;
-          }
+    Event stagedEvent = mStagedEventsHead.getAndSet(null);
+    if (stagedEvent == null) {
+      return;
+    }
 
-          long eventCookie = getEventCookie(
-              event.getViewTag(),
-              event.getEventName(),
-              event.getCoalescingKey());
+    // The staging list is newest first, reverse it to get the events back in dispatch order
+    Event orderedEvents = null;
+    while (stagedEvent != null) {
+      Event next = stagedEvent.mNextStagedEvent;
+      stagedEvent.mNextStagedEvent = orderedEvents;
+      orderedEvents = stagedEvent;
+      stagedEvent = next;
+    }
 
-          Event eventToAdd = null;
-          Event eventToDispose = null;
-          Integer lastEventIdx = mEventCookieToLastEventIdx.get(eventCookie);
+    int coalescedEventCount = 0;
+    synchronized (mEventsToDispatchLock) {
+      Event event = orderedEvents;
+      while (event != null) {
+        // Unlink first, a disposed event can be reused and dispatched again right away
+        Event nextEvent = event.mNextStagedEvent;
+        event.mNextStagedEvent = null;
+        event.mIsStaged = false;
+
+        if (!event.canCoalesce()) {
+          addEventToEventsToDispatch(event);
+          event = nextEvent;
+          continue;
+        }
 
-          if (lastEventIdx == null) {
-            eventToAdd = event;
+        long eventCookie = getEventCookie(
+            event.getViewTag(),
+            event.getEventName(),
+            event.getCoalescingKey());
+
+        Event eventToAdd = null;
+        Event eventToDispose = null;
+        int lastEventIdx = mEventCookieToLastEventIdx.get(eventCookie);
+
+        if (lastEventIdx == -1) {
+          eventToAdd = event;
+          mEventCookieToLastEventIdx.put(eventCookie, mEventsToDispatchSize);
+        } else {
+          Event lastEvent = mEventsToDispatch[lastEventIdx];
+          Event coalescedEvent = event.coalesce(lastEvent);
+          if (coalescedEvent != lastEvent) {
+            eventToAdd = coalescedEvent;
             mEventCookieToLastEventIdx.put(eventCookie, mEventsToDispatchSize);
+            eventToDispose = lastEvent;
+            mEventsToDispatch[lastEventIdx] = null;
           } else {
-            Event lastEvent = mEventsToDispatch[lastEventIdx];
-            Event coalescedEvent = event.coalesce(lastEvent);
-            if (coalescedEvent != lastEvent) {
-              eventToAdd = coalescedEvent;
-              mEventCookieToLastEventIdx.put(eventCookie, mEventsToDispatchSize);
-              eventToDispose = lastEvent;
-              mEventsToDispatch[lastEventIdx] = null;
-            } else {
-              eventToDispose = event;
-            }
+            eventToDispose = event;
           }
+        }
 
-          if (eventToAdd != null) {
-            addEventToEventsToDispatch(eventToAdd);
-          }
-          if (eventToDispose != null) {
-            eventToDispose.dispose();
-          }
+        if (eventToAdd != null) {
+          addEventToEventsToDispatch(eventToAdd);
+        }
+        if (eventToDispose != null) {
+          coalescedEventCount++;
+          eventToDispose.dispose();
         }
+        event = nextEvent;
       }
-      mEventStaging.clear();
     }
+
+    mLastFrameCoalescedEventCount = coalescedEventCount;
+    Systrace.traceCounter(
+        Systrace.TRACE_TAG_REACT_JAVA_BRIDGE, "EventsCoalesced", coalescedEventCount);
   }
 
   private long getEventCookie(int viewTag, String eventName, short coalescingKey) {
@@ -336,12 +444,10 @@ public class EventDispatcher implements LifecycleEventListener {
             mHasDispatchScheduledCount.getAndIncrement());
         mHasDispatchScheduled = false;
         Assertions.assertNotNull(mReactEventEmitter);
+        int deliveredEventCount = 0;
         synchronized (mEventsToDispatchLock) {
-          // We avoid allocating an array and iterator, and "sorting" if we don't need to.
-          // This occurs when the size of mEventsToDispatch is zero or one.
-          if (mEventsToDispatchSize > 1) {
-            Arrays.sort(mEventsToDispatch, 0, mEventsToDispatchSize, EVENT_COMPARATOR);
-          }
+          // Events are already in dispatch order, coalesced events take the slot of the newest
+          // event they replace
           for (int eventIdx = 0; eventIdx < mEventsToDispatchSize; eventIdx++) {
             Event event = mEventsToDispatch[eventIdx];
             // Event can be null if it has been coalesced into another event.
@@ -354,10 +460,14 @@ public class EventDispatcher implements LifecycleEventListener {
                 event.getUniqueID());
             event.dispatch(mReactEventEmitter);
             event.dispose();
+            deliveredEventCount++;
           }
           clearEventsToDispatch();
           mEventCookieToLastEventIdx.clear();
         }
+        mLastDispatchDeliveredEventCount = deliveredEventCount;
+        Systrace.traceCounter(
+            Systrace.TRACE_TAG_REACT_JAVA_BRIDGE, "EventsDelivered", deliveredEventCount);
       } finally {
         Systrace.endSection(Systrace.TRACE_TAG_REACT_JAVA_BRIDGE);
       }
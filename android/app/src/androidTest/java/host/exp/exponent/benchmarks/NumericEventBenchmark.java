@@ -0,0 +1,110 @@
+// Copyright 2015-present 650 Industries. All rights reserved.
+
+package host.exp.exponent.benchmarks;
+
+import android.os.Bundle;
+import android.os.SystemClock;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.soloader.SoLoader;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.unimodules.adapters.react.services.EventEmitterModule;
+import org.unimodules.core.NumericEventFrames;
+
+import static org.junit.Assert.assertEquals;
+
+/*
+ * Compares what emitting a three-axis sensor reading costs on the Java side with a Bundle per
+ * reading against the NumericEventFrames fast path, up to the point the payload is handed to the
+ * bridge. Not a pass/fail test: results are logged under the class's tag.
+ *
+ * adb shell am instrument -w -e class host.exp.exponent.benchmarks.NumericEventBenchmark \
+ *   host.exp.exponent.test/android.support.test.runner.AndroidJUnitRunner
+ */
+@RunWith(AndroidJUnit4.class)
+public class NumericEventBenchmark {
+
+  private static final String TAG = NumericEventBenchmark.class.getSimpleName();
+
+  private static final int WARM_UP_ITERATIONS = 2000;
+  private static final int ITERATIONS = 20000;
+
+  @BeforeClass
+  public static void beforeClass() {
+    SoLoader.init(InstrumentationRegistry.getTargetContext(), false);
+  }
+
+  @Test
+  public void singleReadingPerEvent() {
+    compare(1);
+  }
+
+  @Test
+  public void batchOfReadingsPerEvent() {
+    compare(16);
+  }
+
+  private void compare(int readingsPerEvent) {
+    runBundlePath(WARM_UP_ITERATIONS, readingsPerEvent);
+    runNumericPath(WARM_UP_ITERATIONS, readingsPerEvent, new NumericEventFrames(3));
+
+    long bundleStart = SystemClock.elapsedRealtimeNanos();
+    runBundlePath(ITERATIONS, readingsPerEvent);
+    long bundleNs = SystemClock.elapsedRealtimeNanos() - bundleStart;
+
+    long numericStart = SystemClock.elapsedRealtimeNanos();
+    runNumericPath(ITERATIONS, readingsPerEvent, new NumericEventFrames(3));
+    long numericNs = SystemClock.elapsedRealtimeNanos() - numericStart;
+
+    Log.i(TAG, String.format(
+        "%d reading(s) per event: Bundle %.2f us/event, numeric %.2f us/event (%.1fx)",
+        readingsPerEvent,
+        bundleNs / 1000.0 / ITERATIONS,
+        numericNs / 1000.0 / ITERATIONS,
+        (double) bundleNs / numericNs));
+  }
+
+  private static void runBundlePath(int iterations, int readingsPerEvent) {
+    for (int i = 0; i < iterations; i++) {
+      if (readingsPerEvent == 1) {
+        Arguments.fromBundle(createReading(i, 0));
+      } else {
+        Bundle[] readings = new Bundle[readingsPerEvent];
+        for (int j = 0; j < readingsPerEvent; j++) {
+          readings[j] = createReading(i, j);
+        }
+        Bundle event = new Bundle();
+        event.putParcelableArray("readings", readings);
+        Arguments.fromBundle(event);
+      }
+    }
+  }
+
+  private static void runNumericPath(int iterations, int readingsPerEvent, NumericEventFrames frames) {
+    for (int i = 0; i < iterations; i++) {
+      for (int j = 0; j < readingsPerEvent; j++) {
+        frames.put(i * 0.001).put(j * 0.002).put(9.81);
+      }
+      WritableArray array = EventEmitterModule.toWritableArray(frames);
+      if (i == 0) {
+        assertEquals(1 + 3 * readingsPerEvent, array.size());
+      }
+      frames.clear();
+    }
+  }
+
+  private static Bundle createReading(int i, int j) {
+    Bundle reading = new Bundle();
+    reading.putDouble("x", i * 0.001);
+    reading.putDouble("y", j * 0.002);
+    reading.putDouble("z", 9.81);
+    return reading;
+  }
+}
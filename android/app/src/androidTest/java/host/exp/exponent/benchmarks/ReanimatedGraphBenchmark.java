@@ -0,0 +1,172 @@
+// Copyright 2015-present 650 Industries. All rights reserved.
+
+package host.exp.exponent.benchmarks;
+
+import android.os.Debug;
+import android.os.SystemClock;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+
+import com.facebook.react.bridge.JavaOnlyArray;
+import com.facebook.react.bridge.JavaOnlyMap;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import versioned.host.exp.exponent.modules.api.reanimated.NodesManager;
+import versioned.host.exp.exponent.modules.api.reanimated.nodes.ValueNode;
+
+import static org.junit.Assert.assertEquals;
+
+/*
+ * Compares updating a graph of reanimated nodes by traversing it on every frame against updating
+ * it in the order compiled for the updated node, with values evaluated without boxing. Each graph
+ * has a driving value and chains of operators, conditions and sets ending in `always` nodes, which
+ * is the shape interpolations and gesture handlers compile to. Not a pass/fail test: results are
+ * logged under the class's tag.
+ *
+ * adb shell am instrument -w -e class host.exp.exponent.benchmarks.ReanimatedGraphBenchmark \
+ *   host.exp.exponent.test/android.support.test.runner.AndroidJUnitRunner
+ */
+@RunWith(AndroidJUnit4.class)
+public class ReanimatedGraphBenchmark {
+
+  private static final String TAG = ReanimatedGraphBenchmark.class.getSimpleName();
+
+  private static final int WARM_UP_FRAMES = 500;
+  private static final int FRAMES = 5000;
+
+  private static final int DRIVER_ID = 1;
+
+  @Test
+  public void smallGraph() {
+    compare(4, 3);
+  }
+
+  @Test
+  public void largeGraph() {
+    compare(32, 8);
+  }
+
+  private void compare(final int chains, final int depth) {
+    InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+      @Override
+      public void run() {
+        NodesManager traversed = createGraph(chains, depth);
+        NodesManager compiled = createGraph(chains, depth);
+        traversed.updateContext.useCompiledGraph = false;
+        compiled.updateContext.useCompiledGraph = true;
+
+        runFrames(traversed, WARM_UP_FRAMES);
+        runFrames(compiled, WARM_UP_FRAMES);
+
+        int traversedGcCount = gcCount();
+        long traversedStart = SystemClock.elapsedRealtimeNanos();
+        runFrames(traversed, FRAMES);
+        long traversedNs = SystemClock.elapsedRealtimeNanos() - traversedStart;
+        traversedGcCount = gcCount() - traversedGcCount;
+
+        int compiledGcCount = gcCount();
+        long compiledStart = SystemClock.elapsedRealtimeNanos();
+        runFrames(compiled, FRAMES);
+        long compiledNs = SystemClock.elapsedRealtimeNanos() - compiledStart;
+        compiledGcCount = gcCount() - compiledGcCount;
+
+        // Both engines must have computed the same values.
+        for (int i = 0; i < chains; i++) {
+          assertEquals(
+              traversed.getNodeValue(targetID(i, depth)),
+              compiled.getNodeValue(targetID(i, depth)));
+        }
+
+        Log.i(TAG, String.format(
+            "%d chain(s) of depth %d: traversal %.2f us/frame (%d GCs), compiled %.2f us/frame (%d GCs) (%.1fx)",
+            chains,
+            depth,
+            traversedNs / 1000.0 / FRAMES,
+            traversedGcCount,
+            compiledNs / 1000.0 / FRAMES,
+            compiledGcCount,
+            (double) traversedNs / compiledNs));
+      }
+    });
+  }
+
+  private static void runFrames(NodesManager nodesManager, int frames) {
+    ValueNode driver = nodesManager.findNodeById(DRIVER_ID, ValueNode.class);
+    for (int i = 0; i < frames; i++) {
+      driver.setValue(i * 0.01);
+      nodesManager.runUpdates();
+    }
+  }
+
+  // Number of garbage collections so far, needs API 23.
+  private static int gcCount() {
+    return Integer.parseInt(Debug.getRuntimeStat("art.gc.gc-count"));
+  }
+
+  /*
+   * For every chain: x = driver, then `depth` times x = sin(x * 0.5) or sin(x + 0.5), and finally
+   * target = cond(x > 0.5, x, 0.5 - x), set into a value node by a `set` node under an `always` node.
+   */
+  private static NodesManager createGraph(int chains, int depth) {
+    NodesManager nodesManager = new NodesManager();
+    nodesManager.createNode(DRIVER_ID, JavaOnlyMap.of("type", "value", "value", 0.));
+    int constantID = 2;
+    nodesManager.createNode(constantID, JavaOnlyMap.of("type", "value", "value", 0.5));
+
+    for (int i = 0; i < chains; i++) {
+      int previousID = DRIVER_ID;
+      for (int j = 0; j < depth; j++) {
+        int multiplyID = chainNodeID(i, depth, 2 * j);
+        int sinID = chainNodeID(i, depth, 2 * j + 1);
+        createOperator(nodesManager, multiplyID, j % 2 == 0 ? "multiply" : "add", previousID, constantID);
+        createOperator(nodesManager, sinID, "sin", multiplyID);
+        previousID = sinID;
+      }
+
+      int greaterThanID = chainNodeID(i, depth, 2 * depth);
+      int negatedID = chainNodeID(i, depth, 2 * depth + 1);
+      int condID = chainNodeID(i, depth, 2 * depth + 2);
+      int setID = chainNodeID(i, depth, 2 * depth + 3);
+      int alwaysID = chainNodeID(i, depth, 2 * depth + 4);
+      int targetID = targetID(i, depth);
+
+      createOperator(nodesManager, greaterThanID, "greaterThan", previousID, constantID);
+      createOperator(nodesManager, negatedID, "sub", constantID, previousID);
+      nodesManager.createNode(condID, JavaOnlyMap.of(
+          "type", "cond", "cond", greaterThanID, "ifBlock", previousID, "elseBlock", negatedID));
+      nodesManager.connectNodes(greaterThanID, condID);
+      nodesManager.connectNodes(previousID, condID);
+      nodesManager.connectNodes(negatedID, condID);
+
+      nodesManager.createNode(targetID, JavaOnlyMap.of("type", "value", "value", 0.));
+      nodesManager.createNode(setID, JavaOnlyMap.of("type", "set", "what", targetID, "value", condID));
+      nodesManager.connectNodes(condID, setID);
+      nodesManager.createNode(alwaysID, JavaOnlyMap.of("type", "always", "what", setID));
+      nodesManager.connectNodes(setID, alwaysID);
+    }
+    nodesManager.runUpdates();
+    return nodesManager;
+  }
+
+  private static void createOperator(NodesManager nodesManager, int nodeID, String op, int... inputIDs) {
+    JavaOnlyArray input = new JavaOnlyArray();
+    for (int inputID : inputIDs) {
+      input.pushInt(inputID);
+    }
+    nodesManager.createNode(nodeID, JavaOnlyMap.of("type", "op", "op", op, "input", input));
+    for (int inputID : inputIDs) {
+      nodesManager.connectNodes(inputID, nodeID);
+    }
+  }
+
+  private static int chainNodeID(int chain, int depth, int index) {
+    return 100 + chain * (2 * depth + 6) + index;
+  }
+
+  private static int targetID(int chain, int depth) {
+    return chainNodeID(chain, depth, 2 * depth + 5);
+  }
+}
@@ -1,5 +1,6 @@
 package host.exp.exponent;
 
+import org.apache.commons.codec.digest.DigestUtils;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -40,7 +41,7 @@ public class AppLoaderTests extends ExpoUnitTestBase {
     List<AppLoaderCallbackRecord> expectedCalls = new ArrayList<>();
     expectedCalls.add(new AppLoaderCallbackRecord("onOptimisticManifest", new MockManifest().isVerified(false).loadedFromCache(false).toString()));
     expectedCalls.add(new AppLoaderCallbackRecord("onManifestCompleted", new MockManifest().isVerified(false).loadedFromCache(false).toString()));
-    expectedCalls.add(new AppLoaderCallbackRecord("onBundleCompleted", new File("mockFsDirectory/27.0.0/cached-bundle-experience-%40esamelson%2Ftest-fetch-update478682697-27.0.0").getAbsolutePath()));
+    expectedCalls.add(new AppLoaderCallbackRecord("onBundleCompleted", new File("mockFsDirectory/bundles/" + DigestUtils.sha256Hex(new MockManifest().toString())).getAbsolutePath()));
     AppLoaderResults.assertEquals(expectedCalls, appLoaderResults);
   }
 }
@@ -5,6 +5,8 @@ package host.exp.exponent;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.util.concurrent.atomic.AtomicReference;
+
 import javax.inject.Inject;
 
 import host.exp.exponent.analytics.Analytics;
@@ -37,6 +39,8 @@ public abstract class AppLoader {
   private boolean hasResolved = false;
   private final boolean mUseCacheOnly;
   private Runnable mRunnable;
+  // Set from the manifest callback, taken from the timer or the remote manifest callback
+  private final AtomicReference<SpeculativeBundleFetch> mSpeculativeBundleFetch = new AtomicReference<>();
 
   private static final int DEFAULT_TIMEOUT_LENGTH = 30000;
   private static final int DEFAULT_TIMEOUT_LENGTH_BEFORE_SDK26 = 0;
@@ -115,8 +119,7 @@ public abstract class AppLoader {
           }
 
           // if previous run of this app failed due to a loading error, set shouldCheckForUpdate to true regardless
-          JSONObject experienceMetadata = mExponentSharedPreferences.getExperienceMetadata(experienceId);
-          if (experienceMetadata != null && experienceMetadata.optBoolean(ExponentSharedPreferences.EXPERIENCE_METADATA_LOADING_ERROR)) {
+          if (mExponentSharedPreferences.isExperienceLoadingError(experienceId)) {
             shouldCheckForUpdate = true;
           }
         } catch (JSONException e) {
@@ -142,6 +145,10 @@ public abstract class AppLoader {
         }
 
         if (shouldCheckForUpdate) {
+          // Get the cached manifest's bundle ready and the public key downloaded while the new
+          // manifest is in flight. Most of the time the new manifest points at the same bundle.
+          mExponentManifest.prefetchManifestPublicKey(mManifestUrl);
+          startSpeculativeBundleFetch(mCachedManifest);
           startTimerAndFetchRemoteManifest(fallbackToCacheTimeout);
         } else {
           resolve();
@@ -241,8 +248,10 @@ public abstract class AppLoader {
 
       Analytics.markEvent(Analytics.TimedEvent.FINISHED_FETCHING_MANIFEST);
 
-      mExponentSharedPreferences.updateManifest(mManifestUrl, mManifest, bundleUrl);
-      ExponentDB.saveExperience(mManifestUrl, mManifest, bundleUrl);
+      // ExponentDB keeps its own copy of the manifest for notifications, only rewrite it if it changed
+      if (mExponentSharedPreferences.updateManifest(mManifestUrl, mManifest, bundleUrl)) {
+        ExponentDB.saveExperience(mManifestUrl, mManifest, bundleUrl);
+      }
 
       onManifestCompleted(mManifest);
       // prevent a weird race condition in dev mode by checking here
@@ -279,14 +288,10 @@ public abstract class AppLoader {
     }
 
     try {
-      String oldBundleUrl = null;
-      try {
-        JSONObject oldManifest = mExponentSharedPreferences.getManifest(mManifestUrl).manifest;
-        oldBundleUrl = oldManifest.getString(ExponentManifest.MANIFEST_BUNDLE_URL_KEY);
-      } catch (Throwable e) {
+      final String finalOldBundleUrl = mExponentSharedPreferences.getManifestBundleUrl(mManifestUrl);
+      if (finalOldBundleUrl == null) {
         EXL.e(TAG, "Couldn't get old manifest from shared preferences");
       }
-      final String finalOldBundleUrl = oldBundleUrl;
 
       try {
         String bundleUrl = mManifest.getString(ExponentManifest.MANIFEST_BUNDLE_URL_KEY);
@@ -296,7 +301,7 @@ public abstract class AppLoader {
 
         final JSONObject finalManifest = mManifest;
 
-        Exponent.getInstance().loadJSBundle(mManifest, bundleUrl, Exponent.getInstance().encodeExperienceId(id), sdkVersion, new Exponent.BundleListener() {
+        Exponent.BundleListener bundleListener = new Exponent.BundleListener() {
           @Override
           public void onError(Exception e) {
             // if we fail to get a cached bundle, try to download it over the network as a last resort before failing
@@ -343,6 +348,37 @@ public abstract class AppLoader {
             }
             resolve();
           }
+        };
+
+        // The speculative fetch used the default cache behavior, so it's only equivalent to this
+        // fetch if we'd force neither the network nor the cache here. Forcing the cache is what
+        // the fallback to cache timeout does, which must not wait for a download, so the
+        // speculative fetch is left for the fetch that follows once the remote manifest arrives.
+        SpeculativeBundleFetch speculativeBundleFetch = forceCache ? null : mSpeculativeBundleFetch.getAndSet(null);
+        if (speculativeBundleFetch != null) {
+          if (speculativeBundleFetch.matches(bundleUrl, sdkVersion) && !wasUpdated
+              && speculativeBundleFetch.commit(bundleListener)) {
+            return;
+          }
+          speculativeBundleFetch.cancel();
+        }
+
+        Exponent.getInstance().loadJSBundle(mManifest, bundleUrl, Exponent.getInstance().encodeExperienceId(id), sdkVersion, bundleListener, new Exponent.BundleProgressListener() {
+          @Override
+          public void onBundleProgress(long bytesWritten, long totalBytes) {
+            // only background updates are surfaced to JS, the initial load has the loading screen
+            if (hasResolved) {
+              JSONObject params = new JSONObject();
+              try {
+                params.put("type", UPDATE_DOWNLOAD_PROGRESS_EVENT);
+                params.put("done", bytesWritten);
+                params.put("total", totalBytes);
+                emitEvent(params);
+              } catch (Exception e) {
+                EXL.e(TAG, e);
+              }
+            }
+          }
           // forceNetwork fetch the bundle depending on whether or not the bundleUrl has changed
           // since the last version we have cached
         }, wasUpdated, forceCache);
@@ -360,4 +396,117 @@ public abstract class AppLoader {
       resolve(e);
     }
   }
+
+  private void startSpeculativeBundleFetch(final JSONObject cachedManifest) {
+    if (ExponentManifest.isDebugModeEnabled(cachedManifest)) {
+      return;
+    }
+
+    try {
+      String bundleUrl = cachedManifest.getString(ExponentManifest.MANIFEST_BUNDLE_URL_KEY);
+      String id = cachedManifest.getString(ExponentManifest.MANIFEST_ID_KEY);
+      String sdkVersion = cachedManifest.getString(ExponentManifest.MANIFEST_SDK_VERSION_KEY);
+
+      SpeculativeBundleFetch speculativeBundleFetch = new SpeculativeBundleFetch(bundleUrl, sdkVersion);
+      mSpeculativeBundleFetch.set(speculativeBundleFetch);
+      Exponent.getInstance().loadJSBundle(cachedManifest, bundleUrl, Exponent.getInstance().encodeExperienceId(id), sdkVersion,
+          speculativeBundleFetch, speculativeBundleFetch, false, false, speculativeBundleFetch);
+    } catch (Exception e) {
+      // We'll just fetch the bundle once the manifest has been verified
+      EXL.e(TAG, "Couldn't start speculative bundle fetch: " + e.toString());
+      mSpeculativeBundleFetch.set(null);
+    }
+  }
+
+  /*
+   * Bundle fetch started from the cached manifest while the remote manifest is still being fetched
+   * and verified. Once we know which bundle the verified manifest wants, the fetch is either
+   * committed, handing its result to the real listener, or cancelled, aborting its requests and
+   * dropping its result. Its requests are tagged with the fetch itself.
+   */
+  private static class SpeculativeBundleFetch implements Exponent.BundleListener, Exponent.BundleProgressListener {
+    private final String mBundleUrl;
+    private final String mSdkVersion;
+
+    private boolean mIsDone = false;
+    private boolean mIsCancelled = false;
+    private String mLocalBundlePath;
+    private Exponent.BundleListener mCommittedListener;
+
+    SpeculativeBundleFetch(final String bundleUrl, final String sdkVersion) {
+      mBundleUrl = bundleUrl;
+      mSdkVersion = sdkVersion;
+    }
+
+    boolean matches(final String bundleUrl, final String sdkVersion) {
+      return mBundleUrl.equals(bundleUrl) && mSdkVersion.equals(sdkVersion);
+    }
+
+    // Returns false if the fetch already failed, in which case the caller should fetch the bundle itself.
+    boolean commit(final Exponent.BundleListener listener) {
+      String localBundlePath;
+      synchronized (this) {
+        if (!mIsDone) {
+          mCommittedListener = listener;
+          return true;
+        }
+        if (mLocalBundlePath == null) {
+          return false;
+        }
+        localBundlePath = mLocalBundlePath;
+      }
+
+      listener.onBundleLoaded(localBundlePath);
+      return true;
+    }
+
+    void cancel() {
+      synchronized (this) {
+        if (mIsCancelled || mIsDone) {
+          return;
+        }
+        mIsCancelled = true;
+      }
+      Exponent.getInstance().cancelJSBundleFetch(this);
+    }
+
+    @Override
+    public void onBundleProgress(long bytesWritten, long totalBytes) {
+      // The network request may have started after `cancel`, e.g. after a cache miss
+      boolean isCancelled;
+      synchronized (this) {
+        isCancelled = mIsCancelled;
+      }
+      if (isCancelled) {
+        Exponent.getInstance().cancelJSBundleFetch(this);
+      }
+    }
+
+    @Override
+    public void onBundleLoaded(String localBundlePath) {
+      Exponent.BundleListener listener;
+      synchronized (this) {
+        mIsDone = true;
+        mLocalBundlePath = localBundlePath;
+        listener = mIsCancelled ? null : mCommittedListener;
+      }
+
+      if (listener != null) {
+        listener.onBundleLoaded(localBundlePath);
+      }
+    }
+
+    @Override
+    public void onError(Exception e) {
+      Exponent.BundleListener listener;
+      synchronized (this) {
+        mIsDone = true;
+        listener = mIsCancelled ? null : mCommittedListener;
+      }
+
+      if (listener != null) {
+        listener.onError(e);
+      }
+    }
+  }
 }
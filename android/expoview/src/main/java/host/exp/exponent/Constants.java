@@ -53,6 +53,8 @@ public class Constants {
   public static int ANDROID_VERSION_CODE;
   public static boolean FCM_ENABLED;
   public static boolean ANALYTICS_ENABLED;
+  // Serve AsyncStorage reads from memory and batch writes, see AsyncStorageCache
+  public static boolean ASYNC_STORAGE_CACHE_ENABLED = false;
 
   public static void setSdkVersions(List<String> sdkVersions) {
     ABI_VERSIONS = TextUtils.join(",", sdkVersions);
@@ -134,6 +134,7 @@ public class ExponentManifest {
   private static final String ANONYMOUS_EXPERIENCE_PREFIX = "@anonymous/";
   private static final String EMBEDDED_KERNEL_MANIFEST_ASSET = "kernel-manifest.json";
   private static final String EXPONENT_SERVER_HEADER = "Exponent-Server";
+  private static final String MANIFEST_PUBLIC_KEY_PATH = "/--/manifest-public-key";
 
   private static boolean hasShownKernelManifestLog = false;
 
@@ -250,6 +251,17 @@ public class ExponentManifest {
     });
   }
 
+  // Start downloading the key used to verify signed manifests so that verifying a manifest we're
+  // about to fetch doesn't have to wait on a second request.
+  public void prefetchManifestPublicKey(final String manifestUrl) {
+    if (manifestUrl.equals(Constants.INITIAL_URL)) {
+      // The main shell app experience is automatically verified
+      return;
+    }
+
+    mCrypto.prefetchPublicKey(Constants.API_HOST + MANIFEST_PUBLIC_KEY_PATH);
+  }
+
   // Returns false if manifestUrl should not be cached. May call listener.onError.
   // Otherwise, returns true and calls one of the callbacks on listener.
   public boolean fetchCachedManifest(final String manifestUrl, final ManifestListener listener) {
@@ -464,7 +476,7 @@ public class ExponentManifest {
         fetchManifestStep3(manifestUrl, manifest, true, listener);
       } else {
         final JSONObject finalManifest = manifest;
-        mCrypto.verifyPublicRSASignature(Constants.API_HOST + "/--/manifest-public-key",
+        mCrypto.verifyPublicRSASignature(Constants.API_HOST + MANIFEST_PUBLIC_KEY_PATH,
             outerManifest.getString(MANIFEST_STRING_KEY), outerManifest.getString(MANIFEST_SIGNATURE_KEY), new Crypto.RSASignatureListener() {
               @Override
               public void onError(String errorMessage, boolean isNetworkError) {
@@ -2,12 +2,16 @@
 
 package host.exp.exponent;
 
-import android.util.Log;
-
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import host.exp.exponent.analytics.EXL;
 
@@ -18,6 +22,29 @@ public class RNObject {
 
   public static final String UNVERSIONED = "UNVERSIONED";
 
+  // Classes and no-arg methods that ReactNativeActivity and ExperienceActivity go through while
+  // starting an experience. Classes that don't exist in a given ABI are skipped.
+  private static final String[][] STARTUP_CALL_SITES = new String[][] {
+      { "host.exp.exponent.VersionedUtils" },
+      { "host.exp.exponent.ReactUnthemedRootView", "getChildCount" },
+      { "host.exp.exponent.ExponentDevBundleDownloadListener" },
+      { "com.facebook.react.ReactInstanceManagerBuilder", "build" },
+      { "com.facebook.react.ReactInstanceManager", "getDevSupportManager", "getCurrentReactContext" },
+      { "com.facebook.react.devsupport.DevSupportManagerImpl", "getDevSettings", "getDevSupportEnabled" },
+      { "com.facebook.react.devsupport.DevInternalSettings", "isRemoteJSDebugEnabled" },
+      { "com.facebook.react.devsupport.DevLoadingViewController" },
+      { "com.facebook.react.modules.core.DeviceEventManagerModule$RCTDeviceEventEmitter" },
+  };
+
+  private static final Object NOT_FOUND = new Object();
+
+  // Shared by every RNObject in the process. Keys are versioned classes and class names, so each
+  // ABI gets its own entries.
+  private static final Map<String, Class> sClasses = new ConcurrentHashMap<>();
+  private static final Map<Class, ClassMembers> sClassMembers = new ConcurrentHashMap<>();
+  // Resolved Method, Constructor or Field, or NOT_FOUND
+  private static final Map<MemberKey, Object> sMembers = new ConcurrentHashMap<>();
+
   private final String mClassName; // Unversioned
   private Class mClazz; // Versioned
   private Object mInstance; // Versioned
@@ -50,15 +77,7 @@ public class RNObject {
 
   public RNObject loadVersion(String version) {
     try {
-      if (version.equals(UNVERSIONED)) {
-        if (mClassName.startsWith("host.exp.exponent")) {
-          mClazz = Class.forName("versioned." + mClassName);
-        } else {
-          mClazz = Class.forName(mClassName);
-        }
-      } else {
-        mClazz = Class.forName("abi" + version.replace('.', '_') + '.' + mClassName);
-      }
+      mClazz = loadClass(versionedClassName(mClassName, version));
     } catch (ClassNotFoundException e) {
       EXL.e(TAG, e);
     }
@@ -66,6 +85,50 @@ public class RNObject {
     return this;
   }
 
+  // Loads the startup classes for an SDK version and resolves their members on a background thread
+  // so the first calls from the UI thread are cache hits.
+  public static void warmUp(final String version) {
+    new Thread(new Runnable() {
+      @Override
+      public void run() {
+        for (String[] callSite : STARTUP_CALL_SITES) {
+          try {
+            Class clazz = loadClass(versionedClassName(callSite[0], version));
+            getClassMembers(clazz);
+            for (int i = 1; i < callSite.length; i++) {
+              getMethodWithTypes(clazz, callSite[i]);
+            }
+          } catch (ClassNotFoundException | NoSuchMethodException e) {
+            // Not every ABI has every class
+          } catch (Throwable e) {
+            EXL.e(TAG, "Couldn't warm up " + callSite[0] + ": " + e.toString());
+          }
+        }
+      }
+    }, "RNObject warm up").start();
+  }
+
+  private static String versionedClassName(String className, String version) {
+    if (version.equals(UNVERSIONED)) {
+      if (className.startsWith("host.exp.exponent")) {
+        return "versioned." + className;
+      } else {
+        return className;
+      }
+    } else {
+      return "abi" + version.replace('.', '_') + '.' + className;
+    }
+  }
+
+  private static Class loadClass(String versionedClassName) throws ClassNotFoundException {
+    Class clazz = sClasses.get(versionedClassName);
+    if (clazz == null) {
+      clazz = Class.forName(versionedClassName);
+      sClasses.put(versionedClassName, clazz);
+    }
+    return clazz;
+  }
+
   public void assign(Object object) {
     if (object != null) {
       mClazz = object.getClass();
@@ -182,113 +245,180 @@ public class RNObject {
   }
 
   // Allow types that are too specific so that we don't have to specify exact classes
-  private Method getMethodWithTypes(Class clazz, String name, Class... types) throws NoSuchMethodException {
-    Method[] methods = clazz.getMethods();
-    for (int i = 0; i < methods.length; i++) {
-      Method method = methods[i];
-      if (!method.getName().equals(name)) {
-        continue;
-      }
+  private static Method getMethodWithTypes(Class clazz, String name, Class... types) throws NoSuchMethodException {
+    MemberKey key = new MemberKey(clazz, name, types);
+    Object method = sMembers.get(key);
+    if (method == null) {
+      method = findMember(getClassMembers(clazz).methods.get(name), types);
+      sMembers.put(key, method);
+    }
 
-      Class[] currentMethodTypes = method.getParameterTypes();
-      if (currentMethodTypes.length != types.length) {
-        continue;
-      }
+    if (method == NOT_FOUND) {
+      throw new NoSuchMethodException();
+    }
+    return (Method) method;
+  }
 
-      boolean isValid = true;
-      for (int j = 0; j < currentMethodTypes.length; j++) {
-        if (!isAssignableFrom(currentMethodTypes[j], types[j])) {
-          isValid = false;
-          break;
-        }
-      }
+  private static Field getFieldWithType(Class clazz, String name, Class type) throws NoSuchFieldException {
+    MemberKey key = new MemberKey(clazz, name, type);
+    Object field = sMembers.get(key);
+    if (field == null) {
+      field = findMember(getClassMembers(clazz).fields.get(name), type);
+      sMembers.put(key, field);
+    }
 
-      if (!isValid) {
-        continue;
-      }
+    if (field == NOT_FOUND) {
+      throw new NoSuchFieldException();
+    }
+    return (Field) field;
+  }
 
-      return method;
+  // Allow types that are too specific so that we don't have to specify exact classes
+  private static Constructor getConstructorWithTypes(Class clazz, Class... types) throws NoSuchMethodException {
+    MemberKey key = new MemberKey(clazz, null, types);
+    Object constructor = sMembers.get(key);
+    if (constructor == null) {
+      constructor = findMember(getClassMembers(clazz).constructors, types);
+      sMembers.put(key, constructor);
     }
 
-    throw new NoSuchMethodException();
+    if (constructor == NOT_FOUND) {
+      throw new NoSuchMethodError();
+    }
+    return (Constructor) constructor;
   }
 
-  private Field getFieldWithType(Class clazz, String name, Class type) throws NoSuchFieldException {
-    Field[] fields = clazz.getFields();
-    for (int i = 0; i < fields.length; i++) {
-      Field field = fields[i];
-      if (!field.getName().equals(name)) {
-        continue;
+  // First candidate, in reflection order, whose parameters accept the given types
+  private static Object findMember(List<MemberCandidate> candidates, Class... types) {
+    if (candidates == null) {
+      return NOT_FOUND;
+    }
+
+    for (MemberCandidate candidate : candidates) {
+      if (candidate.accepts(types)) {
+        return candidate.member;
       }
+    }
+    return NOT_FOUND;
+  }
+
+  private static ClassMembers getClassMembers(Class clazz) {
+    ClassMembers members = sClassMembers.get(clazz);
+    if (members == null) {
+      members = new ClassMembers(clazz);
+      sClassMembers.put(clazz, members);
+    }
+    return members;
+  }
 
-      Class currentFieldType = field.getType();
+  // Public members of one versioned class, grouped by name
+  private static class ClassMembers {
+    final Map<String, List<MemberCandidate>> methods = new HashMap<>();
+    final Map<String, List<MemberCandidate>> fields = new HashMap<>();
+    final List<MemberCandidate> constructors = new ArrayList<>();
 
-      if (isAssignableFrom(currentFieldType, type)) {
-        return field;
+    ClassMembers(Class clazz) {
+      for (Method method : clazz.getMethods()) {
+        add(methods, method.getName(), new MemberCandidate(method, method.getParameterTypes()));
+      }
+      for (Field field : clazz.getFields()) {
+        add(fields, field.getName(), new MemberCandidate(field, new Class[] { field.getType() }));
+      }
+      for (Constructor constructor : clazz.getConstructors()) {
+        constructors.add(new MemberCandidate(constructor, constructor.getParameterTypes()));
       }
     }
 
-    throw new NoSuchFieldException();
+    private static void add(Map<String, List<MemberCandidate>> map, String name, MemberCandidate candidate) {
+      List<MemberCandidate> candidates = map.get(name);
+      if (candidates == null) {
+        candidates = new ArrayList<>();
+        map.put(name, candidates);
+      }
+      candidates.add(candidate);
+    }
   }
 
-  // Allow types that are too specific so that we don't have to specify exact classes
-  private Constructor getConstructorWithTypes(Class clazz, Class... types) throws NoSuchMethodException {
-    Constructor[] constructors = clazz.getConstructors();
-    for (int i = 0; i < constructors.length; i++) {
-      Constructor constructor = constructors[i];
-      Class[] currentConstructorTypes = constructor.getParameterTypes();
-      if (currentConstructorTypes.length != types.length) {
-        continue;
-      }
+  private static class MemberCandidate {
+    final Object member;
+    // Primitive parameters are replaced by their boxed types, since arguments always arrive boxed
+    final Class[] boxedParameterTypes;
 
-      boolean isValid = true;
-      for (int j = 0; j < currentConstructorTypes.length; j++) {
-        if (!isAssignableFrom(currentConstructorTypes[j], types[j])) {
-          isValid = false;
-          break;
-        }
+    MemberCandidate(Object member, Class[] parameterTypes) {
+      this.member = member;
+      boxedParameterTypes = new Class[parameterTypes.length];
+      for (int i = 0; i < parameterTypes.length; i++) {
+        boxedParameterTypes[i] = box(parameterTypes[i]);
       }
+    }
 
-      if (!isValid) {
-        continue;
+    boolean accepts(Class[] types) {
+      if (types.length != boxedParameterTypes.length) {
+        return false;
       }
 
-      return constructor;
+      for (int i = 0; i < types.length; i++) {
+        // There's not really a good way to handle null arguments, so they match anything
+        if (types[i] != null && !boxedParameterTypes[i].isAssignableFrom(types[i])) {
+          return false;
+        }
+      }
+      return true;
     }
-
-    throw new NoSuchMethodError();
   }
 
-  // Allow boxed -> unboxed assignments
-  private boolean isAssignableFrom(Class c1, Class c2) {
-    if (c2 == null) {
-      // There's not really a good way to handle this.
-      return true;
+  private static class MemberKey {
+    final Class clazz;
+    // Null for constructors
+    final String name;
+    final Class[] types;
+    final int hashCode;
+
+    MemberKey(Class clazz, String name, Class... types) {
+      this.clazz = clazz;
+      this.name = name;
+      this.types = types;
+      hashCode = 31 * (31 * clazz.hashCode() + (name == null ? 0 : name.hashCode())) + Arrays.hashCode(types);
     }
 
-    if (c1.isAssignableFrom(c2)) {
-      return true;
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof MemberKey)) {
+        return false;
+      }
+      MemberKey other = (MemberKey) o;
+      return clazz == other.clazz
+          && (name == null ? other.name == null : name.equals(other.name))
+          && Arrays.equals(types, other.types);
     }
 
-    if (c1.equals(boolean.class) && c2.equals(Boolean.class)) {
-      return true;
-    } else if (c1.equals(byte.class) && c2.equals(Byte.class)) {
-      return true;
-    } else if (c1.equals(char.class) && c2.equals(Character.class)) {
-      return true;
-    } else if (c1.equals(float.class) && c2.equals(Float.class)) {
-      return true;
-    } else if (c1.equals(int.class) && c2.equals(Integer.class)) {
-      return true;
-    } else if (c1.equals(long.class) && c2.equals(Long.class)) {
-      return true;
-    } else if (c1.equals(short.class) && c2.equals(Short.class)) {
-      return true;
-    } else if (c1.equals(double.class) && c2.equals(Double.class)) {
-      return true;
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+
+  // Allow boxed -> unboxed assignments
+  private static Class box(Class c) {
+    if (c.equals(boolean.class)) {
+      return Boolean.class;
+    } else if (c.equals(byte.class)) {
+      return Byte.class;
+    } else if (c.equals(char.class)) {
+      return Character.class;
+    } else if (c.equals(float.class)) {
+      return Float.class;
+    } else if (c.equals(int.class)) {
+      return Integer.class;
+    } else if (c.equals(long.class)) {
+      return Long.class;
+    } else if (c.equals(short.class)) {
+      return Short.class;
+    } else if (c.equals(double.class)) {
+      return Double.class;
     }
 
-    return false;
+    return c;
   }
 
   public void onHostResume(Object one, Object two) {
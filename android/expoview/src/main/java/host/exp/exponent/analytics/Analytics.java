@@ -33,7 +33,9 @@ public class Analytics {
   public static final String ERROR_RELOADED = "ERROR_RELOADED";
   public static final String HTTP_USED_CACHE_RESPONSE = "HTTP_USED_CACHE_RESPONSE";
   public static final String HTTP_USED_EMBEDDED_RESPONSE = "HTTP_USED_EMBEDDED_RESPONSE";
+  public static final String HTTP_CONNECTION_METRICS = "HTTP_CONNECTION_METRICS";
   public static final String LOAD_DEVELOPER_MANIFEST = "LOAD_DEVELOPER_MANIFEST";
+  public static final String BUNDLE_STORE_METRICS = "BUNDLE_STORE_METRICS";
 
   public static final String MANIFEST_URL = "MANIFEST_URL";
   public static final String SDK_VERSION = "SDK_VERSION";
@@ -123,6 +125,21 @@ public class Analytics {
     }
   }
 
+  public static void logBundleStoreMetrics(int hits, int misses, int deduplicated, int evicted, int bundleCount, long sizeBytes) {
+    try {
+      JSONObject eventProperties = new JSONObject();
+      eventProperties.put("HITS", hits);
+      eventProperties.put("MISSES", misses);
+      eventProperties.put("DEDUPLICATED", deduplicated);
+      eventProperties.put("EVICTED", evicted);
+      eventProperties.put("BUNDLE_COUNT", bundleCount);
+      eventProperties.put("SIZE_BYTES", sizeBytes);
+      logEvent(BUNDLE_STORE_METRICS, eventProperties);
+    } catch (Exception e) {
+      EXL.e(TAG, e.getMessage());
+    }
+  }
+
   public static void markEvent(TimedEvent event) {
     sShellTimedEvents.put(event, System.currentTimeMillis());
   }
@@ -403,6 +403,11 @@ public class ExperienceActivity extends BaseExperienceActivity implements Expone
       }
     }
 
+    RNObject.warmUp(mSDKVersion);
+    if (!mDetachSdkVersion.equals(mSDKVersion)) {
+      RNObject.warmUp(mDetachSdkVersion);
+    }
+
     soloaderInit();
 
     try {
@@ -13,6 +13,8 @@ import java.security.Signature;
 import java.security.SignatureException;
 import java.security.spec.InvalidKeySpecException;
 import java.security.spec.X509EncodedKeySpec;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.crypto.BadPaddingException;
 import javax.crypto.IllegalBlockSizeException;
@@ -20,9 +22,11 @@ import javax.crypto.NoSuchPaddingException;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
+import host.exp.exponent.analytics.EXL;
 import host.exp.exponent.network.ExpoHttpCallback;
 import host.exp.exponent.network.ExpoResponse;
 import host.exp.exponent.network.ExponentNetwork;
+import host.exp.exponent.storage.ExponentSharedPreferences;
 import host.exp.expoview.Exponent;
 import okhttp3.CacheControl;
 import okhttp3.Call;
@@ -33,19 +37,69 @@ import okhttp3.Response;
 @Singleton
 public class Crypto {
 
+  private static final String TAG = Crypto.class.getSimpleName();
+
+  private static final String PUBLIC_KEY_PREFIX = "public_key_";
+
   public interface RSASignatureListener {
     void onError(String errorMessage, boolean isNetworkError);
     void onCompleted(boolean isValid);
   }
 
   ExponentNetwork mExponentNetwork;
+  ExponentSharedPreferences mExponentSharedPreferences;
+
+  // Public keys we've already downloaded, by url. Also stored in ExponentSharedPreferences so cold
+  // launches can verify the manifest without waiting for the network.
+  private final Map<String, String> mPublicKeys = new ConcurrentHashMap<>();
 
   @Inject
-  public Crypto(ExponentNetwork exponentNetwork) {
+  public Crypto(ExponentNetwork exponentNetwork, ExponentSharedPreferences exponentSharedPreferences) {
     mExponentNetwork = exponentNetwork;
+    mExponentSharedPreferences = exponentSharedPreferences;
+  }
+
+  // Fetches the key over the network so it's stored and in the OkHttp cache by the time a manifest
+  // signature needs to be verified.
+  public void prefetchPublicKey(final String publicKeyUrl) {
+    final Request request = new Request.Builder()
+        .url(publicKeyUrl)
+        .build();
+
+    mExponentNetwork.getClient().call(request, new ExpoHttpCallback() {
+      @Override
+      public void onFailure(IOException e) {
+        EXL.d(TAG, "Couldn't prefetch public key: " + e.toString());
+      }
+
+      @Override
+      public void onResponse(ExpoResponse response) throws IOException {
+        if (response.isSuccessful()) {
+          storePublicKey(publicKeyUrl, response.body().string());
+        }
+      }
+    });
   }
 
   public void verifyPublicRSASignature(final String publicKeyUrl, final String plainText, final String cipherText, final RSASignatureListener listener) {
+    String publicKey = getStoredPublicKey(publicKeyUrl);
+    if (publicKey != null) {
+      try {
+        if (verifyPublicRSASignature(publicKey, plainText, cipherText)) {
+          listener.onCompleted(true);
+          return;
+        }
+      } catch (Exception e) {
+        EXL.e(TAG, e);
+      }
+
+      // Keys might have been rotated since we fetched this one
+      mPublicKeys.remove(publicKeyUrl);
+      mExponentSharedPreferences.delete(PUBLIC_KEY_PREFIX + publicKeyUrl);
+      fetchPublicKeyAndVerifyPublicRSASignature(false, publicKeyUrl, plainText, cipherText, listener);
+      return;
+    }
+
     fetchPublicKeyAndVerifyPublicRSASignature(true, publicKeyUrl, plainText, cipherText, listener);
   }
 
@@ -71,7 +125,11 @@ public class Crypto {
         String errorMessage;
 
         try {
-          boolean isValid = verifyPublicRSASignature(response.body().string(), plainText, cipherText);
+          String publicKey = response.body().string();
+          boolean isValid = verifyPublicRSASignature(publicKey, plainText, cipherText);
+          if (isValid) {
+            storePublicKey(publicKeyUrl, publicKey);
+          }
           listener.onCompleted(isValid);
           return;
         } catch (NoSuchPaddingException e) {
@@ -99,6 +157,23 @@ public class Crypto {
     });
   }
 
+  private String getStoredPublicKey(String publicKeyUrl) {
+    String publicKey = mPublicKeys.get(publicKeyUrl);
+    if (publicKey == null) {
+      publicKey = mExponentSharedPreferences.getString(PUBLIC_KEY_PREFIX + publicKeyUrl);
+      if (publicKey != null) {
+        mPublicKeys.put(publicKeyUrl, publicKey);
+      }
+    }
+    return publicKey;
+  }
+
+  private void storePublicKey(String publicKeyUrl, String publicKey) {
+    if (!publicKey.equals(mPublicKeys.put(publicKeyUrl, publicKey))) {
+      mExponentSharedPreferences.setString(PUBLIC_KEY_PREFIX + publicKeyUrl, publicKey);
+    }
+  }
+
   private boolean verifyPublicRSASignature(String publicKey, String plainText, String cipherText) throws NoSuchPaddingException,
       NoSuchAlgorithmException, InvalidKeySpecException, InvalidKeyException, BadPaddingException, IllegalBlockSizeException, SignatureException {
     // remove comments
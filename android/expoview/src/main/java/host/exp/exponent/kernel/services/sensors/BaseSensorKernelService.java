@@ -13,6 +13,9 @@ import host.exp.exponent.kernel.services.BaseKernelService;
 public abstract class BaseSensorKernelService extends BaseKernelService implements SensorEventListener {
   private Sensor mSensor;
   private SensorManager mSensorManager;
+  private boolean mIsObserving = false;
+  private int mSamplingPeriodUs;
+  private int mMaxReportLatencyUs;
 
   BaseSensorKernelService(Context reactContext) {
     super(reactContext);
@@ -25,14 +28,33 @@ public abstract class BaseSensorKernelService extends BaseKernelService implemen
 
   // Public API
 
-  protected void startObserving() {
+  // Registers for samples every `samplingPeriodUs`, which the sensor may deliver up to
+  // `maxReportLatencyUs` late, in batches, if it has a hardware FIFO. Calling it again while
+  // observing re-registers only if the rate changed.
+  protected void startObserving(int samplingPeriodUs, int maxReportLatencyUs) {
+    if (mIsObserving && mSamplingPeriodUs == samplingPeriodUs && mMaxReportLatencyUs == maxReportLatencyUs) {
+      return;
+    }
+
+    if (mIsObserving) {
+      mSensorManager.unregisterListener(this);
+      mIsObserving = false;
+    }
+
     if ((mSensor = mSensorManager.getDefaultSensor(getSensorType())) != null) {
-      mSensorManager.registerListener(this, mSensor, SensorManager.SENSOR_DELAY_FASTEST);
+      if (maxReportLatencyUs > 0 && mSensor.getFifoMaxEventCount() > 0) {
+        mIsObserving = mSensorManager.registerListener(this, mSensor, samplingPeriodUs, maxReportLatencyUs);
+      } else {
+        mIsObserving = mSensorManager.registerListener(this, mSensor, samplingPeriodUs);
+      }
+      mSamplingPeriodUs = samplingPeriodUs;
+      mMaxReportLatencyUs = maxReportLatencyUs;
     }
   }
 
   protected void stopObserving() {
     mSensorManager.unregisterListener(this);
+    mIsObserving = false;
   }
 
   // android.hardware.SensorEventListener
@@ -7,6 +7,7 @@ import host.exp.exponent.kernel.ExperienceId;
 public class SensorKernelServiceSubscription {
   private boolean mIsEnabled = false;
   private Long mUpdateInterval = null;
+  private Long mMaxReportLatency = null;
   private final ExperienceId mExperienceId;
   private boolean mHasBeenReleased = false;
   private final SubscribableSensorKernelService mSubscribableSensorKernelService;
@@ -45,6 +46,17 @@ public class SensorKernelServiceSubscription {
   public void setUpdateInterval(long updateInterval) {
     assertSubscriptionIsAlive();
     mUpdateInterval = updateInterval;
+    mSubscribableSensorKernelService.onSubscriptionRateChanged(this);
+  }
+
+  public Long getMaxReportLatency() {
+    return mMaxReportLatency;
+  }
+
+  public void setMaxReportLatency(long maxReportLatency) {
+    assertSubscriptionIsAlive();
+    mMaxReportLatency = maxReportLatency;
+    mSubscribableSensorKernelService.onSubscriptionRateChanged(this);
   }
 
   public void stop() {
@@ -17,7 +17,13 @@ import host.exp.exponent.kernel.ExperienceId;
 public abstract class SubscribableSensorKernelService extends BaseSensorKernelService {
   protected static int DEFAULT_UPDATE_INTERVAL = 100;
 
+  // Sensors don't sample at exactly the requested period, so a reading up to this much of the
+  // update interval early still counts as due.
+  private static final double UPDATE_INTERVAL_TOLERANCE = 0.1;
+
   private Map<ExperienceId, Integer> mExperienceIdListenersCountMap = new HashMap<>();
+  // Timestamp of the last reading delivered to each subscription, in SensorEvent.timestamp
+  // nanoseconds. Readings from a hardware batch arrive all at once, so wall clock time can't be used.
   private Map<SensorKernelServiceSubscription, Long> mSensorEventListenerLastUpdateMap = new WeakHashMap<>();
   private Map<ExperienceId, List<WeakReference<SensorKernelServiceSubscription>>> mExperienceIdSubscriptionsMap = new HashMap<>();
 
@@ -39,7 +45,6 @@ public abstract class SubscribableSensorKernelService extends BaseSensorKernelSe
 
   @Override
   public void onSensorDataChanged(SensorEvent sensorEvent) {
-    long currentTime = System.currentTimeMillis();
     ExperienceId currentExperienceId = getCurrentExperienceId();
     List<WeakReference<SensorKernelServiceSubscription>> listeners = mExperienceIdSubscriptionsMap.get(currentExperienceId);
 
@@ -47,20 +52,12 @@ public abstract class SubscribableSensorKernelService extends BaseSensorKernelSe
       for(WeakReference<SensorKernelServiceSubscription> weakReference : listeners) {
         final SensorKernelServiceSubscription sensorKernelServiceSubscription = weakReference.get();
         if (sensorKernelServiceSubscription != null && sensorKernelServiceSubscription.isEnabled()) {
-          long lastUpdate = 0;
-          if (mSensorEventListenerLastUpdateMap.containsKey(sensorKernelServiceSubscription)) {
-            lastUpdate = mSensorEventListenerLastUpdateMap.get(sensorKernelServiceSubscription);
-          }
-
-          long updateInterval = DEFAULT_UPDATE_INTERVAL;
-          if (sensorKernelServiceSubscription.getUpdateInterval() != null) {
-            updateInterval = sensorKernelServiceSubscription.getUpdateInterval();
-          }
-
+          Long lastUpdate = mSensorEventListenerLastUpdateMap.get(sensorKernelServiceSubscription);
+          long updateIntervalNs = (long) (getUpdateInterval(sensorKernelServiceSubscription) * 1000000 * (1 - UPDATE_INTERVAL_TOLERANCE));
 
-          if ((currentTime - lastUpdate) > updateInterval) {
+          if (lastUpdate == null || sensorEvent.timestamp - lastUpdate >= updateIntervalNs) {
             sensorKernelServiceSubscription.getSensorEventListener().onSensorDataChanged(sensorEvent);
-            mSensorEventListenerLastUpdateMap.put(sensorKernelServiceSubscription, currentTime);
+            mSensorEventListenerLastUpdateMap.put(sensorKernelServiceSubscription, sensorEvent.timestamp);
           }
         }
       }
@@ -117,6 +114,12 @@ public abstract class SubscribableSensorKernelService extends BaseSensorKernelSe
     updateObserving();
   }
 
+  void onSubscriptionRateChanged(SensorKernelServiceSubscription sensorKernelServiceSubscription) {
+    if (sensorKernelServiceSubscription.isEnabled()) {
+      updateObserving();
+    }
+  }
+
   // android.hardware.SensorEventListener
 
   @Override
@@ -160,9 +163,37 @@ public abstract class SubscribableSensorKernelService extends BaseSensorKernelSe
 
     // Start/stop observing according to the experience state
     if (getEnabledListenersForExperienceId(currentExperienceId) > 0) {
-      super.startObserving();
+      // Sample as often as the most frequent subscriber asked for, and only batch as much as the
+      // least patient one allows
+      long samplingPeriod = Long.MAX_VALUE;
+      long maxReportLatency = Long.MAX_VALUE;
+      List<WeakReference<SensorKernelServiceSubscription>> subscriptions = mExperienceIdSubscriptionsMap.get(currentExperienceId);
+      if (subscriptions != null) {
+        for (WeakReference<SensorKernelServiceSubscription> subscriptionWeakReference : subscriptions) {
+          SensorKernelServiceSubscription subscription = subscriptionWeakReference.get();
+          if (subscription != null && subscription.isEnabled()) {
+            samplingPeriod = Math.min(samplingPeriod, getUpdateInterval(subscription));
+            maxReportLatency = Math.min(maxReportLatency, subscription.getMaxReportLatency() != null ? subscription.getMaxReportLatency() : 0);
+          }
+        }
+      }
+
+      if (samplingPeriod == Long.MAX_VALUE) {
+        samplingPeriod = DEFAULT_UPDATE_INTERVAL;
+        maxReportLatency = 0;
+      }
+      super.startObserving(millisToMicros(samplingPeriod), millisToMicros(maxReportLatency));
     } else {
       super.stopObserving();
     }
   }
+
+  private static long getUpdateInterval(SensorKernelServiceSubscription subscription) {
+    Long updateInterval = subscription.getUpdateInterval();
+    return updateInterval != null ? Math.max(0, updateInterval) : DEFAULT_UPDATE_INTERVAL;
+  }
+
+  private static int millisToMicros(long millis) {
+    return (int) Math.min(Integer.MAX_VALUE / 1000, Math.max(0, millis)) * 1000;
+  }
 }
@@ -13,6 +13,7 @@ import java.net.URLEncoder;
 
 import host.exp.exponent.analytics.EXL;
 import host.exp.exponent.utils.ScopedContext;
+import versioned.host.exp.exponent.modules.internal.AsyncStorageCache;
 import versioned.host.exp.exponent.modules.internal.ExponentAsyncStorageModule;
 
 public class ClearExperienceData {
@@ -22,6 +23,8 @@ public class ClearExperienceData {
   public static void clear(Context context, String experienceId) {
     try {
       String databaseName = ExponentAsyncStorageModule.experienceIdToDatabaseName(experienceId);
+      // Drop writes a running experience still has buffered so they don't end up in the new database
+      AsyncStorageCache.onDatabaseCleared(databaseName);
       ReactDatabaseSupplier supplier = new ReactDatabaseSupplier(context, databaseName);
       supplier.clearAndCloseDatabase();
     } catch (UnsupportedEncodingException e) {
@@ -0,0 +1,102 @@
+// Copyright 2015-present 650 Industries. All rights reserved.
+
+package host.exp.exponent.network;
+
+import org.json.JSONObject;
+
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import host.exp.exponent.analytics.Analytics;
+import host.exp.exponent.analytics.EXL;
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+
+/*
+ * Counts how often calls made through ExponentNetwork's shared clients reuse a pooled connection
+ * and how long the TCP and TLS handshakes for new connections take.
+ */
+public class ConnectionMetrics implements EventListener.Factory {
+
+  private static final String TAG = ConnectionMetrics.class.getSimpleName();
+
+  private final AtomicInteger mConnectionsAcquired = new AtomicInteger();
+  private final AtomicInteger mConnectionsOpened = new AtomicInteger();
+  private final AtomicLong mConnectDurationMs = new AtomicLong();
+  private final AtomicInteger mTlsHandshakes = new AtomicInteger();
+  private final AtomicLong mTlsHandshakeDurationMs = new AtomicLong();
+
+  @Override
+  public EventListener create(Call call) {
+    return new CallListener();
+  }
+
+  public int getConnectionsAcquired() {
+    return mConnectionsAcquired.get();
+  }
+
+  public int getConnectionsReused() {
+    return Math.max(0, mConnectionsAcquired.get() - mConnectionsOpened.get());
+  }
+
+  public long getAverageConnectDurationMs() {
+    int opened = mConnectionsOpened.get();
+    return opened == 0 ? 0 : mConnectDurationMs.get() / opened;
+  }
+
+  public long getAverageTlsHandshakeDurationMs() {
+    int handshakes = mTlsHandshakes.get();
+    return handshakes == 0 ? 0 : mTlsHandshakeDurationMs.get() / handshakes;
+  }
+
+  public void logToAnalytics() {
+    try {
+      JSONObject eventProperties = new JSONObject();
+      eventProperties.put("CONNECTIONS_ACQUIRED", getConnectionsAcquired());
+      eventProperties.put("CONNECTIONS_REUSED", getConnectionsReused());
+      eventProperties.put("AVERAGE_CONNECT_DURATION", getAverageConnectDurationMs());
+      eventProperties.put("AVERAGE_TLS_HANDSHAKE_DURATION", getAverageTlsHandshakeDurationMs());
+      Analytics.logEvent(Analytics.HTTP_CONNECTION_METRICS, eventProperties);
+    } catch (Exception e) {
+      EXL.e(TAG, e.getMessage());
+    }
+  }
+
+  // One per call, so the start timestamps don't need to be synchronized
+  private class CallListener extends EventListener {
+    private long mConnectStartMs;
+    private long mSecureConnectStartMs;
+
+    @Override
+    public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+      mConnectStartMs = System.currentTimeMillis();
+    }
+
+    @Override
+    public void secureConnectStart(Call call) {
+      mSecureConnectStartMs = System.currentTimeMillis();
+    }
+
+    @Override
+    public void secureConnectEnd(Call call, Handshake handshake) {
+      mTlsHandshakes.incrementAndGet();
+      mTlsHandshakeDurationMs.addAndGet(System.currentTimeMillis() - mSecureConnectStartMs);
+    }
+
+    @Override
+    public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol) {
+      mConnectionsOpened.incrementAndGet();
+      mConnectDurationMs.addAndGet(System.currentTimeMillis() - mConnectStartMs);
+    }
+
+    @Override
+    public void connectionAcquired(Call call, Connection connection) {
+      mConnectionsAcquired.incrementAndGet();
+    }
+  }
+}
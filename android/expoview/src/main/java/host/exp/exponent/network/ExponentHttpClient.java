@@ -22,6 +22,7 @@ import host.exp.exponent.analytics.EXL;
 import okhttp3.CacheControl;
 import okhttp3.Call;
 import okhttp3.Callback;
+import okhttp3.Dispatcher;
 import okhttp3.MediaType;
 import okhttp3.Protocol;
 import okhttp3.Request;
@@ -53,7 +54,7 @@ public class ExponentHttpClient {
   }
 
   public void call(final Request request, final ExpoHttpCallback callback) {
-    mOkHttpClientFactory.getNewClient().newCall(request).enqueue(new Callback() {
+    mOkHttpClientFactory.getClient().newCall(request).enqueue(new Callback() {
       @Override
       public void onFailure(Call call, IOException e) {
         callback.onFailure(e);
@@ -66,10 +67,25 @@ public class ExponentHttpClient {
     });
   }
 
+  // Cancels queued and running calls whose request was tagged with `tag`
+  public void cancel(final Object tag) {
+    Dispatcher dispatcher = mOkHttpClientFactory.getClient().dispatcher();
+    for (Call call : dispatcher.queuedCalls()) {
+      if (tag.equals(call.request().tag())) {
+        call.cancel();
+      }
+    }
+    for (Call call : dispatcher.runningCalls()) {
+      if (tag.equals(call.request().tag())) {
+        call.cancel();
+      }
+    }
+  }
+
   public void callSafe(final Request request, final SafeCallback callback) {
     final String uri = request.url().toString();
 
-    mOkHttpClientFactory.getNewClient().newCall(request).enqueue(new Callback() {
+    mOkHttpClientFactory.getClient().newCall(request).enqueue(new Callback() {
       @Override
       public void onFailure(Call call, IOException e) {
         tryForcedCachedResponse(uri, request, callback, null, e);
@@ -125,7 +141,7 @@ public class ExponentHttpClient {
         .cacheControl(CacheControl.FORCE_CACHE)
         .header(ExponentNetwork.IGNORE_INTERCEPTORS_HEADER, "blah")
         .build();
-    mOkHttpClientFactory.getNewClient().newCall(newRequest).enqueue(new Callback() {
+    mOkHttpClientFactory.getClient().newCall(newRequest).enqueue(new Callback() {
       @Override
       public void onFailure(Call call, IOException e) {
         tryHardCodedResponse(uri, call, callback, initialResponse, initialException);
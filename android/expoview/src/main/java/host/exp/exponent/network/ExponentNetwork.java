@@ -18,6 +18,8 @@ import javax.inject.Inject;
 import javax.inject.Singleton;
 
 import okhttp3.Cache;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
 import okhttp3.Interceptor;
 import okhttp3.OkHttpClient;
 import okhttp3.Protocol;
@@ -42,13 +44,22 @@ public class ExponentNetwork {
   private ExponentHttpClient mLongTimeoutClient;
   private OkHttpClient mNoCacheClient;
 
+  // Every client we hand out is derived from these so that manifest and bundle requests share
+  // connections (and HTTP/2 sessions) and are scheduled by the same dispatcher.
+  private final ConnectionPool mConnectionPool = new ConnectionPool();
+  private final Dispatcher mDispatcher = new Dispatcher();
+  private final ConnectionMetrics mConnectionMetrics = new ConnectionMetrics();
+  private OkHttpClient mBaseClient;
+  private Cache mCache;
+  private expolib_v1.okhttp3.Cache mExpolibCache;
+
   // This fixes OkHttp bug where if you don't read a response, it'll never cache that request in the future
   public static void flushResponse(ExpoResponse response) throws IOException {
     response.body().bytes();
   }
 
   public interface OkHttpClientFactory {
-    OkHttpClient getNewClient();
+    OkHttpClient getClient();
   }
 
   @Inject
@@ -57,34 +68,48 @@ public class ExponentNetwork {
 
     mClient = new ExponentHttpClient(mContext, exponentSharedPreferences, new OkHttpClientFactory() {
       @Override
-      public OkHttpClient getNewClient() {
-        return createHttpClientBuilder().build();
+      public OkHttpClient getClient() {
+        return getBaseClient();
       }
     });
 
     mLongTimeoutClient = new ExponentHttpClient(mContext, exponentSharedPreferences, new OkHttpClientFactory() {
+      private OkHttpClient mLongTimeoutHttpClient;
+
       @Override
-      public OkHttpClient getNewClient() {
-        OkHttpClient longTimeoutHttpClient = createHttpClientBuilder()
-            .readTimeout(2, TimeUnit.MINUTES)
-            .build();
-        return longTimeoutHttpClient;
+      public synchronized OkHttpClient getClient() {
+        if (mLongTimeoutHttpClient == null) {
+          mLongTimeoutHttpClient = getBaseClient().newBuilder()
+              .readTimeout(2, TimeUnit.MINUTES)
+              .build();
+        }
+        return mLongTimeoutHttpClient;
       }
     });
 
-    mNoCacheClient = new OkHttpClient.Builder().build();
+    mNoCacheClient = new OkHttpClient.Builder()
+        .connectionPool(mConnectionPool)
+        .dispatcher(mDispatcher)
+        .eventListenerFactory(mConnectionMetrics)
+        .build();
   }
 
-  private OkHttpClient.Builder createHttpClientBuilder() {
-    OkHttpClient.Builder clientBuilder = new OkHttpClient.Builder()
-        .cache(getCache());
-    if (ExpoViewBuildConfig.DEBUG) {
-      // FIXME: 8/9/17
-      // clientBuilder.addNetworkInterceptor(new StethoInterceptor());
-    }
-    addInterceptors(clientBuilder);
+  private synchronized OkHttpClient getBaseClient() {
+    if (mBaseClient == null) {
+      OkHttpClient.Builder clientBuilder = new OkHttpClient.Builder()
+          .connectionPool(mConnectionPool)
+          .dispatcher(mDispatcher)
+          .eventListenerFactory(mConnectionMetrics)
+          .cache(getCache());
+      if (ExpoViewBuildConfig.DEBUG) {
+        // FIXME: 8/9/17
+        // clientBuilder.addNetworkInterceptor(new StethoInterceptor());
+      }
+      addInterceptors(clientBuilder);
 
-    return clientBuilder;
+      mBaseClient = clientBuilder.build();
+    }
+    return mBaseClient;
   }
 
   public ExponentHttpClient getClient() {
@@ -100,20 +125,35 @@ public class ExponentNetwork {
     return mNoCacheClient;
   }
 
-  public Cache getCache() {
-    int cacheSize = 40 * 1024 * 1024; // 40 MiB
+  public ConnectionMetrics getConnectionMetrics() {
+    return mConnectionMetrics;
+  }
 
-    // Use getFilesDir() because it gives us much more space than getCacheDir()
-    final File directory = new File(mContext.getFilesDir(), CACHE_DIR);
-    return new Cache(directory, cacheSize);
+  public void logConnectionMetrics() {
+    mConnectionMetrics.logToAnalytics();
   }
 
-  public expolib_v1.okhttp3.Cache getExpolibOkhttpCacheForClient() {
-    int cacheSize = 40 * 1024 * 1024; // 40 MiB
+  // OkHttp doesn't support more than one Cache instance per directory, so everyone shares this one.
+  public synchronized Cache getCache() {
+    if (mCache == null) {
+      int cacheSize = 40 * 1024 * 1024; // 40 MiB
 
-    // Use getFilesDir() because it gives us much more space than getCacheDir()
-    final File directory = new File(mContext.getFilesDir(), CACHE_DIR + "_expolib_v1");
-    return new expolib_v1.okhttp3.Cache(directory, cacheSize);
+      // Use getFilesDir() because it gives us much more space than getCacheDir()
+      final File directory = new File(mContext.getFilesDir(), CACHE_DIR);
+      mCache = new Cache(directory, cacheSize);
+    }
+    return mCache;
+  }
+
+  public synchronized expolib_v1.okhttp3.Cache getExpolibOkhttpCacheForClient() {
+    if (mExpolibCache == null) {
+      int cacheSize = 40 * 1024 * 1024; // 40 MiB
+
+      // Use getFilesDir() because it gives us much more space than getCacheDir()
+      final File directory = new File(mContext.getFilesDir(), CACHE_DIR + "_expolib_v1");
+      mExpolibCache = new expolib_v1.okhttp3.Cache(directory, cacheSize);
+    }
+    return mExpolibCache;
   }
 
   public boolean isNetworkAvailable() {
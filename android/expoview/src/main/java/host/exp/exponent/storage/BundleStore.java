@@ -0,0 +1,399 @@
+// Copyright 2015-present 650 Industries. All rights reserved.
+
+package host.exp.exponent.storage;
+
+import android.content.Context;
+
+import org.apache.commons.io.IOUtils;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import host.exp.exponent.analytics.Analytics;
+import host.exp.exponent.analytics.EXL;
+import host.exp.exponent.kernel.KernelConstants;
+
+/*
+ * Content-addressed store for downloaded JS bundles.
+ *
+ * Bundles live in filesDir/bundles/<sha256> so identical bundles are only stored once, no matter
+ * how many experiences or ABI versions point at them. A small JSON index maps the lookup keys
+ * Exponent uses (experience id + bundle url + abi version) to a digest and tracks when each key
+ * was last used. Keys are evicted by age and, once the store grows past its budget, least recently
+ * used first. Blobs no key points at anymore are deleted. Eviction runs once per process, off the
+ * loading path, and never touches bundles this process has handed out, since the JS loader may not
+ * have read them yet.
+ */
+public class BundleStore {
+
+  private static final String TAG = BundleStore.class.getSimpleName();
+
+  private static final String BUNDLES_DIRECTORY = "bundles";
+  private static final String INDEX_FILE_NAME = "index.json";
+  private static final String TEMP_FILE_PREFIX = "tmp-";
+
+  private static final String INDEX_VERSION_KEY = "version";
+  private static final String INDEX_ENTRIES_KEY = "entries";
+  private static final String ENTRY_DIGEST_KEY = "digest";
+  private static final String ENTRY_SIZE_KEY = "size";
+  private static final String ENTRY_LAST_USED_KEY = "lastUsed";
+  private static final int INDEX_VERSION = 1;
+
+  private static final long MAX_STORE_SIZE_BYTES = 64 * 1024 * 1024;
+  private static final long MAX_ENTRY_AGE_MS = 30L * 24 * 60 * 60 * 1000;
+  private static final long STALE_TEMP_FILE_AGE_MS = 24 * 60 * 60 * 1000;
+  // Recency on disk may lag behind this much. Eviction works in days and the index is written
+  // anyway whenever a bundle is committed, so hits don't need to rewrite it.
+  private static final long LAST_USED_PERSIST_INTERVAL_MS = 24 * 60 * 60 * 1000;
+
+  private static class Entry {
+    final String key;
+    final String digest;
+    final long size;
+    long lastUsed;
+    // lastUsed as it was when the index was last written
+    long persistedLastUsed;
+
+    Entry(String key, String digest, long size, long lastUsed) {
+      this.key = key;
+      this.digest = digest;
+      this.size = size;
+      this.lastUsed = lastUsed;
+      this.persistedLastUsed = lastUsed;
+    }
+  }
+
+  private final Context mContext;
+  private final File mDirectory;
+  private final File mIndexFile;
+  private Map<String, Entry> mEntries;
+  // Keys and blobs handed out by this process
+  private final Set<String> mKeysInUse = new HashSet<>();
+  private final Set<String> mDigestsInUse = new HashSet<>();
+  private boolean mHasLoggedMetrics = false;
+
+  private int mHits = 0;
+  private int mMisses = 0;
+  private int mDeduplicated = 0;
+  private int mEvicted = 0;
+
+  public BundleStore(Context context) {
+    mContext = context;
+    mDirectory = new File(context.getFilesDir(), BUNDLES_DIRECTORY);
+    mIndexFile = new File(mDirectory, INDEX_FILE_NAME);
+  }
+
+  // Returns the stored bundle for `key`, or null if we don't have it.
+  public synchronized File getBundleFile(String key) {
+    ensureLoaded();
+
+    Entry entry = mEntries.get(key);
+    if (entry != null) {
+      File file = blobFile(entry.digest);
+      if (file.exists()) {
+        mHits++;
+        mKeysInUse.add(key);
+        mDigestsInUse.add(entry.digest);
+        entry.lastUsed = System.currentTimeMillis();
+        if (entry.lastUsed - entry.persistedLastUsed > LAST_USED_PERSIST_INTERVAL_MS) {
+          writeIndex();
+        }
+        return file;
+      }
+
+      // Someone deleted the blob underneath us
+      mEntries.remove(key);
+      writeIndex();
+    }
+
+    mMisses++;
+    return null;
+  }
+
+  public synchronized boolean hasBundle(String key) {
+    ensureLoaded();
+
+    Entry entry = mEntries.get(key);
+    return entry != null && blobFile(entry.digest).exists();
+  }
+
+  // Callers write the bundle here and then hand it to `commit`. Lives in the store directory so
+  // committing is a rename on the same filesystem.
+  public File createTempFile() throws IOException {
+    ensureDirectoryExists();
+    return new File(mDirectory, TEMP_FILE_PREFIX + UUID.randomUUID().toString());
+  }
+
+  // `digest` is the lowercase hex SHA-256 of `tempFile`'s contents. `tempFile` is consumed.
+  public synchronized File commit(String key, File tempFile, String digest) throws IOException {
+    ensureLoaded();
+
+    File blob = blobFile(digest);
+    if (blob.exists()) {
+      mDeduplicated++;
+      tempFile.delete();
+    } else if (!tempFile.renameTo(blob)) {
+      tempFile.delete();
+      throw new IOException("Could not move bundle to " + blob.getAbsolutePath());
+    }
+
+    mEntries.put(key, new Entry(key, digest, blob.length(), System.currentTimeMillis()));
+    mKeysInUse.add(key);
+    mDigestsInUse.add(digest);
+    writeIndex();
+    return blob;
+  }
+
+  // Evicts stale bundles and trims the store to its budget. Does disk I/O, call it once at startup
+  // from a background thread.
+  public synchronized void evict() {
+    ensureLoaded();
+
+    int evictedBefore = mEvicted;
+    evictUnused();
+    if (mEvicted != evictedBefore) {
+      writeIndex();
+    }
+  }
+
+  // Only logs the first time it's called, the counts cover the process's first bundle load.
+  public synchronized void logMetrics() {
+    if (mHasLoggedMetrics) {
+      return;
+    }
+    mHasLoggedMetrics = true;
+    ensureLoaded();
+
+    long size = 0;
+    Set<String> digests = new HashSet<>();
+    for (Entry entry : mEntries.values()) {
+      if (digests.add(entry.digest)) {
+        size += entry.size;
+      }
+    }
+
+    Analytics.logBundleStoreMetrics(mHits, mMisses, mDeduplicated, mEvicted, digests.size(), size);
+  }
+
+  private void evictUnused() {
+    long now = System.currentTimeMillis();
+
+    List<Entry> entries = new ArrayList<>(mEntries.values());
+    Collections.sort(entries, new Comparator<Entry>() {
+      @Override
+      public int compare(Entry lhs, Entry rhs) {
+        return Long.compare(lhs.lastUsed, rhs.lastUsed);
+      }
+    });
+
+    Map<String, Long> digestSizes = new HashMap<>();
+    Map<String, Integer> digestRefCounts = new HashMap<>();
+    long totalSize = 0;
+    for (Entry entry : entries) {
+      Integer refCount = digestRefCounts.get(entry.digest);
+      digestRefCounts.put(entry.digest, refCount == null ? 1 : refCount + 1);
+      if (refCount == null) {
+        digestSizes.put(entry.digest, entry.size);
+        totalSize += entry.size;
+      }
+    }
+
+    // Oldest first, so stale keys go before we start trimming recently used ones for size
+    for (Entry entry : entries) {
+      if (mKeysInUse.contains(entry.key)) {
+        continue;
+      }
+
+      boolean isStale = now - entry.lastUsed > MAX_ENTRY_AGE_MS;
+      if (!isStale && totalSize <= MAX_STORE_SIZE_BYTES) {
+        break;
+      }
+
+      mEntries.remove(entry.key);
+      mEvicted++;
+
+      int refCount = digestRefCounts.get(entry.digest) - 1;
+      digestRefCounts.put(entry.digest, refCount);
+      if (refCount == 0) {
+        totalSize -= digestSizes.get(entry.digest);
+      }
+    }
+
+    deleteUnreferencedFiles();
+  }
+
+  private void deleteUnreferencedFiles() {
+    Set<String> referenced = new HashSet<>();
+    for (Entry entry : mEntries.values()) {
+      referenced.add(entry.digest);
+    }
+
+    File[] files = mDirectory.listFiles();
+    if (files == null) {
+      return;
+    }
+
+    for (File file : files) {
+      String name = file.getName();
+      if (name.equals(INDEX_FILE_NAME) || referenced.contains(name) || mDigestsInUse.contains(name)) {
+        continue;
+      }
+
+      // Temp files from in-flight downloads are cleaned up by their writers
+      if (name.startsWith(TEMP_FILE_PREFIX)) {
+        continue;
+      }
+
+      if (!file.delete()) {
+        EXL.e(TAG, "Could not delete unreferenced bundle " + name);
+      }
+    }
+  }
+
+  private File blobFile(String digest) {
+    return new File(mDirectory, digest);
+  }
+
+  private void ensureDirectoryExists() {
+    if (!mDirectory.exists()) {
+      mDirectory.mkdirs();
+    }
+  }
+
+  private void ensureLoaded() {
+    if (mEntries != null) {
+      return;
+    }
+
+    ensureDirectoryExists();
+    mEntries = new HashMap<>();
+
+    if (!mIndexFile.exists()) {
+      // First run with the content-addressed store. Bundles written under the old per-experience
+      // naming scheme are never read again, so get rid of them.
+      deleteLegacyBundles();
+      deleteStaleTempFiles();
+      writeIndex();
+      return;
+    }
+
+    InputStream inputStream = null;
+    try {
+      inputStream = new FileInputStream(mIndexFile);
+      JSONObject index = new JSONObject(IOUtils.toString(inputStream, "UTF-8"));
+      JSONObject entries = index.getJSONObject(INDEX_ENTRIES_KEY);
+
+      Iterator<String> keys = entries.keys();
+      while (keys.hasNext()) {
+        String key = keys.next();
+        JSONObject entry = entries.getJSONObject(key);
+        mEntries.put(key, new Entry(key,
+            entry.getString(ENTRY_DIGEST_KEY),
+            entry.getLong(ENTRY_SIZE_KEY),
+            entry.getLong(ENTRY_LAST_USED_KEY)));
+      }
+    } catch (IOException | JSONException e) {
+      // The index is only a cache of what's on disk. Start over and let unreferenced blobs be
+      // cleaned up.
+      EXL.e(TAG, e);
+      mEntries.clear();
+    } finally {
+      IOUtils.closeQuietly(inputStream);
+    }
+
+    deleteStaleTempFiles();
+  }
+
+  private void writeIndex() {
+    FileOutputStream outputStream = null;
+    File tempIndexFile = new File(mDirectory, INDEX_FILE_NAME + ".tmp");
+    try {
+      JSONObject entries = new JSONObject();
+      for (Entry entry : mEntries.values()) {
+        JSONObject entryJson = new JSONObject();
+        entryJson.put(ENTRY_DIGEST_KEY, entry.digest);
+        entryJson.put(ENTRY_SIZE_KEY, entry.size);
+        entryJson.put(ENTRY_LAST_USED_KEY, entry.lastUsed);
+        entries.put(entry.key, entryJson);
+      }
+
+      JSONObject index = new JSONObject();
+      index.put(INDEX_VERSION_KEY, INDEX_VERSION);
+      index.put(INDEX_ENTRIES_KEY, entries);
+
+      outputStream = new FileOutputStream(tempIndexFile);
+      outputStream.write(index.toString().getBytes("UTF-8"));
+      outputStream.flush();
+      outputStream.getFD().sync();
+      outputStream.close();
+      outputStream = null;
+
+      if (!tempIndexFile.renameTo(mIndexFile)) {
+        EXL.e(TAG, "Could not write bundle index");
+        return;
+      }
+
+      for (Entry entry : mEntries.values()) {
+        entry.persistedLastUsed = entry.lastUsed;
+      }
+    } catch (IOException | JSONException e) {
+      EXL.e(TAG, e);
+    } finally {
+      IOUtils.closeQuietly(outputStream);
+    }
+  }
+
+  // Temp files left over from a process that died mid-download
+  private void deleteStaleTempFiles() {
+    File[] files = mDirectory.listFiles();
+    if (files == null) {
+      return;
+    }
+
+    long now = System.currentTimeMillis();
+    for (File file : files) {
+      if (file.getName().startsWith(TEMP_FILE_PREFIX) && now - file.lastModified() > STALE_TEMP_FILE_AGE_MS) {
+        file.delete();
+      }
+    }
+  }
+
+  private void deleteLegacyBundles() {
+    File[] abiDirectories = mContext.getFilesDir().listFiles();
+    if (abiDirectories == null) {
+      return;
+    }
+
+    for (File abiDirectory : abiDirectories) {
+      if (!abiDirectory.isDirectory() || abiDirectory.equals(mDirectory)) {
+        continue;
+      }
+
+      File[] files = abiDirectory.listFiles();
+      if (files == null) {
+        continue;
+      }
+
+      for (File file : files) {
+        if (file.isFile() && file.getName().startsWith(KernelConstants.BUNDLE_FILE_PREFIX)) {
+          file.delete();
+        }
+      }
+    }
+  }
+}
@@ -5,7 +5,6 @@ package host.exp.exponent.storage;
 import android.content.Context;
 import android.content.SharedPreferences;
 
-import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.util.HashMap;
@@ -19,9 +18,6 @@ import host.exp.expoview.ExpoViewBuildConfig;
 import host.exp.expoview.R;
 import host.exp.exponent.analytics.EXL;
 
-import static host.exp.exponent.kernel.KernelConstants.BUNDLE_URL_KEY;
-import static host.exp.exponent.kernel.KernelConstants.MANIFEST_KEY;
-
 @Singleton
 public class ExponentSharedPreferences {
 
@@ -75,11 +71,13 @@ public class ExponentSharedPreferences {
   }
 
   private SharedPreferences mSharedPreferences;
+  private ManifestStore mManifestStore;
   private Context mContext;
 
   @Inject
   public ExponentSharedPreferences(Context context) {
     mSharedPreferences = context.getSharedPreferences(context.getString(R.string.preference_file_key), Context.MODE_PRIVATE);
+    mManifestStore = new ManifestStore(context, mSharedPreferences);
     mContext = context;
   }
 
@@ -160,84 +158,45 @@ public class ExponentSharedPreferences {
     }
   }
 
-  public void updateManifest(String manifestUrl, JSONObject manifest, String bundleUrl) {
-    try {
-      JSONObject parentObject = new JSONObject();
-      parentObject.put(MANIFEST_KEY, manifest);
-      parentObject.put(BUNDLE_URL_KEY, bundleUrl);
-      parentObject.put(SAFE_MANIFEST_KEY, manifest);
-
-      mSharedPreferences.edit().putString(manifestUrl, parentObject.toString()).apply();
-    } catch (JSONException e) {
-      EXL.e(TAG, e);
-    }
+  // Returns true if the manifest changed since the last time it was stored for `manifestUrl`
+  public boolean updateManifest(String manifestUrl, JSONObject manifest, String bundleUrl) {
+    return mManifestStore.updateManifest(manifestUrl, manifest, bundleUrl);
   }
 
   public ManifestAndBundleUrl getManifest(String manifestUrl) {
-    String jsonString = mSharedPreferences.getString(manifestUrl, null);
-    if (jsonString == null) {
+    JSONObject manifest = mManifestStore.getManifest(manifestUrl);
+    String bundleUrl = mManifestStore.getBundleUrl(manifestUrl);
+    if (manifest == null || bundleUrl == null) {
       return null;
     }
 
-    try {
-      JSONObject json = new JSONObject(jsonString);
-      JSONObject manifest = json.getJSONObject(MANIFEST_KEY);
-      String bundleUrl = json.getString(BUNDLE_URL_KEY);
+    return new ManifestAndBundleUrl(manifest, bundleUrl);
+  }
 
-      return new ManifestAndBundleUrl(manifest, bundleUrl);
-    } catch (JSONException e) {
-      EXL.e(TAG, e);
-      return null;
-    }
+  // The manifest's own `bundleUrl`, without reading the rest of the manifest
+  public String getManifestBundleUrl(String manifestUrl) {
+    return mManifestStore.getManifestBundleUrl(manifestUrl);
   }
 
   public void updateSafeManifest(String manifestUrl, JSONObject manifest) {
-    try {
-      JSONObject parentObject;
-      String jsonString = mSharedPreferences.getString(manifestUrl, null);
-      if (jsonString != null) {
-        parentObject = new JSONObject(jsonString);
-      } else {
-        parentObject = new JSONObject();
-      }
-      parentObject.put(SAFE_MANIFEST_KEY, manifest);
-
-      mSharedPreferences.edit().putString(manifestUrl, parentObject.toString()).apply();
-    } catch (JSONException e) {
-      EXL.e(TAG, e);
-    }
+    mManifestStore.updateSafeManifest(manifestUrl, manifest);
   }
 
   public String getSafeManifestString(String manifestUrl) {
-    String jsonString = mSharedPreferences.getString(manifestUrl, null);
-    if (jsonString == null) {
-      return null;
-    }
-
-    try {
-      JSONObject json = new JSONObject(jsonString);
-      return json.getString(SAFE_MANIFEST_KEY);
-    } catch (JSONException e) {
-      EXL.e(TAG, e);
-      return null;
-    }
+    return mManifestStore.getSafeManifestString(manifestUrl);
   }
 
   public void updateExperienceMetadata(String id, JSONObject metadata) {
-    mSharedPreferences.edit().putString(EXPERIENCE_METADATA_PREFIX + id, metadata.toString()).apply();
+    mManifestStore.updateExperienceMetadata(id, metadata);
   }
 
   public JSONObject getExperienceMetadata(String id) {
-    String jsonString = mSharedPreferences.getString(EXPERIENCE_METADATA_PREFIX + id, null);
-    if (jsonString == null) {
-      return null;
-    }
+    return mManifestStore.getExperienceMetadata(id);
+  }
 
-    try {
-      return new JSONObject(jsonString);
-    } catch (JSONException e) {
-      EXL.e(TAG, e);
-      return null;
-    }
+  // Same as reading EXPERIENCE_METADATA_LOADING_ERROR from getExperienceMetadata, without reading
+  // the rest of the metadata
+  public boolean isExperienceLoadingError(String id) {
+    return mManifestStore.isExperienceLoadingError(id);
   }
 }
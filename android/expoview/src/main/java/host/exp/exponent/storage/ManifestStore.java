@@ -0,0 +1,529 @@
+// Copyright 2015-present 650 Industries. All rights reserved.
+
+package host.exp.exponent.storage;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.support.annotation.Nullable;
+
+import org.apache.commons.io.IOUtils;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import host.exp.exponent.ExponentManifest;
+import host.exp.exponent.analytics.EXL;
+
+import static host.exp.exponent.kernel.KernelConstants.BUNDLE_URL_KEY;
+import static host.exp.exponent.kernel.KernelConstants.MANIFEST_KEY;
+
+/*
+ * Stores manifests by manifest url and experience metadata by experience id.
+ *
+ * Each record is one small binary file: a header with the fields we need often, followed by the
+ * JSON blobs. Headers are read and kept in memory on first use, blobs are read from disk every time
+ * someone asks for them, so nothing keeps whole manifests alive for the life of the process.
+ *
+ * Writes update the in-memory state right away and go to disk on a background thread, the same
+ * contract as SharedPreferences.apply(). Until a write lands, reads are served from the pending
+ * bytes.
+ *
+ * Manifests and metadata used to be JSON strings in ExponentSharedPreferences. They're moved over
+ * on the write thread when the store is created, or by the first call if that comes earlier. The
+ * moved records are written like any other write, and the old keys are only dropped after that.
+ */
+public class ManifestStore {
+
+  private static final String TAG = ManifestStore.class.getSimpleName();
+
+  private static final String DIRECTORY = "manifest_store";
+  private static final String MANIFESTS_DIRECTORY = "manifests";
+  private static final String METADATA_DIRECTORY = "metadata";
+  private static final String MIGRATED_KEY = "manifest_store_migrated";
+  // Records of an older version are treated as missing and replaced by the next update
+  private static final int FORMAT_VERSION = 2;
+
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+  private static final int NO_BLOB = -1;
+
+  // Manifest record: format version, header length, header, manifest, safe manifest
+  private static class ManifestHeader {
+    @Nullable String bundleUrl;
+    // `bundleUrl` as it appears in the manifest, before ExponentUrls.toHttp
+    @Nullable String manifestBundleUrl;
+    // Digest of the manifest last passed to updateManifest. Empty for records migrated from
+    // ExponentSharedPreferences, whose copy in ExponentDB may be missing.
+    byte[] manifestDigest = new byte[0];
+    int manifestLength = NO_BLOB;
+    int safeManifestLength = NO_BLOB;
+    int blobOffset;
+  }
+
+  // Metadata record: format version, loadingError, metadata length, metadata
+  private static final int METADATA_HEADER_LENGTH = 9;
+
+  private final SharedPreferences mSharedPreferences;
+  private final File mManifestsDirectory;
+  private final File mMetadataDirectory;
+  private final ExecutorService mWriteExecutor = Executors.newSingleThreadExecutor();
+
+  private boolean mIsMigrated = false;
+  // Values are null for records we know don't exist
+  private final Map<String, ManifestHeader> mManifestHeaders = new HashMap<>();
+  private final Map<String, Boolean> mLoadingErrors = new HashMap<>();
+  private final Map<File, byte[]> mPendingWrites = new HashMap<>();
+
+  public ManifestStore(Context context, SharedPreferences sharedPreferences) {
+    mSharedPreferences = sharedPreferences;
+    File directory = new File(context.getFilesDir(), DIRECTORY);
+    mManifestsDirectory = new File(directory, MANIFESTS_DIRECTORY);
+    mMetadataDirectory = new File(directory, METADATA_DIRECTORY);
+
+    mWriteExecutor.execute(new Runnable() {
+      @Override
+      public void run() {
+        synchronized (ManifestStore.this) {
+          ensureMigrated();
+        }
+      }
+    });
+  }
+
+  // Returns true if `manifest` or `bundleUrl` differ from the ones stored before
+  public synchronized boolean updateManifest(String manifestUrl, JSONObject manifest, String bundleUrl) {
+    ensureMigrated();
+
+    byte[] manifestBytes = manifest.toString().getBytes(UTF_8);
+    byte[] manifestDigest = sha1(manifestBytes);
+    ManifestHeader oldHeader = getManifestHeader(manifestUrl);
+    boolean hasChanged = oldHeader == null
+        || !Arrays.equals(oldHeader.manifestDigest, manifestDigest)
+        || !(bundleUrl == null ? oldHeader.bundleUrl == null : bundleUrl.equals(oldHeader.bundleUrl));
+
+    // Same as before the store existed, the safe manifest is reset to the manifest that's being run
+    writeManifestRecord(manifestUrl, bundleUrl, manifest.optString(ExponentManifest.MANIFEST_BUNDLE_URL_KEY, null),
+        manifestBytes, manifestDigest, manifestBytes);
+    return hasChanged;
+  }
+
+  public synchronized void updateSafeManifest(String manifestUrl, JSONObject safeManifest) {
+    ensureMigrated();
+
+    ManifestHeader header = getManifestHeader(manifestUrl);
+    byte[] manifestBytes = header == null ? null : readBlob(manifestFile(manifestUrl), header.blobOffset, header.manifestLength);
+    writeManifestRecord(manifestUrl,
+        header == null ? null : header.bundleUrl,
+        header == null ? null : header.manifestBundleUrl,
+        manifestBytes,
+        header == null ? new byte[0] : header.manifestDigest,
+        safeManifest.toString().getBytes(UTF_8));
+  }
+
+  public synchronized @Nullable JSONObject getManifest(String manifestUrl) {
+    ensureMigrated();
+
+    ManifestHeader header = getManifestHeader(manifestUrl);
+    if (header == null) {
+      return null;
+    }
+    return toJSONObject(readBlob(manifestFile(manifestUrl), header.blobOffset, header.manifestLength));
+  }
+
+  public synchronized @Nullable String getBundleUrl(String manifestUrl) {
+    ensureMigrated();
+
+    ManifestHeader header = getManifestHeader(manifestUrl);
+    return header == null ? null : header.bundleUrl;
+  }
+
+  // Doesn't read the manifest itself
+  public synchronized @Nullable String getManifestBundleUrl(String manifestUrl) {
+    ensureMigrated();
+
+    ManifestHeader header = getManifestHeader(manifestUrl);
+    return header == null ? null : header.manifestBundleUrl;
+  }
+
+  public synchronized @Nullable String getSafeManifestString(String manifestUrl) {
+    ensureMigrated();
+
+    ManifestHeader header = getManifestHeader(manifestUrl);
+    if (header == null) {
+      return null;
+    }
+    byte[] safeManifestBytes = readBlob(manifestFile(manifestUrl), header.blobOffset + Math.max(header.manifestLength, 0),
+        header.safeManifestLength);
+    return safeManifestBytes == null ? null : new String(safeManifestBytes, UTF_8);
+  }
+
+  public synchronized void updateExperienceMetadata(String experienceId, JSONObject metadata) {
+    ensureMigrated();
+
+    writeMetadataRecord(experienceId, metadata);
+  }
+
+  public synchronized @Nullable JSONObject getExperienceMetadata(String experienceId) {
+    ensureMigrated();
+
+    if (getLoadingError(experienceId) == null) {
+      return null;
+    }
+    File file = metadataFile(experienceId);
+    byte[] header = readRange(file, 0, METADATA_HEADER_LENGTH);
+    if (header == null) {
+      return null;
+    }
+    int length = readInt(header, 5);
+    return toJSONObject(readBlob(file, METADATA_HEADER_LENGTH, length));
+  }
+
+  // Doesn't read the metadata itself
+  public synchronized boolean isExperienceLoadingError(String experienceId) {
+    ensureMigrated();
+
+    Boolean loadingError = getLoadingError(experienceId);
+    return loadingError != null && loadingError;
+  }
+
+  private void writeManifestRecord(String manifestUrl, @Nullable String bundleUrl, @Nullable String manifestBundleUrl,
+                                   @Nullable byte[] manifest, byte[] manifestDigest, @Nullable byte[] safeManifest) {
+    ManifestHeader header = new ManifestHeader();
+    header.bundleUrl = bundleUrl;
+    header.manifestBundleUrl = manifestBundleUrl;
+    header.manifestDigest = manifestDigest;
+    header.manifestLength = manifest == null ? NO_BLOB : manifest.length;
+    header.safeManifestLength = safeManifest == null ? NO_BLOB : safeManifest.length;
+
+    try {
+      ByteArrayOutputStream headerBytes = new ByteArrayOutputStream();
+      DataOutputStream headerOutput = new DataOutputStream(headerBytes);
+      writeNullableUTF(headerOutput, header.bundleUrl);
+      writeNullableUTF(headerOutput, header.manifestBundleUrl);
+      headerOutput.writeInt(header.manifestDigest.length);
+      headerOutput.write(header.manifestDigest);
+      headerOutput.writeInt(header.manifestLength);
+      headerOutput.writeInt(header.safeManifestLength);
+      headerOutput.flush();
+      header.blobOffset = 8 + headerBytes.size();
+
+      ByteArrayOutputStream recordBytes = new ByteArrayOutputStream();
+      DataOutputStream recordOutput = new DataOutputStream(recordBytes);
+      recordOutput.writeInt(FORMAT_VERSION);
+      recordOutput.writeInt(headerBytes.size());
+      headerBytes.writeTo(recordOutput);
+      if (manifest != null) {
+        recordOutput.write(manifest);
+      }
+      if (safeManifest != null) {
+        recordOutput.write(safeManifest);
+      }
+      recordOutput.flush();
+
+      mManifestHeaders.put(manifestUrl, header);
+      write(manifestFile(manifestUrl), recordBytes.toByteArray());
+    } catch (IOException e) {
+      EXL.e(TAG, e);
+    }
+  }
+
+  private void writeMetadataRecord(String experienceId, JSONObject metadata) {
+    boolean loadingError = metadata.optBoolean(ExponentSharedPreferences.EXPERIENCE_METADATA_LOADING_ERROR);
+    byte[] metadataBytes = metadata.toString().getBytes(UTF_8);
+
+    try {
+      ByteArrayOutputStream recordBytes = new ByteArrayOutputStream();
+      DataOutputStream recordOutput = new DataOutputStream(recordBytes);
+      recordOutput.writeInt(FORMAT_VERSION);
+      recordOutput.writeBoolean(loadingError);
+      recordOutput.writeInt(metadataBytes.length);
+      recordOutput.write(metadataBytes);
+      recordOutput.flush();
+
+      mLoadingErrors.put(experienceId, loadingError);
+      write(metadataFile(experienceId), recordBytes.toByteArray());
+    } catch (IOException e) {
+      EXL.e(TAG, e);
+    }
+  }
+
+  private @Nullable ManifestHeader getManifestHeader(String manifestUrl) {
+    if (mManifestHeaders.containsKey(manifestUrl)) {
+      return mManifestHeaders.get(manifestUrl);
+    }
+
+    ManifestHeader header = null;
+    File file = manifestFile(manifestUrl);
+    byte[] prefix = readRange(file, 0, 8);
+    if (prefix != null && readInt(prefix, 0) == FORMAT_VERSION) {
+      int headerLength = readInt(prefix, 4);
+      byte[] headerBytes = readRange(file, 8, headerLength);
+      if (headerBytes != null) {
+        try {
+          DataInputStream input = new DataInputStream(new ByteArrayInputStream(headerBytes));
+          header = new ManifestHeader();
+          header.bundleUrl = readNullableUTF(input);
+          header.manifestBundleUrl = readNullableUTF(input);
+          header.manifestDigest = new byte[input.readInt()];
+          input.readFully(header.manifestDigest);
+          header.manifestLength = input.readInt();
+          header.safeManifestLength = input.readInt();
+          header.blobOffset = 8 + headerLength;
+        } catch (IOException e) {
+          EXL.e(TAG, e);
+          header = null;
+        }
+      }
+    }
+
+    mManifestHeaders.put(manifestUrl, header);
+    return header;
+  }
+
+  private @Nullable Boolean getLoadingError(String experienceId) {
+    if (mLoadingErrors.containsKey(experienceId)) {
+      return mLoadingErrors.get(experienceId);
+    }
+
+    Boolean loadingError = null;
+    byte[] header = readRange(metadataFile(experienceId), 0, METADATA_HEADER_LENGTH);
+    if (header != null && readInt(header, 0) == FORMAT_VERSION) {
+      loadingError = header[4] != 0;
+    }
+
+    mLoadingErrors.put(experienceId, loadingError);
+    return loadingError;
+  }
+
+  private @Nullable byte[] readBlob(File file, int offset, int length) {
+    if (length == NO_BLOB) {
+      return null;
+    }
+    return readRange(file, offset, length);
+  }
+
+  private @Nullable byte[] readRange(File file, int offset, int length) {
+    byte[] pending = mPendingWrites.get(file);
+    if (pending != null) {
+      if (offset + length > pending.length) {
+        return null;
+      }
+      return Arrays.copyOfRange(pending, offset, offset + length);
+    }
+
+    RandomAccessFile randomAccessFile = null;
+    try {
+      randomAccessFile = new RandomAccessFile(file, "r");
+      if (offset + length > randomAccessFile.length()) {
+        EXL.e(TAG, "Truncated record " + file.getName());
+        return null;
+      }
+      byte[] bytes = new byte[length];
+      randomAccessFile.seek(offset);
+      randomAccessFile.readFully(bytes);
+      return bytes;
+    } catch (FileNotFoundException e) {
+      return null;
+    } catch (IOException e) {
+      EXL.e(TAG, e);
+      return null;
+    } finally {
+      IOUtils.closeQuietly(randomAccessFile);
+    }
+  }
+
+  private void write(final File file, final byte[] bytes) {
+    mPendingWrites.put(file, bytes);
+    mWriteExecutor.execute(new Runnable() {
+      @Override
+      public void run() {
+        writeFile(file, bytes);
+        synchronized (ManifestStore.this) {
+          // A newer write for the same file may have been queued in the meantime
+          if (mPendingWrites.get(file) == bytes) {
+            mPendingWrites.remove(file);
+          }
+        }
+      }
+    });
+  }
+
+  private void writeFile(File file, byte[] bytes) {
+    File directory = file.getParentFile();
+    if (!directory.exists()) {
+      directory.mkdirs();
+    }
+
+    File tempFile = new File(directory, file.getName() + ".tmp");
+    FileOutputStream outputStream = null;
+    try {
+      outputStream = new FileOutputStream(tempFile);
+      outputStream.write(bytes);
+      outputStream.flush();
+      outputStream.getFD().sync();
+      outputStream.close();
+      outputStream = null;
+
+      if (!tempFile.renameTo(file)) {
+        EXL.e(TAG, "Could not write " + file.getName());
+      }
+    } catch (IOException e) {
+      EXL.e(TAG, e);
+    } finally {
+      IOUtils.closeQuietly(outputStream);
+    }
+  }
+
+  // Moves manifests and metadata out of ExponentSharedPreferences, which keeps all of them in
+  // memory. Records go through the write thread like any other write, so this only reads record
+  // headers. The prefs are cleaned up once the writes queued before it have run.
+  private void ensureMigrated() {
+    if (mIsMigrated) {
+      return;
+    }
+    mIsMigrated = true;
+
+    if (mSharedPreferences.getBoolean(MIGRATED_KEY, false)) {
+      return;
+    }
+
+    final Map<String, File> migratedFiles = new HashMap<>();
+    for (Map.Entry<String, ?> entry : mSharedPreferences.getAll().entrySet()) {
+      String key = entry.getKey();
+      if (!(entry.getValue() instanceof String) || !((String) entry.getValue()).startsWith("{")) {
+        continue;
+      }
+
+      try {
+        JSONObject json = new JSONObject((String) entry.getValue());
+        if (key.startsWith(ExponentSharedPreferences.EXPERIENCE_METADATA_PREFIX)) {
+          String experienceId = key.substring(ExponentSharedPreferences.EXPERIENCE_METADATA_PREFIX.length());
+          // Already moved by a migration that didn't get to clean up, and maybe updated since
+          if (getLoadingError(experienceId) == null) {
+            writeMetadataRecord(experienceId, json);
+          }
+          migratedFiles.put(key, metadataFile(experienceId));
+        } else if (json.has(MANIFEST_KEY) || json.has(ExponentSharedPreferences.SAFE_MANIFEST_KEY)) {
+          if (getManifestHeader(key) == null) {
+            JSONObject manifest = json.optJSONObject(MANIFEST_KEY);
+            JSONObject safeManifest = json.optJSONObject(ExponentSharedPreferences.SAFE_MANIFEST_KEY);
+            writeManifestRecord(key,
+                json.optString(BUNDLE_URL_KEY, null),
+                manifest == null ? null : manifest.optString(ExponentManifest.MANIFEST_BUNDLE_URL_KEY, null),
+                manifest == null ? null : manifest.toString().getBytes(UTF_8),
+                // Not known to be in ExponentDB, so the next updateManifest reports a change
+                new byte[0],
+                safeManifest == null ? null : safeManifest.toString().getBytes(UTF_8));
+          }
+          migratedFiles.put(key, manifestFile(key));
+        }
+      } catch (JSONException e) {
+        // Not one of ours
+      }
+    }
+
+    mWriteExecutor.execute(new Runnable() {
+      @Override
+      public void run() {
+        // Keys whose record couldn't be written are moved again next time
+        boolean isComplete = true;
+        SharedPreferences.Editor editor = mSharedPreferences.edit();
+        for (Map.Entry<String, File> entry : migratedFiles.entrySet()) {
+          if (entry.getValue().exists()) {
+            editor.remove(entry.getKey());
+          } else {
+            isComplete = false;
+          }
+        }
+        if (isComplete) {
+          editor.putBoolean(MIGRATED_KEY, true);
+        }
+        editor.commit();
+      }
+    });
+  }
+
+  private File manifestFile(String manifestUrl) {
+    return new File(mManifestsDirectory, fileName(manifestUrl));
+  }
+
+  private File metadataFile(String experienceId) {
+    return new File(mMetadataDirectory, fileName(experienceId));
+  }
+
+  private static String fileName(String key) {
+    byte[] digest = sha1(key.getBytes(UTF_8));
+    StringBuilder builder = new StringBuilder(digest.length * 2);
+    for (byte b : digest) {
+      builder.append(Character.forDigit((b >> 4) & 0xF, 16));
+      builder.append(Character.forDigit(b & 0xF, 16));
+    }
+    return builder.toString();
+  }
+
+  private static byte[] sha1(byte[] bytes) {
+    try {
+      return MessageDigest.getInstance("SHA-1").digest(bytes);
+    } catch (NoSuchAlgorithmException e) {
+      // Every Android version has SHA-1
+      throw new RuntimeException(e);
+    }
+  }
+
+  private static @Nullable JSONObject toJSONObject(@Nullable byte[] bytes) {
+    if (bytes == null) {
+      return null;
+    }
+
+    try {
+      return new JSONObject(new String(bytes, UTF_8));
+    } catch (JSONException e) {
+      EXL.e(TAG, e);
+      return null;
+    }
+  }
+
+  private static int readInt(byte[] bytes, int offset) {
+    return ((bytes[offset] & 0xFF) << 24)
+        | ((bytes[offset + 1] & 0xFF) << 16)
+        | ((bytes[offset + 2] & 0xFF) << 8)
+        | (bytes[offset + 3] & 0xFF);
+  }
+
+  // Length prefixed like the blobs. writeUTF can't write strings longer than 64KB.
+  private static void writeNullableUTF(DataOutputStream output, @Nullable String value) throws IOException {
+    if (value == null) {
+      output.writeInt(NO_BLOB);
+      return;
+    }
+    byte[] bytes = value.getBytes(UTF_8);
+    output.writeInt(bytes.length);
+    output.write(bytes);
+  }
+
+  private static @Nullable String readNullableUTF(DataInputStream input) throws IOException {
+    int length = input.readInt();
+    if (length == NO_BLOB) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    input.readFully(bytes);
+    return new String(bytes, UTF_8);
+  }
+}
@@ -16,14 +16,12 @@ import android.provider.Settings;
 import android.util.Log;
 
 import com.crashlytics.android.Crashlytics;
-import com.facebook.common.internal.ByteStreams;
 import com.facebook.drawee.backends.pipeline.Fresco;
 import com.facebook.stetho.Stetho;
 import com.raizlabs.android.dbflow.config.FlowManager;
 
+import org.apache.commons.codec.binary.Hex;
 import org.apache.commons.io.IOUtils;
-import org.apache.commons.io.output.ByteArrayOutputStream;
-import org.apache.commons.io.output.TeeOutputStream;
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
@@ -39,12 +37,15 @@ import java.io.InputStreamReader;
 import java.io.UnsupportedEncodingException;
 import java.lang.reflect.Field;
 import java.net.URLEncoder;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.security.Provider;
 import java.security.Security;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import javax.inject.Inject;
 
@@ -71,6 +72,7 @@ import host.exp.exponent.network.ExpoHttpCallback;
 import host.exp.exponent.network.ExpoResponse;
 import host.exp.exponent.network.ExponentHttpClient;
 import host.exp.exponent.network.ExponentNetwork;
+import host.exp.exponent.storage.BundleStore;
 import host.exp.exponent.storage.ExponentSharedPreferences;
 import host.exp.exponent.utils.PermissionsHelper;
 import versioned.host.exp.exponent.ExponentPackageDelegate;
@@ -85,18 +87,27 @@ public class Exponent {
   private Context mContext;
   private Application mApplication;
   private Activity mActivity;
-  private Map<String, String> mBundleStrings = new HashMap<>();
+  private final Set<String> mFreshBundlePaths = new HashSet<>();
 
+  // Only bundles that were downloaded during this process are handed to RN as a string, and the
+  // file is read only once RN asks for it. Everything else is loaded by RN straight from disk.
   public String getBundleSource(final String path) {
-    synchronized (mBundleStrings) {
-      if (mBundleStrings.containsKey(path)) {
-        final String result = mBundleStrings.get(path);
-        mBundleStrings.remove(path);
-        return result;
-      } else {
+    synchronized (mFreshBundlePaths) {
+      if (!mFreshBundlePaths.remove(path)) {
         return null;
       }
     }
+
+    InputStream inputStream = null;
+    try {
+      inputStream = new FileInputStream(path);
+      return IOUtils.toString(inputStream, "UTF-8");
+    } catch (IOException e) {
+      EXL.e(TAG, e);
+      return null;
+    } finally {
+      IOUtils.closeQuietly(inputStream);
+    }
   }
 
   @Inject
@@ -111,6 +122,8 @@ public class Exponent {
   @Inject
   ExpoHandler mExpoHandler;
 
+  private BundleStore mBundleStore;
+
   public static void initialize(Context context, Application application) {
     if (sInstance == null) {
       new Exponent(context, application);
@@ -134,6 +147,14 @@ public class Exponent {
     NativeModuleDepsProvider.initialize(application);
     NativeModuleDepsProvider.getInstance().inject(Exponent.class, this);
 
+    mBundleStore = new BundleStore(context);
+    new Thread(new Runnable() {
+      @Override
+      public void run() {
+        mBundleStore.evict();
+      }
+    }).start();
+
     // Verifying SSL certs is slow on Android, so send an HTTPS request to our server as early as possible.
     // This speeds up the manifest request in a shell app from ~500ms to ~250ms.
     try {
@@ -319,6 +340,20 @@ public class Exponent {
     void onError(Exception e);
   }
 
+  // Separate from BundleListener since versioned code implements that interface.
+  public interface BundleProgressListener {
+    // `totalBytes` is -1 if the server didn't send a Content-Length.
+    void onBundleProgress(long bytesWritten, long totalBytes);
+  }
+
+  // Aborts the requests of a bundle fetch started with `requestTag`. Its listener gets an error.
+  public void cancelJSBundleFetch(final Object requestTag) {
+    mExponentNetwork.getLongTimeoutClient().cancel(requestTag);
+  }
+
+  private static final int BUNDLE_WRITE_BUFFER_SIZE = 16 * 1024;
+  private static final long BUNDLE_PROGRESS_INTERVAL_BYTES = 256 * 1024;
+
   // `id` must be URL encoded. Returns true if found cached bundle.
   public boolean loadJSBundle(final JSONObject manifest, final String urlString, final String id, String abiVersion, final BundleListener bundleListener) {
     return loadJSBundle(manifest, urlString, id, abiVersion, bundleListener, false);
@@ -329,6 +364,15 @@ public class Exponent {
   }
 
   public boolean loadJSBundle(JSONObject manifest, final String urlString, final String id, String abiVersion, final BundleListener bundleListener, boolean shouldForceNetwork, boolean shouldForceCache) {
+    return loadJSBundle(manifest, urlString, id, abiVersion, bundleListener, null, shouldForceNetwork, shouldForceCache);
+  }
+
+  public boolean loadJSBundle(JSONObject manifest, final String urlString, final String id, String abiVersion, final BundleListener bundleListener, final BundleProgressListener progressListener, boolean shouldForceNetwork, boolean shouldForceCache) {
+    return loadJSBundle(manifest, urlString, id, abiVersion, bundleListener, progressListener, shouldForceNetwork, shouldForceCache, null);
+  }
+
+  // Requests are tagged with `requestTag`, if not null, so that the fetch can be cancelled with `cancelJSBundleFetch`.
+  public boolean loadJSBundle(JSONObject manifest, final String urlString, final String id, String abiVersion, final BundleListener bundleListener, final BundleProgressListener progressListener, boolean shouldForceNetwork, boolean shouldForceCache, final Object requestTag) {
     if (!id.equals(KernelConstants.KERNEL_BUNDLE_ID)) {
       Analytics.markEvent(Analytics.TimedEvent.STARTED_FETCHING_BUNDLE);
     }
@@ -345,17 +389,12 @@ public class Exponent {
 
     // The bundle is cached in two places:
     //   1. The OkHttp cache (which lives in internal storage)
-    //   2. Written to our own file (in cache dir)
+    //   2. Written to our own file in the BundleStore (in files dir)
     // Ideally we'd take the OkHttp response and send the InputStream directly to RN but RN doesn't
     // support that right now so we need to write the response to a file.
     // getCacheDir() doesn't work here! Some phones clean the file up in between when we check
     // file.exists() and when we feed it into React Native!
-    // TODO: clean up files here!
-    final String fileName = KernelConstants.BUNDLE_FILE_PREFIX + id + Integer.toString(urlString.hashCode()) + '-' + abiVersion;
-    final File directory = new File(mContext.getFilesDir(), abiVersion);
-    if (!directory.exists()) {
-      directory.mkdir();
-    }
+    final String bundleKey = KernelConstants.BUNDLE_FILE_PREFIX + id + Integer.toString(urlString.hashCode()) + '-' + abiVersion;
 
     try {
       Request.Builder requestBuilder = KernelConstants.KERNEL_BUNDLE_ID.equals(id)
@@ -365,6 +404,9 @@ public class Exponent {
       if (shouldForceNetwork) {
         requestBuilder.cacheControl(CacheControl.FORCE_NETWORK);
       }
+      if (requestTag != null) {
+        requestBuilder.tag(requestTag);
+      }
       Request request = requestBuilder.build();
       // Use OkHttpClient with long read timeout for dev bundles
       ExponentHttpClient.SafeCallback callback = new ExponentHttpClient.SafeCallback() {
@@ -395,51 +437,51 @@ public class Exponent {
             if (!id.equals(KernelConstants.KERNEL_BUNDLE_ID)) {
               Analytics.markEvent(Analytics.TimedEvent.STARTED_WRITING_BUNDLE);
             }
-            final File sourceFile = new File(directory, fileName);
-            boolean hasCachedSourceFile = false;
+            File cachedSourceFile = null;
 
             if (response.networkResponse() == null || response.networkResponse().code() == KernelConstants.HTTP_NOT_MODIFIED) {
               // If we're getting a cached response don't rewrite the file to disk.
               EXL.d(TAG, "Got cached OkHttp response for " + urlString);
-              if (sourceFile.exists()) {
-                hasCachedSourceFile = true;
+              cachedSourceFile = mBundleStore.getBundleFile(bundleKey);
+              if (cachedSourceFile != null) {
                 EXL.d(TAG, "Have cached source file for " + urlString);
               }
             }
 
-            if (!hasCachedSourceFile) {
-              InputStream inputStream = null;
-              FileOutputStream fileOutputStream = null;
-              ByteArrayOutputStream byteArrayOutputStream = null;
-              TeeOutputStream teeOutputStream = null;
+            final File sourceFile;
+            if (cachedSourceFile != null) {
+              sourceFile = cachedSourceFile;
+            } else {
+              EXL.d(TAG, "Do not have cached source file for " + urlString);
+              long totalBytes = -1;
+              String contentLength = response.headers().get("Content-Length");
+              if (contentLength != null) {
+                try {
+                  totalBytes = Long.parseLong(contentLength);
+                } catch (NumberFormatException e) {
+                  EXL.e(TAG, e);
+                }
+              }
 
+              File tempFile = mBundleStore.createTempFile();
               try {
-                EXL.d(TAG, "Do not have cached source file for " + urlString);
-                inputStream = response.body().byteStream();
-
-                fileOutputStream = new FileOutputStream(sourceFile);
-                byteArrayOutputStream = new ByteArrayOutputStream();
-
-                // Multiplex the stream. Write both to file and string.
-                teeOutputStream = new TeeOutputStream(fileOutputStream, byteArrayOutputStream);
-
-                ByteStreams.copy(inputStream, teeOutputStream);
-                teeOutputStream.flush();
-
-                mBundleStrings.put(sourceFile.getAbsolutePath(), byteArrayOutputStream.toString());
-
-                fileOutputStream.flush();
-                fileOutputStream.getFD().sync();
+                String digest = writeBundleToFile(response.body().byteStream(), tempFile, totalBytes, progressListener);
+                sourceFile = mBundleStore.commit(bundleKey, tempFile, digest);
               } finally {
-                IOUtils.closeQuietly(teeOutputStream);
-                IOUtils.closeQuietly(fileOutputStream);
-                IOUtils.closeQuietly(byteArrayOutputStream);
-                IOUtils.closeQuietly(inputStream);
+                if (tempFile.exists()) {
+                  tempFile.delete();
+                }
+              }
+
+              synchronized (mFreshBundlePaths) {
+                mFreshBundlePaths.add(sourceFile.getAbsolutePath());
               }
             }
 
             if (!id.equals(KernelConstants.KERNEL_BUNDLE_ID)) {
               Analytics.markEvent(Analytics.TimedEvent.FINISHED_WRITING_BUNDLE);
+              mBundleStore.logMetrics();
+              mExponentNetwork.logConnectionMetrics();
             }
 
             if (Constants.WRITE_BUNDLE_TO_LOG) {
@@ -476,8 +518,48 @@ public class Exponent {
     }
 
     // Guess whether we'll use the cache based on whether the source file is saved.
-    final File sourceFile = new File(directory, fileName);
-    return sourceFile.exists();
+    return mBundleStore.hasBundle(bundleKey);
+  }
+
+  // Streams the bundle to `destination` and fsyncs it so it can be committed to the BundleStore.
+  // Returns the hex SHA-256 of what was written.
+  private String writeBundleToFile(final InputStream inputStream, final File destination, final long totalBytes,
+                                   final BundleProgressListener progressListener) throws IOException {
+    FileOutputStream fileOutputStream = null;
+
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      fileOutputStream = new FileOutputStream(destination);
+
+      byte[] buffer = new byte[BUNDLE_WRITE_BUFFER_SIZE];
+      long bytesWritten = 0;
+      long lastReportedBytes = 0;
+      int read;
+      while ((read = inputStream.read(buffer)) != -1) {
+        fileOutputStream.write(buffer, 0, read);
+        digest.update(buffer, 0, read);
+        bytesWritten += read;
+
+        if (progressListener != null && bytesWritten - lastReportedBytes >= BUNDLE_PROGRESS_INTERVAL_BYTES) {
+          lastReportedBytes = bytesWritten;
+          progressListener.onBundleProgress(bytesWritten, totalBytes);
+        }
+      }
+
+      fileOutputStream.flush();
+      fileOutputStream.getFD().sync();
+
+      if (progressListener != null) {
+        progressListener.onBundleProgress(bytesWritten, totalBytes);
+      }
+
+      return new String(Hex.encodeHex(digest.digest()));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IOException(e);
+    } finally {
+      IOUtils.closeQuietly(fileOutputStream);
+      IOUtils.closeQuietly(inputStream);
+    }
   }
 
   private void printSourceFile(String path) {
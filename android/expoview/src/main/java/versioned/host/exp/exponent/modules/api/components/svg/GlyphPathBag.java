@@ -16,7 +16,10 @@ class GlyphPathBag {
         paths.add(new Path());
     }
 
-    Path getOrCreateAndCache(char ch, String current) {
+    /**
+     * Returns the cached outline itself, which must not be modified.
+     */
+    Path getOrCreate(char ch, String current) {
         int index = getIndex(ch);
         Path cached;
 
@@ -35,9 +38,11 @@ class GlyphPathBag {
             paths.add(cached);
         }
 
-        Path glyph = new Path();
-        glyph.addPath(cached);
-        return glyph;
+        return cached;
+    }
+
+    int size() {
+        return paths.size() - 1;
     }
 
     private int getIndex(char ch) {
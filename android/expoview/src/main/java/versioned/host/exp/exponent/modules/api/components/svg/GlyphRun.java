@@ -0,0 +1,177 @@
+package versioned.host.exp.exponent.modules.api.components.svg;
+
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.RectF;
+import android.graphics.Typeface;
+import android.os.Build;
+import android.util.LruCache;
+
+import javax.annotation.Nullable;
+
+/**
+ * How a line of text is shaped in a font: the advances of its characters, the grapheme clusters
+ * they form and the outlines of the glyphs. None of it depends on where the text is positioned, so
+ * runs are cached and shared by every tspan that renders the same text with the same paint.
+ *
+ * Spacing, kerning, text anchors and text paths are applied to the cached values by the caller.
+ */
+class GlyphRun {
+    // Bound on the estimated memory used by cached runs, in bytes
+    private static final int MAX_CACHE_SIZE = 2 * 1024 * 1024;
+    private static final int RUN_SIZE_ESTIMATE = 128;
+    private static final int CHAR_SIZE_ESTIMATE = 32;
+    // Outlines are native, their size isn't known, so an average glyph of ~30 points is assumed.
+    private static final int GLYPH_SIZE_ESTIMATE = 512;
+
+    private static final LruCache<Key, GlyphRun> cache = new LruCache<Key, GlyphRun>(MAX_CACHE_SIZE) {
+        @Override
+        protected int sizeOf(Key key, GlyphRun run) {
+            return run.size;
+        }
+    };
+
+    // Advances of each character as measured by the text shaper, zero for the ones after the first
+    // in a grapheme cluster
+    final float[] advances;
+    final double textMeasure;
+    // Whether the character is part of a cluster started by a previous one
+    final boolean[] ligature;
+    // Whether the character starts a cluster of more than one character
+    final boolean[] hasLigature;
+    // Text of the cluster the character starts, empty for the rest of the cluster
+    final String[] clusters;
+    final double[] clusterWidths;
+    // Outlines of the clusters, at the origin. Shared, callers must not modify them.
+    final Path[] glyphs;
+    // Whether the cluster has no outline, e.g. an emoji, and has to be drawn as text
+    final boolean[] isEmoji;
+
+    private final int size;
+
+    /**
+     * Returns the shaped run of the line in the paint's current typeface, text size, flags and
+     * font feature settings, which make up the cache key together with the text itself.
+     */
+    static GlyphRun get(Paint paint, String line) {
+        Key key = new Key(paint, line);
+        GlyphRun run = cache.get(key);
+        if (run == null) {
+            run = new GlyphRun(paint, line);
+            cache.put(key, run);
+        }
+        return run;
+    }
+
+    private GlyphRun(Paint paint, String line) {
+        final int length = line.length();
+        final char[] chars = line.toCharArray();
+
+        advances = new float[length];
+        paint.getTextWidths(line, advances);
+        textMeasure = paint.measureText(line);
+
+        ligature = new boolean[length];
+        hasLigature = new boolean[length];
+        clusters = new String[length];
+        clusterWidths = new double[length];
+        glyphs = new Path[length];
+        isEmoji = new boolean[length];
+
+        GlyphPathBag bag = new GlyphPathBag(paint);
+        RectF bounds = new RectF();
+        int glyphCount = 0;
+
+        for (int index = 0; index < length; index++) {
+            char currentChar = chars[index];
+            String current = String.valueOf(currentChar);
+
+            if (ligature[index]) {
+                current = "";
+            } else {
+                int nextIndex = index;
+                while (++nextIndex < length) {
+                    float nextWidth = advances[nextIndex];
+                    if (nextWidth > 0) {
+                        break;
+                    }
+                    String nextLigature = current + String.valueOf(chars[nextIndex]);
+                    ligature[nextIndex] = true;
+                    current = nextLigature;
+                    hasLigature[index] = true;
+                }
+            }
+            clusters[index] = current;
+            clusterWidths[index] = paint.measureText(current);
+
+            if (ligature[index]) {
+                continue;
+            }
+
+            Path glyph;
+            if (hasLigature[index]) {
+                glyph = new Path();
+                paint.getTextPath(current, 0, current.length(), 0, 0, glyph);
+                glyphCount++;
+            } else {
+                glyph = bag.getOrCreate(currentChar, current);
+            }
+            glyph.computeBounds(bounds, true);
+            glyphs[index] = glyph;
+            isEmoji[index] = bounds.width() == 0;
+        }
+
+        glyphCount += bag.size();
+        size = RUN_SIZE_ESTIMATE + length * CHAR_SIZE_ESTIMATE + glyphCount * GLYPH_SIZE_ESTIMATE;
+    }
+
+    private static class Key {
+        private final @Nullable Typeface typeface;
+        private final float textSize;
+        private final int flags;
+        private final @Nullable String fontFeatureSettings;
+        private final String text;
+        private final int hash;
+
+        Key(Paint paint, String text) {
+            this.typeface = paint.getTypeface();
+            this.textSize = paint.getTextSize();
+            this.flags = paint.getFlags();
+            this.fontFeatureSettings = Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP
+                ? paint.getFontFeatureSettings()
+                : null;
+            this.text = text;
+
+            int hash = text.hashCode();
+            hash = 31 * hash + (typeface != null ? typeface.hashCode() : 0);
+            hash = 31 * hash + Float.floatToIntBits(textSize);
+            hash = 31 * hash + flags;
+            hash = 31 * hash + (fontFeatureSettings != null ? fontFeatureSettings.hashCode() : 0);
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return hash == other.hash
+                && textSize == other.textSize
+                && flags == other.flags
+                && text.equals(other.text)
+                && (typeface == null ? other.typeface == null : typeface.equals(other.typeface))
+                && (fontFeatureSettings == null
+                    ? other.fontFeatureSettings == null
+                    : fontFeatureSettings.equals(other.fontFeatureSettings));
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -10,7 +10,9 @@
 package versioned.host.exp.exponent.modules.api.components.svg;
 
 import android.annotation.SuppressLint;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
+import android.graphics.Color;
 import android.graphics.Matrix;
 import android.graphics.Paint;
 import android.graphics.Path;
@@ -28,9 +30,24 @@ import javax.annotation.Nullable;
 
 @SuppressLint("ViewConstructor")
 class GroupView extends RenderableView {
+    private static final float LAYER_MATRIX_EPSILON = 1e-4f;
+
     @Nullable ReadableMap mFont;
     GlyphContext mGlyphContext;
 
+    // When enabled, the children are rendered into a layer of their own, which is only composited
+    // again while nothing but the group's transform or opacity changes.
+    private boolean mCacheLayer;
+    private @Nullable Bitmap mLayer;
+    private @Nullable Canvas mLayerCanvas;
+    private boolean mLayerValid;
+    // Canvas matrix the layer was rendered with, and the bounds of what was rendered into it
+    private final Matrix mLayerMatrix = new Matrix();
+    private final Matrix mLayerToCanvasMatrix = new Matrix();
+    private @Nullable RectF mLayerBounds;
+    private final Paint mLayerPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private final float[] mLayerMatrixValues = new float[9];
+
     public GroupView(ReactContext reactContext) {
         super(reactContext);
     }
@@ -41,8 +58,59 @@ class GroupView extends RenderableView {
         invalidate();
     }
 
+    void setCacheLayer(boolean cacheLayer) {
+        mCacheLayer = cacheLayer;
+        if (!cacheLayer) {
+            releaseLayer();
+        }
+        invalidate();
+    }
+
+    void invalidateLayer() {
+        mLayerValid = false;
+    }
+
+    @Override
+    void invalidateLayers() {
+        invalidateLayer();
+        super.invalidateLayers();
+    }
+
+    @Override
+    void clearChildCache() {
+        invalidateLayer();
+        super.clearChildCache();
+    }
+
+    @Override
+    public void setOpacity(float opacity) {
+        if (!mCacheLayer) {
+            super.setOpacity(opacity);
+            return;
+        }
+        // Only changes how the layer is composited
+        mOpacity = opacity;
+        invalidateParentLayers();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        releaseLayer();
+    }
+
+    private void releaseLayer() {
+        if (mLayer != null) {
+            mLayer.recycle();
+        }
+        mLayer = null;
+        mLayerCanvas = null;
+        mLayerValid = false;
+    }
+
     void setupGlyphContext(Canvas canvas) {
-        RectF clipBounds = new RectF(canvas.getClipBounds());
+        SvgView svg = getSvgView();
+        RectF clipBounds = new RectF(svg != null ? svg.getClipBounds(canvas) : canvas.getClipBounds());
         if (mMatrix != null) {
             mMatrix.mapRect(clipBounds);
         }
@@ -76,17 +144,129 @@ class GroupView extends RenderableView {
 
     void draw(final Canvas canvas, final Paint paint, final float opacity) {
         setupGlyphContext(canvas);
+        mRenderedBounds = null;
         if (opacity > MIN_OPACITY_FOR_DRAW) {
+            if (canUseLayer(canvas)) {
+                drawLayer(canvas, paint, opacity);
+                return;
+            }
             clip(canvas, paint);
             drawGroup(canvas, paint, opacity);
         }
     }
 
+    private boolean canUseLayer(Canvas canvas) {
+        // Subclasses lay out or use their children differently, and masks render into canvases of their own.
+        SvgView svg = getSvgView();
+        return mCacheLayer && getClass() == GroupView.class && svg != null && svg.isBitmapCanvas(canvas);
+    }
+
+    @SuppressWarnings("deprecation")
+    private void drawLayer(final Canvas canvas, final Paint paint, final float opacity) {
+        // The SvgView's canvas has no matrix of its own, so this maps its bitmap's pixels
+        Matrix canvasMatrix = canvas.getMatrix();
+        int width = canvas.getWidth();
+        int height = canvas.getHeight();
+
+        boolean needsRender = !mLayerValid || mLayer == null || mLayer.getWidth() != width || mLayer.getHeight() != height
+                || !mLayerMatrix.invert(mLayerToCanvasMatrix);
+        if (!needsRender) {
+            mLayerToCanvasMatrix.postConcat(canvasMatrix);
+            needsRender = !canComposite(mLayerToCanvasMatrix, width, height);
+        }
+        if (needsRender) {
+            renderLayer(canvasMatrix, width, height, paint);
+            // Rendered with the canvas' matrix, so it's composited as is
+            mLayerToCanvasMatrix.reset();
+        }
+
+        int count = canvas.save();
+        canvas.setMatrix(mLayerToCanvasMatrix);
+        mLayerPaint.setAlpha(Math.round(255 * Math.min(1f, opacity * mOpacity)));
+        canvas.drawBitmap(mLayer, 0, 0, mLayerPaint);
+        canvas.restoreToCount(count);
+
+        if (mLayerBounds != null) {
+            mRenderedBounds = new RectF(mLayerBounds);
+            mLayerToCanvasMatrix.mapRect(mRenderedBounds);
+        }
+    }
+
+    /**
+     * Whether the layer can be composited with the matrix instead of being rendered again. Only
+     * moving it by whole pixels keeps it sharp, and only if nothing was clipped away at the layer's
+     * edges when it was rendered, as that would show up missing.
+     */
+    private boolean canComposite(Matrix layerToCanvasMatrix, int width, int height) {
+        if (layerToCanvasMatrix.isIdentity()) {
+            return true;
+        }
+        float[] values = mLayerMatrixValues;
+        layerToCanvasMatrix.getValues(values);
+        if (!isAbout(values[Matrix.MSCALE_X], 1) || !isAbout(values[Matrix.MSCALE_Y], 1)
+                || !isAbout(values[Matrix.MSKEW_X], 0) || !isAbout(values[Matrix.MSKEW_Y], 0)
+                || !isAbout(values[Matrix.MPERSP_0], 0) || !isAbout(values[Matrix.MPERSP_1], 0)
+                || !isAbout(values[Matrix.MPERSP_2], 1)) {
+            return false;
+        }
+        float dx = values[Matrix.MTRANS_X];
+        float dy = values[Matrix.MTRANS_Y];
+        if (!isAbout(dx, Math.round(dx)) || !isAbout(dy, Math.round(dy))) {
+            return false;
+        }
+        return mLayerBounds == null || (mLayerBounds.left >= 0 && mLayerBounds.top >= 0
+                && mLayerBounds.right <= width && mLayerBounds.bottom <= height);
+    }
+
+    private static boolean isAbout(float value, float expected) {
+        return Math.abs(value - expected) < LAYER_MATRIX_EPSILON;
+    }
+
+    /**
+     * Whether the layer is composited with a matrix other than the one it was rendered with, so
+     * the bounds its children were last rendered in aren't where they are on the SvgView.
+     */
+    boolean isLayerTransformed() {
+        return mCacheLayer && mLayer != null && !mLayerToCanvasMatrix.isIdentity();
+    }
+
+    private void renderLayer(Matrix canvasMatrix, int width, int height, Paint paint) {
+        if (mLayer == null || mLayer.getWidth() != width || mLayer.getHeight() != height) {
+            releaseLayer();
+            mLayer = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            mLayerCanvas = new Canvas(mLayer);
+        } else {
+            mLayer.eraseColor(Color.TRANSPARENT);
+        }
+        mLayerCanvas.setMatrix(canvasMatrix);
+        mLayerMatrix.set(canvasMatrix);
+
+        // Children measure themselves against the canvas they're rendered into
+        SvgView svg = getSvgView();
+        Canvas previousCanvas = svg.swapCanvas(mLayerCanvas);
+        int count = mLayerCanvas.save();
+        try {
+            clip(mLayerCanvas, paint);
+            // The group's opacity is applied when compositing the layer
+            drawChildren(mLayerCanvas, paint, 1f);
+        } finally {
+            mLayerCanvas.restoreToCount(count);
+            svg.swapCanvas(previousCanvas);
+        }
+        mLayerBounds = mRenderedBounds;
+        mLayerValid = true;
+    }
+
     void drawGroup(final Canvas canvas, final Paint paint, final float opacity) {
+        drawChildren(canvas, paint, opacity * mOpacity);
+    }
+
+    private void drawChildren(final Canvas canvas, final Paint paint, final float opacity) {
         pushGlyphContext();
         final SvgView svg = getSvgView();
         final GroupView self = this;
         final RectF groupRect = new RectF();
+        RectF renderedBounds = null;
         for (int i = 0; i < getChildCount(); i++) {
             View child = getChildAt(i);
             if (child instanceof MaskView) {
@@ -99,11 +279,18 @@ class GroupView extends RenderableView {
                 }
 
                 int count = node.saveAndSetupCanvas(canvas);
-                node.render(canvas, paint, opacity * mOpacity);
+                node.render(canvas, paint, opacity);
                 RectF r = node.getClientRect();
                 if (r != null) {
                     groupRect.union(r);
                 }
+                if (node.mRenderedBounds != null) {
+                    if (renderedBounds == null) {
+                        renderedBounds = new RectF(node.mRenderedBounds);
+                    } else {
+                        renderedBounds.union(node.mRenderedBounds);
+                    }
+                }
 
                 node.restoreCanvas(canvas, count);
 
@@ -116,6 +303,7 @@ class GroupView extends RenderableView {
                 }
             } else if (child instanceof SvgView) {
                 SvgView svgView = (SvgView)child;
+                svg.mHasNestedSvg = true;
                 svgView.drawChildren(canvas);
                 if (svgView.isResponsible()) {
                     svg.enableTouchEvents();
@@ -123,6 +311,7 @@ class GroupView extends RenderableView {
             }
         }
         this.setClientRect(groupRect);
+        mRenderedBounds = renderedBounds;
         popGlyphContext();
     }
 
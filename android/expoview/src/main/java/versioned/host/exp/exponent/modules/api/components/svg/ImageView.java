@@ -149,6 +149,7 @@ class ImageView extends RenderableView {
             @Override
             public void onNewResultImpl(Bitmap bitmap) {
                 mLoading.set(false);
+                invalidateLayers();
                 SvgView view = getSvgView();
                 if (view != null) {
                     view.invalidate();
@@ -56,6 +56,8 @@ abstract public class RenderableView extends VirtualView {
     private static final int FILL_RULE_EVENODD = 0;
     static final int FILL_RULE_NONZERO = 1;
 
+    private static final float RENDERED_BOUNDS_OUTSET = 2;
+
     /*
     Used in mergeProperties, keep public
     */
@@ -315,6 +317,7 @@ abstract public class RenderableView extends VirtualView {
     @Override
     void draw(Canvas canvas, Paint paint, float opacity) {
         opacity *= mOpacity;
+        mRenderedBounds = null;
 
         if (opacity > MIN_OPACITY_FOR_DRAW) {
             boolean computePaths = mPath == null;
@@ -343,13 +346,23 @@ abstract public class RenderableView extends VirtualView {
                 }
                 canvas.drawPath(path, paint);
             }
-            if (setupStrokePaint(paint, opacity * strokeOpacity)) {
+            boolean stroked = setupStrokePaint(paint, opacity * strokeOpacity);
+            if (stroked) {
                 if (computePaths) {
                     mStrokePath = new Path();
                     paint.getFillPath(path, mStrokePath);
                 }
                 canvas.drawPath(path, paint);
             }
+
+            // The stroke's outline contains the path, so its bounds contain the fill's.
+            Path outline = stroked && mStrokePath != null ? mStrokePath : path;
+            RectF renderedBounds = new RectF();
+            outline.computeBounds(renderedBounds, true);
+            svgToViewMatrix.mapRect(renderedBounds);
+            // Anti-aliasing can touch pixels just outside the bounds
+            renderedBounds.inset(-RENDERED_BOUNDS_OUTSET, -RENDERED_BOUNDS_OUTSET);
+            mRenderedBounds = renderedBounds;
         }
     }
 
@@ -345,6 +345,17 @@ class RenderableViewManager extends ViewGroupManager<VirtualView> {
         public void setFont(GroupView node, @Nullable ReadableMap font) {
             node.setFont(font);
         }
+
+        /**
+         * Elements are never drawn by Android themselves, so instead of a hardware texture this caches
+         * the group's rendering in a layer that is reused while only its transform or opacity changes.
+         */
+        @Override
+        public void setRenderToHardwareTexture(VirtualView node, boolean useHWTexture) {
+            if (node instanceof GroupView) {
+                ((GroupView) node).setCacheLayer(useHWTexture);
+            }
+        }
     }
 
 
@@ -1006,6 +1017,7 @@ class RenderableViewManager extends ViewGroupManager<VirtualView> {
         Matrix m = node.getMatrix();
         node.mTransform = m;
         node.mTransformInvertible = m.invert(node.mInvTransform);
+        node.invalidateParentLayers();
     }
 
     @ReactProp(name = "propList")
@@ -1030,6 +1042,13 @@ class RenderableViewManager extends ViewGroupManager<VirtualView> {
         }
     }
 
+    private void invalidateSvgViewElement(VirtualView node) {
+        SvgView view = node.getSvgView();
+        if (view!= null) {
+            view.invalidateElement(node);
+        }
+    }
+
     @Override
     protected void addEventEmitters(ThemedReactContext reactContext, VirtualView view) {
         super.addEventEmitters(reactContext, view);
@@ -1037,6 +1056,7 @@ class RenderableViewManager extends ViewGroupManager<VirtualView> {
             @Override
             public void onChildViewAdded(View view, View view1) {
                 if (view instanceof VirtualView) {
+                    ((VirtualView) view).invalidateLayers();
                     invalidateSvgView((VirtualView) view);
                 }
             }
@@ -1044,6 +1064,7 @@ class RenderableViewManager extends ViewGroupManager<VirtualView> {
             @Override
             public void onChildViewRemoved(View view, View view1) {
                 if (view instanceof VirtualView) {
+                    ((VirtualView) view).invalidateLayers();
                     invalidateSvgView((VirtualView) view);
                 }
             }
@@ -1059,7 +1080,7 @@ class RenderableViewManager extends ViewGroupManager<VirtualView> {
     @Override
     protected void onAfterUpdateTransaction(VirtualView node) {
         super.onAfterUpdateTransaction(node);
-        invalidateSvgView(node);
+        invalidateSvgViewElement(node);
     }
 
     @Override
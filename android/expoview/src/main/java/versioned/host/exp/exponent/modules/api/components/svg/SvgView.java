@@ -12,17 +12,22 @@ package versioned.host.exp.exponent.modules.api.components.svg;
 import android.annotation.SuppressLint;
 import android.graphics.Bitmap;
 import android.graphics.Canvas;
+import android.graphics.Color;
 import android.graphics.Matrix;
 import android.graphics.Paint;
+import android.graphics.PorterDuff;
 import android.graphics.Rect;
 import android.graphics.RectF;
 import android.graphics.Typeface;
+import android.os.SystemClock;
 import android.util.Base64;
 import android.view.View;
 import android.view.ViewParent;
 
+import com.facebook.react.bridge.Arguments;
 import com.facebook.react.bridge.Dynamic;
 import com.facebook.react.bridge.ReactContext;
+import com.facebook.react.bridge.WritableMap;
 import com.facebook.react.uimanager.DisplayMetricsHolder;
 import com.facebook.react.uimanager.ReactCompoundView;
 import com.facebook.react.uimanager.ReactCompoundViewGroup;
@@ -30,6 +35,7 @@ import com.facebook.react.uimanager.annotations.ReactProp;
 import com.facebook.react.views.view.ReactViewGroup;
 
 import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -61,7 +67,23 @@ public class SvgView extends ReactViewGroup implements ReactCompoundView, ReactC
         }
     }
 
+    // The SVG is rendered into mBitmap, which is kept and drawn into again until the view's size changes.
     private @Nullable Bitmap mBitmap;
+    private @Nullable Canvas mBitmapCanvas;
+    // Never drawn into, used to get mBitmapCanvas' clip bounds without the dirty region's clip
+    private @Nullable Canvas mBoundsCanvas;
+    private boolean mNeedsFullRender = true;
+    // Area of mBitmap that has to be rendered again for elements that changed since the last render
+    private final RectF mDirtyRegion = new RectF();
+    private final ArrayList<RenderableView> mDirtyElements = new ArrayList<>();
+    private boolean mIsClippedToDirtyRegion;
+    boolean mHasNestedSvg;
+
+    private int mRenderCount;
+    private int mPartialRenderCount;
+    private long mLastRenderTimeNs;
+    private long mMaxRenderTimeNs;
+    private long mTotalRenderTimeNs;
 
     public SvgView(ReactContext reactContext) {
         super(reactContext);
@@ -86,10 +108,57 @@ public class SvgView extends ReactViewGroup implements ReactCompoundView, ReactC
             ((VirtualView) parent).getSvgView().invalidate();
             return;
         }
-        if (mBitmap != null) {
-            mBitmap.recycle();
+        mNeedsFullRender = true;
+    }
+
+    /**
+     * Invalidates the element after its props changed. If it's a shape whose changes can't affect
+     * other elements, only the areas it was and is now drawn in are rendered again.
+     */
+    void invalidateElement(VirtualView node) {
+        if (mNeedsFullRender || getParent() instanceof VirtualView || !canRenderPartially(node)) {
+            invalidate();
+            return;
+        }
+        RenderableView element = (RenderableView) node;
+        if (element.mRenderedBounds != null) {
+            mDirtyRegion.union(element.mRenderedBounds);
+        }
+        if (!mDirtyElements.contains(element)) {
+            mDirtyElements.add(element);
+        }
+        super.invalidate();
+    }
+
+    private boolean canRenderPartially(VirtualView node) {
+        // Masks, clip paths and nested SVGs depend on the canvas' clip, which is limited to the
+        // dirty region when rendering it.
+        if (mHasNestedSvg || !mDefinedMasks.isEmpty() || !mDefinedClipPaths.isEmpty()) {
+            return false;
+        }
+        // Other elements can depend on groups, text, images, references and definitions.
+        Class nodeClass = node.getClass();
+        if (nodeClass != PathView.class && nodeClass != RectView.class && nodeClass != CircleView.class
+                && nodeClass != EllipseView.class && nodeClass != LineView.class) {
+            return false;
+        }
+        VirtualView current = node;
+        while (true) {
+            if (current.mName != null || current.mMask != null) {
+                return false;
+            }
+            ViewParent parent = current.getParent();
+            if (parent == this) {
+                return true;
+            }
+            if (parent == null || parent.getClass() != GroupView.class) {
+                return false;
+            }
+            if (((GroupView) parent).isLayerTransformed()) {
+                return false;
+            }
+            current = (VirtualView) parent;
         }
-        mBitmap = null;
     }
 
     @Override
@@ -98,13 +167,18 @@ public class SvgView extends ReactViewGroup implements ReactCompoundView, ReactC
             return;
         }
         super.onDraw(canvas);
-        if (mBitmap == null) {
-            mBitmap = drawOutput();
-        }
+        render();
         if (mBitmap != null)
             canvas.drawBitmap(mBitmap, 0, 0, null);
     }
 
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        releaseBitmap();
+        mNeedsFullRender = true;
+    }
+
     @Override
     protected void onSizeChanged(int w, int h, int oldw, int oldh) {
         super.onSizeChanged(w, h, oldw, oldh);
@@ -217,25 +291,137 @@ public class SvgView extends ReactViewGroup implements ReactCompoundView, ReactC
         clearChildCache();
     }
 
-    private Bitmap drawOutput() {
+    private void render() {
+        if (!mNeedsFullRender && mDirtyElements.isEmpty()) {
+            return;
+        }
+        long startTime = SystemClock.elapsedRealtimeNanos();
+        boolean partial = !mNeedsFullRender;
+
+        if (partial) {
+            renderRegion(mDirtyRegion);
+            // Elements may have moved or grown, where they're drawn now is only known after rendering them.
+            RectF renderedRegion = new RectF();
+            for (RenderableView element : mDirtyElements) {
+                if (element.mRenderedBounds != null) {
+                    renderedRegion.union(element.mRenderedBounds);
+                }
+            }
+            if (!mDirtyRegion.contains(renderedRegion)) {
+                renderRegion(renderedRegion);
+            }
+        } else {
+            drawOutput();
+        }
+        mNeedsFullRender = false;
+        mDirtyRegion.setEmpty();
+        mDirtyElements.clear();
+
+        long renderTime = SystemClock.elapsedRealtimeNanos() - startTime;
+        mRenderCount++;
+        mPartialRenderCount += partial ? 1 : 0;
+        mLastRenderTimeNs = renderTime;
+        mMaxRenderTimeNs = Math.max(mMaxRenderTimeNs, renderTime);
+        mTotalRenderTimeNs += renderTime;
+    }
+
+    private void drawOutput() {
         mRendered = true;
         float width = getWidth();
         float height = getHeight();
         boolean invalid = Float.isNaN(width) || Float.isNaN(height) || width < 1 || height < 1 || (Math.log10(width) + Math.log10(height) > 42);
         if (invalid) {
-            return null;
+            releaseBitmap();
+            return;
+        }
+        if (mBitmap == null || mBitmap.getWidth() != (int) width || mBitmap.getHeight() != (int) height) {
+            releaseBitmap();
+            mBitmap = Bitmap.createBitmap(
+                    (int) width,
+                    (int) height,
+                    Bitmap.Config.ARGB_8888);
+            mBitmapCanvas = new Canvas(mBitmap);
+            mBoundsCanvas = new Canvas(mBitmap);
+        } else {
+            mBitmap.eraseColor(Color.TRANSPARENT);
         }
-        Bitmap bitmap = Bitmap.createBitmap(
-                (int) width,
-                (int) height,
-                Bitmap.Config.ARGB_8888);
 
-        drawChildren(new Canvas(bitmap));
-        return bitmap;
+        mHasNestedSvg = false;
+        int count = mBitmapCanvas.save();
+        drawChildren(mBitmapCanvas);
+        mBitmapCanvas.restoreToCount(count);
+    }
+
+    private void renderRegion(RectF region) {
+        Rect clip = new Rect();
+        region.roundOut(clip);
+        if (mBitmap == null || !clip.intersect(0, 0, mBitmap.getWidth(), mBitmap.getHeight())) {
+            return;
+        }
+        int count = mBitmapCanvas.save();
+        mBitmapCanvas.clipRect(clip);
+        mBitmapCanvas.drawColor(Color.TRANSPARENT, PorterDuff.Mode.CLEAR);
+        mIsClippedToDirtyRegion = true;
+        try {
+            drawChildren(mBitmapCanvas);
+        } finally {
+            mIsClippedToDirtyRegion = false;
+            mBitmapCanvas.restoreToCount(count);
+        }
+    }
+
+    private void releaseBitmap() {
+        if (mBitmap != null) {
+            mBitmap.recycle();
+        }
+        mBitmap = null;
+        mBitmapCanvas = null;
+        mBoundsCanvas = null;
+    }
+
+    boolean isBitmapCanvas(Canvas canvas) {
+        return canvas == mBitmapCanvas;
+    }
+
+    /**
+     * Replaces the canvas that elements are being rendered into, e.g. while a group renders its
+     * children into its layer, and returns the previous one.
+     */
+    Canvas swapCanvas(Canvas canvas) {
+        Canvas previous = mCanvas;
+        mCanvas = canvas;
+        return previous;
     }
 
     Rect getCanvasBounds() {
-        return mCanvas.getClipBounds();
+        return getClipBounds(mCanvas);
+    }
+
+    /**
+     * Returns the canvas' clip bounds, leaving out the clip to the dirty region while only that is
+     * rendered, as lengths in percent and text layout are relative to them.
+     */
+    @SuppressWarnings("deprecation")
+    Rect getClipBounds(Canvas canvas) {
+        if (mIsClippedToDirtyRegion && canvas == mBitmapCanvas) {
+            mBoundsCanvas.setMatrix(canvas.getMatrix());
+            return mBoundsCanvas.getClipBounds();
+        }
+        return canvas.getClipBounds();
+    }
+
+    /**
+     * Returns how many times the SVG was rendered, how many of these only rendered dirty regions
+     * and how long rendering took.
+     */
+    WritableMap getRenderMetrics() {
+        WritableMap metrics = Arguments.createMap();
+        metrics.putInt("renderCount", mRenderCount);
+        metrics.putInt("partialRenderCount", mPartialRenderCount);
+        metrics.putDouble("lastRenderTimeMs", mLastRenderTimeNs / 1e6);
+        metrics.putDouble("maxRenderTimeMs", mMaxRenderTimeNs / 1e6);
+        metrics.putDouble("averageRenderTimeMs", mRenderCount > 0 ? mTotalRenderTimeNs / 1e6 / mRenderCount : 0);
+        return metrics;
     }
 
     void drawChildren(final Canvas canvas) {
@@ -33,4 +33,13 @@ class SvgViewModule extends ReactContextBaseJavaModule {
             successCallback.invoke(svg.toDataURL());
         }
     }
+
+    @ReactMethod
+    public void getRenderMetrics(int tag, Callback successCallback) {
+        SvgView svg = SvgViewManager.getSvgViewByTag(tag);
+
+        if (svg != null) {
+            successCallback.invoke(svg.getRenderMetrics());
+        }
+    }
 }
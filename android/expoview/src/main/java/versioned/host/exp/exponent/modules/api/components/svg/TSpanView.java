@@ -18,7 +18,6 @@ import android.graphics.Paint;
 import android.graphics.Path;
 import android.graphics.PathMeasure;
 import android.graphics.Rect;
-import android.graphics.RectF;
 import android.graphics.Typeface;
 import android.os.Build;
 import android.view.ViewParent;
@@ -29,6 +28,7 @@ import com.facebook.react.uimanager.annotations.ReactProp;
 import com.facebook.react.views.text.ReactFontManager;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 
 import javax.annotation.Nullable;
 
@@ -47,6 +47,9 @@ class TSpanView extends TextView {
     private static final String OTF = ".otf";
     private static final String TTF = ".ttf";
 
+    // Typefaces loaded from the fonts in the assets by font family, null if it has no font there
+    private static final HashMap<String, Typeface> assetTypefaces = new HashMap<>();
+
     @Nullable String mContent;
     private TextPathView textPath;
     ArrayList<String> emoji = new ArrayList<>();
@@ -131,8 +134,6 @@ class TSpanView extends TextView {
         GlyphContext gc = getTextRootGlyphContext();
         FontData font = gc.getFont();
         applyTextPropertiesToPaint(paint, font);
-        GlyphPathBag bag = new GlyphPathBag(paint);
-        boolean[] ligature = new boolean[length];
         final char[] chars = line.toCharArray();
 
         /*
@@ -280,8 +281,9 @@ class TSpanView extends TextView {
         // OpenType.js font data
         ReadableMap fontData = font.fontData;
 
-        float[] advances = new float[length];
-        paint.getTextWidths(line, advances);
+        // Shaping only depends on the paint and the text, so it's shared by all tspans rendering them
+        final GlyphRun run = GlyphRun.get(paint, line);
+        final float[] advances = run.advances;
 
         /*
         This would give both advances and textMeasure in one call / looping over the text
@@ -311,7 +313,7 @@ class TSpanView extends TextView {
             attributes, such as a ‘dx’ attribute value on a ‘tspan’ element.
          */
         final TextAnchor textAnchor = font.textAnchor;
-        final double textMeasure = paint.measureText(line);
+        final double textMeasure = run.textMeasure;
         double offset = getTextAnchorOffset(textAnchor, textMeasure);
 
         int side = 1;
@@ -699,30 +701,14 @@ class TSpanView extends TextView {
 
         for (int index = 0; index < length; index++) {
             char currentChar = chars[index];
-            String current = String.valueOf(currentChar);
-            boolean alreadyRenderedGraphemeCluster = ligature[index];
+            String current = run.clusters[index];
+            boolean alreadyRenderedGraphemeCluster = run.ligature[index];
 
             /*
                 Determine the glyph's charwidth (i.e., the amount which the current text position
                 advances horizontally when the glyph is drawn using horizontal text layout).
             */
-            boolean hasLigature = false;
-            if (alreadyRenderedGraphemeCluster) {
-                current = "";
-            } else {
-                int nextIndex = index;
-                while (++nextIndex < length) {
-                    float nextWidth = advances[nextIndex];
-                    if (nextWidth > 0) {
-                        break;
-                    }
-                    String nextLigature = current + String.valueOf(chars[nextIndex]);
-                    ligature[nextIndex] = true;
-                    current = nextLigature;
-                    hasLigature = true;
-                }
-            }
-            double charWidth = paint.measureText(current) * scaleSpacingAndGlyphs;
+            double charWidth = run.clusterWidths[index] * scaleSpacingAndGlyphs;
 
             /*
                 For each subsequent glyph, set a new startpoint-on-the-path as the previous
@@ -865,17 +851,7 @@ class TSpanView extends TextView {
             mid.preRotate((float) r);
 
 
-            Path glyph;
-            if (hasLigature) {
-                glyph = new Path();
-                paint.getTextPath(current, 0, current.length(), 0, 0, glyph);
-            } else {
-                glyph = bag.getOrCreateAndCache(currentChar, current);
-            }
-            RectF bounds = new RectF();
-            glyph.computeBounds(bounds, true);
-            float width = bounds.width();
-            if (width == 0) { // Render unicode emoji
+            if (run.isEmoji[index]) { // Render unicode emoji
                 canvas.save();
                 canvas.concat(mid);
                 emoji.add(current);
@@ -883,8 +859,8 @@ class TSpanView extends TextView {
                 canvas.drawText(current, 0, 0, paint);
                 canvas.restore();
             } else {
-                glyph.transform(mid);
-                path.addPath(glyph);
+                // The cached outline is shared, add a transformed copy of it
+                path.addPath(run.glyphs[index], mid);
             }
         }
 
@@ -940,20 +916,12 @@ class TSpanView extends TextView {
             fontStyle = Typeface.NORMAL;
         }
 
-        Typeface typeface = null;
         final String fontFamily = font.fontFamily;
-        try {
-            String path = FONTS + fontFamily + OTF;
-            typeface = Typeface.createFromAsset(assetManager, path);
-        } catch (Exception ignored) {
+        Typeface typeface = getAssetTypeface(assetManager, fontFamily);
+        if (typeface == null) {
             try {
-                String path = FONTS + fontFamily + TTF;
-                typeface = Typeface.createFromAsset(assetManager, path);
-            } catch (Exception ignored2) {
-                try {
-                    typeface = ReactFontManager.getInstance().getTypeface(fontFamily, fontStyle, assetManager);
-                } catch (Exception ignored3) {
-                }
+                typeface = ReactFontManager.getInstance().getTypeface(fontFamily, fontStyle, assetManager);
+            } catch (Exception ignored) {
             }
         }
 
@@ -967,6 +935,29 @@ class TSpanView extends TextView {
         // paint.setStrikeThruText(strikeThruText);
     }
 
+    /**
+     * Loading a font, or failing to find one, is too slow to do for every text that's laid out, and
+     * glyph runs are only shared between paints with the same typeface instance.
+     */
+    private static synchronized @Nullable Typeface getAssetTypeface(AssetManager assetManager, String fontFamily) {
+        if (assetTypefaces.containsKey(fontFamily)) {
+            return assetTypefaces.get(fontFamily);
+        }
+        Typeface typeface = null;
+        try {
+            String path = FONTS + fontFamily + OTF;
+            typeface = Typeface.createFromAsset(assetManager, path);
+        } catch (Exception ignored) {
+            try {
+                String path = FONTS + fontFamily + TTF;
+                typeface = Typeface.createFromAsset(assetManager, path);
+            } catch (Exception ignored2) {
+            }
+        }
+        assetTypefaces.put(fontFamily, typeface);
+        return typeface;
+    }
+
     private void setupTextPath() {
         ViewParent parent = getParent();
 
@@ -90,9 +90,12 @@ abstract public class VirtualView extends ReactViewGroup {
     Region mStrokeRegion;
     Region mClipRegion;
     Path mClipRegionPath;
+    // Area of the SvgView's bitmap the element was drawn in the last time it was rendered
+    @Nullable RectF mRenderedBounds;
 
     @Override
     public void invalidate() {
+        invalidateLayers();
         if (this instanceof RenderableView && mPath == null) {
             return;
         }
@@ -111,6 +114,23 @@ abstract public class VirtualView extends ReactViewGroup {
         mPath = null;
     }
 
+    /**
+     * Drops the cached layers of the groups the element is rendered in.
+     */
+    void invalidateLayers() {
+        invalidateParentLayers();
+    }
+
+    void invalidateParentLayers() {
+        ViewParent parent = getParent();
+        while (parent instanceof VirtualView) {
+            if (parent instanceof GroupView) {
+                ((GroupView) parent).invalidateLayer();
+            }
+            parent = parent.getParent();
+        }
+    }
+
     void clearChildCache() {
         clearCache();
         for (int i = 0; i < getChildCount(); i++) {
@@ -274,6 +294,7 @@ abstract public class VirtualView extends ReactViewGroup {
 
         super.invalidate();
         clearParentCache();
+        invalidateParentLayers();
     }
 
     @ReactProp(name = "responsible")
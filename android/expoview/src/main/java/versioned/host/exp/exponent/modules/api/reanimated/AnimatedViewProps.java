@@ -0,0 +1,122 @@
+package versioned.host.exp.exponent.modules.api.reanimated;
+
+import android.view.View;
+
+import com.facebook.react.bridge.JavaOnlyMap;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.uimanager.BaseViewManager;
+import com.facebook.react.uimanager.ViewProps;
+
+import javax.annotation.Nullable;
+
+/**
+ * Animated props of a single view that are set on it directly, through the setters of its
+ * {@link BaseViewManager}, instead of diffing a map of props for every update. An instance is
+ * reused for every frame the view is animated in and holds the latest value of each prop until
+ * {@link NodesManager} applies them all at the end of the frame.
+ */
+public class AnimatedViewProps {
+
+  private static final String PROP_TRANSFORM = "transform";
+
+  private static final int OPACITY = 1;
+  private static final int BACKGROUND_COLOR = 1 << 1;
+  private static final int TRANSFORM = 1 << 2;
+
+  final int viewTag;
+  // Whether the props are waiting to be applied in the current frame
+  boolean isEnqueued;
+
+  private int mUpdatedProps;
+  private float mOpacity;
+  private int mBackgroundColor;
+  private @Nullable WritableArray mTransform;
+
+  AnimatedViewProps(int viewTag) {
+    this.viewTag = viewTag;
+  }
+
+  /**
+   * Returns false if the prop can't be set directly and has to go through the view manager.
+   */
+  public boolean putDouble(String key, double value) {
+    if (ViewProps.OPACITY.equals(key)) {
+      mOpacity = (float) value;
+      mUpdatedProps |= OPACITY;
+      return true;
+    }
+    if (ViewProps.BACKGROUND_COLOR.equals(key)) {
+      // Same as the conversion the view manager's color setter would do
+      mBackgroundColor = (int) value;
+      mUpdatedProps |= BACKGROUND_COLOR;
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Returns false if the prop can't be set directly and has to go through the view manager.
+   */
+  public boolean putArray(String key, WritableArray value) {
+    if (PROP_TRANSFORM.equals(key)) {
+      mTransform = value;
+      mUpdatedProps |= TRANSFORM;
+      return true;
+    }
+    return false;
+  }
+
+  boolean hasUpdates() {
+    return mUpdatedProps != 0;
+  }
+
+  /**
+   * Sets updated props on the view and returns how many of them there were. The caller finishes
+   * the update with the view manager's onAfterUpdateTransaction.
+   */
+  @SuppressWarnings("unchecked")
+  int applyTo(BaseViewManager viewManager, View view) {
+    int count = 0;
+    if ((mUpdatedProps & OPACITY) != 0) {
+      viewManager.setOpacity(view, mOpacity);
+      count++;
+    }
+    if ((mUpdatedProps & BACKGROUND_COLOR) != 0) {
+      viewManager.setBackgroundColor(view, mBackgroundColor);
+      count++;
+    }
+    if ((mUpdatedProps & TRANSFORM) != 0) {
+      viewManager.setTransform(view, mTransform);
+      count++;
+    }
+    clear();
+    return count;
+  }
+
+  /**
+   * Puts updated props into a map, for views whose managers don't have the setters, and returns
+   * how many of them there were.
+   */
+  int putInto(JavaOnlyMap props) {
+    int count = 0;
+    if ((mUpdatedProps & OPACITY) != 0) {
+      props.putDouble(ViewProps.OPACITY, mOpacity);
+      count++;
+    }
+    if ((mUpdatedProps & BACKGROUND_COLOR) != 0) {
+      props.putInt(ViewProps.BACKGROUND_COLOR, mBackgroundColor);
+      count++;
+    }
+    if ((mUpdatedProps & TRANSFORM) != 0) {
+      props.putArray(PROP_TRANSFORM, mTransform);
+      count++;
+    }
+    clear();
+    return count;
+  }
+
+  void clear() {
+    mUpdatedProps = 0;
+    mTransform = null;
+  }
+}
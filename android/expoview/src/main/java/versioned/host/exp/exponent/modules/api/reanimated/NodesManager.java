@@ -1,22 +1,28 @@
 package versioned.host.exp.exponent.modules.api.reanimated;
 
+import android.support.annotation.VisibleForTesting;
 import android.util.SparseArray;
+import android.view.View;
 
 import com.facebook.react.bridge.Arguments;
 import com.facebook.react.bridge.Callback;
 import com.facebook.react.bridge.GuardedRunnable;
 import com.facebook.react.bridge.JSApplicationIllegalArgumentException;
+import com.facebook.react.bridge.JavaOnlyMap;
 import com.facebook.react.bridge.ReactContext;
 import com.facebook.react.bridge.ReadableMap;
 import com.facebook.react.bridge.UiThreadUtil;
 import com.facebook.react.bridge.WritableMap;
 import com.facebook.react.modules.core.DeviceEventManagerModule;
 import com.facebook.react.modules.core.ReactChoreographer;
+import com.facebook.react.uimanager.BaseViewManager;
 import com.facebook.react.uimanager.GuardedFrameCallback;
 import com.facebook.react.uimanager.ReactShadowNode;
+import com.facebook.react.uimanager.ReactStylesDiffMap;
 import com.facebook.react.uimanager.UIImplementation;
 import com.facebook.react.uimanager.UIManagerModule;
 import com.facebook.react.uimanager.UIManagerReanimatedHelper;
+import com.facebook.react.uimanager.ViewManager;
 import com.facebook.react.uimanager.events.Event;
 import com.facebook.react.uimanager.events.EventDispatcherListener;
 import versioned.host.exp.exponent.modules.api.reanimated.nodes.AlwaysNode;
@@ -41,10 +47,8 @@ import versioned.host.exp.exponent.modules.api.reanimated.nodes.ValueNode;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -86,7 +90,15 @@ public class NodesManager implements EventDispatcherListener {
       mNativeProps = nativeProps;
     }
   }
-  private Queue<NativeUpdateOperation> mOperationsInBatch = new LinkedList<>();
+  private ArrayList<NativeUpdateOperation> mOperationsInBatch = new ArrayList<>();
+
+  // Animated props set on views directly, see AnimatedViewProps
+  private final SparseArray<AnimatedViewProps> mAnimatedViewProps = new SparseArray<>();
+  private final ArrayList<AnimatedViewProps> mAnimatedViewPropsInFrame = new ArrayList<>();
+
+  // Counts of the frame being updated and of the last updated one
+  private int mUpdatedViewsCount, mUpdatedPropsCount, mViewPropsMapUpdatesCount;
+  private int mLastFrameUpdatedViewsCount, mLastFrameUpdatedPropsCount, mLastFrameViewPropsMapUpdatesCount;
 
   public NodesManager(ReactContext context) {
     mContext = context;
@@ -109,6 +121,26 @@ public class NodesManager implements EventDispatcherListener {
     mNoopNode = new NoopNode(this);
   }
 
+  /**
+   * Creates a manager that isn't attached to React, so graphs of nodes that don't touch views can be
+   * created and updated directly on the UI thread, e.g. by benchmarks calling {@link #runUpdates()}.
+   * It never posts frame callbacks.
+   */
+  @VisibleForTesting
+  public NodesManager() {
+    mContext = null;
+    mUIManager = null;
+    updateContext = new UpdateContext();
+    mUIImplementation = null;
+    mCustomEventNamesResolver = null;
+    mEventEmitter = null;
+    mReactChoreographer = null;
+    mChoreographerCallback = null;
+    mCallbackPosted.set(true);
+
+    mNoopNode = new NoopNode(this);
+  }
+
   public void onHostPause() {
     if (mCallbackPosted.get()) {
       stopUpdatingOnAnimationFrame();
@@ -157,16 +189,19 @@ public class NodesManager implements EventDispatcherListener {
       Node.runUpdates(updateContext);
     }
 
+    applyAnimatedViewProps();
+
     if (!mOperationsInBatch.isEmpty()) {
-      final Queue<NativeUpdateOperation> copiedOperationsQueue = mOperationsInBatch;
-      mOperationsInBatch = new LinkedList<>();
+      final ArrayList<NativeUpdateOperation> copiedOperations = mOperationsInBatch;
+      mOperationsInBatch = new ArrayList<>();
+      mViewPropsMapUpdatesCount += copiedOperations.size();
       mContext.runOnNativeModulesQueueThread(
               new GuardedRunnable(mContext) {
                 @Override
                 public void runGuarded() {
                   boolean shouldDispatchUpdates = UIManagerReanimatedHelper.isOperationQueueEmpty(mUIImplementation);
-                  while (!copiedOperationsQueue.isEmpty()) {
-                    NativeUpdateOperation op = copiedOperationsQueue.remove();
+                  for (int i = 0, size = copiedOperations.size(); i < size; i++) {
+                    NativeUpdateOperation op = copiedOperations.get(i);
                     ReactShadowNode shadowNode = mUIImplementation.resolveShadowNode(op.mViewTag);
                     if (shadowNode != null) {
                       mUIManager.updateView(op.mViewTag, shadowNode.getViewClass(), op.mNativeProps);
@@ -179,6 +214,8 @@ public class NodesManager implements EventDispatcherListener {
               });
     }
 
+    finishFrameCounts();
+
     mCallbackPosted.set(false);
     mWantRunUpdates = false;
 
@@ -188,6 +225,103 @@ public class NodesManager implements EventDispatcherListener {
     }
   }
 
+  /**
+   * Sets animated props gathered during the frame on their views, in one pass and without diffing
+   * maps of props, except on views whose managers don't have the setters.
+   */
+  private void applyAnimatedViewProps() {
+    for (int i = 0, size = mAnimatedViewPropsInFrame.size(); i < size; i++) {
+      AnimatedViewProps props = mAnimatedViewPropsInFrame.get(i);
+      props.isEnqueued = false;
+      if (!props.hasUpdates()) {
+        continue;
+      }
+      View view = UIManagerReanimatedHelper.resolveView(mUIImplementation, props.viewTag);
+      ViewManager viewManager = UIManagerReanimatedHelper.resolveViewManager(mUIImplementation, props.viewTag);
+      if (view == null || viewManager == null) {
+        // The view has been dropped in the meantime
+        props.clear();
+        continue;
+      }
+      if (viewManager instanceof BaseViewManager) {
+        mUpdatedPropsCount += props.applyTo((BaseViewManager) viewManager, view);
+        UIManagerReanimatedHelper.onAfterUpdateTransaction(viewManager, view);
+      } else {
+        JavaOnlyMap propsMap = new JavaOnlyMap();
+        mUpdatedPropsCount += props.putInto(propsMap);
+        synchronouslyUpdateViewOnUIThread(props.viewTag, new ReactStylesDiffMap(propsMap));
+      }
+      mUpdatedViewsCount++;
+    }
+    mAnimatedViewPropsInFrame.clear();
+  }
+
+  private void finishFrameCounts() {
+    mLastFrameUpdatedViewsCount = mUpdatedViewsCount;
+    mLastFrameUpdatedPropsCount = mUpdatedPropsCount;
+    mLastFrameViewPropsMapUpdatesCount = mViewPropsMapUpdatesCount;
+    mUpdatedViewsCount = 0;
+    mUpdatedPropsCount = 0;
+    mViewPropsMapUpdatesCount = 0;
+  }
+
+  /**
+   * Number of views whose animated props were set directly in the last frame.
+   */
+  public int getLastFrameUpdatedViewsCount() {
+    return mLastFrameUpdatedViewsCount;
+  }
+
+  /**
+   * Number of animated props set directly on views in the last frame.
+   */
+  public int getLastFrameUpdatedPropsCount() {
+    return mLastFrameUpdatedPropsCount;
+  }
+
+  /**
+   * Number of maps of props that views were updated with in the last frame, either on the UI
+   * thread or through the shadow view hierarchy.
+   */
+  public int getLastFrameViewPropsMapUpdatesCount() {
+    return mLastFrameViewPropsMapUpdatesCount;
+  }
+
+  /**
+   * Returns the counts of the last frame: `updatedViewsCount`, `updatedPropsCount` and
+   * `viewPropsMapUpdatesCount`.
+   */
+  public WritableMap getLastFrameStats() {
+    WritableMap stats = Arguments.createMap();
+    stats.putInt("updatedViewsCount", mLastFrameUpdatedViewsCount);
+    stats.putInt("updatedPropsCount", mLastFrameUpdatedPropsCount);
+    stats.putInt("viewPropsMapUpdatesCount", mLastFrameViewPropsMapUpdatesCount);
+    return stats;
+  }
+
+  /**
+   * Returns the props of the view to put animated props into, which are set on the view at the
+   * end of the frame.
+   */
+  public AnimatedViewProps enqueueAnimatedViewProps(int viewTag) {
+    AnimatedViewProps props = mAnimatedViewProps.get(viewTag);
+    if (props == null) {
+      props = new AnimatedViewProps(viewTag);
+      mAnimatedViewProps.put(viewTag, props);
+    }
+    if (!props.isEnqueued) {
+      props.isEnqueued = true;
+      mAnimatedViewPropsInFrame.add(props);
+      startUpdatingOnAnimationFrame();
+    }
+    return props;
+  }
+
+  public void synchronouslyUpdateViewOnUIThread(int viewTag, ReactStylesDiffMap props) {
+    mViewPropsMapUpdatesCount++;
+    mUIImplementation.synchronouslyUpdateViewOnUIThread(viewTag, props);
+  }
+
   /**
    * Null-safe way of getting node's value. If node is not present we return 0. This also matches
    * iOS behavior when the app won't just crash.
@@ -229,7 +363,7 @@ public class NodesManager implements EventDispatcherListener {
     String type = config.getString("type");
     final Node node;
     if ("props".equals(type)) {
-      node = new PropsNode(nodeID, config, this, mUIImplementation);
+      node = new PropsNode(nodeID, config, this);
     } else if ("style".equals(type)) {
       node = new StyleNode(nodeID, config, this);
     } else if ("transform".equals(type)) {
@@ -326,6 +460,7 @@ public class NodesManager implements EventDispatcherListener {
               "of type " + PropsNode.class.getName());
     }
     ((PropsNode) node).disconnectFromView(viewTag);
+    mAnimatedViewProps.remove(viewTag);
   }
 
   public void enqueueUpdateViewOnNativeThread(int viewTag, WritableMap nativeProps) {
@@ -360,6 +495,13 @@ public class NodesManager implements EventDispatcherListener {
     callback.invoke(mAnimatedNodes.get(nodeID).value());
   }
 
+  @VisibleForTesting
+  public void runUpdates() {
+    Node.runUpdates(updateContext);
+    applyAnimatedViewProps();
+    finishFrameCounts();
+  }
+
   public void postRunUpdatesAfterAnimation() {
     mWantRunUpdates = true;
     startUpdatingOnAnimationFrame();
@@ -205,4 +205,14 @@ public class ReanimatedModule extends ReactContextBaseJavaModule implements
       }
     });
   }
+
+  @ReactMethod
+  public void getLastFrameStats(final Callback callback) {
+    mOperations.add(new UIThreadOperation() {
+      @Override
+      public void execute(NodesManager nodesManager) {
+        callback.invoke(nodesManager.getLastFrameStats());
+      }
+    });
+  }
 }
@@ -9,4 +9,15 @@ public class UpdateContext {
   public long updateLoopID = 0;
   public final ArrayList<Node> updatedNodes = new ArrayList<>();
 
+  // Updates final nodes in the order compiled for each updated node instead of traversing the graph
+  // on every frame. Turning it off falls back to the traversal, e.g. to compare them in benchmarks.
+  public boolean useCompiledGraph = true;
+  // Incremented whenever nodes are connected or disconnected, which invalidates compiled orders.
+  public long graphVersion = 0;
+  public long compileID = 0;
+  public long updateRunID = 0;
+  // Reused by compilation and by every run of updates.
+  public final ArrayList<Node> compiledFinalNodes = new ArrayList<>();
+  public final ArrayList<Node> pendingFinalNodes = new ArrayList<>();
+
 }
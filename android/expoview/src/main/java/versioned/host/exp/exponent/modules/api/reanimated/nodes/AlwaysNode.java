@@ -18,7 +18,12 @@ public class AlwaysNode extends Node implements FinalNode {
 
   @Override
   protected Double evaluate() {
-    mNodesManager.findNodeById(mNodeToBeEvaluated, Node.class).value();
+    Node node = mNodesManager.findNodeById(mNodeToBeEvaluated, Node.class);
+    if (node.isNumeric()) {
+      node.doubleValue();
+    } else {
+      node.value();
+    }
     return ZERO;
   }
 }
@@ -81,9 +81,19 @@ public class BezierNode extends Node {
     mInterpolator = new CubicBezierInterpolator(startX, startY, endX, endY);
   }
 
+  @Override
+  public boolean isNumeric() {
+    return true;
+  }
+
+  @Override
+  protected double evaluateDouble() {
+    double in = mNodesManager.findNodeById(mInputID, Node.class).doubleValue();
+    return mInterpolator.getInterpolation((float) in);
+  }
+
   @Override
   protected Double evaluate() {
-    Double in = (Double) mNodesManager.getNodeValue(mInputID);
-    return Double.valueOf(mInterpolator.getInterpolation(in.floatValue()));
+    return evaluateDouble();
   }
 }
@@ -25,6 +25,16 @@ public class ClockNode extends Node implements NodesManager.OnAnimationFrame {
     isRunning = false;
   }
 
+  @Override
+  public boolean isNumeric() {
+    return true;
+  }
+
+  @Override
+  protected double evaluateDouble() {
+    return mNodesManager.currentFrameTimeMs;
+  }
+
   @Override
   protected Double evaluate() {
     return mNodesManager.currentFrameTimeMs;
@@ -16,8 +16,15 @@ public class CondNode extends Node {
 
   @Override
   protected Object evaluate() {
-    Object cond = mNodesManager.getNodeValue(mCondID);
-    if (cond instanceof Number && ((Number) cond).doubleValue() != 0.0) {
+    Node condNode = mNodesManager.findNodeById(mCondID, Node.class);
+    boolean isTruthy;
+    if (condNode.isNumeric()) {
+      isTruthy = condNode.doubleValue() != 0.0;
+    } else {
+      Object cond = mNodesManager.getNodeValue(mCondID);
+      isTruthy = cond instanceof Number && ((Number) cond).doubleValue() != 0.0;
+    }
+    if (isTruthy) {
       // This is not a good way to compare doubles but in this case it is what we want
       return mIfBlockID != -1 ? mNodesManager.getNodeValue(mIfBlockID) : ZERO;
     }
@@ -18,6 +18,8 @@ public abstract class Node {
   public static final Double ZERO = Double.valueOf(0);
   public static final Double ONE = Double.valueOf(1);
 
+  private static final Node[] NO_FINAL_NODES = new Node[0];
+
   protected final int mNodeID;
   protected final NodesManager mNodesManager;
 
@@ -27,6 +29,19 @@ public abstract class Node {
   private @Nullable Object mMemoizedValue;
   private @Nullable List<Node> mChildren; /* lazy-initialized when a child is added */
 
+  // Numeric value memoized without boxing it. When set, mMemoizedValue is only filled in once
+  // someone asks for the boxed value.
+  private boolean mHasMemoizedDouble;
+  private double mMemoizedDouble;
+
+  // Final nodes depending on this node, in the order they're updated in, compiled for the graph
+  // version they were compiled at.
+  private Node[] mFinalNodes = NO_FINAL_NODES;
+  private long mFinalNodesGraphVersion = -1;
+  // Visit markers, compared with UpdateContext counters instead of collecting nodes in sets.
+  private long mLastCompileID = -1;
+  private long mLastUpdateRunID = -1;
+
   public Node(int nodeID, @Nullable ReadableMap config, NodesManager nodesManager) {
     mNodeID = nodeID;
     mNodesManager = nodesManager;
@@ -35,29 +50,71 @@ public abstract class Node {
 
   protected abstract @Nullable Object evaluate();
 
+  /**
+   * Whether the node's value is currently a number that {@link #evaluateDouble()} computes without
+   * boxing it. Nodes that override this to return true are evaluated through
+   * {@link #evaluateDouble()} when their value is read with {@link #doubleValue()}.
+   */
+  public boolean isNumeric() {
+    return false;
+  }
+
+  protected double evaluateDouble() {
+    return toDouble(evaluate());
+  }
+
   public final @Nullable Object value() {
     if (mLastLoopID < mUpdateContext.updateLoopID) {
       mLastLoopID = mUpdateContext.updateLoopID;
+      mHasMemoizedDouble = false;
       return (mMemoizedValue = evaluate());
     }
+    if (mHasMemoizedDouble && mMemoizedValue == null) {
+      mMemoizedValue = mMemoizedDouble;
+    }
     return mMemoizedValue;
   }
 
   /**
-   * This method will never return null. If value is null or of a different type we try to cast and
+   * This method will never fail. If value is null or of a different type we try to cast and
    * return 0 if we fail to properly cast the value. This is to match iOS behavior where the node
    * would not throw even if the value was not set.
+   *
+   * Values of numeric nodes are computed, memoized and returned without boxing them.
+   */
+  public final double doubleValue() {
+    if (mLastLoopID < mUpdateContext.updateLoopID && isNumeric()) {
+      mLastLoopID = mUpdateContext.updateLoopID;
+      mMemoizedValue = null;
+      mMemoizedDouble = evaluateDouble();
+      mHasMemoizedDouble = true;
+      return mMemoizedDouble;
+    }
+    if (mLastLoopID == mUpdateContext.updateLoopID && mHasMemoizedDouble) {
+      return mMemoizedDouble;
+    }
+    return toDouble(value());
+  }
+
+  /**
+   * Whether the value is truthy the same way as comparing it with `0.` using `equals`, without
+   * boxing numeric values: null and exactly 0 are falsy, everything else including -0 and NaN is truthy.
    */
-  public final Double doubleValue() {
+  public final boolean truthyValue() {
+    if (isNumeric()) {
+      return Double.compare(doubleValue(), 0.) != 0;
+    }
     Object value = value();
+    return value != null && !value.equals(0.);
+  }
+
+  private double toDouble(@Nullable Object value) {
     if (value == null) {
-      return ZERO;
-    } else if (value instanceof Double) {
-      return (Double) value;
+      return 0.;
     } else if (value instanceof Number) {
-      return Double.valueOf(((Number) value).doubleValue());
+      return ((Number) value).doubleValue();
     } else if (value instanceof Boolean) {
-      return ((Boolean) value).booleanValue() ? ONE : ZERO;
+      return ((Boolean) value).booleanValue() ? 1. : 0.;
     }
     throw new IllegalStateException("Value of node " + this + " cannot be cast to a number");
   }
@@ -67,12 +124,14 @@ public abstract class Node {
       mChildren = new ArrayList<>();
     }
     mChildren.add(child);
+    mUpdateContext.graphVersion++;
     dangerouslyRescheduleEvaluate();
   }
 
   public void removeChild(Node child) {
     if (mChildren != null) {
       mChildren.remove(child);
+      mUpdateContext.graphVersion++;
     }
   }
 
@@ -89,6 +148,14 @@ public abstract class Node {
 
   protected final void forceUpdateMemoizedValue(Object value) {
     mMemoizedValue = value;
+    mHasMemoizedDouble = false;
+    markUpdated();
+  }
+
+  protected final void forceUpdateMemoizedValue(double value) {
+    mMemoizedValue = null;
+    mMemoizedDouble = value;
+    mHasMemoizedDouble = true;
     markUpdated();
   }
 
@@ -110,7 +177,49 @@ public abstract class Node {
     }
   }
 
+  /**
+   * Returns final nodes reachable from this node in the order {@link #findAndUpdateNodes} would
+   * have found them, compiling them again only when the graph has changed since.
+   */
+  private Node[] getFinalNodes() {
+    UpdateContext updateContext = mUpdateContext;
+    if (mFinalNodesGraphVersion != updateContext.graphVersion) {
+      ArrayList<Node> finalNodes = updateContext.compiledFinalNodes;
+      long compileID = ++updateContext.compileID;
+      collectFinalNodes(this, compileID, finalNodes);
+      mFinalNodes = finalNodes.isEmpty() ? NO_FINAL_NODES : finalNodes.toArray(new Node[finalNodes.size()]);
+      mFinalNodesGraphVersion = updateContext.graphVersion;
+      finalNodes.clear();
+    }
+    return mFinalNodes;
+  }
+
+  private static void collectFinalNodes(Node node, long compileID, ArrayList<Node> finalNodes) {
+    if (node.mLastCompileID == compileID) {
+      return;
+    }
+    node.mLastCompileID = compileID;
+
+    List<Node> children = node.mChildren;
+    if (children != null) {
+      for (int i = 0, size = children.size(); i < size; i++) {
+        collectFinalNodes(children.get(i), compileID, finalNodes);
+      }
+    }
+    if (node instanceof FinalNode) {
+      finalNodes.add(node);
+    }
+  }
+
   public static void runUpdates(UpdateContext updateContext) {
+    if (updateContext.useCompiledGraph) {
+      runCompiledUpdates(updateContext);
+    } else {
+      runUpdatesByTraversal(updateContext);
+    }
+  }
+
+  private static void runUpdatesByTraversal(UpdateContext updateContext) {
     UiThreadUtil.assertOnUiThread();
     ArrayList<Node> updatedNodes = updateContext.updatedNodes;
     Set<Node> visitedNodes = new HashSet<>();
@@ -126,4 +235,33 @@ public abstract class Node {
     updatedNodes.clear();
     updateContext.updateLoopID++;
   }
+
+  /**
+   * Same as {@link #runUpdatesByTraversal} but with final nodes taken from each updated node's
+   * compiled order and visits marked on the nodes, so it doesn't allocate unless the graph changed.
+   */
+  private static void runCompiledUpdates(UpdateContext updateContext) {
+    UiThreadUtil.assertOnUiThread();
+    ArrayList<Node> updatedNodes = updateContext.updatedNodes;
+    ArrayList<Node> finalNodes = updateContext.pendingFinalNodes;
+    long runID = ++updateContext.updateRunID;
+
+    for (int i = 0; i < updatedNodes.size(); i++) {
+      Node[] nodeFinalNodes = updatedNodes.get(i).getFinalNodes();
+      for (Node finalNode : nodeFinalNodes) {
+        if (finalNode.mLastUpdateRunID != runID) {
+          finalNode.mLastUpdateRunID = runID;
+          finalNodes.add(finalNode);
+        }
+      }
+      if (i == updatedNodes.size() - 1) {
+        // Updates may mark more nodes as updated, these are handled in the same run.
+        while (!finalNodes.isEmpty()) {
+          ((FinalNode) finalNodes.remove(finalNodes.size() - 1)).update();
+        }
+      }
+    }
+    updatedNodes.clear();
+    updateContext.updateLoopID++;
+  }
 }
@@ -20,6 +20,11 @@ public class NoopNode extends ValueNode {
     // no-op
   }
 
+  @Override
+  public void setValue(double value) {
+    // no-op
+  }
+
   @Override
   public void addChild(Node child) {
     // no-op
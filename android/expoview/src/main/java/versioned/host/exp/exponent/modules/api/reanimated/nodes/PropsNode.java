@@ -10,7 +10,7 @@ import com.facebook.react.bridge.ReadableType;
 import com.facebook.react.bridge.WritableArray;
 import com.facebook.react.bridge.WritableMap;
 import com.facebook.react.uimanager.ReactStylesDiffMap;
-import com.facebook.react.uimanager.UIImplementation;
+import versioned.host.exp.exponent.modules.api.reanimated.AnimatedViewProps;
 import versioned.host.exp.exponent.modules.api.reanimated.NodesManager;
 import versioned.host.exp.exponent.modules.api.reanimated.Utils;
 
@@ -19,20 +19,14 @@ import java.util.Map;
 public class PropsNode extends Node implements FinalNode {
 
   private final Map<String, Integer> mMapping;
-  private final UIImplementation mUIImplementation;
   private int mConnectedViewTag = View.NO_ID;
 
   private final JavaOnlyMap mPropMap;
   private final ReactStylesDiffMap mDiffMap;
 
-  public PropsNode(
-          int nodeID,
-          ReadableMap config,
-          NodesManager nodesManager,
-          UIImplementation uiImplementation) {
+  public PropsNode(int nodeID, ReadableMap config, NodesManager nodesManager) {
     super(nodeID, config, nodesManager);
     mMapping = Utils.processMapping(config.getMap("props"));
-    mUIImplementation = uiImplementation;
     mPropMap = new JavaOnlyMap();
     mDiffMap = new ReactStylesDiffMap(mPropMap);
   }
@@ -53,6 +47,10 @@ public class PropsNode extends Node implements FinalNode {
     boolean hasJSProps = false;
     WritableMap jsProps = Arguments.createMap();
     final WritableMap nativeProps = Arguments.createMap();
+    // UI props that can be set on the view directly go there instead of the diff map
+    AnimatedViewProps viewProps = mConnectedViewTag != View.NO_ID
+            ? mNodesManager.enqueueAnimatedViewProps(mConnectedViewTag)
+            : null;
 
     for (Map.Entry<String, Integer> entry : mMapping.entrySet()) {
       Node node = mNodesManager.findNodeById(entry.getValue(), Node.class);
@@ -62,7 +60,11 @@ public class PropsNode extends Node implements FinalNode {
         while (iter.hasNextKey()) {
           String key = iter.nextKey();
           WritableMap dest;
+          ReadableType type = style.getType(key);
           if (mNodesManager.uiProps.contains(key)) {
+            if (viewProps != null && putViewProp(viewProps, style, key, type)) {
+              continue;
+            }
             hasUIProps = true;
             dest = mPropMap;
           } else if (mNodesManager.nativeProps.contains(key)){
@@ -72,7 +74,6 @@ public class PropsNode extends Node implements FinalNode {
             hasJSProps = true;
             dest = jsProps;
           }
-          ReadableType type = style.getType(key);
           switch (type) {
             case Number:
               dest.putDouble(key, style.getDouble(key));
@@ -90,8 +91,12 @@ public class PropsNode extends Node implements FinalNode {
       } else {
         String key = entry.getKey();
         if (mNodesManager.uiProps.contains(key)) {
+          double value = node.doubleValue();
+          if (viewProps != null && viewProps.putDouble(key, value)) {
+            continue;
+          }
           hasUIProps = true;
-          mPropMap.putDouble(key, node.doubleValue());
+          mPropMap.putDouble(key, value);
         } else {
           hasNativeProps = true;
           nativeProps.putDouble(key, node.doubleValue());
@@ -101,7 +106,7 @@ public class PropsNode extends Node implements FinalNode {
 
     if (mConnectedViewTag != View.NO_ID) {
       if (hasUIProps) {
-        mUIImplementation.synchronouslyUpdateViewOnUIThread(
+        mNodesManager.synchronouslyUpdateViewOnUIThread(
                 mConnectedViewTag,
                 mDiffMap);
       }
@@ -119,6 +124,17 @@ public class PropsNode extends Node implements FinalNode {
     return ZERO;
   }
 
+  private static boolean putViewProp(AnimatedViewProps viewProps, ReadableMap style, String key, ReadableType type) {
+    switch (type) {
+      case Number:
+        return viewProps.putDouble(key, style.getDouble(key));
+      case Array:
+        return viewProps.putArray(key, (WritableArray) style.getArray(key));
+      default:
+        return false;
+    }
+  }
+
   @Override
   public void update() {
     // Since we are updating nodes after detaching them from views there is a time where it's
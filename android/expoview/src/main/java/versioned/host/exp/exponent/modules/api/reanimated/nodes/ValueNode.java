@@ -9,6 +9,9 @@ import javax.annotation.Nullable;
 public class ValueNode extends Node {
 
   private Object mValue;
+  // Set instead of mValue when the value is a number set through setValue(double).
+  private boolean mIsNumeric;
+  private double mDoubleValue;
 
   public ValueNode(int nodeID, @Nullable ReadableMap config, NodesManager nodesManager) {
     super(nodeID, config, nodesManager);
@@ -30,11 +33,29 @@ public class ValueNode extends Node {
 
   public void setValue(Object value) {
     mValue = value;
+    mIsNumeric = false;
     forceUpdateMemoizedValue(mValue);
   }
 
+  public void setValue(double value) {
+    mValue = null;
+    mIsNumeric = true;
+    mDoubleValue = value;
+    forceUpdateMemoizedValue(value);
+  }
+
+  @Override
+  public boolean isNumeric() {
+    return mIsNumeric;
+  }
+
+  @Override
+  protected double evaluateDouble() {
+    return mIsNumeric ? mDoubleValue : super.evaluateDouble();
+  }
+
   @Override
   protected Object evaluate() {
-    return mValue;
+    return mIsNumeric ? mDoubleValue : mValue;
   }
 }
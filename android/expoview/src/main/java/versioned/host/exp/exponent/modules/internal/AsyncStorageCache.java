@@ -0,0 +1,302 @@
+// Copyright 2015-present 650 Industries. All rights reserved.
+
+package versioned.host.exp.exponent.modules.internal;
+
+import android.database.sqlite.SQLiteDatabase;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.modules.storage.AsyncLocalStorageUtil;
+import com.facebook.react.modules.storage.ReactDatabaseSupplier;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+import host.exp.exponent.analytics.EXL;
+
+import static com.facebook.react.modules.storage.ReactDatabaseSupplier.KEY_COLUMN;
+import static com.facebook.react.modules.storage.ReactDatabaseSupplier.TABLE_CATALYST;
+
+/*
+ * Read cache and write-back buffer for one experience's AsyncStorage database.
+ *
+ * Values read from or written to the database are kept in an LRU map bounded by size. Keys that
+ * don't exist are cached too, since apps tend to probe the same settings keys on every start.
+ * Sets and removes are applied to the cache right away and buffered until the next `flush`, which
+ * writes all of them in a single transaction. Buffered writes to the same key coalesce. Merges
+ * aren't buffered, they can fail depending on the stored value, so callers take the writes buffered
+ * before them with `takePendingWrites`, flush those and then run the merge against the database.
+ *
+ * One instance per database, shared by every module instance of that experience so the cache
+ * survives reloads.
+ */
+public class AsyncStorageCache {
+
+  private static final String TAG = AsyncStorageCache.class.getSimpleName();
+
+  private static final long MAX_CACHE_SIZE_BYTES = 1024 * 1024;
+
+  private static final Map<String, AsyncStorageCache> sCaches = new HashMap<>();
+
+  public static synchronized AsyncStorageCache forDatabase(String databaseName) {
+    AsyncStorageCache cache = sCaches.get(databaseName);
+    if (cache == null) {
+      cache = new AsyncStorageCache();
+      sCaches.put(databaseName, cache);
+    }
+    return cache;
+  }
+
+  // Call before deleting the database. Waits for a flush in progress and drops anything buffered
+  // so nothing gets written back into the deleted database.
+  public static void onDatabaseCleared(String databaseName) {
+    AsyncStorageCache cache;
+    synchronized (AsyncStorageCache.class) {
+      cache = sCaches.get(databaseName);
+    }
+
+    if (cache != null) {
+      cache.discard();
+    }
+  }
+
+  private static class PendingKey {
+    boolean isRemoved = false;
+    @Nullable String value = null;
+  }
+
+  static class PendingWrites {
+    private final boolean mIsClearPending;
+    private final LinkedHashMap<String, PendingKey> mKeys;
+    private final int mDiscardCount;
+
+    private PendingWrites(boolean isClearPending, LinkedHashMap<String, PendingKey> keys, int discardCount) {
+      mIsClearPending = isClearPending;
+      mKeys = keys;
+      mDiscardCount = discardCount;
+    }
+  }
+
+  private final Object mFlushLock = new Object();
+  private final LinkedHashMap<String, String> mValues = new LinkedHashMap<>(16, 0.75f, true);
+  private long mSizeBytes = 0;
+  private LinkedHashMap<String, PendingKey> mPendingKeys = new LinkedHashMap<>();
+  private boolean mIsClearPending = false;
+  private int mWriteGeneration = 0;
+  private int mDiscardCount = 0;
+
+  private AsyncStorageCache() {
+  }
+
+  // Returns multiGet's result if every key is cached, null otherwise
+  public synchronized @Nullable WritableArray get(ReadableArray keys) {
+    for (int i = 0; i < keys.size(); i++) {
+      if (!mValues.containsKey(keys.getString(i))) {
+        return null;
+      }
+    }
+
+    WritableArray data = Arguments.createArray();
+    for (int i = 0; i < keys.size(); i++) {
+      String key = keys.getString(i);
+      WritableArray row = Arguments.createArray();
+      row.pushString(key);
+      String value = mValues.get(key);
+      if (value == null) {
+        row.pushNull();
+      } else {
+        row.pushString(value);
+      }
+      data.pushArray(row);
+    }
+    return data;
+  }
+
+  // Changes every time something is written. Reads pass it back to `putAll` so results that raced
+  // with a write don't end up in the cache.
+  public synchronized int getWriteGeneration() {
+    return mWriteGeneration;
+  }
+
+  public synchronized void putAll(ReadableArray rows, int writeGeneration) {
+    if (writeGeneration != mWriteGeneration) {
+      return;
+    }
+
+    for (int i = 0; i < rows.size(); i++) {
+      ReadableArray row = rows.getArray(i);
+      cache(row.getString(0), row.isNull(1) ? null : row.getString(1));
+    }
+  }
+
+  public synchronized void set(String key, String value) {
+    mWriteGeneration++;
+    PendingKey pendingKey = getPendingKey(key);
+    pendingKey.isRemoved = false;
+    pendingKey.value = value;
+    cache(key, value);
+  }
+
+  // Call before merging into the key in the database. The merged value is only known once the
+  // merge has run.
+  public synchronized void invalidate(String key) {
+    mWriteGeneration++;
+    uncache(key);
+  }
+
+  public synchronized void remove(String key) {
+    mWriteGeneration++;
+    PendingKey pendingKey = getPendingKey(key);
+    pendingKey.isRemoved = true;
+    pendingKey.value = null;
+    cache(key, null);
+  }
+
+  public synchronized void clear() {
+    mWriteGeneration++;
+    mPendingKeys.clear();
+    mIsClearPending = true;
+    mValues.clear();
+    mSizeBytes = 0;
+  }
+
+  public synchronized boolean hasPendingWrites() {
+    return mIsClearPending || !mPendingKeys.isEmpty();
+  }
+
+  // Writes everything buffered so far in one transaction. Blocks until it's on disk.
+  public void flush(ReactDatabaseSupplier databaseSupplier) {
+    synchronized (mFlushLock) {
+      flush(databaseSupplier, takePendingWrites());
+    }
+  }
+
+  // Hands over everything buffered so far, to be written with `flush` ahead of a write that doesn't
+  // go through the buffer
+  public synchronized PendingWrites takePendingWrites() {
+    PendingWrites pendingWrites = new PendingWrites(mIsClearPending, mPendingKeys, mDiscardCount);
+    mIsClearPending = false;
+    mPendingKeys = new LinkedHashMap<>();
+    return pendingWrites;
+  }
+
+  // Returns whether the writes are on disk. Ones that failed are buffered again for the next flush.
+  public boolean flush(ReactDatabaseSupplier databaseSupplier, PendingWrites pendingWrites) {
+    synchronized (mFlushLock) {
+      synchronized (this) {
+        if (pendingWrites.mDiscardCount != mDiscardCount) {
+          // Taken before the database was cleared
+          return true;
+        }
+      }
+      if (!pendingWrites.mIsClearPending && pendingWrites.mKeys.isEmpty()) {
+        return true;
+      }
+
+      try {
+        SQLiteDatabase db = databaseSupplier.get();
+        db.beginTransaction();
+        try {
+          if (pendingWrites.mIsClearPending) {
+            db.delete(TABLE_CATALYST, null, null);
+          }
+
+          for (Map.Entry<String, PendingKey> entry : pendingWrites.mKeys.entrySet()) {
+            writePendingKey(db, entry.getKey(), entry.getValue());
+          }
+          db.setTransactionSuccessful();
+        } finally {
+          db.endTransaction();
+        }
+        return true;
+      } catch (Exception e) {
+        EXL.e(TAG, e);
+        // The writes were already acknowledged, keep them for the next flush
+        restorePendingWrites(pendingWrites.mIsClearPending, pendingWrites.mKeys);
+        return false;
+      }
+    }
+  }
+
+  public void discard() {
+    synchronized (mFlushLock) {
+      synchronized (this) {
+        mDiscardCount++;
+        mWriteGeneration++;
+        mPendingKeys.clear();
+        mIsClearPending = false;
+        mValues.clear();
+        mSizeBytes = 0;
+      }
+    }
+  }
+
+  // Puts writes that failed to flush back in front of the ones buffered since
+  private synchronized void restorePendingWrites(boolean isClearPending, LinkedHashMap<String, PendingKey> pendingKeys) {
+    // Reads that ran against the database during the failed flush didn't see these writes
+    mWriteGeneration++;
+
+    if (mIsClearPending) {
+      // Cleared since, nothing of the failed writes would survive anyway
+      return;
+    }
+
+    // Newer sets and removes replace the failed ones
+    pendingKeys.putAll(mPendingKeys);
+    mIsClearPending = isClearPending;
+    mPendingKeys = pendingKeys;
+  }
+
+  private void writePendingKey(SQLiteDatabase db, String key, PendingKey pendingKey) {
+    if (pendingKey.isRemoved) {
+      db.delete(TABLE_CATALYST, KEY_COLUMN + " = ?", new String[] { key });
+    } else if (pendingKey.value != null) {
+      AsyncLocalStorageUtil.setItemImpl(db, key, pendingKey.value);
+    }
+  }
+
+  private PendingKey getPendingKey(String key) {
+    PendingKey pendingKey = mPendingKeys.get(key);
+    if (pendingKey == null) {
+      pendingKey = new PendingKey();
+      mPendingKeys.put(key, pendingKey);
+    }
+    return pendingKey;
+  }
+
+  private void cache(String key, @Nullable String value) {
+    uncache(key);
+
+    long size = getEntrySize(key, value);
+    if (size > MAX_CACHE_SIZE_BYTES) {
+      return;
+    }
+
+    mValues.put(key, value);
+    mSizeBytes += size;
+
+    // Least recently used first
+    Iterator<Map.Entry<String, String>> iterator = mValues.entrySet().iterator();
+    while (mSizeBytes > MAX_CACHE_SIZE_BYTES && iterator.hasNext()) {
+      Map.Entry<String, String> entry = iterator.next();
+      mSizeBytes -= getEntrySize(entry.getKey(), entry.getValue());
+      iterator.remove();
+    }
+  }
+
+  private void uncache(String key) {
+    if (mValues.containsKey(key)) {
+      mSizeBytes -= getEntrySize(key, mValues.remove(key));
+    }
+  }
+
+  // Java strings are UTF-16
+  private static long getEntrySize(String key, @Nullable String value) {
+    return 2L * (key.length() + (value == null ? 0 : value.length()));
+  }
+}
@@ -2,22 +2,56 @@
 
 package versioned.host.exp.exponent.modules.internal;
 
+import android.os.Handler;
+import android.os.Looper;
+
 import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.Nullable;
 
 import com.facebook.react.bridge.Callback;
+import com.facebook.react.bridge.LifecycleEventListener;
 import com.facebook.react.bridge.ReactApplicationContext;
 import com.facebook.react.bridge.ReactMethod;
 import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+import com.facebook.react.modules.storage.AsyncStorageErrorUtil;
 import com.facebook.react.modules.storage.AsyncStorageModule;
 import com.facebook.react.modules.storage.ReactDatabaseSupplier;
+import host.exp.exponent.Constants;
 import host.exp.exponent.ExponentManifest;
 import host.exp.exponent.kernel.KernelProvider;
 
-public class ExponentAsyncStorageModule extends AsyncStorageModule {
+public class ExponentAsyncStorageModule extends AsyncStorageModule implements LifecycleEventListener {
+
+  // How long writes sit in the cache's buffer before they're written out together
+  private static final long FLUSH_INTERVAL_MS = 250;
+
+  // Only set if Constants.ASYNC_STORAGE_CACHE_ENABLED
+  private @Nullable AsyncStorageCache mCache;
+  private final Handler mHandler = new Handler(Looper.getMainLooper());
+  private final AtomicBoolean mIsFlushScheduled = new AtomicBoolean(false);
+
+  private final Runnable mFlushRunnable = new Runnable() {
+    @Override
+    public void run() {
+      flushPendingWrites();
+    }
+  };
+
+  private final Runnable mScheduleFlushRunnable = new Runnable() {
+    @Override
+    public void run() {
+      mIsFlushScheduled.set(false);
+      executor.execute(mFlushRunnable);
+    }
+  };
 
   public static String experienceIdToDatabaseName(String experienceId) throws UnsupportedEncodingException {
     String experienceIdEncoded = URLEncoder.encode(experienceId, "UTF-8");
@@ -31,6 +65,11 @@ public class ExponentAsyncStorageModule extends AsyncStorageModule {
       String experienceId = manifest.getString(ExponentManifest.MANIFEST_ID_KEY);
       String databaseName = experienceIdToDatabaseName(experienceId);
       mReactDatabaseSupplier = new ReactDatabaseSupplier(reactContext, databaseName);
+
+      if (Constants.ASYNC_STORAGE_CACHE_ENABLED) {
+        mCache = AsyncStorageCache.forDatabase(databaseName);
+        reactContext.addLifecycleEventListener(this);
+      }
     } catch (JSONException e) {
       KernelProvider.getInstance().handleError("Requires Experience Id");
     } catch (UnsupportedEncodingException e) {
@@ -43,33 +82,206 @@ public class ExponentAsyncStorageModule extends AsyncStorageModule {
     return true;
   }
 
+  @Override
+  public void onHostResume() {
+  }
+
+  @Override
+  public void onHostPause() {
+    // The process can be killed any time after this, don't leave writes only in memory. Called on
+    // the UI thread, so the writes go through the executor like every other database access.
+    if (mCache != null && mCache.hasPendingWrites()) {
+      executor.execute(mFlushRunnable);
+    }
+  }
+
+  @Override
+  public void onHostDestroy() {
+    if (mCache != null && mCache.hasPendingWrites()) {
+      executor.execute(mFlushRunnable);
+    }
+  }
+
+  @Override
+  public void onCatalystInstanceDestroy() {
+    // Has to happen before super marks the module as shutting down and stops touching the database
+    flushPendingWrites();
+    getReactApplicationContext().removeLifecycleEventListener(this);
+    super.onCatalystInstanceDestroy();
+  }
+
+  @Override
+  public void clearSensitiveData() {
+    if (mCache != null) {
+      mCache.discard();
+    }
+    super.clearSensitiveData();
+  }
+
   @ReactMethod
   public void multiGet(final ReadableArray keys, final Callback callback) {
-    super.multiGet(keys, callback);
+    final AsyncStorageCache cache = mCache;
+    if (cache == null || keys == null) {
+      super.multiGet(keys, callback);
+      return;
+    }
+
+    WritableArray cachedData = cache.get(keys);
+    if (cachedData != null) {
+      callback.invoke(null, cachedData);
+      return;
+    }
+
+    // The executor is serial, so the read below sees every write buffered so far
+    executor.execute(mFlushRunnable);
+    final int writeGeneration = cache.getWriteGeneration();
+    super.multiGet(keys, new Callback() {
+      @Override
+      public void invoke(Object... args) {
+        if (args.length > 1 && args[0] == null && args[1] instanceof ReadableArray) {
+          cache.putAll((ReadableArray) args[1], writeGeneration);
+        }
+        callback.invoke(args);
+      }
+    });
   }
 
   @ReactMethod
   public void multiSet(final ReadableArray keyValueArray, final Callback callback) {
-    super.multiSet(keyValueArray, callback);
+    if (mCache == null) {
+      super.multiSet(keyValueArray, callback);
+      return;
+    }
+
+    if (keyValueArray.size() == 0) {
+      callback.invoke(AsyncStorageErrorUtil.getInvalidKeyError(null));
+      return;
+    }
+
+    // Like super, reject the whole call if any pair is invalid
+    WritableMap error = validateKeyValueArray(keyValueArray);
+    if (error != null) {
+      callback.invoke(error);
+      return;
+    }
+
+    for (int i = 0; i < keyValueArray.size(); i++) {
+      ReadableArray pair = keyValueArray.getArray(i);
+      mCache.set(pair.getString(0), pair.getString(1));
+    }
+    scheduleFlush();
+    callback.invoke();
   }
 
   @ReactMethod
   public void multiRemove(final ReadableArray keys, final Callback callback) {
-    super.multiRemove(keys, callback);
+    if (mCache == null) {
+      super.multiRemove(keys, callback);
+      return;
+    }
+
+    if (keys.size() == 0) {
+      callback.invoke(AsyncStorageErrorUtil.getInvalidKeyError(null));
+      return;
+    }
+
+    for (int i = 0; i < keys.size(); i++) {
+      if (keys.isNull(i)) {
+        callback.invoke(AsyncStorageErrorUtil.getInvalidKeyError(null));
+        return;
+      }
+    }
+
+    for (int i = 0; i < keys.size(); i++) {
+      mCache.remove(keys.getString(i));
+    }
+    scheduleFlush();
+    callback.invoke();
   }
 
   @ReactMethod
   public void multiMerge(final ReadableArray keyValueArray, final Callback callback) {
+    if (mCache == null) {
+      super.multiMerge(keyValueArray, callback);
+      return;
+    }
+
+    WritableMap error = validateKeyValueArray(keyValueArray);
+    if (error != null) {
+      callback.invoke(error);
+      return;
+    }
+
+    // Merges fail if the stored value isn't a JSON object, so they run against the database like
+    // they do without the cache and only report back once they did. Writes buffered before them go
+    // first, the executor is serial.
+    for (int i = 0; i < keyValueArray.size(); i++) {
+      mCache.invalidate(keyValueArray.getArray(i).getString(0));
+    }
+    final AsyncStorageCache.PendingWrites pendingWrites = mCache.takePendingWrites();
+    final AsyncStorageCache cache = mCache;
+    executor.execute(new Runnable() {
+      @Override
+      public void run() {
+        if (!mShuttingDown && mReactDatabaseSupplier.ensureDatabase()) {
+          cache.flush(mReactDatabaseSupplier, pendingWrites);
+        }
+      }
+    });
     super.multiMerge(keyValueArray, callback);
   }
 
   @ReactMethod
   public void clear(final Callback callback) {
-    super.clear(callback);
+    if (mCache == null) {
+      super.clear(callback);
+      return;
+    }
+
+    mCache.clear();
+    scheduleFlush();
+    callback.invoke();
   }
 
   @ReactMethod
   public void getAllKeys(final Callback callback) {
+    if (mCache != null) {
+      executor.execute(mFlushRunnable);
+    }
     super.getAllKeys(callback);
   }
+
+  private void scheduleFlush() {
+    if (mIsFlushScheduled.compareAndSet(false, true)) {
+      mHandler.postDelayed(mScheduleFlushRunnable, FLUSH_INTERVAL_MS);
+    }
+  }
+
+  private void flushPendingWrites() {
+    if (mCache == null || !mCache.hasPendingWrites()) {
+      return;
+    }
+
+    if (mShuttingDown || !mReactDatabaseSupplier.ensureDatabase()) {
+      return;
+    }
+
+    mCache.flush(mReactDatabaseSupplier);
+  }
+
+  private static @Nullable WritableMap validateKeyValueArray(ReadableArray keyValueArray) {
+    for (int i = 0; i < keyValueArray.size(); i++) {
+      ReadableArray pair = keyValueArray.getArray(i);
+      if (pair.size() != 2) {
+        return AsyncStorageErrorUtil.getInvalidValueError(null);
+      }
+      if (pair.isNull(0)) {
+        return AsyncStorageErrorUtil.getInvalidKeyError(null);
+      }
+      if (pair.isNull(1)) {
+        return AsyncStorageErrorUtil.getInvalidValueError(null);
+      }
+    }
+    return null;
+  }
 }
@@ -30,6 +30,16 @@ public class SensorSubscription implements SensorServiceSubscription {
     mSensorKernelServiceSubscription.setUpdateInterval(updateInterval);
   }
 
+  @Override
+  public Long getMaxReportLatency() {
+    return mSensorKernelServiceSubscription.getMaxReportLatency();
+  }
+
+  @Override
+  public void setMaxReportLatency(long maxReportLatency) {
+    mSensorKernelServiceSubscription.setMaxReportLatency(maxReportLatency);
+  }
+
   @Override
   public void stop() {
     mSensorKernelServiceSubscription.stop();
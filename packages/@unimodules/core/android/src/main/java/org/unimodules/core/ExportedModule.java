@@ -4,12 +4,10 @@ import android.content.Context;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
-import java.util.List;
 import java.util.Map;
 
 import org.unimodules.core.interfaces.ExpoMethod;
@@ -22,12 +20,20 @@ import org.unimodules.core.interfaces.ExpoMethod;
  */
 public abstract class ExportedModule {
   public class MethodInfo {
+    private String mName;
+    private Method mMethod;
     private Class<?>[] mParameterTypes;
 
-    MethodInfo(Method method) {
+    MethodInfo(String name, Method method) {
+      mName = name;
+      mMethod = method;
       mParameterTypes = method.getParameterTypes();
     }
 
+    public String getName() {
+      return mName;
+    }
+
     public Class<?>[] getParameterTypes() {
       return mParameterTypes;
     }
@@ -61,7 +67,7 @@ public abstract class ExportedModule {
 
     Map<String, MethodInfo> exportedMethodInfos = new HashMap<>();
     for(Map.Entry<String, Method> entry : getExportedMethods().entrySet()) {
-      exportedMethodInfos.put(entry.getKey(), new MethodInfo(entry.getValue()));
+      exportedMethodInfos.put(entry.getKey(), new MethodInfo(entry.getKey(), entry.getValue()));
     }
     mExportedMethodInfos = exportedMethodInfos;
     return mExportedMethodInfos;
@@ -86,14 +92,39 @@ public abstract class ExportedModule {
 
     Class<?>[] expectedArgumentClasses = method.getParameterTypes();
     Iterator<Object> actualArgumentsIterator = arguments.iterator();
-    List<Object> transformedArguments = new ArrayList<>(arguments.size());
+    Object[] transformedArguments = new Object[expectedArgumentsCount];
+
+    for (int i = 0; i < expectedArgumentsCount; i++) {
+      transformedArguments[i] = transformArgumentToClass(actualArgumentsIterator.next(), expectedArgumentClasses[i]);
+    }
+
+    return invokeMethod(methodName, method, transformedArguments);
+  }
+
+  /**
+   * Invokes an exported method with arguments that the platform adapter has already converted
+   * to the classes described by {@link MethodInfo#getParameterTypes()}. Skips the lookup by name
+   * of {@link ExportedModule#invokeExportedMethod(String, Collection)}. Arguments still go through
+   * {@link ExportedModule#transformArgumentToClass(Object, Class)}, in place in the given array.
+   */
+  public Object invokeExportedMethod(MethodInfo methodInfo, Object[] arguments) throws RuntimeException {
+    int expectedArgumentsCount = methodInfo.mParameterTypes.length;
+    if (arguments.length != expectedArgumentsCount) {
+      throw new IllegalArgumentException(
+              "Method " + methodInfo.mName + " on class " + getName() + " expects " + expectedArgumentsCount + " arguments, "
+                      + "whereas " + arguments.length + " arguments have been provided.");
+    }
 
     for (int i = 0; i < expectedArgumentsCount; i++) {
-      transformedArguments.add(transformArgumentToClass(actualArgumentsIterator.next(), expectedArgumentClasses[i]));
+      arguments[i] = transformArgumentToClass(arguments[i], methodInfo.mParameterTypes[i]);
     }
 
+    return invokeMethod(methodInfo.mName, methodInfo.mMethod, arguments);
+  }
+
+  private Object invokeMethod(String methodName, Method method, Object[] arguments) {
     try {
-      return method.invoke(this, transformedArguments.toArray());
+      return method.invoke(this, arguments);
     } catch (IllegalAccessException | InvocationTargetException e) {
       e.printStackTrace();
       throw new RuntimeException("Exception occurred while executing exported method " + methodName
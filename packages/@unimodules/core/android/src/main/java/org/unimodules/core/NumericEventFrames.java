@@ -0,0 +1,76 @@
+package org.unimodules.core;
+
+import java.util.Arrays;
+
+/**
+ * Numeric event payload: frames of `stride` doubles packed one after another in a primitive array
+ * that's reused between events, so emitting a high-frequency event doesn't allocate a Bundle (and
+ * boxed values) per reading.
+ *
+ * {@link org.unimodules.core.interfaces.services.EventEmitter#emit(String, NumericEventFrames)}
+ * copies the frames out before returning, so the same instance can be cleared and refilled right
+ * after. JS receives a single flat array `[stride, ...values]`, which `decodeNumericEventFrames`
+ * from `@unimodules/core` turns back into one object per frame.
+ *
+ * Not thread-safe.
+ */
+public class NumericEventFrames {
+  private static final int DEFAULT_FRAME_CAPACITY = 8;
+
+  private final int mStride;
+  private double[] mValues;
+  private int mSize = 0;
+
+  public NumericEventFrames(int stride) {
+    this(stride, DEFAULT_FRAME_CAPACITY);
+  }
+
+  public NumericEventFrames(int stride, int frameCapacity) {
+    if (stride <= 0) {
+      throw new IllegalArgumentException("Stride must be positive, got " + stride + ".");
+    }
+    mStride = stride;
+    mValues = new double[stride * Math.max(1, frameCapacity)];
+  }
+
+  public int getStride() {
+    return mStride;
+  }
+
+  // Number of values put so far, including those of an incomplete frame
+  public int size() {
+    return mSize;
+  }
+
+  public int getFrameCount() {
+    return mSize / mStride;
+  }
+
+  public boolean isEmpty() {
+    return mSize == 0;
+  }
+
+  public double get(int index) {
+    if (index < 0 || index >= mSize) {
+      throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + mSize + ".");
+    }
+    return mValues[index];
+  }
+
+  public NumericEventFrames put(double value) {
+    if (mSize == mValues.length) {
+      mValues = Arrays.copyOf(mValues, mValues.length * 2);
+    }
+    mValues[mSize++] = value;
+    return this;
+  }
+
+  // Keeps the capacity, so refilling doesn't allocate
+  public void clear() {
+    mSize = 0;
+  }
+
+  public boolean hasCompleteFrames() {
+    return mSize % mStride == 0;
+  }
+}
@@ -18,8 +18,11 @@ public abstract class ViewManager<V extends View> {
    * eg. adapter can infer the expected class of the property value.
    */
   public class PropSetterInfo {
+    private Method mSetter;
     private Class<?> mExpectedPropertyClass;
-    PropSetterInfo(Class<?>[] parameterTypes) {
+    PropSetterInfo(Method setter) {
+      Class<?>[] parameterTypes = setter.getParameterTypes();
+      mSetter = setter;
       mExpectedPropertyClass = parameterTypes[parameterTypes.length - 1];
     }
 
@@ -34,7 +37,6 @@ public abstract class ViewManager<V extends View> {
   }
 
   private Map<String, PropSetterInfo> mPropSetterInfos;
-  private Map<String, Method> mPropSetters;
 
 
   public abstract String getName();
@@ -51,7 +53,7 @@ public abstract class ViewManager<V extends View> {
 
   /**
    * Returns a map of { propName => propInfo } so that platform adapter knows value of what class
-   * does the propsetter expect.
+   * does the propsetter expect. Includes props declared by superclasses, unless overridden.
    */
   public Map<String, PropSetterInfo> getPropSetterInfos() {
     if (mPropSetterInfos != null) {
@@ -59,8 +61,15 @@ public abstract class ViewManager<V extends View> {
     }
 
     Map<String, PropSetterInfo> propSetterInfos = new HashMap<>();
-    for (Map.Entry<String, Method> entry : getPropSetters().entrySet()) {
-      propSetterInfos.put(entry.getKey(), new PropSetterInfo(entry.getValue().getParameterTypes()));
+    Class klass = getClass();
+    // We're iterating from the furthest subclass to ViewManager, so subclasses win.
+    while (klass != null && ViewManager.class.isAssignableFrom(klass)) {
+      for (Map.Entry<String, Method> entry : getPropSetters(klass).entrySet()) {
+        if (!propSetterInfos.containsKey(entry.getKey())) {
+          propSetterInfos.put(entry.getKey(), new PropSetterInfo(entry.getValue()));
+        }
+      }
+      klass = klass.getSuperclass();
     }
 
     mPropSetterInfos = propSetterInfos;
@@ -68,16 +77,26 @@ public abstract class ViewManager<V extends View> {
   }
 
   public void updateProp(V view, String propName, Object propValue) throws RuntimeException {
-    Method propSetter = getPropSetters().get(propName);
-    if (propSetter == null) {
+    PropSetterInfo propSetterInfo = getPropSetterInfos().get(propName);
+    if (propSetterInfo == null) {
       throw new IllegalArgumentException("There is no propSetter in " + getName() + " for prop of name " + propName + ".");
     }
 
-    // We've validated parameter types length in getPropSetterInfos()
-    Object transformedPropertyValue = transformArgumentToClass(propValue, getPropSetterInfos().get(propName).getExpectedValueClass());
+    Object transformedPropertyValue = transformArgumentToClass(propValue, propSetterInfo.getExpectedValueClass());
+    invokePropSetter(view, propName, propSetterInfo, transformedPropertyValue);
+  }
 
+  /**
+   * Updates a prop with a value the platform adapter has already converted to
+   * {@link PropSetterInfo#getExpectedValueClass()}, so it isn't validated again.
+   */
+  public void updateProp(V view, String propName, PropSetterInfo propSetterInfo, Object propValue) throws RuntimeException {
+    invokePropSetter(view, propName, propSetterInfo, propValue);
+  }
+
+  private void invokePropSetter(V view, String propName, PropSetterInfo propSetterInfo, Object propValue) {
     try {
-      propSetter.invoke(this, view, transformedPropertyValue);
+      propSetterInfo.mSetter.invoke(this, view, propValue);
     } catch (IllegalAccessException | InvocationTargetException e) {
       throw new RuntimeException("Exception occurred while updating property " + propName
               + " on module " + getName() + ": " + e.getMessage(), e);
@@ -89,16 +108,12 @@ public abstract class ViewManager<V extends View> {
   }
 
   /**
-   * Creates or returns a cached map of propName => methodSettingThatProp. Validates returned methods.
+   * Returns a map of propName => methodSettingThatProp declared in given class. Validates returned methods.
    * @return Map of { propName => methodSettingThatProp }
    */
-  private Map<String, Method> getPropSetters() {
-    if (mPropSetters != null) {
-      return mPropSetters;
-    }
-
-    mPropSetters = new HashMap<>();
-    Method[] declaredMethodsArray = getClass().getDeclaredMethods();
+  private Map<String, Method> getPropSetters(Class klass) {
+    Map<String, Method> propSetters = new HashMap<>();
+    Method[] declaredMethodsArray = klass.getDeclaredMethods();
 
     for (Method method : declaredMethodsArray) {
       if (method.getAnnotation(ExpoProp.class) != null) {
@@ -111,16 +126,18 @@ public abstract class ViewManager<V extends View> {
           );
         }
 
-        if (mPropSetters.containsKey(propName)) {
+        if (propSetters.containsKey(propName)) {
           throw new IllegalArgumentException(
                   "View manager " + getName() + " prop setter name already registered: " + propName + "."
           );
         }
 
-        mPropSetters.put(propName, method);
+        // Setters declared in superclasses may be package-private or protected
+        method.setAccessible(true);
+        propSetters.put(propName, method);
       }
     }
 
-    return mPropSetters;
+    return propSetters;
   }
 }
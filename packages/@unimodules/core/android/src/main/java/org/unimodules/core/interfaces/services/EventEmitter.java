@@ -2,6 +2,8 @@ package org.unimodules.core.interfaces.services;
 
 import android.os.Bundle;
 
+import org.unimodules.core.NumericEventFrames;
+
 public interface EventEmitter {
   interface Event {
     boolean canCoalesce();
@@ -25,4 +27,7 @@ public interface EventEmitter {
   void emit(int viewId, String eventName, Bundle eventBody);
   void emit(String eventName, Bundle eventBody);
   void emit(int viewId, Event event);
+
+  // Fast path for numeric payloads, see NumericEventFrames. `frames` may be reused after it returns.
+  void emit(String eventName, NumericEventFrames frames);
 }
@@ -0,0 +1,40 @@
+/**
+ * Payload of an event emitted through the numeric fast path on Android (`NumericEventFrames` in
+ * the native core): one flat array `[stride, ...values]` holding consecutive frames of `stride`
+ * numbers each.
+ */
+export type NumericEventFramesPayload = number[];
+
+/**
+ * Whether an event payload came through the numeric fast path, as opposed to a regular object.
+ */
+export function isNumericEventFrames(payload: any): payload is NumericEventFramesPayload {
+  return Array.isArray(payload) && payload.length > 0 && typeof payload[0] === 'number';
+}
+
+/**
+ * Turns a numeric event payload back into one object per frame. The i-th value of a frame is
+ * assigned to `fields[i]`; values without a field name are skipped.
+ */
+export function decodeNumericEventFrames<T extends object>(
+  payload: NumericEventFramesPayload,
+  fields: (keyof T)[]
+): T[] {
+  const stride = payload[0];
+  if (!(stride > 0) || (payload.length - 1) % stride !== 0) {
+    throw new Error(
+      `Malformed numeric event payload: ${payload.length - 1} values with a stride of ${stride}`
+    );
+  }
+
+  const fieldCount = Math.min(stride, fields.length);
+  const frames: T[] = [];
+  for (let offset = 1; offset < payload.length; offset += stride) {
+    const frame: any = {};
+    for (let i = 0; i < fieldCount; i++) {
+      frame[fields[i]] = payload[offset + i];
+    }
+    frames.push(frame);
+  }
+  return frames;
+}
@@ -0,0 +1,26 @@
+import { decodeNumericEventFrames, isNumericEventFrames } from '../NumericEventFrames';
+
+describe('isNumericEventFrames', () => {
+  it(`accepts flat numeric arrays only`, () => {
+    expect(isNumericEventFrames([3, 0.1, 0.2, 0.3])).toBe(true);
+    expect(isNumericEventFrames({ x: 0.1 })).toBe(false);
+    expect(isNumericEventFrames([])).toBe(false);
+    expect(isNumericEventFrames(null)).toBe(false);
+  });
+});
+
+describe('decodeNumericEventFrames', () => {
+  it(`decodes one object per frame`, () => {
+    const frames = decodeNumericEventFrames([3, 1, 2, 3, 4, 5, 6], ['x', 'y', 'z']);
+    expect(frames).toEqual([{ x: 1, y: 2, z: 3 }, { x: 4, y: 5, z: 6 }]);
+  });
+
+  it(`skips values without a field name`, () => {
+    const frames = decodeNumericEventFrames([2, 1, 2, 3, 4], ['pressure']);
+    expect(frames).toEqual([{ pressure: 1 }, { pressure: 3 }]);
+  });
+
+  it(`throws on an incomplete frame`, () => {
+    expect(() => decodeNumericEventFrames([3, 1, 2], ['x', 'y', 'z'])).toThrow();
+  });
+});
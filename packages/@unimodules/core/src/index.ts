@@ -1,3 +1,4 @@
 
 export * from './AdapterProxy';
 export * from './Errors';
+export * from './NumericEventFrames';
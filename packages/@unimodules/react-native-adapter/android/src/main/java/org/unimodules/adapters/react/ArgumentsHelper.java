@@ -1,6 +1,8 @@
 package org.unimodules.adapters.react;
 
 import com.facebook.react.bridge.Dynamic;
+import com.facebook.react.bridge.DynamicFromArray;
+import com.facebook.react.bridge.ReadableArray;
 
 import org.unimodules.core.arguments.MapArguments;
 import org.unimodules.core.arguments.ReadableArguments;
@@ -45,4 +47,17 @@ public class ArgumentsHelper {
         );
     }
   }
+
+  /**
+   * Same as {@link #getNativeArgumentForExpectedClass(Dynamic, Class)}, for an element of an array.
+   * Borrows a pooled {@link Dynamic} instead of allocating one per argument.
+   */
+  public static Object getNativeArgumentForExpectedClass(ReadableArray arguments, int index, Class<?> expectedArgumentClass) {
+    Dynamic argument = DynamicFromArray.create(arguments, index);
+    try {
+      return getNativeArgumentForExpectedClass(argument, expectedArgumentClass);
+    } finally {
+      argument.recycle();
+    }
+  }
 }
@@ -44,13 +44,13 @@ public class NativeModulesProxy extends ReactContextBaseJavaModule {
 
   private ModuleRegistry mModuleRegistry;
   private Map<String, Map<String, Integer>> mExportedMethodsKeys;
-  private Map<String, SparseArray<String>> mExportedMethodsReverseKeys;
+  private Map<String, SparseArray<ExportedModule.MethodInfo>> mExportedMethodInfosByKey;
 
   public NativeModulesProxy(ReactApplicationContext context, ModuleRegistry moduleRegistry) {
     super(context);
     mModuleRegistry = moduleRegistry;
     mExportedMethodsKeys = new HashMap<>();
-    mExportedMethodsReverseKeys = new HashMap<>();
+    mExportedMethodInfosByKey = new HashMap<>();
   }
 
   @Override
@@ -74,7 +74,7 @@ public class NativeModulesProxy extends ReactContextBaseJavaModule {
       modulesConstants.put(moduleName, exportedModule.getConstants());
 
       List<Map<String, Object>> exportedMethods = transformExportedMethodsMap(exportedModule.getExportedMethods());
-      assignExportedMethodsKeys(moduleName, exportedMethods);
+      assignExportedMethodsKeys(moduleName, exportedModule.getExportedMethodInfos(), exportedMethods);
 
       exportedMethodsMap.put(moduleName, exportedMethods);
     }
@@ -100,45 +100,61 @@ public class NativeModulesProxy extends ReactContextBaseJavaModule {
    */
   @ReactMethod
   public void callMethod(String moduleName, Dynamic methodKeyOrName, ReadableArray arguments, final Promise promise) {
+    ExportedModule module = mModuleRegistry.getExportedModule(moduleName);
+    if (module == null) {
+      promise.reject(UNDEFINED_METHOD_ERROR, "Java module " + moduleName + " is undefined.");
+      return;
+    }
+
+    ExportedModule.MethodInfo methodInfo;
     String methodName;
     if (methodKeyOrName.getType() == ReadableType.String) {
       methodName = methodKeyOrName.asString();
+      methodInfo = module.getExportedMethodInfos().get(methodName);
     } else if (methodKeyOrName.getType() == ReadableType.Number) {
-      methodName = mExportedMethodsReverseKeys.get(moduleName).get(methodKeyOrName.asInt());
+      SparseArray<ExportedModule.MethodInfo> methodInfos = mExportedMethodInfosByKey.get(moduleName);
+      methodInfo = methodInfos != null ? methodInfos.get(methodKeyOrName.asInt()) : null;
+      methodName = methodInfo != null ? methodInfo.getName() : String.valueOf(methodKeyOrName.asInt());
     } else {
       promise.reject(UNEXPECTED_ERROR, "Method key is neither a String nor an Integer -- don't know how to map it to method name.");
       return;
     }
 
-    try {
-      List<Object> nativeArguments = getNativeArgumentsForMethod(arguments, mModuleRegistry.getExportedModule(moduleName).getExportedMethodInfos().get(methodName));
-      nativeArguments.add(new PromiseWrapper(promise));
+    if (methodInfo == null) {
+      promise.reject(
+          UNDEFINED_METHOD_ERROR,
+          "Method " + methodName + " of Java module " + moduleName + " is undefined."
+      );
+      return;
+    }
 
-      mModuleRegistry.getExportedModule(moduleName).invokeExportedMethod(methodName, nativeArguments);
+    try {
+      module.invokeExportedMethod(methodInfo, getNativeArgumentsForMethod(arguments, methodInfo, new PromiseWrapper(promise)));
     } catch (IllegalArgumentException e) {
       promise.reject(ARGS_TYPES_MISMATCH_ERROR, e.getMessage(), e);
     } catch (RuntimeException e) {
       promise.reject(UNEXPECTED_ERROR, "Encountered an exception while calling native method: " + e.getMessage(), e);
-    } catch (NoSuchMethodException e) {
-      promise.reject(
-          UNDEFINED_METHOD_ERROR,
-          "Method " + methodName + " of Java module " + moduleName + " is undefined.",
-          e
-      );
     }
   }
 
   /**
-   * Converts {@link ReadableArray} of arguments into a list of Java Objects.
+   * Converts {@link ReadableArray} of arguments into an array of Java Objects matching
+   * the method's parameter types, with the promise as the last element.
    * Throws {@link RuntimeException} if it can't convert some {@link ReadableType} to Object.
-   * Method is used when converting Double to proper argument.
    */
-  private static List<Object> getNativeArgumentsForMethod(ReadableArray arguments, ExportedModule.MethodInfo methodInfo) {
-    List<Object> nativeArguments = new ArrayList<>();
+  private static Object[] getNativeArgumentsForMethod(ReadableArray arguments, ExportedModule.MethodInfo methodInfo, PromiseWrapper promise) {
+    Class<?>[] parameterTypes = methodInfo.getParameterTypes();
+    if (arguments.size() != parameterTypes.length - 1) {
+      throw new IllegalArgumentException(
+          "Method " + methodInfo.getName() + " expects " + (parameterTypes.length - 1) + " arguments, "
+              + "whereas " + arguments.size() + " arguments have been provided.");
+    }
 
+    Object[] nativeArguments = new Object[parameterTypes.length];
     for (int i = 0; i < arguments.size(); i++) {
-      nativeArguments.add(ArgumentsHelper.getNativeArgumentForExpectedClass(arguments.getDynamic(i), methodInfo.getParameterTypes()[i]));
+      nativeArguments[i] = ArgumentsHelper.getNativeArgumentForExpectedClass(arguments, i, parameterTypes[i]);
     }
+    nativeArguments[parameterTypes.length - 1] = promise;
     return nativeArguments;
   }
 
@@ -164,16 +180,16 @@ public class NativeModulesProxy extends ReactContextBaseJavaModule {
   }
 
   /**
-   * Assigns keys to exported method infos and updates {@link #mExportedMethodsKeys} and {@link #mExportedMethodsReverseKeys}.
+   * Assigns keys to exported method infos and updates {@link #mExportedMethodsKeys} and {@link #mExportedMethodInfosByKey}.
    * Mutates maps in provided list.
    */
-  private void assignExportedMethodsKeys(String moduleName, List<Map<String, Object>> exportedMethodsInfos) {
+  private void assignExportedMethodsKeys(String moduleName, Map<String, ExportedModule.MethodInfo> moduleMethodInfos, List<Map<String, Object>> exportedMethodsInfos) {
     if (mExportedMethodsKeys.get(moduleName) == null) {
       mExportedMethodsKeys.put(moduleName, new HashMap<String, Integer>());
     }
 
-    if (mExportedMethodsReverseKeys.get(moduleName) == null) {
-      mExportedMethodsReverseKeys.put(moduleName, new SparseArray<String>());
+    if (mExportedMethodInfosByKey.get(moduleName) == null) {
+      mExportedMethodInfosByKey.put(moduleName, new SparseArray<ExportedModule.MethodInfo>());
     }
 
     for (int i = 0; i < exportedMethodsInfos.size(); i++) {
@@ -185,15 +201,15 @@ public class NativeModulesProxy extends ReactContextBaseJavaModule {
 
       String methodName = (String) methodInfo.get(METHOD_INFO_NAME);
       Integer maybePreviousIndex = mExportedMethodsKeys.get(moduleName).get(methodName);
+      int key;
       if (maybePreviousIndex == null) {
-        int key = mExportedMethodsKeys.get(moduleName).values().size();
-        methodInfo.put(METHOD_INFO_KEY, key);
+        key = mExportedMethodsKeys.get(moduleName).values().size();
         mExportedMethodsKeys.get(moduleName).put(methodName, key);
-        mExportedMethodsReverseKeys.get(moduleName).put(key, methodName);
       } else {
-        int key = maybePreviousIndex;
-        methodInfo.put(METHOD_INFO_KEY, key);
+        key = maybePreviousIndex;
       }
+      methodInfo.put(METHOD_INFO_KEY, key);
+      mExportedMethodInfosByKey.get(moduleName).put(key, moduleMethodInfos.get(methodName));
     }
   }
 }
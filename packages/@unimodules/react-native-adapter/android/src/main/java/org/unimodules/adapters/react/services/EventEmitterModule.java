@@ -4,6 +4,7 @@ import android.os.Bundle;
 
 import com.facebook.react.bridge.Arguments;
 import com.facebook.react.bridge.ReactContext;
+import com.facebook.react.bridge.WritableArray;
 import com.facebook.react.modules.core.DeviceEventManagerModule;
 import com.facebook.react.uimanager.UIManagerModule;
 import com.facebook.react.uimanager.events.RCTEventEmitter;
@@ -11,6 +12,7 @@ import com.facebook.react.uimanager.events.RCTEventEmitter;
 import java.util.Collections;
 import java.util.List;
 
+import org.unimodules.core.NumericEventFrames;
 import org.unimodules.core.interfaces.InternalModule;
 import org.unimodules.core.interfaces.services.EventEmitter;
 
@@ -26,6 +28,14 @@ public class EventEmitterModule implements EventEmitter, InternalModule {
     mReactContext.getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class).emit(eventName, Arguments.fromBundle(eventBody));
   }
 
+  @Override
+  public void emit(String eventName, NumericEventFrames frames) {
+    if (!frames.hasCompleteFrames()) {
+      throw new IllegalArgumentException("Event " + eventName + " has an incomplete frame: " + frames.size() + " values with a stride of " + frames.getStride() + ".");
+    }
+    mReactContext.getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class).emit(eventName, toWritableArray(frames));
+  }
+
   @Override
   public void emit(final int viewId, final Event event) {
     mReactContext.getNativeModule(UIManagerModule.class).getEventDispatcher().dispatchEvent(getReactEventFromEvent(viewId, event));
@@ -61,6 +71,16 @@ public class EventEmitterModule implements EventEmitter, InternalModule {
     return Collections.singletonList((Class) EventEmitter.class);
   }
 
+  // [stride, ...values], see decodeNumericEventFrames in @unimodules/core
+  public static WritableArray toWritableArray(NumericEventFrames frames) {
+    WritableArray array = Arguments.createArray();
+    array.pushInt(frames.getStride());
+    for (int i = 0; i < frames.size(); i++) {
+      array.pushDouble(frames.get(i));
+    }
+    return array;
+  }
+
   private static com.facebook.react.uimanager.events.Event getReactEventFromEvent(final int viewId, final Event event) {
     return new com.facebook.react.uimanager.events.Event(viewId) {
       @Override
@@ -40,17 +40,20 @@ public class ViewManagerAdapterUtils {
   }
 
   /* package */ static <V extends View> void setProxiedProperties(String viewManagerAdapterName, ViewManager<V> viewManager, V view, ReadableMap proxiedProperties) {
+    // All props changed in one update arrive here together, resolve the setters table once for all of them.
+    Map<String, ViewManager.PropSetterInfo> propSetterInfos = viewManager.getPropSetterInfos();
     ReadableMapKeySetIterator keyIterator = proxiedProperties.keySetIterator();
     while (keyIterator.hasNextKey()) {
       String key = keyIterator.nextKey();
       try {
-        ViewManager.PropSetterInfo propSetterInfo = viewManager.getPropSetterInfos().get(key);
+        ViewManager.PropSetterInfo propSetterInfo = propSetterInfos.get(key);
         if (propSetterInfo == null) {
           throw new IllegalArgumentException("No setter found for prop " + key + " in " + viewManagerAdapterName);
         }
         Dynamic dynamicPropertyValue = proxiedProperties.getDynamic(key);
         Object castPropertyValue = ArgumentsHelper.getNativeArgumentForExpectedClass(dynamicPropertyValue, propSetterInfo.getExpectedValueClass());
-        viewManager.updateProp(view, key, castPropertyValue);
+        dynamicPropertyValue.recycle();
+        viewManager.updateProp(view, key, propSetterInfo, castPropertyValue);
       } catch (Exception e) {
         Log.e(viewManagerAdapterName, "Error when setting prop " + key + ". " + e.getMessage());
       }
@@ -6,6 +6,7 @@ import android.app.job.JobParameters;
 import android.app.job.JobService;
 import android.content.Context;
 import android.content.Intent;
+import android.os.Bundle;
 import android.os.PersistableBundle;
 import android.os.SystemClock;
 import android.util.Log;
@@ -98,6 +99,13 @@ public class BackgroundFetchTaskConsumer extends TaskConsumer implements TaskCon
   }
 
   //endregion
+
+  @Override
+  public Bundle coalesceEventData(Bundle queuedData, Bundle data) {
+    // Fetch events carry no data, so there is no point in running the task more than once after the app loads.
+    return data;
+  }
+
   //region private methods
 
   private AlarmManager getAlarmManager() {
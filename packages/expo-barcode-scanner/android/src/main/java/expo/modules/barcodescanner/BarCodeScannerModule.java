@@ -19,6 +19,7 @@ import org.unimodules.core.ModuleRegistry;
 import org.unimodules.core.Promise;
 import org.unimodules.core.interfaces.ExpoMethod;
 import org.unimodules.core.interfaces.ModuleRegistryConsumer;
+import org.unimodules.core.interfaces.services.UIManager;
 import org.unimodules.interfaces.barcodescanner.BarCodeScanner;
 import org.unimodules.interfaces.barcodescanner.BarCodeScannerResult;
 import org.unimodules.interfaces.barcodescanner.BarCodeScannerSettings;
@@ -125,4 +126,28 @@ public class BarCodeScannerModule extends ExportedModule implements ModuleRegist
       }
     });
   }
+
+  @ExpoMethod
+  public void getFrameStatsAsync(final int viewTag, final Promise promise) {
+    UIManager manager = mModuleRegistry.getModule(UIManager.class);
+    if (manager == null) {
+      promise.reject(ERROR_TAG, "Implementation of " + UIManager.class.getName() + " is null. Are you sure you've included a proper Expo adapter for your platform?");
+      return;
+    }
+
+    manager.addUIBlock(viewTag, new UIManager.UIBlock<BarCodeScannerView>() {
+      @Override
+      public void resolve(BarCodeScannerView view) {
+        Bundle stats = new Bundle();
+        stats.putInt("framesScanned", view.getFramesScanned());
+        stats.putInt("framesDropped", view.getFramesDropped());
+        promise.resolve(stats);
+      }
+
+      @Override
+      public void reject(Throwable throwable) {
+        promise.reject(ERROR_TAG, throwable);
+      }
+    }, BarCodeScannerView.class);
+  }
 }
@@ -1,6 +1,7 @@
 package expo.modules.barcodescanner;
 
 import android.content.Context;
+import android.graphics.RectF;
 import android.hardware.SensorManager;
 import android.view.OrientationEventListener;
 import android.view.View;
@@ -23,6 +24,7 @@ public class BarCodeScannerView extends ViewGroup {
   private int mLeftPadding = 0;
   private int mTopPadding = 0;
   private int mType = 0;
+  private RectF mRegionOfInterest = null;
 
   public BarCodeScannerView(final Context context, ModuleRegistry moduleRegistry) {
     super(context);
@@ -116,6 +118,7 @@ public class BarCodeScannerView extends ViewGroup {
       ExpoBarCodeScanner.getInstance().adjustPreviewLayout(type);
     } else {
       mViewFinder = new BarCodeScannerViewFinder(mContext, type, this, mModuleRegistry);
+      mViewFinder.setRegionOfInterest(mRegionOfInterest);
       addView(mViewFinder);
     }
   }
@@ -124,6 +127,21 @@ public class BarCodeScannerView extends ViewGroup {
     mViewFinder.setBarCodeScannerSettings(settings);
   }
 
+  public void setRegionOfInterest(RectF regionOfInterest) {
+    mRegionOfInterest = regionOfInterest;
+    if (null != mViewFinder) {
+      mViewFinder.setRegionOfInterest(regionOfInterest);
+    }
+  }
+
+  public int getFramesScanned() {
+    return mViewFinder == null ? 0 : mViewFinder.getFramesScanned();
+  }
+
+  public int getFramesDropped() {
+    return mViewFinder == null ? 0 : mViewFinder.getFramesDropped();
+  }
+
   private boolean setActualDeviceOrientation(Context context) {
     int actualDeviceOrientation = getDeviceOrientation(context);
 
@@ -1,14 +1,17 @@
 package expo.modules.barcodescanner;
 
 import android.content.Context;
+import android.graphics.ImageFormat;
+import android.graphics.RectF;
 import android.graphics.SurfaceTexture;
 import android.hardware.Camera;
-import android.os.AsyncTask;
 import android.os.Handler;
+import android.os.HandlerThread;
 import android.os.Looper;
 import android.view.TextureView;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.unimodules.core.ModuleRegistry;
 import org.unimodules.interfaces.barcodescanner.BarCodeScanner;
@@ -26,12 +29,34 @@ class BarCodeScannerViewFinder extends TextureView implements TextureView.Surfac
   private BarCodeScannerView mBarCodeScannerView;
   private Camera mCamera;
 
-  // Concurrency lock for barcode scanner to avoid flooding the runtime
-  public static volatile boolean barCodeScannerTaskLock = false;
+  // One buffer being filled by the camera, one waiting to be scanned and one being scanned
+  private static final int PREVIEW_BUFFER_COUNT = 3;
 
   // Scanner instance for the barcode scanning
   private BarCodeScanner mBarCodeScanner;
 
+  // Frames are scanned one at a time on this thread. While it's busy, only the latest frame is
+  // kept and older ones go straight back to the camera.
+  private HandlerThread mScanThread;
+  private Handler mScanHandler;
+  private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+  private final Object mFrameLock = new Object();
+  private byte[] mPendingFrame;
+  private Camera mPendingFrameCamera;
+  private boolean mIsScanScheduled = false;
+  private volatile int mPreviewWidth;
+  private volatile int mPreviewHeight;
+  // Relative to the preview as displayed, null for the whole frame
+  private volatile RectF mRegionOfInterest;
+  // Scan thread only. What the scanner's frame region was last computed from, so it's only mapped
+  // again when one of them changes.
+  private RectF mScannerRegionOfInterest;
+  private int mScannerRotation = -1;
+  private int mScannerCameraType = -1;
+
+  private final AtomicInteger mFramesScanned = new AtomicInteger();
+  private final AtomicInteger mFramesDropped = new AtomicInteger();
+
   public BarCodeScannerViewFinder(Context context, int type, BarCodeScannerView barCodeScannerView, ModuleRegistry moduleRegistry) {
     super(context);
     mModuleRegistry = moduleRegistry;
@@ -120,8 +145,18 @@ class BarCodeScannerViewFinder extends TextureView implements TextureView.Surfac
         mCamera.setParameters(parameters);
         mCamera.setPreviewTexture(mSurfaceTexture);
         mCamera.startPreview();
-        // send previews to `onPreviewFrame`
-        mCamera.setPreviewCallback(this);
+
+        // send previews to `onPreviewFrame`, reusing a few buffers instead of allocating one per frame
+        parameters = mCamera.getParameters();
+        Camera.Size previewSize = parameters.getPreviewSize();
+        mPreviewWidth = previewSize.width;
+        mPreviewHeight = previewSize.height;
+        int bufferSize = previewSize.width * previewSize.height * ImageFormat.getBitsPerPixel(parameters.getPreviewFormat()) / 8;
+        for (int i = 0; i < PREVIEW_BUFFER_COUNT; i++) {
+          mCamera.addCallbackBuffer(new byte[bufferSize]);
+        }
+        startScanThread();
+        mCamera.setPreviewCallbackWithBuffer(this);
         mBarCodeScannerView.layoutViewFinder();
       } catch (NullPointerException e) {
         e.printStackTrace();
@@ -141,10 +176,11 @@ class BarCodeScannerViewFinder extends TextureView implements TextureView.Surfac
         if (mCamera != null) {
           mCamera.stopPreview();
           // stop sending previews to `onPreviewFrame`
-          mCamera.setPreviewCallback(null);
+          mCamera.setPreviewCallbackWithBuffer(null);
           ExpoBarCodeScanner.getInstance().releaseCameraInstance();
           mCamera = null;
         }
+        stopScanThread();
       } catch (Exception e) {
         e.printStackTrace();
       } finally {
@@ -166,9 +202,30 @@ class BarCodeScannerViewFinder extends TextureView implements TextureView.Surfac
   }
 
   public void onPreviewFrame(byte[] data, Camera camera) {
-    if (!BarCodeScannerViewFinder.barCodeScannerTaskLock) {
-      BarCodeScannerViewFinder.barCodeScannerTaskLock = true;
-      new BarCodeScannerAsyncTask(camera, data, mBarCodeScannerView).execute();
+    if (data == null) {
+      return;
+    }
+
+    byte[] staleFrame;
+    Camera staleFrameCamera;
+    synchronized (mFrameLock) {
+      if (mScanHandler == null) {
+        return;
+      }
+
+      staleFrame = mPendingFrame;
+      staleFrameCamera = mPendingFrameCamera;
+      mPendingFrame = data;
+      mPendingFrameCamera = camera;
+      if (!mIsScanScheduled) {
+        mIsScanScheduled = true;
+        mScanHandler.post(mScanRunnable);
+      }
+    }
+
+    if (staleFrame != null) {
+      mFramesDropped.incrementAndGet();
+      returnBuffer(staleFrameCamera, staleFrame);
     }
   }
 
@@ -176,47 +233,150 @@ class BarCodeScannerViewFinder extends TextureView implements TextureView.Surfac
     mBarCodeScanner.setSettings(settings);
   }
 
-  private class BarCodeScannerAsyncTask extends AsyncTask<Void, Void, Void> {
-    private byte[] mImageData;
-    private final Camera mCamera;
+  /**
+   * Only scans the given part of the preview, in coordinates relative to the preview's size as
+   * displayed (0-1). Null scans the whole frame. Only the ZXing scanner makes use of it.
+   */
+  public void setRegionOfInterest(RectF regionOfInterest) {
+    mRegionOfInterest = regionOfInterest;
+  }
+
+  public int getFramesScanned() {
+    return mFramesScanned.get();
+  }
 
-    BarCodeScannerAsyncTask(Camera camera, byte[] imageData, BarCodeScannerView barCodeScannerView) {
-      mCamera = camera;
-      mImageData = imageData;
-      mBarCodeScannerView = barCodeScannerView;
+  public int getFramesDropped() {
+    return mFramesDropped.get();
+  }
+
+  private void startScanThread() {
+    synchronized (mFrameLock) {
+      if (mScanThread == null) {
+        mScanThread = new HandlerThread("BarCodeScanner");
+        mScanThread.start();
+        mScanHandler = new Handler(mScanThread.getLooper());
+      }
     }
+  }
 
-    @Override
-    protected Void doInBackground(Void... ignored) {
-      if (isCancelled()) {
-        return null;
+  private void stopScanThread() {
+    synchronized (mFrameLock) {
+      if (mScanThread != null) {
+        mScanThread.quit();
+        mScanThread = null;
+        mScanHandler = null;
       }
+      // The camera is gone, its buffers can't be returned
+      mPendingFrame = null;
+      mPendingFrameCamera = null;
+      mIsScanScheduled = false;
+    }
+  }
+
+  private final Runnable mScanRunnable = new Runnable() {
+    @Override
+    public void run() {
+      while (true) {
+        byte[] frame;
+        Camera camera;
+        synchronized (mFrameLock) {
+          // This thread was stopped, a new one owns the pending frame now
+          if (mScanThread == null || mScanThread.getLooper() != Looper.myLooper()) {
+            return;
+          }
+          frame = mPendingFrame;
+          camera = mPendingFrameCamera;
+          mPendingFrame = null;
+          mPendingFrameCamera = null;
+          if (frame == null) {
+            mIsScanScheduled = false;
+            return;
+          }
+        }
 
-      // setting PreviewCallback does not really have an effect - this method is called anyway so we
-      // need to check if camera changing is in progress or not
-      if (!mIsChanging && mCamera != null) {
-        Camera.Size size = mCamera.getParameters().getPreviewSize();
+        scanFrame(frame);
+        returnBuffer(camera, frame);
+      }
+    }
+  };
 
-        int width = size.width;
-        int height = size.height;
+  private void scanFrame(byte[] frame) {
+    // setting PreviewCallback does not really have an effect - this method is called anyway so we
+    // need to check if camera changing is in progress or not
+    if (mIsChanging) {
+      mFramesDropped.incrementAndGet();
+      return;
+    }
 
-        int properRotation = ExpoBarCodeScanner.getInstance().getRotation();
+    int rotation = ExpoBarCodeScanner.getInstance().getRotation();
+    updateScannerRegionOfInterest(rotation);
 
-        final BarCodeScannerResult result = mBarCodeScanner.scan(mImageData, width,
-            height, properRotation);
+    final BarCodeScannerResult result = mBarCodeScanner.scan(frame, mPreviewWidth, mPreviewHeight, rotation);
+    mFramesScanned.incrementAndGet();
 
-        if (result != null) {
-          new Handler(Looper.getMainLooper()).post(new Runnable() {
-            @Override
-            public void run() {
-              mBarCodeScannerView.onBarCodeScanned(result);
-            }
-          });
+    if (result != null) {
+      mMainHandler.post(new Runnable() {
+        @Override
+        public void run() {
+          mBarCodeScannerView.onBarCodeScanned(result);
         }
-      }
+      });
+    }
+  }
+
+  private void updateScannerRegionOfInterest(int rotation) {
+    if (!(mBarCodeScanner instanceof expo.modules.barcodescanner.scanners.ExpoBarCodeScanner)) {
+      return;
+    }
+
+    RectF regionOfInterest = mRegionOfInterest;
+    int cameraType = mCameraType;
+    if (regionOfInterest == mScannerRegionOfInterest && rotation == mScannerRotation && cameraType == mScannerCameraType) {
+      return;
+    }
+
+    mScannerRegionOfInterest = regionOfInterest;
+    mScannerRotation = rotation;
+    mScannerCameraType = cameraType;
+    ((expo.modules.barcodescanner.scanners.ExpoBarCodeScanner) mBarCodeScanner)
+        .setRegionOfInterest(toFrameRegion(regionOfInterest, rotation, cameraType));
+  }
 
-      BarCodeScannerViewFinder.barCodeScannerTaskLock = false;
+  // Maps a region of the displayed preview back onto the camera frame, undoing the display
+  // rotation and the front camera's mirroring
+  private static RectF toFrameRegion(RectF region, int rotation, int cameraType) {
+    if (region == null) {
       return null;
     }
+
+    float x = region.left;
+    float y = region.top;
+    float width = region.width();
+    float height = region.height();
+    if (cameraType == ExpoBarCodeScanner.CAMERA_TYPE_FRONT) {
+      x = 1 - x - width;
+    }
+
+    switch (rotation) {
+      case 90:
+        return new RectF(y, 1 - x - width, y + height, 1 - x);
+      case 180:
+        return new RectF(1 - x - width, 1 - y - height, 1 - x, 1 - y);
+      case 270:
+        return new RectF(1 - y - height, x, 1 - y, x + width);
+      default:
+        return new RectF(x, y, x + width, y + height);
+    }
+  }
+
+  // Hands a preview buffer back to the camera it came from, unless that camera has been released
+  private synchronized void returnBuffer(Camera camera, byte[] buffer) {
+    if (camera != null && camera == mCamera) {
+      try {
+        camera.addCallbackBuffer(buffer);
+      } catch (RuntimeException e) {
+        e.printStackTrace();
+      }
+    }
   }
 }
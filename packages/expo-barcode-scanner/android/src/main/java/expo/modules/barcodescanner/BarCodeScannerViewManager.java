@@ -1,6 +1,7 @@
 package expo.modules.barcodescanner;
 
 import android.content.Context;
+import android.graphics.RectF;
 import android.support.annotation.Nullable;
 
 import org.unimodules.core.ModuleRegistry;
@@ -78,4 +79,18 @@ public class BarCodeScannerViewManager extends ViewManager<BarCodeScannerView> i
     }};
     view.setBarCodeScannerSettings(settings);
   }
+
+  @ExpoProp(name = "regionOfInterest")
+  public void setRegionOfInterest(BarCodeScannerView view, @Nullable Map<String, Object> regionOfInterest) {
+    if (regionOfInterest == null) {
+      view.setRegionOfInterest(null);
+      return;
+    }
+
+    float x = ((Number) regionOfInterest.get("x")).floatValue();
+    float y = ((Number) regionOfInterest.get("y")).floatValue();
+    float width = ((Number) regionOfInterest.get("width")).floatValue();
+    float height = ((Number) regionOfInterest.get("height")).floatValue();
+    view.setRegionOfInterest(new RectF(x, y, x + width, y + height));
+  }
 }
@@ -1,6 +1,7 @@
 package expo.modules.barcodescanner.scanners;
 
 import android.content.Context;
+import android.graphics.RectF;
 
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -15,6 +16,7 @@ public abstract class ExpoBarCodeScanner implements BarCodeScanner {
 
   protected Context mContext;
   protected List<Integer> mBarCodeTypes;
+  protected volatile RectF mRegionOfInterest;
 
   ExpoBarCodeScanner(Context context) {
     mContext = context;
@@ -54,5 +56,13 @@ public abstract class ExpoBarCodeScanner implements BarCodeScanner {
     return result;
   }
 
+  /**
+   * Limits {@link #scan(byte[], int, int, int)} to a part of the frame, in coordinates relative to
+   * the frame's size (0-1). Null scans the whole frame. Scanners that can't crop ignore it.
+   */
+  public void setRegionOfInterest(RectF regionOfInterest) {
+    mRegionOfInterest = regionOfInterest;
+  }
+
   public abstract boolean isAvailable();
 }
@@ -3,6 +3,8 @@ package expo.modules.barcodescanner.scanners;
 import android.content.Context;
 import android.graphics.Bitmap;
 import android.graphics.Point;
+import android.graphics.Rect;
+import android.graphics.RectF;
 
 import com.google.android.gms.vision.barcode.Barcode;
 import com.google.zxing.BarcodeFormat;
@@ -31,6 +33,8 @@ import org.unimodules.interfaces.barcodescanner.BarCodeScannerSettings;
 public class ZxingBarCodeScanner extends ExpoBarCodeScanner {
 
   private final MultiFormatReader mMultiFormatReader;
+  // Reused between frames, frames are scanned one at a time
+  private byte[] mRotatedLuminance;
 
   public ZxingBarCodeScanner(Context context) {
     super(context);
@@ -49,21 +53,44 @@ public class ZxingBarCodeScanner extends ExpoBarCodeScanner {
   }
 
   public BarCodeScannerResult scan(byte[] data, int width, int height, int rotation) {
+    Rect region = getRegionOfInterest(width, height);
+
     // rotate for zxing if orientation is portrait
     if (rotation == 0) {
-      byte[] rotated = new byte[data.length];
-      for (int y = 0; y < height; y++) {
-        for (int x = 0; x < width; x++) {
-          rotated[x * height + height - y - 1] = data[x + y * width];
+      // Only the luminance inside the region is needed, chroma is never read
+      int regionWidth = region.width();
+      int regionHeight = region.height();
+      if (mRotatedLuminance == null || mRotatedLuminance.length < regionWidth * regionHeight) {
+        mRotatedLuminance = new byte[regionWidth * regionHeight];
+      }
+      for (int y = 0; y < regionHeight; y++) {
+        int rowOffset = (region.top + y) * width + region.left;
+        for (int x = 0; x < regionWidth; x++) {
+          mRotatedLuminance[x * regionHeight + regionHeight - y - 1] = data[rowOffset + x];
         }
       }
-      width = width + height;
-      height = width - height;
-      width = width - height;
-      data = rotated;
+      return scan(generateSourceFromImageData(mRotatedLuminance, regionHeight, regionWidth, 0, 0, regionHeight, regionWidth));
     }
 
-    return scan(generateSourceFromImageData(data, width, height));
+    return scan(generateSourceFromImageData(data, width, height, region.left, region.top, region.width(), region.height()));
+  }
+
+  // Region of interest in pixels, the whole frame if none is set
+  private Rect getRegionOfInterest(int width, int height) {
+    RectF regionOfInterest = mRegionOfInterest;
+    if (regionOfInterest == null) {
+      return new Rect(0, 0, width, height);
+    }
+
+    Rect region = new Rect(
+        Math.round(regionOfInterest.left * width),
+        Math.round(regionOfInterest.top * height),
+        Math.round(regionOfInterest.right * width),
+        Math.round(regionOfInterest.bottom * height));
+    if (!region.intersect(0, 0, width, height) || region.isEmpty()) {
+      return new Rect(0, 0, width, height);
+    }
+    return region;
   }
 
   private BarCodeScannerResult scan(LuminanceSource source) {
@@ -114,13 +141,13 @@ public class ZxingBarCodeScanner extends ExpoBarCodeScanner {
     return true;
   }
 
-  private LuminanceSource generateSourceFromImageData(byte[] imageData, int width, int height) {
+  private LuminanceSource generateSourceFromImageData(byte[] imageData, int dataWidth, int dataHeight, int left, int top, int width, int height) {
     return new PlanarYUVLuminanceSource(
         imageData, // byte[] yuvData
-        width, // int dataWidth
-        height, // int dataHeight
-        0, // int left
-        0, // int top
+        dataWidth, // int dataWidth
+        dataHeight, // int dataHeight
+        left, // int left
+        top, // int top
         width, // int width
         height, // int height
         false // boolean reverseHorizontal
@@ -2,7 +2,7 @@ import { UnavailabilityError } from '@unimodules/core';
 import mapValues from 'lodash.mapvalues';
 import PropTypes from 'prop-types';
 import React from 'react';
-import { Platform, ViewProps, ViewPropTypes } from 'react-native';
+import { findNodeHandle, Platform, ViewProps, ViewPropTypes } from 'react-native';
 
 import ExpoBarCodeScannerModule from './ExpoBarCodeScannerModule';
 import ExpoBarCodeScannerView from './ExpoBarCodeScannerView';
@@ -23,15 +23,23 @@ export type BarCodeEventCallbackArguments = {
 
 export type BarCodeScannedCallback = (params: BarCodeEvent) => void;
 
+export type BarCodeScannerFrameStats = {
+  framesScanned: number;
+  framesDropped: number;
+};
+
 export interface BarCodeScannerProps extends ViewProps {
   type?: 'front' | 'back' | number;
   barCodeTypes?: string[];
+  // Android only, the part of the preview to scan, relative to its size (0-1)
+  regionOfInterest?: { x: number; y: number; width: number; height: number };
   onBarCodeScanned: BarCodeScannedCallback;
 }
 
 export class BarCodeScanner extends React.Component<BarCodeScannerProps> {
   lastEvents: { [key: string]: any } = {};
   lastEventsTimes: { [key: string]: any } = {};
+  scannerHandle: number | null = null;
 
   static Constants = {
     BarCodeType,
@@ -46,6 +54,12 @@ export class BarCodeScanner extends React.Component<BarCodeScannerProps> {
     ...ViewPropTypes,
     onBarCodeScanned: PropTypes.func,
     barCodeTypes: PropTypes.array,
+    regionOfInterest: PropTypes.shape({
+      x: PropTypes.number,
+      y: PropTypes.number,
+      width: PropTypes.number,
+      height: PropTypes.number,
+    }),
     type: PropTypes.oneOfType([PropTypes.string, PropTypes.number]),
   };
 
@@ -78,12 +92,22 @@ export class BarCodeScanner extends React.Component<BarCodeScannerProps> {
     return await ExpoBarCodeScannerModule.scanFromURLAsync(url, barCodeTypes);
   }
 
+  // Android only, how many preview frames were scanned and how many were skipped because the
+  // scanner was still busy with a previous one
+  async getFrameStatsAsync(): Promise<BarCodeScannerFrameStats> {
+    if (!ExpoBarCodeScannerModule.getFrameStatsAsync) {
+      throw new UnavailabilityError('expo-barcode-scanner', 'getFrameStatsAsync');
+    }
+    return await ExpoBarCodeScannerModule.getFrameStatsAsync(this.scannerHandle);
+  }
+
   render() {
     const nativeProps = this.convertNativeProps(this.props);
     const { onBarCodeScanned } = this.props;
     return (
       <ExpoBarCodeScannerView
         {...nativeProps}
+        ref={this.setReference}
         onBarCodeScanned={this.onObjectDetected(onBarCodeScanned)}
       />
     );
@@ -111,6 +135,10 @@ export class BarCodeScanner extends React.Component<BarCodeScannerProps> {
     }
   };
 
+  setReference = (ref: React.Component | null) => {
+    this.scannerHandle = ref ? findNodeHandle(ref) : null;
+  };
+
   convertNativeProps(props: BarCodeScannerProps) {
     const newProps = mapValues(props, this.convertProp);
     return newProps;
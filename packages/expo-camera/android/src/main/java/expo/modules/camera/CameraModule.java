@@ -317,6 +317,21 @@ public class CameraModule extends ExportedModule implements ModuleRegistryConsum
     });
   }
 
+  @ExpoMethod
+  public void getFrameStats(final int viewTag, final Promise promise) {
+    addUIBlock(viewTag, new UIManager.UIBlock<ExpoCameraView>() {
+      @Override
+      public void resolve(ExpoCameraView view) {
+        promise.resolve(view.getFrameStats());
+      }
+
+      @Override
+      public void reject(Throwable throwable) {
+        promise.reject(ERROR_TAG, throwable);
+      }
+    });
+  }
+
   private void addUIBlock(int viewTag, UIManager.UIBlock<ExpoCameraView> block) {
     UIManager manager = mModuleRegistry.getModule(UIManager.class);
     if (manager == null) {
@@ -38,6 +38,7 @@ public class CameraViewManager extends ViewManager<ExpoCameraView> implements Mo
   }
 
   private static final String REACT_CLASS = "ExponentCamera";
+  private static final String MAX_FPS_KEY = "maxFps";
   private ModuleRegistry mModuleRegistry;
 
   @Override
@@ -48,6 +49,7 @@ public class CameraViewManager extends ViewManager<ExpoCameraView> implements Mo
   @Override
   public void onDropViewInstance(ExpoCameraView view) {
     mModuleRegistry.getModule(UIManager.class).unregisterLifecycleEventListener(view);
+    view.releaseFrameProcessors();
     view.stop();
   }
 
@@ -117,6 +119,7 @@ public class CameraViewManager extends ViewManager<ExpoCameraView> implements Mo
 
   @ExpoProp(name = "barCodeScannerSettings")
   public void setBarCodeScannerSettings(ExpoCameraView view, Map<String, Object> settings) {
+    view.setBarCodeScanningMaxFps(getMaxFps(settings));
     view.setBarCodeScannerSettings(new BarCodeScannerSettings(settings));
   }
 
@@ -137,6 +140,13 @@ public class CameraViewManager extends ViewManager<ExpoCameraView> implements Mo
 
   @ExpoProp(name = "faceDetectorSettings")
   public void setFaceDetectorSettings(ExpoCameraView view, Map<String, Object> settings) {
+    view.setFaceDetectionMaxFps(getMaxFps(settings));
     view.setFaceDetectorSettings(settings);
   }
+
+  // Optional `maxFps` in detector settings caps how many frames per second the detector looks at
+  private int getMaxFps(Map<String, Object> settings) {
+    Object maxFps = settings == null ? null : settings.get(MAX_FPS_KEY);
+    return maxFps instanceof Number ? ((Number) maxFps).intValue() : 0;
+  }
 }
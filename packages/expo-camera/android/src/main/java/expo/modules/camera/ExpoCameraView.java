@@ -36,11 +36,12 @@ import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
-import expo.modules.camera.tasks.BarCodeScannerAsyncTask;
 import expo.modules.camera.tasks.BarCodeScannerAsyncTaskDelegate;
-import expo.modules.camera.tasks.FaceDetectorAsyncTask;
+import expo.modules.camera.tasks.BarCodeScannerFrameProcessor;
 import expo.modules.camera.tasks.FaceDetectorAsyncTaskDelegate;
+import expo.modules.camera.tasks.FaceDetectorFrameProcessor;
 import expo.modules.camera.tasks.PictureSavedDelegate;
+import expo.modules.camera.tasks.PreviewFrame;
 import expo.modules.camera.tasks.ResolveTakenPictureAsyncTask;
 import expo.modules.camera.utils.FileSystemUtils;
 import expo.modules.camera.utils.ImageDimensions;
@@ -60,13 +61,20 @@ public class ExpoCameraView extends CameraView implements LifecycleEventListener
   private boolean mIsPaused = false;
   private boolean mIsNew = true;
 
-  // Concurrency lock for scanners to avoid flooding the runtime
-  public volatile boolean barCodeScannerTaskLock = false;
-  public volatile boolean faceDetectorTaskLock = false;
-
   // Scanning-related properties
   private BarCodeScanner mBarCodeScanner;
   private FaceDetector mFaceDetector;
+  // Each detector gets its own thread and only ever works on the latest frame, so detection never
+  // floods the runtime or holds up resolving taken pictures
+  private volatile BarCodeScannerFrameProcessor mBarCodeScannerFrameProcessor;
+  private volatile FaceDetectorFrameProcessor mFaceDetectorFrameProcessor;
+  private int mBarCodeScanningMaxFps = 0;
+  private int mFaceDetectionMaxFps = 0;
+  // Frames handled by processors that have since been released
+  private int mBarCodeScanningFramesProcessed = 0;
+  private int mBarCodeScanningFramesDropped = 0;
+  private int mFaceDetectionFramesProcessed = 0;
+  private int mFaceDetectionFramesDropped = 0;
   private Map<String, Object> mPendingFaceDetectorSettings;
   private boolean mShouldDetectFaces = false;
   private boolean mShouldScanBarCodes = false;
@@ -121,24 +129,25 @@ public class ExpoCameraView extends CameraView implements LifecycleEventListener
 
       @Override
       public void onFramePreview(CameraView cameraView, byte[] data, int width, int height, int rotation) {
-        int correctRotation = CameraViewHelper.getCorrectCameraRotation(rotation, getFacing());
-
-        if (mShouldScanBarCodes && !barCodeScannerTaskLock && cameraView instanceof BarCodeScannerAsyncTaskDelegate) {
-          barCodeScannerTaskLock = true;
-          BarCodeScannerAsyncTaskDelegate delegate = (BarCodeScannerAsyncTaskDelegate) cameraView;
-          new BarCodeScannerAsyncTask(delegate, mBarCodeScanner, data, width, height, rotation).execute();
+        BarCodeScannerFrameProcessor barCodeScannerFrameProcessor = mShouldScanBarCodes ? getBarCodeScannerFrameProcessor() : null;
+        FaceDetectorFrameProcessor faceDetectorFrameProcessor = mShouldDetectFaces ? mFaceDetectorFrameProcessor : null;
+        if (barCodeScannerFrameProcessor == null && faceDetectorFrameProcessor == null) {
+          return;
         }
 
-        if (mShouldDetectFaces && !faceDetectorTaskLock && cameraView instanceof FaceDetectorAsyncTaskDelegate) {
-          faceDetectorTaskLock = true;
-          float density = cameraView.getResources().getDisplayMetrics().density;
-
-          ImageDimensions dimensions = new ImageDimensions(width, height, correctRotation, getFacing());
-          double scaleX = (double) cameraView.getWidth() / (dimensions.getWidth() * density);
-          double scaleY = (double) cameraView.getHeight() / (dimensions.getHeight() * density);
-
-          FaceDetectorAsyncTaskDelegate delegate = (FaceDetectorAsyncTaskDelegate) cameraView;
-          new FaceDetectorAsyncTask(delegate, mFaceDetector, data, width, height, correctRotation, getFacing(), scaleX, scaleY).execute();
+        int correctRotation = CameraViewHelper.getCorrectCameraRotation(rotation, getFacing());
+        float density = cameraView.getResources().getDisplayMetrics().density;
+        ImageDimensions dimensions = new ImageDimensions(width, height, correctRotation, getFacing());
+        double scaleX = (double) cameraView.getWidth() / (dimensions.getWidth() * density);
+        double scaleY = (double) cameraView.getHeight() / (dimensions.getHeight() * density);
+
+        // Both detectors read the same frame
+        PreviewFrame frame = new PreviewFrame(data, width, height, rotation, correctRotation, getFacing(), scaleX, scaleY);
+        if (barCodeScannerFrameProcessor != null) {
+          barCodeScannerFrameProcessor.offer(frame);
+        }
+        if (faceDetectorFrameProcessor != null) {
+          faceDetectorFrameProcessor.offer(frame);
         }
       }
     });
@@ -275,8 +284,86 @@ public class ExpoCameraView extends CameraView implements LifecycleEventListener
     CameraViewHelper.emitBarCodeReadEvent(mModuleRegistry.getModule(EventEmitter.class), this, barCode);
   }
 
-  public void onBarCodeScanningTaskCompleted() {
-    barCodeScannerTaskLock = false;
+  private synchronized BarCodeScannerFrameProcessor getBarCodeScannerFrameProcessor() {
+    if (mBarCodeScannerFrameProcessor == null && mBarCodeScanner != null) {
+      mBarCodeScannerFrameProcessor = new BarCodeScannerFrameProcessor(this, mBarCodeScanner);
+      mBarCodeScannerFrameProcessor.setMaxFps(mBarCodeScanningMaxFps);
+    }
+    return mBarCodeScannerFrameProcessor;
+  }
+
+  public synchronized void setBarCodeScanningMaxFps(int maxFps) {
+    mBarCodeScanningMaxFps = maxFps;
+    if (mBarCodeScannerFrameProcessor != null) {
+      mBarCodeScannerFrameProcessor.setMaxFps(maxFps);
+    }
+  }
+
+  public synchronized void setFaceDetectionMaxFps(int maxFps) {
+    mFaceDetectionMaxFps = maxFps;
+    if (mFaceDetectorFrameProcessor != null) {
+      mFaceDetectorFrameProcessor.setMaxFps(maxFps);
+    }
+  }
+
+  private synchronized void releaseFaceDetector() {
+    if (mFaceDetectorFrameProcessor != null) {
+      // Releases the detector too, once it's done with the frame it may be working on
+      releaseFaceDetectorFrameProcessor();
+    } else if (mFaceDetector != null) {
+      mFaceDetector.release();
+    }
+  }
+
+  private synchronized void releaseFaceDetectorFrameProcessor() {
+    mFaceDetectionFramesProcessed += mFaceDetectorFrameProcessor.getFramesProcessed();
+    mFaceDetectionFramesDropped += mFaceDetectorFrameProcessor.getFramesDropped();
+    mFaceDetectorFrameProcessor.release();
+    mFaceDetectorFrameProcessor = null;
+  }
+
+  private synchronized void releaseBarCodeScannerFrameProcessor() {
+    mBarCodeScanningFramesProcessed += mBarCodeScannerFrameProcessor.getFramesProcessed();
+    mBarCodeScanningFramesDropped += mBarCodeScannerFrameProcessor.getFramesDropped();
+    mBarCodeScannerFrameProcessor.release();
+    mBarCodeScannerFrameProcessor = null;
+  }
+
+  /**
+   * Stops both detectors and lets their threads go. They're created again if the view is resumed.
+   */
+  public synchronized void releaseFrameProcessors() {
+    releaseFaceDetector();
+    if (mBarCodeScannerFrameProcessor != null) {
+      releaseBarCodeScannerFrameProcessor();
+    }
+  }
+
+  public synchronized Bundle getFrameStats() {
+    int barCodeScanningFramesProcessed = mBarCodeScanningFramesProcessed;
+    int barCodeScanningFramesDropped = mBarCodeScanningFramesDropped;
+    if (mBarCodeScannerFrameProcessor != null) {
+      barCodeScanningFramesProcessed += mBarCodeScannerFrameProcessor.getFramesProcessed();
+      barCodeScanningFramesDropped += mBarCodeScannerFrameProcessor.getFramesDropped();
+    }
+    int faceDetectionFramesProcessed = mFaceDetectionFramesProcessed;
+    int faceDetectionFramesDropped = mFaceDetectionFramesDropped;
+    if (mFaceDetectorFrameProcessor != null) {
+      faceDetectionFramesProcessed += mFaceDetectorFrameProcessor.getFramesProcessed();
+      faceDetectionFramesDropped += mFaceDetectorFrameProcessor.getFramesDropped();
+    }
+
+    Bundle barCodeScanning = new Bundle();
+    barCodeScanning.putInt("framesProcessed", barCodeScanningFramesProcessed);
+    barCodeScanning.putInt("framesDropped", barCodeScanningFramesDropped);
+    Bundle faceDetection = new Bundle();
+    faceDetection.putInt("framesProcessed", faceDetectionFramesProcessed);
+    faceDetection.putInt("framesDropped", faceDetectionFramesDropped);
+
+    Bundle stats = new Bundle();
+    stats.putBundle("barCodeScanning", barCodeScanning);
+    stats.putBundle("faceDetection", faceDetection);
+    return stats;
   }
 
   public int[] getPreviewSizeAsArray() {
@@ -300,6 +387,13 @@ public class ExpoCameraView extends CameraView implements LifecycleEventListener
               mFaceDetector.setSettings(mPendingFaceDetectorSettings);
               mPendingFaceDetectorSettings = null;
             }
+            synchronized (this) {
+              if (mFaceDetectorFrameProcessor != null) {
+                releaseFaceDetectorFrameProcessor();
+              }
+              mFaceDetectorFrameProcessor = new FaceDetectorFrameProcessor(this, mFaceDetector);
+              mFaceDetectorFrameProcessor.setMaxFps(mFaceDetectionMaxFps);
+            }
           }
         }
       }
@@ -311,9 +405,7 @@ public class ExpoCameraView extends CameraView implements LifecycleEventListener
   @Override
   public void onHostPause() {
     if (!mIsPaused && isCameraOpened()) {
-      if (mFaceDetector != null) {
-        mFaceDetector.release();
-      }
+      releaseFaceDetector();
       mIsPaused = true;
       stop();
     }
@@ -321,9 +413,7 @@ public class ExpoCameraView extends CameraView implements LifecycleEventListener
 
   @Override
   public void onHostDestroy() {
-    if (mFaceDetector != null) {
-      mFaceDetector.release();
-    }
+    releaseFrameProcessors();
     stop();
   }
 
@@ -363,9 +453,4 @@ public class ExpoCameraView extends CameraView implements LifecycleEventListener
 
     CameraViewHelper.emitFaceDetectionErrorEvent(mModuleRegistry.getModule(EventEmitter.class), this, faceDetector);
   }
-
-  @Override
-  public void onFaceDetectingTaskCompleted() {
-    faceDetectorTaskLock = false;
-  }
 }
@@ -4,5 +4,4 @@ import org.unimodules.interfaces.barcodescanner.BarCodeScannerResult;
 
 public interface BarCodeScannerAsyncTaskDelegate {
   void onBarCodeScanned(BarCodeScannerResult barCode);
-  void onBarCodeScanningTaskCompleted();
 }
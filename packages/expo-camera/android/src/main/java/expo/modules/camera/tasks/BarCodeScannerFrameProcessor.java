@@ -0,0 +1,27 @@
+package expo.modules.camera.tasks;
+
+import org.unimodules.interfaces.barcodescanner.BarCodeScanner;
+import org.unimodules.interfaces.barcodescanner.BarCodeScannerResult;
+
+public class BarCodeScannerFrameProcessor extends FrameProcessor<BarCodeScannerResult> {
+  private final BarCodeScanner mBarCodeScanner;
+  private final BarCodeScannerAsyncTaskDelegate mDelegate;
+
+  public BarCodeScannerFrameProcessor(BarCodeScannerAsyncTaskDelegate delegate, BarCodeScanner barCodeScanner) {
+    super("BarCodeScannerFrameProcessor");
+    mDelegate = delegate;
+    mBarCodeScanner = barCodeScanner;
+  }
+
+  @Override
+  protected BarCodeScannerResult process(PreviewFrame frame) {
+    return mBarCodeScanner.scan(frame.data, frame.width, frame.height, frame.rotation);
+  }
+
+  @Override
+  protected void onProcessed(BarCodeScannerResult result) {
+    if (result != null) {
+      mDelegate.onBarCodeScanned(result);
+    }
+  }
+}
@@ -9,5 +9,4 @@ import org.unimodules.interfaces.facedetector.FaceDetector;
 public interface FaceDetectorAsyncTaskDelegate {
   void onFacesDetected(List<Bundle> faces);
   void onFaceDetectionError(FaceDetector faceDetector);
-  void onFaceDetectingTaskCompleted();
 }
@@ -0,0 +1,53 @@
+package expo.modules.camera.tasks;
+
+import android.os.Bundle;
+import android.util.Log;
+
+import java.util.List;
+
+import org.unimodules.interfaces.facedetector.FaceDetector;
+
+public class FaceDetectorFrameProcessor extends FrameProcessor<List<Bundle>> {
+  private final static String TAG = FaceDetectorFrameProcessor.class.getSimpleName();
+
+  private final FaceDetector mFaceDetector;
+  private final FaceDetectorAsyncTaskDelegate mDelegate;
+
+  public FaceDetectorFrameProcessor(FaceDetectorAsyncTaskDelegate delegate, FaceDetector faceDetector) {
+    super("FaceDetectorFrameProcessor");
+    mDelegate = delegate;
+    mFaceDetector = faceDetector;
+  }
+
+  @Override
+  protected List<Bundle> process(PreviewFrame frame) {
+    if (mFaceDetector.isOperational()) {
+      try {
+        return mFaceDetector.detectFaces(frame.data, frame.width, frame.height, frame.correctRotation, frame.facing, frame.scaleX, frame.scaleY);
+      } catch (Exception e) {
+        // for some reason, sometimes the very first preview frame the camera passes back to us
+        // doesn't have the correct amount of data (data.length is too small for the height and width)
+        // which throws, so we just return null
+        // subsequent frames are all the correct length & don't seem to throw
+        Log.e(TAG, "Failed to detect face: " + e.getMessage());
+      }
+    }
+
+    return null;
+  }
+
+  // The detector is owned by the processor, so it's never released in the middle of a frame
+  @Override
+  protected void onReleased() {
+    mFaceDetector.release();
+  }
+
+  @Override
+  protected void onProcessed(List<Bundle> faces) {
+    if (faces == null) {
+      mDelegate.onFaceDetectionError(mFaceDetector);
+    } else {
+      mDelegate.onFacesDetected(faces);
+    }
+  }
+}
@@ -0,0 +1,150 @@
+package expo.modules.camera.tasks;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs one detector over preview frames on its own thread.
+ *
+ * At most one frame waits to be processed: a newer frame replaces it, so the detector always works
+ * on the latest frame and never builds up a backlog. Frames arriving faster than the configured
+ * max FPS are skipped before they're queued.
+ */
+public abstract class FrameProcessor<T> {
+  private final HandlerThread mThread;
+  private final Handler mHandler;
+  private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+  private final Object mLock = new Object();
+
+  private PreviewFrame mPendingFrame;
+  private boolean mIsScheduled = false;
+  private boolean mIsReleased = false;
+  private long mLastAcceptedFrameTime = 0;
+  private volatile int mMaxFps = 0;
+
+  private final AtomicInteger mFramesProcessed = new AtomicInteger();
+  private final AtomicInteger mFramesDropped = new AtomicInteger();
+
+  public FrameProcessor(String name) {
+    mThread = new HandlerThread(name);
+    mThread.start();
+    mHandler = new Handler(mThread.getLooper());
+  }
+
+  /**
+   * 0 processes as many frames as the detector keeps up with.
+   */
+  public void setMaxFps(int maxFps) {
+    mMaxFps = Math.max(0, maxFps);
+  }
+
+  public void offer(PreviewFrame frame) {
+    synchronized (mLock) {
+      if (mIsReleased) {
+        return;
+      }
+
+      long now = SystemClock.uptimeMillis();
+      int maxFps = mMaxFps;
+      if (maxFps > 0 && now - mLastAcceptedFrameTime < 1000 / maxFps) {
+        mFramesDropped.incrementAndGet();
+        return;
+      }
+      mLastAcceptedFrameTime = now;
+
+      if (mPendingFrame != null) {
+        mFramesDropped.incrementAndGet();
+      }
+      mPendingFrame = frame;
+      if (!mIsScheduled) {
+        mIsScheduled = true;
+        mHandler.post(mProcessRunnable);
+      }
+    }
+  }
+
+  /**
+   * Stops processing. A frame already being processed is allowed to finish, but its result is
+   * dropped, and {@link #onReleased} runs on the processor's thread after it before the thread
+   * quits.
+   */
+  public void release() {
+    synchronized (mLock) {
+      if (mIsReleased) {
+        return;
+      }
+      mIsReleased = true;
+      mPendingFrame = null;
+    }
+    mHandler.post(new Runnable() {
+      @Override
+      public void run() {
+        onReleased();
+        mThread.quit();
+      }
+    });
+  }
+
+  public int getFramesProcessed() {
+    return mFramesProcessed.get();
+  }
+
+  public int getFramesDropped() {
+    return mFramesDropped.get();
+  }
+
+  /**
+   * Called on the processor's thread.
+   */
+  protected abstract T process(PreviewFrame frame);
+
+  /**
+   * Called on the main thread with the result of {@link #process}.
+   */
+  protected abstract void onProcessed(T result);
+
+  /**
+   * Called on the processor's thread once no more frames will be processed.
+   */
+  protected void onReleased() {
+  }
+
+  private boolean isReleased() {
+    synchronized (mLock) {
+      return mIsReleased;
+    }
+  }
+
+  private final Runnable mProcessRunnable = new Runnable() {
+    @Override
+    public void run() {
+      while (true) {
+        PreviewFrame frame;
+        synchronized (mLock) {
+          frame = mPendingFrame;
+          mPendingFrame = null;
+          if (frame == null) {
+            mIsScheduled = false;
+            return;
+          }
+        }
+
+        final T result = process(frame);
+        mFramesProcessed.incrementAndGet();
+        mMainHandler.post(new Runnable() {
+          @Override
+          public void run() {
+            // The owner may have gone away while the frame was processed
+            if (!isReleased()) {
+              onProcessed(result);
+            }
+          }
+        });
+      }
+    }
+  };
+}
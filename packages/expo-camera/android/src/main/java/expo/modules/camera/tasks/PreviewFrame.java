@@ -0,0 +1,29 @@
+package expo.modules.camera.tasks;
+
+/**
+ * One preview frame, shared by every detector that processes it. Detectors only read `data`, so
+ * it's never copied.
+ */
+public class PreviewFrame {
+  public final byte[] data;
+  public final int width;
+  public final int height;
+  // As reported by the camera
+  public final int rotation;
+  // Adjusted for the camera's facing
+  public final int correctRotation;
+  public final int facing;
+  public final double scaleX;
+  public final double scaleY;
+
+  public PreviewFrame(byte[] data, int width, int height, int rotation, int correctRotation, int facing, double scaleX, double scaleY) {
+    this.data = data;
+    this.width = width;
+    this.height = height;
+    this.rotation = rotation;
+    this.correctRotation = correctRotation;
+    this.facing = facing;
+    this.scaleX = scaleX;
+    this.scaleY = scaleY;
+  }
+}
@@ -3,7 +3,13 @@ import mapValues from 'lodash.mapvalues';
 import PropTypes from 'prop-types';
 import React from 'react';
 import { findNodeHandle, Platform, ViewPropTypes } from 'react-native';
-import { CapturedPicture, PictureOptions, Props, RecordingOptions } from './Camera.types';
+import {
+  CameraFrameStats,
+  CapturedPicture,
+  PictureOptions,
+  Props,
+  RecordingOptions,
+} from './Camera.types';
 import ExponentCamera from './ExponentCamera';
 import _CameraManager from './ExponentCameraManager';
 
@@ -206,6 +212,15 @@ export default class Camera extends React.Component<Props> {
     CameraManager.resumePreview(this._cameraHandle);
   }
 
+  // Android only, how many preview frames each detector processed and how many it skipped
+  async getFrameStatsAsync(): Promise<CameraFrameStats> {
+    if (!CameraManager.getFrameStats) {
+      throw new UnavailabilityError('Camera', 'getFrameStatsAsync');
+    }
+
+    return await CameraManager.getFrameStats(this._cameraHandle);
+  }
+
   _onCameraReady = () => {
     if (this.props.onCameraReady) {
       this.props.onCameraReady();
@@ -31,6 +31,10 @@ export type BarCodeScanningResult = { type: string; data: string };
 
 export type FaceDetectionResult = { faces: any[] };
 
+export type FrameStats = { framesProcessed: number; framesDropped: number };
+
+export type CameraFrameStats = { barCodeScanning: FrameStats; faceDetection: FrameStats };
+
 export type Props = React.ComponentProps<typeof View> & {
   zoom?: number;
   ratio?: string;
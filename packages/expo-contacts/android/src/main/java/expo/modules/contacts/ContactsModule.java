@@ -15,6 +15,7 @@ import android.os.Bundle;
 import android.provider.ContactsContract;
 import android.provider.ContactsContract.CommonDataKinds;
 import android.content.pm.PackageManager;
+import android.text.TextUtils;
 
 import org.unimodules.core.*;
 import org.unimodules.core.interfaces.ActivityProvider;
@@ -53,6 +54,9 @@ public class ContactsModule extends ExportedModule implements ModuleRegistryCons
 
   private static final String TAG = ContactsModule.class.getSimpleName();
 
+  // Keeps statements filtering data rows by contact well below SQLite's length limit
+  private static final int MAX_CONTACT_IDS_PER_QUERY = 500;
+
   // TODO: Evan: default API is confusing. Duplicate data being requested.
   private static final List<String> DEFAULT_PROJECTION = new ArrayList<String>() {
     {
@@ -132,6 +136,33 @@ public class ContactsModule extends ExportedModule implements ModuleRegistryCons
     }).start();
   }
 
+  @ExpoMethod
+  public void getContactsChangedSinceAsync(final Map<String, Object> options, final Promise promise) {
+    if (isMissingPermissions(promise)) return;
+
+    new Thread(new Runnable() {
+      @Override
+      public void run() {
+        long since = 0;
+        if (options.containsKey("since") && options.get("since") instanceof Number) {
+          since = ((Number) options.get("since")).longValue();
+        }
+
+        int pageSize = 0;
+        if (options.containsKey("pageSize") && options.get("pageSize") instanceof Number) {
+          pageSize = ((Number) options.get("pageSize")).intValue();
+        }
+
+        ArrayList fields = null;
+        if (options.containsKey("fields") && options.get("fields") instanceof ArrayList) {
+          fields = (ArrayList) options.get("fields");
+        }
+
+        fetchChangedContacts(since, pageSize, getFieldsSet(fields), promise);
+      }
+    }).start();
+  }
+
   @ExpoMethod
   public void addContactAsync(Map<String, Object> data, String containerId, Promise promise) {
     if (isMissingPermissions(promise) || isMissingWritePermissions(promise)) return;
@@ -487,8 +518,7 @@ public class ContactsModule extends ExportedModule implements ModuleRegistryCons
       pageSize = ((Number)options.get("pageSize")).intValue();
     }
 
-    HashMap<String, Object> contactsData = fetchContacts(pageOffset, pageSize, null, null, keysToFetch, sortOrder,
-        promise);
+    HashMap<String, Object> contactsData = fetchContactsPage(pageOffset, pageSize, keysToFetch, sortOrder, promise);
 
     if (contactsData != null) {
       ArrayList<Contact> contacts = (ArrayList<Contact>) contactsData.get("data");
@@ -696,6 +726,241 @@ public class ContactsModule extends ExportedModule implements ModuleRegistryCons
     return null;
   }
 
+  /**
+   * Pages contact IDs in the requested order from the contacts table, which only has a row per
+   * contact, letting the provider skip to the page, and then reads data rows and builds contacts
+   * only for the IDs in the page. The total is counted by the provider too.
+   */
+  private HashMap<String, Object> fetchContactsPage(int pageOffset, int pageSize, final Set<String> keysToFetch,
+                                                    String sortOrder, Promise promise) {
+    boolean getAll = pageSize == 0;
+    ContentResolver cr = getResolver();
+
+    String cursorSortOrder = getContactsSortOrder(sortOrder);
+    if (!getAll) {
+      cursorSortOrder += " LIMIT " + pageSize + " OFFSET " + pageOffset;
+    }
+
+    Cursor cursor = cr.query(
+        ContactsContract.Contacts.CONTENT_URI,
+        new String[]{ContactsContract.Contacts._ID},
+        null,
+        null,
+        cursorSortOrder);
+
+    if (cursor == null) {
+      return null;
+    }
+
+    ArrayList<Long> contactIds = new ArrayList<>();
+    try {
+      while (cursor.moveToNext()) {
+        contactIds.add(cursor.getLong(0));
+      }
+    } catch (Exception e) {
+      promise.reject(e);
+      return null;
+    } finally {
+      cursor.close();
+    }
+
+    int total = contactIds.size();
+    if (!getAll) {
+      Cursor countCursor = cr.query(
+          ContactsContract.Contacts.CONTENT_URI,
+          new String[]{ContactsContract.Contacts._COUNT},
+          null,
+          null,
+          null);
+
+      if (countCursor == null) {
+        return null;
+      }
+
+      try {
+        total = countCursor.moveToFirst() ? countCursor.getInt(0) : 0;
+      } catch (Exception e) {
+        promise.reject(e);
+        return null;
+      } finally {
+        countCursor.close();
+      }
+    }
+
+    ArrayList<Contact> contacts = loadContactsByIds(contactIds, !getAll, keysToFetch, promise);
+    if (contacts == null) {
+      return null;
+    }
+
+    HashMap<String, Object> response = new HashMap<String, Object>();
+    response.put("data", contacts);
+    response.put("hasPreviousPage", pageOffset > 0);
+    response.put("hasNextPage", pageOffset + pageSize < total);
+    response.put("total", total);
+    return response;
+  }
+
+  /**
+   * Resolves contacts updated after the `since` timestamp, in the order they were updated, with IDs
+   * of contacts deleted since then and the timestamp to pass as `since` to get the next changes.
+   */
+  private void fetchChangedContacts(long since, int pageSize, final Set<String> keysToFetch, Promise promise) {
+    ContentResolver cr = getResolver();
+    // Changes made while the queries below run are left for the next call. Both queries stop at
+    // the same time, so the returned timestamp never skips an update that wasn't read.
+    long until = Math.max(since, System.currentTimeMillis());
+
+    Cursor cursor = cr.query(
+        ContactsContract.Contacts.CONTENT_URI,
+        new String[]{ContactsContract.Contacts._ID, ContactsContract.Contacts.CONTACT_LAST_UPDATED_TIMESTAMP},
+        ContactsContract.Contacts.CONTACT_LAST_UPDATED_TIMESTAMP + " > ? AND "
+            + ContactsContract.Contacts.CONTACT_LAST_UPDATED_TIMESTAMP + " <= ?",
+        new String[]{String.valueOf(since), String.valueOf(until)},
+        ContactsContract.Contacts.CONTACT_LAST_UPDATED_TIMESTAMP + " ASC, " + ContactsContract.Contacts._ID + " ASC");
+
+    if (cursor == null) {
+      promise.reject("E_GET_CHANGED_CONTACTS_FAILED", "Contacts couldn't be queried.");
+      return;
+    }
+
+    ArrayList<Long> contactIds = new ArrayList<>();
+    long timestamp = since;
+    boolean hasNextPage = false;
+    try {
+      while (cursor.moveToNext()) {
+        long updatedAt = cursor.getLong(1);
+        // Pages only end between different timestamps, as the next page starts after the last one.
+        if (pageSize > 0 && contactIds.size() >= pageSize && updatedAt != timestamp) {
+          hasNextPage = true;
+          break;
+        }
+        contactIds.add(cursor.getLong(0));
+        timestamp = updatedAt;
+      }
+    } catch (Exception e) {
+      promise.reject(e);
+      return;
+    } finally {
+      cursor.close();
+    }
+
+    // The last page covers everything up to the time the updates were queried until.
+    if (!hasNextPage) {
+      timestamp = until;
+    }
+
+    // Deletions up to the end of the page are reported with it, the rest with the last page.
+    Cursor deletedCursor = cr.query(
+        ContactsContract.DeletedContacts.CONTENT_URI,
+        new String[]{ContactsContract.DeletedContacts.CONTACT_ID},
+        ContactsContract.DeletedContacts.CONTACT_DELETED_TIMESTAMP + " > ? AND "
+            + ContactsContract.DeletedContacts.CONTACT_DELETED_TIMESTAMP + " <= ?",
+        new String[]{String.valueOf(since), String.valueOf(timestamp)},
+        ContactsContract.DeletedContacts.CONTACT_DELETED_TIMESTAMP + " ASC");
+
+    ArrayList<String> deletedIds = new ArrayList<>();
+    if (deletedCursor != null) {
+      try {
+        while (deletedCursor.moveToNext()) {
+          deletedIds.add(deletedCursor.getString(0));
+        }
+      } catch (Exception e) {
+        promise.reject(e);
+        return;
+      } finally {
+        deletedCursor.close();
+      }
+    }
+
+    ArrayList<Contact> contacts = loadContactsByIds(contactIds, true, keysToFetch, promise);
+    if (contacts == null) {
+      return;
+    }
+    ArrayList data = serializeContacts(contacts, keysToFetch, promise);
+    if (data == null) {
+      return;
+    }
+
+    Bundle output = new Bundle();
+    output.putParcelableArrayList("data", data);
+    output.putStringArrayList("deletedIds", deletedIds);
+    output.putDouble("timestamp", timestamp);
+    output.putBoolean("hasNextPage", hasNextPage);
+    promise.resolve(output);
+  }
+
+  /**
+   * Returns contacts with the given IDs in the same order, reading data rows of all contacts if
+   * they aren't filtered by the IDs.
+   */
+  private ArrayList<Contact> loadContactsByIds(List<Long> contactIds, boolean filterByIds,
+                                               final Set<String> keysToFetch, Promise promise) {
+    ArrayList<Contact> contacts = new ArrayList<>(contactIds.size());
+    if (contactIds.isEmpty()) {
+      return contacts;
+    }
+
+    HashMap queryMap = createProjectionForQuery(keysToFetch);
+    List<String> projection = (List<String>) queryMap.get("projection");
+    ArrayList<String> selectionArgs = (ArrayList<String>) queryMap.get("selectionArgs");
+    Map<String, Contact> contactsById = new HashMap<>();
+
+    // IDs are numbers read from the provider, so they're put in the statement rather than in
+    // selection args, a limited number at a time to keep statements short.
+    int chunkSize = filterByIds ? MAX_CONTACT_IDS_PER_QUERY : contactIds.size();
+    for (int start = 0; start < contactIds.size(); start += chunkSize) {
+      String selection = "(" + queryMap.get("selection") + ")";
+      if (filterByIds) {
+        List<Long> chunk = contactIds.subList(start, Math.min(start + chunkSize, contactIds.size()));
+        selection += " AND " + ContactsContract.Data.CONTACT_ID + " IN (" + TextUtils.join(",", chunk) + ")";
+      }
+
+      Cursor cursor = getResolver().query(
+          ContactsContract.Data.CONTENT_URI,
+          projection.toArray(new String[projection.size()]),
+          selection,
+          selectionArgs.toArray(new String[selectionArgs.size()]),
+          null);
+
+      if (cursor == null) {
+        continue;
+      }
+
+      try {
+        contactsById.putAll(loadContactsFrom(cursor));
+      } catch (Exception e) {
+        promise.reject(e);
+        return null;
+      } finally {
+        cursor.close();
+      }
+    }
+
+    for (Long contactId : contactIds) {
+      Contact contact = contactsById.get(String.valueOf(contactId));
+      if (contact != null) {
+        contacts.add(contact);
+      }
+    }
+    return contacts;
+  }
+
+  private String getContactsSortOrder(String sortOrder) {
+    // IDs make the order stable for contacts with the same name, so that pages don't overlap.
+    String byId = ContactsContract.Contacts._ID + " ASC";
+    if (sortOrder == null)
+      return byId;
+
+    switch (sortOrder) {
+      case "firstName":
+        return ContactsContract.Contacts.DISPLAY_NAME_PRIMARY + " COLLATE NOCASE ASC, " + byId;
+      case "lastName":
+        return ContactsContract.Contacts.DISPLAY_NAME_ALTERNATIVE + " COLLATE NOCASE ASC, " + byId;
+      default:
+        return byId;
+    }
+  }
+
   private ArrayList<Contact> sortContactsBy(ArrayList<Contact> input, String sortOrder) {
     if (sortOrder == null)
       return input;
@@ -196,6 +196,19 @@ export type ContactQuery = {
   rawContacts?: boolean;
 };
 
+export type ContactChangesQuery = {
+  since?: number;
+  pageSize?: number;
+  fields?: FieldType[];
+};
+
+export type ContactChangesResponse = {
+  data: Contact[];
+  deletedIds: string[];
+  timestamp: number;
+  hasNextPage: boolean;
+};
+
 export type FormOptions = {
   displayedPropertyKeys?: FieldType[];
   message?: string;
@@ -302,6 +315,15 @@ export async function getContactByIdAsync(
   }
 }
 
+export async function getContactsChangedSinceAsync(
+  changesQuery: ContactChangesQuery = {}
+): Promise<ContactChangesResponse> {
+  if (!ExpoContacts.getContactsChangedSinceAsync) {
+    throw new UnavailabilityError('Contacts', 'getContactsChangedSinceAsync');
+  }
+  return await ExpoContacts.getContactsChangedSinceAsync(changesQuery);
+}
+
 export async function addContactAsync(contact: Contact, containerId: string): Promise<string> {
   if (!ExpoContacts.addContactAsync) {
     throw new UnavailabilityError('Contacts', 'addContactAsync');
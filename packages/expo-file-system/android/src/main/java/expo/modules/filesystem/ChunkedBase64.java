@@ -0,0 +1,158 @@
+package expo.modules.filesystem;
+
+import android.util.Base64;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Base64 encoding and decoding that goes through the data one chunk at a time, so neither the
+ * whole binary contents nor another encoded copy of them have to be held in memory alongside the
+ * result.
+ */
+class ChunkedBase64 {
+  // Multiple of 3, so every chunk but the last one encodes without padding.
+  private static final int ENCODE_CHUNK_SIZE = 3 * 8192;
+  // Multiple of 4, so every chunk but the last one decodes on its own.
+  private static final int DECODE_CHUNK_SIZE = 4 * 8192;
+
+  private static final char[] ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+
+  private ChunkedBase64() {
+  }
+
+  /**
+   * Encodes up to `length` bytes of the channel starting at `position`, without line breaks.
+   */
+  static String encode(FileChannel channel, long position, long length) throws IOException {
+    length = Math.max(0, Math.min(length, channel.size() - position));
+    StringBuilder result = new StringBuilder(encodedLength(length));
+    ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(ENCODE_CHUNK_SIZE, Math.max(length, 3)));
+    long end = position + length;
+
+    while (position < end) {
+      buffer.clear();
+      buffer.limit((int) Math.min(buffer.capacity(), end - position));
+
+      // Fill the whole chunk, so only the last one needs padding.
+      while (buffer.hasRemaining()) {
+        int read = channel.read(buffer, position + buffer.position());
+        if (read < 0) {
+          break;
+        }
+      }
+      if (buffer.position() == 0) {
+        break;
+      }
+      position += buffer.position();
+      appendEncoded(result, buffer.array(), buffer.position());
+    }
+    return result.toString();
+  }
+
+  /**
+   * Encodes up to `maxLength` bytes read from the stream, without line breaks. Doesn't close the stream.
+   */
+  static String encode(InputStream inputStream, long maxLength, int sizeHint) throws IOException {
+    StringBuilder result = new StringBuilder(encodedLength(Math.max(0, Math.min(sizeHint, maxLength))));
+    byte[] buffer = new byte[ENCODE_CHUNK_SIZE];
+    long remaining = maxLength;
+
+    while (remaining > 0) {
+      int chunkSize = (int) Math.min(buffer.length, remaining);
+      int filled = 0;
+
+      while (filled < chunkSize) {
+        int read = inputStream.read(buffer, filled, chunkSize - filled);
+        if (read < 0) {
+          break;
+        }
+        filled += read;
+      }
+      if (filled == 0) {
+        break;
+      }
+      remaining -= filled;
+      appendEncoded(result, buffer, filled);
+
+      if (filled < chunkSize) {
+        // End of stream
+        break;
+      }
+    }
+    return result.toString();
+  }
+
+  /**
+   * Decodes the string into the stream. Like {@link Base64#DEFAULT}, whitespace is skipped.
+   */
+  static long decode(String string, OutputStream outputStream) throws IOException {
+    byte[] chunk = new byte[DECODE_CHUNK_SIZE];
+    int chunkLength = 0;
+    long written = 0;
+
+    for (int i = 0; i < string.length(); i++) {
+      char c = string.charAt(i);
+
+      if (Character.isWhitespace(c)) {
+        continue;
+      }
+      chunk[chunkLength++] = (byte) c;
+
+      if (chunkLength == chunk.length) {
+        written += writeDecoded(chunk, chunkLength, outputStream);
+        chunkLength = 0;
+      }
+    }
+    if (chunkLength > 0) {
+      written += writeDecoded(chunk, chunkLength, outputStream);
+    }
+    return written;
+  }
+
+  //region private
+
+  private static int encodedLength(long length) {
+    return (int) Math.min(Integer.MAX_VALUE, (length + 2) / 3 * 4);
+  }
+
+  private static void appendEncoded(StringBuilder result, byte[] bytes, int length) {
+    int i = 0;
+
+    for (; i + 2 < length; i += 3) {
+      int triple = (bytes[i] & 0xff) << 16 | (bytes[i + 1] & 0xff) << 8 | (bytes[i + 2] & 0xff);
+      result
+          .append(ALPHABET[(triple >> 18) & 0x3f])
+          .append(ALPHABET[(triple >> 12) & 0x3f])
+          .append(ALPHABET[(triple >> 6) & 0x3f])
+          .append(ALPHABET[triple & 0x3f]);
+    }
+
+    int rest = length - i;
+    if (rest == 1) {
+      int value = (bytes[i] & 0xff) << 16;
+      result
+          .append(ALPHABET[(value >> 18) & 0x3f])
+          .append(ALPHABET[(value >> 12) & 0x3f])
+          .append("==");
+    } else if (rest == 2) {
+      int value = (bytes[i] & 0xff) << 16 | (bytes[i + 1] & 0xff) << 8;
+      result
+          .append(ALPHABET[(value >> 18) & 0x3f])
+          .append(ALPHABET[(value >> 12) & 0x3f])
+          .append(ALPHABET[(value >> 6) & 0x3f])
+          .append('=');
+    }
+  }
+
+  private static int writeDecoded(byte[] chunk, int length, OutputStream outputStream) throws IOException {
+    byte[] decoded = Base64.decode(chunk, 0, length, Base64.DEFAULT);
+    outputStream.write(decoded);
+    return decoded.length;
+  }
+
+  //endregion
+}
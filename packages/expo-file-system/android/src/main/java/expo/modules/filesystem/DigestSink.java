@@ -0,0 +1,48 @@
+package expo.modules.filesystem;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import okio.Buffer;
+import okio.ForwardingSink;
+import okio.Sink;
+
+/**
+ * Sink that updates {@link FileDigests} with everything written through it. Unlike
+ * {@link okio.HashingSink}, it updates several digests at once and they can be read in the middle
+ * of the stream and carried over to another sink, which is what resumed downloads need.
+ */
+class DigestSink extends ForwardingSink {
+  private final FileDigests mDigests;
+
+  private final OutputStream mDigestsStream = new OutputStream() {
+    @Override
+    public void write(int b) {
+      write(new byte[] { (byte) b }, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) {
+      mDigests.update(bytes, offset, length);
+    }
+  };
+
+  DigestSink(Sink delegate, FileDigests digests) {
+    super(delegate);
+    mDigests = digests;
+  }
+
+  /**
+   * Returns the sink itself if there's nothing to hash.
+   */
+  static Sink wrap(Sink sink, FileDigests digests) {
+    return digests != null ? new DigestSink(sink, digests) : sink;
+  }
+
+  @Override
+  public void write(Buffer source, long byteCount) throws IOException {
+    // Goes through the buffer's segments without consuming them.
+    source.copyTo(mDigestsStream, 0, byteCount);
+    super.write(source, byteCount);
+  }
+}
@@ -0,0 +1,167 @@
+package expo.modules.filesystem;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps read-only channels of recently read files open, so reading a file range by range
+ * (`readAsStringAsync` with `position` and `length`) doesn't reopen the file and skip to the
+ * position on every call.
+ *
+ * Channels are only used for positional reads, so one channel is safely shared by concurrent
+ * reads. A channel is reopened when the file's size or modification time changed since it was
+ * opened, closed by {@link #evictIdle()} after some time without reads, and the least recently
+ * used one is closed when too many are open. Channels still in use by a read are closed once that
+ * read releases them.
+ */
+class FileChannelCache {
+  private static final int MAX_OPEN_CHANNELS = 8;
+  static final long IDLE_TIMEOUT_MS = 30000;
+
+  static class Entry {
+    private final RandomAccessFile mFile;
+    private final long mLength;
+    private final long mLastModified;
+    private long mLastUsedTime;
+    private int mReferences = 0;
+    private boolean mIsEvicted = false;
+
+    private Entry(File file) throws IOException {
+      mFile = new RandomAccessFile(file, "r");
+      mLength = file.length();
+      mLastModified = file.lastModified();
+    }
+
+    FileChannel getChannel() {
+      return mFile.getChannel();
+    }
+
+    private boolean isStale(File file) {
+      return file.length() != mLength || file.lastModified() != mLastModified;
+    }
+
+    private void close() {
+      try {
+        mFile.close();
+      } catch (IOException ignored) {
+      }
+    }
+  }
+
+  // Access ordered, so the first entry is the least recently used one.
+  private final LinkedHashMap<String, Entry> mEntries = new LinkedHashMap<>(MAX_OPEN_CHANNELS, 0.75f, true);
+
+  /**
+   * Returns an entry whose channel can be read until it's given back to {@link #release(Entry)}.
+   */
+  synchronized Entry acquire(File file) throws IOException {
+    long now = System.currentTimeMillis();
+    String path = file.getAbsolutePath();
+    Entry entry = mEntries.get(path);
+
+    if (entry != null && entry.isStale(file)) {
+      evict(path);
+      entry = null;
+    }
+    evictIdle(now);
+
+    if (entry == null) {
+      entry = new Entry(file);
+      mEntries.put(path, entry);
+
+      if (mEntries.size() > MAX_OPEN_CHANNELS) {
+        evict(mEntries.keySet().iterator().next());
+      }
+    }
+
+    entry.mReferences++;
+    entry.mLastUsedTime = now;
+    return entry;
+  }
+
+  synchronized void release(Entry entry) {
+    entry.mReferences--;
+    entry.mLastUsedTime = System.currentTimeMillis();
+
+    if (entry.mIsEvicted && entry.mReferences == 0) {
+      entry.close();
+    }
+  }
+
+  /**
+   * Closes channels of the file or, if it's a directory, of all files inside of it.
+   * To be called when the file is about to be deleted, moved or overwritten.
+   */
+  synchronized void invalidate(File file) {
+    String path = file.getAbsolutePath();
+    String directoryPrefix = path + File.separator;
+    List<String> paths = new ArrayList<>();
+
+    for (String entryPath : mEntries.keySet()) {
+      if (entryPath.equals(path) || entryPath.startsWith(directoryPrefix)) {
+        paths.add(entryPath);
+      }
+    }
+    for (String entryPath : paths) {
+      evict(entryPath);
+    }
+  }
+
+  /**
+   * Closes channels that weren't read for {@link #IDLE_TIMEOUT_MS}. To be called that long after
+   * the last {@link #release(Entry)}.
+   */
+  synchronized void evictIdle() {
+    evictIdle(System.currentTimeMillis());
+  }
+
+  /**
+   * Closes all channels, the ones in use once they're released.
+   */
+  synchronized void evictAll() {
+    for (String path : new ArrayList<>(mEntries.keySet())) {
+      evict(path);
+    }
+  }
+
+  synchronized int size() {
+    return mEntries.size();
+  }
+
+  //region private
+
+  private void evictIdle(long now) {
+    Iterator<Map.Entry<String, Entry>> iterator = mEntries.entrySet().iterator();
+
+    while (iterator.hasNext()) {
+      Entry entry = iterator.next().getValue();
+
+      if (entry.mReferences == 0 && now - entry.mLastUsedTime >= IDLE_TIMEOUT_MS) {
+        iterator.remove();
+        entry.mIsEvicted = true;
+        entry.close();
+      }
+    }
+  }
+
+  private void evict(String path) {
+    Entry entry = mEntries.remove(path);
+
+    if (entry != null) {
+      entry.mIsEvicted = true;
+
+      if (entry.mReferences == 0) {
+        entry.close();
+      }
+    }
+  }
+
+  //endregion
+}
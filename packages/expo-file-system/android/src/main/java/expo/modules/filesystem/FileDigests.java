@@ -0,0 +1,108 @@
+package expo.modules.filesystem;
+
+import android.os.Bundle;
+
+import org.apache.commons.codec.binary.Hex;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Digests of a file in the algorithms requested with the `md5`, `sha1` and `sha256` options,
+ * updated with the file's bytes as they are written (see {@link DigestSink}), so the file doesn't
+ * have to be read again to hash it.
+ */
+class FileDigests {
+  // { option and result key, MessageDigest algorithm }
+  private static final String[][] ALGORITHMS = {
+      {"md5", "MD5"},
+      {"sha1", "SHA-1"},
+      {"sha256", "SHA-256"},
+  };
+
+  private final List<String> mKeys;
+  private final List<MessageDigest> mDigests;
+  private long mByteCount = 0;
+
+  private FileDigests(List<String> keys, List<MessageDigest> digests) {
+    mKeys = keys;
+    mDigests = digests;
+  }
+
+  /**
+   * Returns digests in the algorithms requested by the options, or null if none of them is.
+   */
+  static FileDigests fromOptions(Map<String, Object> options) throws IOException {
+    if (options == null) {
+      return null;
+    }
+
+    List<String> keys = new ArrayList<>();
+    List<MessageDigest> digests = new ArrayList<>();
+
+    for (String[] algorithm : ALGORITHMS) {
+      if (Boolean.TRUE.equals(options.get(algorithm[0]))) {
+        try {
+          digests.add(MessageDigest.getInstance(algorithm[1]));
+          keys.add(algorithm[0]);
+        } catch (NoSuchAlgorithmException e) {
+          throw new IOException("Hashing algorithm '" + algorithm[1] + "' is not available.", e);
+        }
+      }
+    }
+    return keys.isEmpty() ? null : new FileDigests(keys, digests);
+  }
+
+  void update(byte[] bytes, int offset, int length) {
+    for (MessageDigest digest : mDigests) {
+      digest.update(bytes, offset, length);
+    }
+    mByteCount += length;
+  }
+
+  /**
+   * Updates the digests with the contents of the file, which is read once for all of them.
+   */
+  void update(File file) throws IOException {
+    InputStream inputStream = new FileInputStream(file);
+    try {
+      byte[] buffer = new byte[8192];
+      int count;
+      while ((count = inputStream.read(buffer)) != -1) {
+        update(buffer, 0, count);
+      }
+    } finally {
+      inputStream.close();
+    }
+  }
+
+  // Number of bytes hashed so far
+  long getByteCount() {
+    return mByteCount;
+  }
+
+  boolean hasSameAlgorithms(FileDigests other) {
+    return mKeys.equals(other.mKeys);
+  }
+
+  /**
+   * Puts hex strings of the digests under their option keys. The digests can still be updated afterwards.
+   */
+  void putInto(Bundle result) throws IOException {
+    for (int i = 0; i < mKeys.size(); i++) {
+      try {
+        MessageDigest digest = (MessageDigest) mDigests.get(i).clone();
+        result.putString(mKeys.get(i), String.valueOf(Hex.encodeHex(digest.digest())));
+      } catch (CloneNotSupportedException e) {
+        throw new IOException("Hashing algorithm '" + mDigests.get(i).getAlgorithm() + "' can't be cloned.", e);
+      }
+    }
+  }
+}
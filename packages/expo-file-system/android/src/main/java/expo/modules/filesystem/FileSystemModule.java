@@ -5,7 +5,8 @@ import android.content.res.Resources;
 import android.net.Uri;
 import android.os.AsyncTask;
 import android.os.Bundle;
-import android.util.Base64;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 
 import org.apache.commons.codec.binary.Hex;
@@ -15,29 +16,39 @@ import org.apache.commons.io.IOUtils;
 import org.unimodules.core.ExportedModule;
 import org.unimodules.core.ModuleRegistry;
 import org.unimodules.core.Promise;
+import org.unimodules.core.errors.CodedException;
 import org.unimodules.core.interfaces.ExpoMethod;
+import org.unimodules.core.interfaces.LifecycleEventListener;
 import org.unimodules.core.interfaces.ModuleRegistryConsumer;
 import org.unimodules.core.interfaces.services.EventEmitter;
+import org.unimodules.core.interfaces.services.UIManager;
 import org.unimodules.interfaces.filesystem.FilePermissionModuleInterface;
 import org.unimodules.interfaces.filesystem.Permission;
 
-import java.io.BufferedInputStream;
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.io.Reader;
 import java.net.CookieHandler;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import okhttp3.Call;
 import okhttp3.Callback;
@@ -54,18 +65,49 @@ import okio.BufferedSink;
 import okio.BufferedSource;
 import okio.ForwardingSource;
 import okio.Okio;
+import okio.Sink;
 import okio.Source;
 
-public class FileSystemModule extends ExportedModule implements ModuleRegistryConsumer {
+public class FileSystemModule extends ExportedModule implements ModuleRegistryConsumer, LifecycleEventListener {
   private static final String NAME = "ExponentFileSystem";
   private static final String TAG = FileSystemModule.class.getSimpleName();
   private static final String EXDownloadProgressEventName = "Exponent.downloadProgress";
   private static final long MIN_EVENT_DT_MS = 100;
   private static final String HEADER_KEY = "headers";
+  private static final int IO_QUEUE_CAPACITY = 1024;
+  private static final long IO_THREAD_KEEP_ALIVE_MS = 30000;
+
+  // Blocking file I/O runs here rather than on the thread that calls the module's methods,
+  // so a large read or copy doesn't hold up other calls queued behind it. A single thread runs
+  // the operations in the order they were called, so calls that weren't awaited don't race.
+  private static final ThreadPoolExecutor sIOExecutor = createIOExecutor();
+  private static final FileSystemOperationMetrics sOperationMetrics = new FileSystemOperationMetrics();
 
   private ModuleRegistry mModuleRegistry;
 
   private final Map<String, DownloadResumable> mDownloadResumableMap = new HashMap<>();
+  private final FileChannelCache mChannelCache = new FileChannelCache();
+  private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+  // Posted once reads stop for as long as channels are kept open without reads
+  private final Runnable mEvictIdleChannelsRunnable = new Runnable() {
+    @Override
+    public void run() {
+      try {
+        sIOExecutor.execute(new Runnable() {
+          @Override
+          public void run() {
+            mChannelCache.evictIdle();
+          }
+        });
+      } catch (RejectedExecutionException e) {
+        // Too busy, idle channels are evicted by the next read
+      }
+    }
+  };
+
+  // Digests of paused downloads. { "<filePath>": FileDigests }
+  private static final Map<String, FileDigests> sPartialDigests = new HashMap<>();
 
   public FileSystemModule(Context context) {
     super(context);
@@ -80,7 +122,27 @@ public class FileSystemModule extends ExportedModule implements ModuleRegistryCo
 
   @Override
   public void setModuleRegistry(ModuleRegistry moduleRegistry) {
+    if (mModuleRegistry != null) {
+      mModuleRegistry.getModule(UIManager.class).unregisterLifecycleEventListener(this);
+    }
     mModuleRegistry = moduleRegistry;
+    if (mModuleRegistry != null) {
+      mModuleRegistry.getModule(UIManager.class).registerLifecycleEventListener(this);
+    }
+  }
+
+  @Override
+  public void onHostResume() {
+  }
+
+  @Override
+  public void onHostPause() {
+  }
+
+  @Override
+  public void onHostDestroy() {
+    mHandler.removeCallbacks(mEvictIdleChannelsRunnable);
+    mChannelCache.evictAll();
   }
 
   @Override
@@ -98,6 +160,14 @@ public class FileSystemModule extends ExportedModule implements ModuleRegistryCo
     return constants;
   }
 
+  /**
+   * Resolves with timings of the operations run on the I/O executor, see {@link FileSystemOperationMetrics#toBundle()}.
+   */
+  @ExpoMethod
+  public void getOperationMetricsAsync(Promise promise) {
+    promise.resolve(sOperationMetrics.toBundle());
+  }
+
   private File uriToFile(Uri uri) {
     return new File(uri.getPath());
   }
@@ -145,300 +215,453 @@ public class FileSystemModule extends ExportedModule implements ModuleRegistryCo
   }
 
   @ExpoMethod
-  public void getInfoAsync(String uriStr, Map<String, Object> options, Promise promise) {
+  public void getInfoAsync(final String uriStr, final Map<String, Object> options, Promise promise) {
     try {
-      Uri uri = Uri.parse(uriStr);
-      ensurePermission(uri, Permission.READ);
-      if ("file".equals(uri.getScheme())) {
-        File file = uriToFile(uri);
-        Bundle result = new Bundle();
-        if (file.exists()) {
-          result.putBoolean("exists", true);
-          result.putBoolean("isDirectory", file.isDirectory());
-          result.putString("uri", Uri.fromFile(file).toString());
-          if (options.containsKey("md5") && (Boolean) options.get("md5")) {
-            result.putString("md5", md5(file));
-          }
-          result.putDouble("size", file.length());
-          result.putDouble("modificationTime", 0.001 * file.lastModified());
-          promise.resolve(result);
-        } else {
-          result.putBoolean("exists", false);
-          result.putBoolean("isDirectory", false);
-          promise.resolve(result);
-        }
-      } else if ("content".equals(uri.getScheme()) || "asset".equals(uri.getScheme())) {
-        Bundle result = new Bundle();
-        try {
-          InputStream is = "content".equals(uri.getScheme()) ?
-              getContext().getContentResolver().openInputStream(uri) :
-              openAssetInputStream(uri);
-          if (is == null) {
-            throw new FileNotFoundException();
-          }
-          result.putBoolean("exists", true);
-          result.putBoolean("isDirectory", false);
-          result.putString("uri", uri.toString());
-          // NOTE: `.available()` is supposedly not a reliable source of size info, but it's been
-          //       more reliable than querying `OpenableColumns.SIZE` in practice in tests ¯\_(ツ)_/¯
-          result.putDouble("size", is.available());
-          if (options.containsKey("md5") && (Boolean) options.get("md5")) {
-            byte[] md5bytes = DigestUtils.md5(is);
-            result.putString("md5", String.valueOf(Hex.encodeHex(md5bytes)));
-          }
-          promise.resolve(result);
-        } catch (FileNotFoundException e) {
-          result.putBoolean("exists", false);
-          result.putBoolean("isDirectory", false);
-          promise.resolve(result);
+      ensurePermission(Uri.parse(uriStr), Permission.READ);
+    } catch (Exception e) {
+      Log.e(TAG, e.getMessage());
+      promise.reject(e);
+      return;
+    }
+
+    executeIOOperation("getInfoAsync", promise, new IOOperation() {
+      @Override
+      public Object run() throws Exception {
+        return getInfo(Uri.parse(uriStr), options);
+      }
+    });
+  }
+
+  private Bundle getInfo(Uri uri, Map<String, Object> options) throws IOException {
+    if ("file".equals(uri.getScheme())) {
+      File file = uriToFile(uri);
+      Bundle result = new Bundle();
+      if (file.exists()) {
+        result.putBoolean("exists", true);
+        result.putBoolean("isDirectory", file.isDirectory());
+        result.putString("uri", Uri.fromFile(file).toString());
+        if (options.containsKey("md5") && (Boolean) options.get("md5")) {
+          result.putString("md5", md5(file));
         }
+        result.putDouble("size", file.length());
+        result.putDouble("modificationTime", 0.001 * file.lastModified());
+        return result;
       } else {
-        throw new IOException("Unsupported scheme for location '" + uri + "'.");
+        result.putBoolean("exists", false);
+        result.putBoolean("isDirectory", false);
+        return result;
+      }
+    } else if ("content".equals(uri.getScheme()) || "asset".equals(uri.getScheme())) {
+      Bundle result = new Bundle();
+      InputStream is = null;
+      try {
+        is = "content".equals(uri.getScheme()) ?
+            getContext().getContentResolver().openInputStream(uri) :
+            openAssetInputStream(uri);
+        if (is == null) {
+          throw new FileNotFoundException();
+        }
+        result.putBoolean("exists", true);
+        result.putBoolean("isDirectory", false);
+        result.putString("uri", uri.toString());
+        // NOTE: `.available()` is supposedly not a reliable source of size info, but it's been
+        //       more reliable than querying `OpenableColumns.SIZE` in practice in tests ¯\_(ツ)_/¯
+        result.putDouble("size", is.available());
+        if (options.containsKey("md5") && (Boolean) options.get("md5")) {
+          byte[] md5bytes = DigestUtils.md5(is);
+          result.putString("md5", String.valueOf(Hex.encodeHex(md5bytes)));
+        }
+        return result;
+      } catch (FileNotFoundException e) {
+        result.putBoolean("exists", false);
+        result.putBoolean("isDirectory", false);
+        return result;
+      } finally {
+        IOUtils.closeQuietly(is);
       }
+    } else {
+      throw new IOException("Unsupported scheme for location '" + uri + "'.");
+    }
+  }
+
+  @ExpoMethod
+  public void readAsStringAsync(final String uriStr, final Map<String, Object> options, Promise promise) {
+    try {
+      ensurePermission(Uri.parse(uriStr), Permission.READ);
     } catch (Exception e) {
       Log.e(TAG, e.getMessage());
       promise.reject(e);
+      return;
     }
+
+    executeIOOperation("readAsStringAsync", promise, new IOOperation() {
+      @Override
+      public Object run() throws Exception {
+        return readAsString(Uri.parse(uriStr), options);
+      }
+    });
   }
 
-  @ExpoMethod
-  public void readAsStringAsync(String uriStr, Map<String, Object> options, Promise promise) {
-    try {
-      Uri uri = Uri.parse(uriStr);
-      ensurePermission(uri, Permission.READ);
+  private String readAsString(Uri uri, Map<String, Object> options) throws IOException {
+    // TODO:Bacon: Add more encoding types to match iOS
+    String encoding = "utf8";
+    if (options.containsKey("encoding") && options.get("encoding") instanceof String) {
+      encoding = ((String) options.get("encoding")).toLowerCase();
+    }
+    if (!"file".equals(uri.getScheme()) && !"asset".equals(uri.getScheme())) {
+      throw new IOException("Unsupported scheme for location '" + uri + "'.");
+    }
 
-      // TODO:Bacon: Add more encoding types to match iOS
-      String encoding = "utf8";
-      if (options.containsKey("encoding") && options.get("encoding") instanceof String) {
-        encoding = ((String) options.get("encoding")).toLowerCase();
-      }
-      String contents;
-      if (encoding.equalsIgnoreCase("base64")) {
-        InputStream inputStream;
-        if ("file".equals(uri.getScheme())) {
-          inputStream = new FileInputStream(uriToFile(uri));
-        } else if ("asset".equals(uri.getScheme())) {
-          inputStream = openAssetInputStream(uri);
-        } else {
-          throw new IOException("Unsupported scheme for location '" + uri + "'.");
-        }
+    if (encoding.equalsIgnoreCase("base64")) {
+      if (options.containsKey("length") && options.containsKey("position")) {
+        long length = ((Number) options.get("length")).longValue();
+        long position = ((Number) options.get("position")).longValue();
+        return readRangeAsBase64(uri, position, length);
+      }
 
-        if (options.containsKey("length") && options.containsKey("position")) {
-          int length = ((Number) options.get("length")).intValue();
-          int position = ((Number) options.get("position")).intValue();
-          byte[] buffer = new byte[length];
-          inputStream.skip(position);
-          int bytesRead = inputStream.read(buffer, 0, length);
-          contents = Base64.encodeToString(buffer, 0, bytesRead, Base64.NO_WRAP);
-        } else {
-          byte[] inputData = getInputStreamBytes(inputStream);
-          contents = Base64.encodeToString(inputData, Base64.NO_WRAP);
+      if ("file".equals(uri.getScheme())) {
+        FileInputStream inputStream = new FileInputStream(uriToFile(uri));
+        try {
+          FileChannel channel = inputStream.getChannel();
+          return ChunkedBase64.encode(channel, 0, channel.size());
+        } finally {
+          inputStream.close();
         }
-      } else {
-        if ("file".equals(uri.getScheme())) {
-          contents = IOUtils.toString(new FileInputStream(uriToFile(uri)));
-        } else if ("asset".equals(uri.getScheme())) {
-          contents = IOUtils.toString(openAssetInputStream(uri));
-        } else {
-          throw new IOException("Unsupported scheme for location '" + uri + "'.");
+      }
+      InputStream inputStream = openAssetInputStream(uri);
+      try {
+        return ChunkedBase64.encode(inputStream, Long.MAX_VALUE, inputStream.available());
+      } finally {
+        inputStream.close();
+      }
+    } else {
+      if ("file".equals(uri.getScheme())) {
+        File file = uriToFile(uri);
+        return readUtf8(new FileInputStream(file), file.length());
+      }
+      InputStream inputStream = openAssetInputStream(uri);
+      return readUtf8(inputStream, inputStream.available());
+    }
+  }
+
+  /**
+   * Reads a range of the file without reading what's before it. Files are read through a channel
+   * kept open in between calls, since files tend to be read range by range.
+   */
+  private String readRangeAsBase64(Uri uri, long position, long length) throws IOException {
+    if ("file".equals(uri.getScheme())) {
+      FileChannelCache.Entry entry = mChannelCache.acquire(uriToFile(uri));
+      try {
+        return ChunkedBase64.encode(entry.getChannel(), position, length);
+      } finally {
+        mChannelCache.release(entry);
+        mHandler.removeCallbacks(mEvictIdleChannelsRunnable);
+        mHandler.postDelayed(mEvictIdleChannelsRunnable, FileChannelCache.IDLE_TIMEOUT_MS);
+      }
+    }
+
+    InputStream inputStream = openAssetInputStream(uri);
+    try {
+      long skipped = 0;
+      while (skipped < position) {
+        long count = inputStream.skip(position - skipped);
+        if (count <= 0) {
+          break;
         }
+        skipped += count;
       }
-      promise.resolve(contents);
-    } catch (Exception e) {
-      Log.e(TAG, e.getMessage());
-      promise.reject(e);
+      return ChunkedBase64.encode(inputStream, length, (int) Math.min(length, Integer.MAX_VALUE));
+    } finally {
+      inputStream.close();
+    }
+  }
+
+  private static String readUtf8(InputStream inputStream, long sizeHint) throws IOException {
+    Reader reader = new InputStreamReader(inputStream, "UTF-8");
+    try {
+      // The number of bytes is the upper bound of the number of UTF-16 characters.
+      StringBuilder result = new StringBuilder((int) Math.min(Math.max(sizeHint, 16), Integer.MAX_VALUE));
+      char[] buffer = new char[8192];
+      int count;
+      while ((count = reader.read(buffer)) != -1) {
+        result.append(buffer, 0, count);
+      }
+      return result.toString();
+    } finally {
+      reader.close();
     }
   }
 
   @ExpoMethod
-  public void writeAsStringAsync(String uriStr, String string, Map<String, Object> options, Promise promise) {
+  public void writeAsStringAsync(final String uriStr, final String string, final Map<String, Object> options, Promise promise) {
     try {
       Uri uri = Uri.parse(uriStr);
       ensurePermission(uri, Permission.WRITE);
-      if ("file".equals(uri.getScheme())) {
-
-        String encoding = "utf8";
-        if (options.containsKey("encoding") && options.get("encoding") instanceof String) {
-          encoding = ((String) options.get("encoding")).toLowerCase();
-        }
-
-        FileOutputStream out = new FileOutputStream(uriToFile(uri));
-        if (encoding.equals("base64")) {
-          byte[] bytes = Base64.decode(string, Base64.DEFAULT);
-          out.write(bytes);
-        } else {
-          OutputStreamWriter writer = new OutputStreamWriter(out);
-          writer.write(string);
-          writer.close();
-        }
-        out.close();
-        promise.resolve(null);
-      } else {
+      if (!"file".equals(uri.getScheme())) {
         throw new IOException("Unsupported scheme for location '" + uri + "'.");
       }
     } catch (Exception e) {
       Log.e(TAG, e.getMessage());
       promise.reject(e);
+      return;
+    }
+
+    executeIOOperation("writeAsStringAsync", promise, new IOOperation() {
+      @Override
+      public Object run() throws Exception {
+        writeAsString(uriToFile(Uri.parse(uriStr)), string, options);
+        return null;
+      }
+    });
+  }
+
+  private void writeAsString(File file, String string, Map<String, Object> options) throws IOException {
+    String encoding = "utf8";
+    if (options.containsKey("encoding") && options.get("encoding") instanceof String) {
+      encoding = ((String) options.get("encoding")).toLowerCase();
+    }
+
+    mChannelCache.invalidate(file);
+    OutputStream out = new BufferedOutputStream(new FileOutputStream(file));
+    try {
+      if (encoding.equals("base64")) {
+        ChunkedBase64.decode(string, out);
+      } else {
+        OutputStreamWriter writer = new OutputStreamWriter(out);
+        writer.write(string);
+        writer.flush();
+      }
+    } finally {
+      out.close();
     }
   }
 
   @ExpoMethod
-  public void deleteAsync(String uriStr, Map<String, Object> options, Promise promise) {
+  public void deleteAsync(String uriStr, final Map<String, Object> options, Promise promise) {
+    final Uri uri;
     try {
-      Uri uri = Uri.parse(uriStr);
+      uri = Uri.parse(uriStr);
       Uri appendedUri = Uri.withAppendedPath(uri, "..");
       ensurePermission(appendedUri, Permission.WRITE, "Location '" + uri + "' isn't deletable.");
-      if ("file".equals(uri.getScheme())) {
-        File file = uriToFile(uri);
-        if (file.exists()) {
-          FileUtils.forceDelete(file);
-          promise.resolve(null);
-        } else {
-          if (options.containsKey("idempotent") && (Boolean) options.get("idempotent")) {
-            promise.resolve(null);
-          } else {
-            promise.reject("E_FILE_NOT_FOUND",
-                "File '" + uri + "' could not be deleted because it could not be found");
-          }
-        }
-      } else {
+      if (!"file".equals(uri.getScheme())) {
         throw new IOException("Unsupported scheme for location '" + uri + "'.");
       }
     } catch (Exception e) {
       Log.e(TAG, e.getMessage());
       promise.reject(e);
+      return;
     }
+
+    executeIOOperation("deleteAsync", promise, new IOOperation() {
+      @Override
+      public Object run() throws Exception {
+        File file = uriToFile(uri);
+        if (file.exists()) {
+          mChannelCache.invalidate(file);
+          FileUtils.forceDelete(file);
+        } else if (!(options.containsKey("idempotent") && (Boolean) options.get("idempotent"))) {
+          throw new OperationFailedException("E_FILE_NOT_FOUND",
+              "File '" + uri + "' could not be deleted because it could not be found");
+        }
+        return null;
+      }
+    });
   }
 
   @ExpoMethod
   public void moveAsync(Map<String, Object> options, Promise promise) {
+    final Uri fromUri;
+    final Uri toUri;
     try {
       if (!options.containsKey("from")) {
         promise.reject("E_MISSING_PARAMETER", "`FileSystem.moveAsync` needs a `from` path.");
         return;
       }
-      Uri fromUri = Uri.parse((String) options.get("from"));
+      fromUri = Uri.parse((String) options.get("from"));
       ensurePermission(Uri.withAppendedPath(fromUri, ".."), Permission.WRITE, "Location '" + fromUri + "' isn't movable.");
       if (!options.containsKey("to")) {
         promise.reject("E_MISSING_PARAMETER", "`FileSystem.moveAsync` needs a `to` path.");
         return;
       }
-      Uri toUri = Uri.parse((String) options.get("to"));
+      toUri = Uri.parse((String) options.get("to"));
       ensurePermission(toUri, Permission.WRITE);
 
-      if ("file".equals(fromUri.getScheme())) {
-        File from = uriToFile(fromUri);
-        File to = uriToFile(toUri);
-        if (from.renameTo(to)) {
-          promise.resolve(null);
-        } else {
-          promise.reject("E_FILE_NOT_MOVED",
-              "File '" + fromUri + "' could not be moved to '" + toUri + "'");
-        }
-      } else {
+      if (!"file".equals(fromUri.getScheme())) {
         throw new IOException("Unsupported scheme for location '" + fromUri + "'.");
       }
     } catch (Exception e) {
       Log.e(TAG, e.getMessage());
       promise.reject(e);
+      return;
     }
+
+    executeIOOperation("moveAsync", promise, new IOOperation() {
+      @Override
+      public Object run() throws Exception {
+        File from = uriToFile(fromUri);
+        File to = uriToFile(toUri);
+        mChannelCache.invalidate(from);
+        mChannelCache.invalidate(to);
+        if (!from.renameTo(to)) {
+          throw new OperationFailedException("E_FILE_NOT_MOVED",
+              "File '" + fromUri + "' could not be moved to '" + toUri + "'");
+        }
+        return null;
+      }
+    });
   }
 
   @ExpoMethod
-  public void copyAsync(Map<String, Object> options, Promise promise) {
+  public void copyAsync(final Map<String, Object> options, Promise promise) {
+    final Uri fromUri;
+    final Uri toUri;
     try {
       if (!options.containsKey("from")) {
         promise.reject("E_MISSING_PARAMETER", "`FileSystem.moveAsync` needs a `from` path.");
         return;
       }
-      Uri fromUri = Uri.parse((String) options.get("from"));
+      fromUri = Uri.parse((String) options.get("from"));
       ensurePermission(fromUri, Permission.READ);
       if (!options.containsKey("to")) {
         promise.reject("E_MISSING_PARAMETER", "`FileSystem.moveAsync` needs a `to` path.");
         return;
       }
-      Uri toUri = Uri.parse((String) options.get("to"));
+      toUri = Uri.parse((String) options.get("to"));
       ensurePermission(toUri, Permission.WRITE);
 
-      if ("file".equals(fromUri.getScheme())) {
-        File from = uriToFile(fromUri);
-        File to = uriToFile(toUri);
-        if (from.isDirectory()) {
-          FileUtils.copyDirectory(from, to);
-          promise.resolve(null);
-        } else {
-          FileUtils.copyFile(from, to);
-          promise.resolve(null);
-        }
-      } else if ("content".equals(fromUri.getScheme())) {
-        InputStream in = getContext().getContentResolver().openInputStream(fromUri);
-        OutputStream out = new FileOutputStream(uriToFile(toUri));
-        IOUtils.copy(in, out);
-        promise.resolve(null);
-      } else if ("asset".equals(fromUri.getScheme())) {
-        InputStream in = openAssetInputStream(fromUri);
-        OutputStream out = new FileOutputStream(uriToFile(toUri));
-        IOUtils.copy(in, out);
-        promise.resolve(null);
-      } else {
+      if (!"file".equals(fromUri.getScheme()) && !"content".equals(fromUri.getScheme()) && !"asset".equals(fromUri.getScheme())) {
         throw new IOException("Unsupported scheme for location '" + fromUri + "'.");
       }
     } catch (Exception e) {
       Log.e(TAG, e.getMessage());
       promise.reject(e);
+      return;
+    }
+
+    executeIOOperation("copyAsync", promise, new IOOperation() {
+      @Override
+      public Object run() throws Exception {
+        return copy(fromUri, toUri, FileDigests.fromOptions(options));
+      }
+    });
+  }
+
+  /**
+   * Copies the file and returns its digests requested by the options, hashed while copying. Directories aren't hashed.
+   */
+  private Bundle copy(Uri fromUri, Uri toUri, FileDigests digests) throws IOException {
+    File to = uriToFile(toUri);
+    mChannelCache.invalidate(to);
+
+    if ("file".equals(fromUri.getScheme())) {
+      File from = uriToFile(fromUri);
+      if (from.isDirectory()) {
+        FileUtils.copyDirectory(from, to);
+        return null;
+      }
+      if (digests == null) {
+        FileUtils.copyFile(from, to);
+        return null;
+      }
+      copyToFile(new FileInputStream(from), to, digests);
+      // Same as `FileUtils.copyFile`
+      to.setLastModified(from.lastModified());
+    } else {
+      InputStream in = "content".equals(fromUri.getScheme()) ?
+          getContext().getContentResolver().openInputStream(fromUri) :
+          openAssetInputStream(fromUri);
+      if (in == null) {
+        throw new FileNotFoundException("Location '" + fromUri + "' couldn't be opened.");
+      }
+      copyToFile(in, to, digests);
+    }
+
+    if (digests == null) {
+      return null;
+    }
+    Bundle result = new Bundle();
+    digests.putInto(result);
+    return result;
+  }
+
+  /**
+   * Copies the stream to the file, updating the digests on the way. Closes the stream.
+   */
+  private static void copyToFile(InputStream in, File to, FileDigests digests) throws IOException {
+    Source source = Okio.source(in);
+    try {
+      BufferedSink sink = Okio.buffer(DigestSink.wrap(Okio.sink(to), digests));
+      try {
+        sink.writeAll(source);
+      } finally {
+        sink.close();
+      }
+    } finally {
+      source.close();
     }
   }
 
   @ExpoMethod
-  public void makeDirectoryAsync(String uriStr, Map<String, Object> options, Promise promise) {
+  public void makeDirectoryAsync(String uriStr, final Map<String, Object> options, Promise promise) {
+    final Uri uri;
     try {
-      Uri uri = Uri.parse(uriStr);
+      uri = Uri.parse(uriStr);
       ensurePermission(uri, Permission.WRITE);
-      if ("file".equals(uri.getScheme())) {
+      if (!"file".equals(uri.getScheme())) {
+        throw new IOException("Unsupported scheme for location '" + uri + "'.");
+      }
+    } catch (Exception e) {
+      Log.e(TAG, e.getMessage());
+      promise.reject(e);
+      return;
+    }
+
+    executeIOOperation("makeDirectoryAsync", promise, new IOOperation() {
+      @Override
+      public Object run() throws Exception {
         File file = uriToFile(uri);
         boolean previouslyCreated = file.isDirectory();
         boolean setIntermediates = options.containsKey("intermediates") && (Boolean) options.get("intermediates");
         boolean success = setIntermediates ? file.mkdirs() : file.mkdir();
-        if (success || (setIntermediates && previouslyCreated)) {
-          promise.resolve(null);
-        } else {
-          promise.reject("E_DIRECTORY_NOT_CREATED",
+        if (!success && !(setIntermediates && previouslyCreated)) {
+          throw new OperationFailedException("E_DIRECTORY_NOT_CREATED",
               "Directory '" + uri + "' could not be created or already exists.");
         }
-      } else {
-        throw new IOException("Unsupported scheme for location '" + uri + "'.");
+        return null;
       }
-    } catch (Exception e) {
-      Log.e(TAG, e.getMessage());
-      promise.reject(e);
-    }
+    });
   }
 
   @ExpoMethod
   public void readDirectoryAsync(String uriStr, Map<String, Object> options, Promise promise) {
+    final Uri uri;
     try {
-      Uri uri = Uri.parse(uriStr);
+      uri = Uri.parse(uriStr);
       ensurePermission(uri, Permission.READ);
-      if ("file".equals(uri.getScheme())) {
-        File file = uriToFile(uri);
-        File[] children = file.listFiles();
-        if (children != null) {
-          List<String> result = new ArrayList<>();
-          for (File child : children) {
-            result.add(child.getName());
-          }
-          promise.resolve(result);
-        } else {
-          promise.reject("E_DIRECTORY_NOT_READ",
-              "Directory '" + uri + "' could not be read.");
-        }
-      } else {
+      if (!"file".equals(uri.getScheme())) {
         throw new IOException("Unsupported scheme for location '" + uri + "'.");
       }
     } catch (Exception e) {
       Log.e(TAG, e.getMessage());
       promise.reject(e);
+      return;
     }
+
+    executeIOOperation("readDirectoryAsync", promise, new IOOperation() {
+      @Override
+      public Object run() throws Exception {
+        File[] children = uriToFile(uri).listFiles();
+        if (children == null) {
+          throw new OperationFailedException("E_DIRECTORY_NOT_READ",
+              "Directory '" + uri + "' could not be read.");
+        }
+        List<String> result = new ArrayList<>();
+        for (File child : children) {
+          result.add(child.getName());
+        }
+        return result;
+      }
+    });
   }
 
   @ExpoMethod
@@ -456,14 +679,15 @@ public class FileSystemModule extends ExportedModule implements ModuleRegistryCo
         BufferedSource bufferedSource = Okio.buffer(Okio.source(context.getResources().openRawResource(resourceId)));
         File file = uriToFile(uri);
         file.delete();
-        BufferedSink sink = Okio.buffer(Okio.sink(file));
+        FileDigests digests = FileDigests.fromOptions(options);
+        BufferedSink sink = Okio.buffer(DigestSink.wrap(Okio.sink(file), digests));
         sink.writeAll(bufferedSource);
         sink.close();
 
         Bundle result = new Bundle();
         result.putString("uri", Uri.fromFile(file).toString());
-        if (options != null && options.containsKey("md5") && (Boolean) options.get("md5")) {
-          result.putString("md5", md5(file));
+        if (digests != null) {
+          digests.putInto(result);
         }
         promise.resolve(result);
       } else if ("file".equals(uri.getScheme())) {
@@ -485,14 +709,15 @@ public class FileSystemModule extends ExportedModule implements ModuleRegistryCo
           public void onResponse(Call call, Response response) throws IOException {
             File file = uriToFile(uri);
             file.delete();
-            BufferedSink sink = Okio.buffer(Okio.sink(file));
+            FileDigests digests = FileDigests.fromOptions(options);
+            BufferedSink sink = Okio.buffer(DigestSink.wrap(Okio.sink(file), digests));
             sink.writeAll(response.body().source());
             sink.close();
 
             Bundle result = new Bundle();
             result.putString("uri", Uri.fromFile(file).toString());
-            if (options != null && options.containsKey("md5") && (Boolean) options.get("md5")) {
-              result.putString("md5", md5(file));
+            if (digests != null) {
+              digests.putInto(result);
             }
             result.putInt("status", response.code());
             result.putBundle("headers", translateHeaders(response.headers()));
@@ -611,26 +836,6 @@ public class FileSystemModule extends ExportedModule implements ModuleRegistryCo
     }
   }
 
-  private static byte[] getInputStreamBytes(InputStream inputStream) throws IOException {
-    byte[] bytesResult;
-    ByteArrayOutputStream byteBuffer = new ByteArrayOutputStream();
-    int bufferSize = 1024;
-    byte[] buffer = new byte[bufferSize];
-    try {
-      int len;
-      while ((len = inputStream.read(buffer)) != -1) {
-        byteBuffer.write(buffer, 0, len);
-      }
-      bytesResult = byteBuffer.toByteArray();
-    } finally {
-      try {
-        byteBuffer.close();
-      } catch (IOException ignored) {
-      }
-    }
-    return bytesResult;
-  }
-
   private static class DownloadResumableTaskParams {
     Map<String, Object> options;
     Call call;
@@ -659,25 +864,31 @@ public class FileSystemModule extends ExportedModule implements ModuleRegistryCo
       try {
         Response response = call.execute();
         ResponseBody responseBody = response.body();
-        BufferedInputStream input = new BufferedInputStream(responseBody.byteStream());
-        OutputStream output;
-
-        if (isResume) {
-          output = new FileOutputStream(file, true);
-        } else {
-          output = new FileOutputStream(file, false);
-        }
+        FileDigests digests = getDigestsToResume(file, isResume, options);
+        Sink fileSink = isResume ? Okio.appendingSink(file) : Okio.sink(file);
+        BufferedSink sink = Okio.buffer(DigestSink.wrap(fileSink, digests));
 
-        byte[] data = new byte[1024];
-        int count = 0;
-        while ((count = input.read(data)) != -1) {
-          output.write(data, 0, count);
+        try {
+          sink.writeAll(responseBody.source());
+          sink.close();
+        } catch (IOException e) {
+          // Most likely paused. Keep what has been hashed so far for when the download is resumed.
+          try {
+            sink.close();
+          } catch (IOException ignored) {
+          }
+          if (digests != null) {
+            synchronized (sPartialDigests) {
+              sPartialDigests.put(file.getAbsolutePath(), digests);
+            }
+          }
+          throw e;
         }
 
         Bundle result = new Bundle();
         result.putString("uri", Uri.fromFile(file).toString());
-        if (options != null && options.containsKey("md5") && (Boolean) options.get("md5")) {
-          result.putString("md5", md5(file));
+        if (digests != null) {
+          digests.putInto(result);
         }
         result.putInt("status", response.code());
         result.putBundle("headers", translateHeaders(response.headers()));
@@ -692,6 +903,31 @@ public class FileSystemModule extends ExportedModule implements ModuleRegistryCo
     }
   }
 
+  /**
+   * Returns digests to update with the downloaded bytes. When resuming a download, these are the digests of
+   * what has already been downloaded, so it doesn't need to be hashed again. If they're gone, because
+   * the app has been restarted in the meantime, the downloaded part is hashed once.
+   */
+  private static FileDigests getDigestsToResume(File file, boolean isResume, Map<String, Object> options) throws IOException {
+    FileDigests digests = FileDigests.fromOptions(options);
+    FileDigests partialDigests;
+
+    synchronized (sPartialDigests) {
+      partialDigests = sPartialDigests.remove(file.getAbsolutePath());
+    }
+
+    if (digests == null || !isResume) {
+      return digests;
+    }
+    if (partialDigests != null && partialDigests.hasSameAlgorithms(digests) && partialDigests.getByteCount() == file.length()) {
+      return partialDigests;
+    }
+    if (file.exists()) {
+      digests.update(file);
+    }
+    return digests;
+  }
+
   // Copied out of React Native's `NetworkingModule.java`
   private static Bundle translateHeaders(Headers headers) {
     Bundle responseHeaders = new Bundle();
@@ -792,6 +1028,80 @@ public class FileSystemModule extends ExportedModule implements ModuleRegistryCo
     }
   }
 
+  private interface IOOperation {
+    Object run() throws Exception;
+  }
+
+  /**
+   * Rejects the operation's promise with the given code.
+   */
+  private static class OperationFailedException extends CodedException {
+    private final String mCode;
+
+    OperationFailedException(String code, String message) {
+      super(message);
+      mCode = code;
+    }
+
+    @Override
+    public String getCode() {
+      return mCode;
+    }
+  }
+
+  /**
+   * Runs the operation on the I/O executor, resolves the promise with its result and records how long it took.
+   */
+  private void executeIOOperation(final String name, final Promise promise, final IOOperation operation) {
+    final long enqueuedAt = System.nanoTime();
+
+    try {
+      sIOExecutor.execute(new Runnable() {
+        @Override
+        public void run() {
+          long startedAt = System.nanoTime();
+          Object result;
+
+          try {
+            result = operation.run();
+          } catch (Exception e) {
+            sOperationMetrics.record(name, startedAt - enqueuedAt, System.nanoTime() - startedAt, false);
+            Log.e(TAG, e.getMessage());
+            promise.reject(e);
+            return;
+          }
+          sOperationMetrics.record(name, startedAt - enqueuedAt, System.nanoTime() - startedAt, true);
+          promise.resolve(result);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      // Only happens when far more calls are waiting than any app makes on purpose
+      Log.e(TAG, "Too many pending file system operations, rejecting " + name);
+      promise.reject("E_TOO_MANY_OPERATIONS", "Too many file system operations are pending.", e);
+    }
+  }
+
+  private static ThreadPoolExecutor createIOExecutor() {
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(
+        1,
+        1,
+        IO_THREAD_KEEP_ALIVE_MS,
+        TimeUnit.MILLISECONDS,
+        new LinkedBlockingQueue<Runnable>(IO_QUEUE_CAPACITY),
+        new ThreadFactory() {
+          private final AtomicInteger mCount = new AtomicInteger(0);
+
+          @Override
+          public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "expo-file-system-io-" + mCount.incrementAndGet());
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+          }
+        });
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
   private void ensureDirExists(File dir) throws IOException {
     if (!(dir.isDirectory() || dir.mkdirs())) {
       throw new IOException("Couldn't create directory '" + dir + "'");
@@ -0,0 +1,65 @@
+package expo.modules.filesystem;
+
+import android.os.Bundle;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-operation timings of the FileSystem I/O executor: how many times each operation ran, how
+ * many of them failed, how long they took and how long they waited in the executor's queue.
+ */
+public class FileSystemOperationMetrics {
+  private static class OperationStats {
+    int count = 0;
+    int failures = 0;
+    long totalNs = 0;
+    long maxNs = 0;
+    long totalQueuedNs = 0;
+    long maxQueuedNs = 0;
+  }
+
+  private final Map<String, OperationStats> mStats = new HashMap<>();
+
+  synchronized void record(String operation, long queuedNs, long durationNs, boolean success) {
+    OperationStats stats = mStats.get(operation);
+
+    if (stats == null) {
+      stats = new OperationStats();
+      mStats.put(operation, stats);
+    }
+
+    stats.count++;
+    stats.failures += success ? 0 : 1;
+    stats.totalNs += durationNs;
+    stats.maxNs = Math.max(stats.maxNs, durationNs);
+    stats.totalQueuedNs += queuedNs;
+    stats.maxQueuedNs = Math.max(stats.maxQueuedNs, queuedNs);
+  }
+
+  /**
+   * Returns `{ "<operation>": { count, failures, averageMs, maxMs, averageQueuedMs, maxQueuedMs } }`.
+   */
+  public synchronized Bundle toBundle() {
+    Bundle result = new Bundle();
+
+    for (Map.Entry<String, OperationStats> entry : mStats.entrySet()) {
+      OperationStats stats = entry.getValue();
+      Bundle operation = new Bundle();
+
+      operation.putInt("count", stats.count);
+      operation.putInt("failures", stats.failures);
+      operation.putDouble("averageMs", nanosToMillis(stats.totalNs) / stats.count);
+      operation.putDouble("maxMs", nanosToMillis(stats.maxNs));
+      operation.putDouble("averageQueuedMs", nanosToMillis(stats.totalQueuedNs) / stats.count);
+      operation.putDouble("maxQueuedMs", nanosToMillis(stats.maxQueuedNs));
+
+      result.putBundle(entry.getKey(), operation);
+    }
+    return result;
+  }
+
+  private static double nanosToMillis(long nanos) {
+    return nanos / 1000000.0;
+  }
+}
@@ -4,6 +4,8 @@ import UUID from 'uuid-js';
 import ExponentFileSystem from './ExponentFileSystem';
 
 import {
+  CopyOptions,
+  CopyResult,
   DownloadOptions,
   DownloadResult,
   DownloadProgressCallback,
@@ -11,6 +13,7 @@ import {
   DownloadPauseState,
   FileInfo,
   EncodingType,
+  OperationMetrics,
   ReadingOptions,
   WritingOptions,
   ProgressEvent,
@@ -25,6 +28,8 @@ if (!ExponentFileSystem) {
 const _unused = new EventEmitter(ExponentFileSystem);
 
 export {
+  CopyOptions,
+  CopyResult,
   DownloadOptions,
   DownloadResult,
   DownloadProgressCallback,
@@ -32,6 +37,7 @@ export {
   DownloadPauseState,
   FileInfo,
   EncodingType,
+  OperationMetrics,
   ReadingOptions,
   WritingOptions,
   ProgressEvent,
@@ -97,7 +103,7 @@ export async function moveAsync(options: { from: string; to: string }): Promise<
   return await ExponentFileSystem.moveAsync(options);
 }
 
-export async function copyAsync(options: { from: string; to: string }): Promise<void> {
+export async function copyAsync(options: CopyOptions): Promise<CopyResult | void> {
   if (!ExponentFileSystem.copyAsync) {
     throw new UnavailabilityError('expo-file-system', 'copyAsync');
   }
@@ -121,6 +127,14 @@ export async function readDirectoryAsync(fileUri: string): Promise<string[]> {
   return await ExponentFileSystem.readDirectoryAsync(fileUri, {});
 }
 
+// Android only, timings of the file system operations run so far
+export async function getOperationMetricsAsync(): Promise<OperationMetrics> {
+  if (!ExponentFileSystem.getOperationMetricsAsync) {
+    throw new UnavailabilityError('expo-file-system', 'getOperationMetricsAsync');
+  }
+  return await ExponentFileSystem.getOperationMetricsAsync();
+}
+
 export async function downloadAsync(
   uri: string,
   fileUri: string,
@@ -1,5 +1,7 @@
 export type DownloadOptions = {
   md5?: boolean;
+  sha1?: boolean;
+  sha256?: boolean;
   cache?: boolean;
   headers?: { [name: string]: string };
 };
@@ -9,6 +11,22 @@ export type DownloadResult = {
   status: number;
   headers: { [name: string]: string };
   md5?: string;
+  sha1?: string;
+  sha256?: string;
+};
+
+export type CopyOptions = {
+  from: string;
+  to: string;
+  md5?: boolean;
+  sha1?: boolean;
+  sha256?: boolean;
+};
+
+export type CopyResult = {
+  md5?: string;
+  sha1?: string;
+  sha256?: string;
 };
 
 export type DownloadProgressCallback = (data: DownloadProgressData) => void;
@@ -66,6 +84,17 @@ export type ProgressEvent = {
   };
 };
 
+export type OperationMetrics = {
+  [operation: string]: {
+    count: number;
+    failures: number;
+    averageMs: number;
+    maxMs: number;
+    averageQueuedMs: number;
+    maxQueuedMs: number;
+  };
+};
+
 type PlatformMethod = (...args: any[]) => Promise<any>;
 
 export interface ExponentFileSystemModule {
@@ -85,6 +114,7 @@ export interface ExponentFileSystemModule {
   readonly downloadAsync?: PlatformMethod;
   readonly downloadResumableStartAsync?: PlatformMethod;
   readonly downloadResumablePauseAsync?: PlatformMethod;
+  readonly getOperationMetricsAsync?: PlatformMethod;
 
   startObserving?: () => void;
   stopObserving?: () => void;
@@ -90,4 +90,24 @@ describe('FileSystem', () => {
       expect(downloadPauseState).toMatchObject(fakeObject);
     });
   });
+
+  describe('copyAsync', () => {
+    it(`passes hashing options and returns the hashes`, async () => {
+      const hashes = { md5: 'fake-md5', sha256: 'fake-sha256' };
+      mockProperty(ExponentFileSystem, 'copyAsync', jest.fn(async () => hashes));
+
+      const options = {
+        from: FileSystem.documentDirectory + 'a.mp4',
+        to: FileSystem.documentDirectory + 'b.mp4',
+        md5: true,
+        sha256: true,
+      };
+      const result = await FileSystem.copyAsync(options);
+
+      expect(result).toEqual(hashes);
+      expect(ExponentFileSystem.copyAsync).toHaveBeenCalledWith(options);
+
+      unmockProperty(ExponentFileSystem, 'copyAsync');
+    });
+  });
 });
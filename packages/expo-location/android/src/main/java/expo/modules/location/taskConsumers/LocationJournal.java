@@ -0,0 +1,277 @@
+package expo.modules.location.taskConsumers;
+
+import android.location.Location;
+import android.os.Bundle;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import expo.modules.location.LocationHelpers;
+
+/**
+ * Append-only on-disk journal of the locations received by a location task, so they survive the
+ * process being killed before the task gets to handle them.
+ *
+ * Locations are stored as fixed-size binary records after a small header. A separate cursor file
+ * holds the index of the first record that hasn't been delivered to the task yet; records are
+ * delivered in pages and the cursor is moved past a page once the task finished handling it, so
+ * every location is delivered at least once. Once everything is delivered the journal is truncated.
+ *
+ * Appends are fsynced in batches: when enough records have piled up, enough time has passed, or
+ * on an explicit {@link #sync()}. A record that was only partially written when the process died
+ * is dropped when the journal is opened again.
+ */
+class LocationJournal {
+  private static final String TAG = "LocationJournal";
+
+  private static final int MAGIC = 0x45584c4a; // "EXLJ"
+  private static final int VERSION = 1;
+  private static final int HEADER_SIZE = 8;
+
+  // time (8), latitude (8), longitude (8), altitude (8), accuracy (4), bearing (4), speed (4), flags (4)
+  static final int RECORD_SIZE = 48;
+  private static final int FLAG_MOCKED = 1;
+
+  private static final int SYNC_EVERY_RECORDS = 32;
+  private static final long SYNC_INTERVAL_MS = 10000;
+
+  private final File mJournalFile;
+  private final File mCursorFile;
+  private RandomAccessFile mJournal;
+  private FileChannel mChannel;
+  private final ByteBuffer mRecordBuffer = ByteBuffer.allocate(RECORD_SIZE);
+
+  private long mRecordCount = 0;
+  private long mCursor = 0;
+  private long mLastTimestamp = 0;
+  private int mUnsyncedRecords = 0;
+  private long mLastSyncTime = 0;
+
+  LocationJournal(File directory, String name) {
+    mJournalFile = new File(directory, name + ".journal");
+    mCursorFile = new File(directory, name + ".cursor");
+  }
+
+  synchronized void open() throws IOException {
+    if (mChannel != null) {
+      return;
+    }
+
+    File directory = mJournalFile.getParentFile();
+    if (!directory.exists() && !directory.mkdirs()) {
+      throw new IOException("Couldn't create " + directory);
+    }
+
+    mJournal = new RandomAccessFile(mJournalFile, "rw");
+    mChannel = mJournal.getChannel();
+
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    if (mChannel.size() < HEADER_SIZE || readFully(header, 0) < HEADER_SIZE || header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+      // New or unreadable journal, start over
+      header.clear();
+      header.putInt(MAGIC).putInt(VERSION).flip();
+      mChannel.truncate(0);
+      mChannel.write(header, 0);
+      mChannel.force(false);
+      writeCursor(0);
+    }
+
+    // Drop a record torn by a crash in the middle of an append
+    mRecordCount = (mChannel.size() - HEADER_SIZE) / RECORD_SIZE;
+    mChannel.truncate(HEADER_SIZE + mRecordCount * RECORD_SIZE);
+
+    mCursor = Math.min(readCursor(), mRecordCount);
+    mLastTimestamp = mRecordCount > 0 ? readRecordTime(mRecordCount - 1) : 0;
+    mLastSyncTime = SystemClock.elapsedRealtime();
+  }
+
+  synchronized void close() {
+    if (mChannel == null) {
+      return;
+    }
+    try {
+      sync();
+      mJournal.close();
+    } catch (IOException e) {
+      Log.e(TAG, "Couldn't close location journal: " + e.getMessage());
+    }
+    mJournal = null;
+    mChannel = null;
+  }
+
+  synchronized void delete() {
+    close();
+    mJournalFile.delete();
+    mCursorFile.delete();
+    mRecordCount = 0;
+    mCursor = 0;
+    mLastTimestamp = 0;
+  }
+
+  /**
+   * Appends the locations newer than the last one in the journal and returns those that were
+   * appended. Some devices broadcast the same location more than once.
+   */
+  synchronized List<Location> append(List<Location> locations) throws IOException {
+    List<Location> appended = new ArrayList<>(locations.size());
+    long position = HEADER_SIZE + mRecordCount * RECORD_SIZE;
+
+    for (Location location : locations) {
+      if (location.getTime() <= mLastTimestamp) {
+        continue;
+      }
+
+      mRecordBuffer.clear();
+      mRecordBuffer
+          .putLong(location.getTime())
+          .putDouble(location.getLatitude())
+          .putDouble(location.getLongitude())
+          .putDouble(location.getAltitude())
+          .putFloat(location.getAccuracy())
+          .putFloat(location.getBearing())
+          .putFloat(location.getSpeed())
+          .putInt(location.isFromMockProvider() ? FLAG_MOCKED : 0)
+          .flip();
+      while (mRecordBuffer.hasRemaining()) {
+        position += mChannel.write(mRecordBuffer, position);
+      }
+
+      mRecordCount++;
+      mUnsyncedRecords++;
+      mLastTimestamp = location.getTime();
+      appended.add(location);
+    }
+
+    if (mUnsyncedRecords >= SYNC_EVERY_RECORDS || SystemClock.elapsedRealtime() - mLastSyncTime >= SYNC_INTERVAL_MS) {
+      sync();
+    }
+    return appended;
+  }
+
+  synchronized void sync() throws IOException {
+    if (mUnsyncedRecords > 0) {
+      mChannel.force(false);
+      mUnsyncedRecords = 0;
+    }
+    mLastSyncTime = SystemClock.elapsedRealtime();
+  }
+
+  synchronized long getRecordCount() {
+    return mRecordCount;
+  }
+
+  // Index of the first record that hasn't been delivered yet
+  synchronized long getCursor() {
+    return mCursor;
+  }
+
+  /**
+   * Reads up to `maxCount` records starting at `from` as location bundles, in the same shape as
+   * {@link LocationHelpers#locationToBundle}.
+   */
+  synchronized ArrayList<Bundle> read(long from, int maxCount) throws IOException {
+    long count = Math.max(0, Math.min(maxCount, mRecordCount - from));
+    ArrayList<Bundle> bundles = new ArrayList<>((int) count);
+    if (count == 0) {
+      return bundles;
+    }
+
+    ByteBuffer buffer = ByteBuffer.allocate((int) count * RECORD_SIZE);
+    if (readFully(buffer, HEADER_SIZE + from * RECORD_SIZE) < buffer.capacity()) {
+      throw new IOException("Location journal is shorter than expected.");
+    }
+    buffer.flip();
+
+    for (int i = 0; i < count; i++) {
+      Location location = new Location("journal");
+      location.setTime(buffer.getLong());
+      location.setLatitude(buffer.getDouble());
+      location.setLongitude(buffer.getDouble());
+      location.setAltitude(buffer.getDouble());
+      location.setAccuracy(buffer.getFloat());
+      location.setBearing(buffer.getFloat());
+      location.setSpeed(buffer.getFloat());
+      int flags = buffer.getInt();
+
+      Bundle bundle = LocationHelpers.locationToBundle(location, Bundle.class);
+      if (bundle != null) {
+        bundle.putBoolean("mocked", (flags & FLAG_MOCKED) != 0);
+        bundles.add(bundle);
+      }
+    }
+    return bundles;
+  }
+
+  /**
+   * Marks every record before `cursor` as delivered. Truncates the journal once everything is.
+   */
+  synchronized void commit(long cursor) throws IOException {
+    cursor = Math.min(cursor, mRecordCount);
+    if (cursor <= mCursor) {
+      return;
+    }
+
+    if (cursor == mRecordCount) {
+      mChannel.truncate(HEADER_SIZE);
+      mChannel.force(false);
+      mRecordCount = 0;
+      mUnsyncedRecords = 0;
+      cursor = 0;
+      // mLastTimestamp is kept to keep filtering out repeated broadcasts
+    }
+    writeCursor(cursor);
+    mCursor = cursor;
+  }
+
+  //region private
+
+  private long readRecordTime(long index) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(8);
+    if (readFully(buffer, HEADER_SIZE + index * RECORD_SIZE) < 8) {
+      return 0;
+    }
+    return buffer.getLong(0);
+  }
+
+  private int readFully(ByteBuffer buffer, long position) throws IOException {
+    int total = 0;
+    while (buffer.hasRemaining()) {
+      int read = mChannel.read(buffer, position + total);
+      if (read < 0) {
+        break;
+      }
+      total += read;
+    }
+    return total;
+  }
+
+  private long readCursor() {
+    if (!mCursorFile.exists()) {
+      return 0;
+    }
+    try (RandomAccessFile file = new RandomAccessFile(mCursorFile, "r")) {
+      return file.length() >= 8 ? Math.max(0, file.readLong()) : 0;
+    } catch (IOException e) {
+      Log.e(TAG, "Couldn't read location journal cursor: " + e.getMessage());
+      return 0;
+    }
+  }
+
+  private void writeCursor(long cursor) throws IOException {
+    try (RandomAccessFile file = new RandomAccessFile(mCursorFile, "rw")) {
+      file.seek(0);
+      file.writeLong(cursor);
+      file.setLength(8);
+      file.getFD().sync();
+    }
+  }
+
+  //endregion
+}
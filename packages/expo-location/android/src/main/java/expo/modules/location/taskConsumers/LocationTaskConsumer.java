@@ -10,6 +10,8 @@ import android.content.ServiceConnection;
 import android.location.Location;
 import android.os.Build;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.HandlerThread;
 import android.os.IBinder;
 import android.os.PersistableBundle;
 import android.support.annotation.NonNull;
@@ -22,10 +24,13 @@ import com.google.android.gms.location.LocationServices;
 import com.google.android.gms.tasks.OnCompleteListener;
 import com.google.android.gms.tasks.Task;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 import org.unimodules.core.MapHelper;
 import org.unimodules.core.arguments.MapArguments;
@@ -44,17 +49,35 @@ import expo.modules.location.services.LocationTaskService;
 public class LocationTaskConsumer extends TaskConsumer implements TaskConsumerInterface, LifecycleEventListener {
   private static final String TAG = "LocationTaskConsumer";
   private static final String FOREGROUND_SERVICE_KEY = "foregroundService";
-  private static long sLastTimestamp = 0;
+  private static final String JOURNAL_END_KEY = "journalEnd";
+  private static final String LENGTH_KEY = "length";
+  private static final String JOURNALS_DIRECTORY = "ExpoLocationJournals";
+  // Number of locations passed to a single task execution
+  private static final int DELIVERY_PAGE_SIZE = 100;
 
-  private TaskInterface mTask;
+  // Journal I/O, fsyncs included, runs on this thread rather than in the broadcast receiver or job
+  // callbacks on the main thread. Deferred locations and deliveries are only touched there too.
+  private static Handler sJournalHandler;
+
+  private volatile TaskInterface mTask;
   private PendingIntent mPendingIntent;
   private LocationTaskService mService;
   private LocationRequest mLocationRequest;
   private FusedLocationProviderClient mLocationClient;
   private Location mLastReportedLocation;
   private double mDeferredDistance = 0.0;
-  private List<Location> mDeferredLocations = new ArrayList<>();
-  private boolean mIsHostPaused = true;
+  // Deferred locations live in the journal, only what's needed to decide when to report them is kept here
+  private int mDeferredLocationsCount = 0;
+  private Location mFirstDeferredLocation;
+  private Location mLastDeferredLocation;
+  private LocationJournal mJournal;
+  // Locations that couldn't be journaled, passed to the job in its data like before the journal
+  private List<Location> mUnjournaledLocations = new ArrayList<>();
+  private long mLastUnjournaledTimestamp = 0;
+  // Journal records up to this index are to be delivered by the job being executed
+  private long mDeliveryEnd = 0;
+  private boolean mIsDelivering = false;
+  private volatile boolean mIsHostPaused = true;
 
   public LocationTaskConsumer(Context context, TaskManagerUtilsInterface taskManagerUtils) {
     super(context, taskManagerUtils);
@@ -69,6 +92,12 @@ public class LocationTaskConsumer extends TaskConsumer implements TaskConsumerIn
   @Override
   public void didRegister(TaskInterface task) {
     mTask = task;
+    runOnJournalThread(new Runnable() {
+      @Override
+      public void run() {
+        openJournal();
+      }
+    });
     startLocationUpdates();
     maybeStartForegroundService();
   }
@@ -77,6 +106,12 @@ public class LocationTaskConsumer extends TaskConsumer implements TaskConsumerIn
   public void didUnregister() {
     stopLocationUpdates();
     stopForegroundService();
+    runOnJournalThread(new Runnable() {
+      @Override
+      public void run() {
+        deleteJournal();
+      }
+    });
     mTask = null;
     mPendingIntent = null;
     mLocationRequest = null;
@@ -104,10 +139,7 @@ public class LocationTaskConsumer extends TaskConsumer implements TaskConsumerIn
     LocationResult result = LocationResult.extractResult(intent);
 
     if (result != null) {
-      List<Location> locations = result.getLocations();
-
-      deferLocations(locations);
-      maybeReportDeferredLocations();
+      deferAndMaybeReportLocations(result.getLocations());
     } else {
       try {
         mLocationClient.getLastLocation().addOnCompleteListener(new OnCompleteListener<Location>() {
@@ -117,8 +149,7 @@ public class LocationTaskConsumer extends TaskConsumer implements TaskConsumerIn
 
             if (location != null) {
               Log.i(TAG, "get last location: " + location);
-              deferLocations(Collections.singletonList(location));
-              maybeReportDeferredLocations();
+              deferAndMaybeReportLocations(Collections.singletonList(location));
             }
           }
         });
@@ -131,27 +162,19 @@ public class LocationTaskConsumer extends TaskConsumer implements TaskConsumerIn
   @Override
   public boolean didExecuteJob(final JobService jobService, final JobParameters params) {
     PersistableBundle data = params.getExtras().getPersistableBundle("data");
-    int length = data != null ? data.getInt("length", 0) : 0;
-    ArrayList<Bundle> locationBundles = new ArrayList<>();
-
-    for (int i = 0; i < length; i++) {
-      PersistableBundle persistableLocationBundle = data.getPersistableBundle(String.valueOf(i));
-      Bundle locationBundle = new Bundle();
-      Bundle coordsBundle = new Bundle();
-
-      if (persistableLocationBundle != null) {
-        coordsBundle.putAll(persistableLocationBundle.getPersistableBundle("coords"));
-        locationBundle.putAll(persistableLocationBundle);
-        locationBundle.putBundle("coords", coordsBundle);
+    final long end = data != null ? data.getLong(JOURNAL_END_KEY, 0) : 0;
+    ArrayList<Bundle> locationBundles = readLocationBundles(data);
 
-        locationBundles.add(locationBundle);
-      }
+    if (locationBundles.isEmpty()) {
+      startDeliveryOnJournalThread(end, jobService, params);
+      return true;
     }
 
+    // Locations passed in the data are older than the ones journaled after them
     executeTaskWithLocationBundles(locationBundles, new TaskExecutionCallback() {
       @Override
       public void onFinished(Map<String, Object> response) {
-        jobService.jobFinished(params, false);
+        startDeliveryOnJournalThread(end, jobService, params);
       }
     });
 
@@ -160,6 +183,27 @@ public class LocationTaskConsumer extends TaskConsumer implements TaskConsumerIn
     return true;
   }
 
+  //endregion
+
+  @Override
+  public Bundle coalesceEventData(Bundle queuedData, Bundle data) {
+    // Both events are still waiting for the app to load, so deliver their locations together.
+    ArrayList<Bundle> queuedLocations = queuedData.getParcelableArrayList("locations");
+    ArrayList<Bundle> locations = data.getParcelableArrayList("locations");
+
+    if (queuedLocations == null || locations == null) {
+      return null;
+    }
+
+    ArrayList<Bundle> coalescedLocations = new ArrayList<>(queuedLocations.size() + locations.size());
+    coalescedLocations.addAll(queuedLocations);
+    coalescedLocations.addAll(locations);
+
+    Bundle coalescedData = new Bundle();
+    coalescedData.putParcelableArrayList("locations", coalescedLocations);
+    return coalescedData;
+  }
+
   //region private
 
   private void startLocationUpdates() {
@@ -256,9 +300,45 @@ public class LocationTaskConsumer extends TaskConsumer implements TaskConsumerIn
     }
   }
 
+  private static synchronized Handler getJournalHandler() {
+    if (sJournalHandler == null) {
+      HandlerThread thread = new HandlerThread("ExpoLocationJournal");
+      thread.start();
+      sJournalHandler = new Handler(thread.getLooper());
+    }
+    return sJournalHandler;
+  }
+
+  private void runOnJournalThread(Runnable runnable) {
+    getJournalHandler().post(runnable);
+  }
+
+  private void deferAndMaybeReportLocations(final List<Location> locations) {
+    runOnJournalThread(new Runnable() {
+      @Override
+      public void run() {
+        if (mTask == null) {
+          return;
+        }
+        deferLocations(locations);
+        maybeReportDeferredLocations();
+      }
+    });
+  }
+
   private void deferLocations(List<Location> locations) {
-    int size = mDeferredLocations.size();
-    Location lastLocation = size > 0 ? mDeferredLocations.get(size - 1) : mLastReportedLocation;
+    if (mJournal != null) {
+      try {
+        locations = mJournal.append(locations);
+      } catch (IOException e) {
+        Log.e(TAG, "Couldn't write locations to the journal: " + e.getMessage());
+        locations = deferUnjournaledLocations(locations);
+      }
+    } else {
+      locations = deferUnjournaledLocations(locations);
+    }
+
+    Location lastLocation = mLastDeferredLocation != null ? mLastDeferredLocation : mLastReportedLocation;
 
     for (Location location : locations) {
       if (lastLocation != null) {
@@ -266,7 +346,14 @@ public class LocationTaskConsumer extends TaskConsumer implements TaskConsumerIn
       }
       lastLocation = location;
     }
-    mDeferredLocations.addAll(locations);
+
+    if (locations.size() > 0) {
+      if (mFirstDeferredLocation == null) {
+        mFirstDeferredLocation = locations.get(0);
+      }
+      mLastDeferredLocation = lastLocation;
+      mDeferredLocationsCount += locations.size();
+    }
   }
 
   private void maybeReportDeferredLocations() {
@@ -277,37 +364,38 @@ public class LocationTaskConsumer extends TaskConsumer implements TaskConsumerIn
 
     Context context = getContext().getApplicationContext();
     PersistableBundle data = new PersistableBundle();
-    int length = 0;
 
-    for (Location location : mDeferredLocations) {
-      long timestamp = location.getTime();
-
-      // Some devices may broadcast the same location multiple times (mostly twice) so we're filtering out these locations,
-      // so only one location at the specific timestamp can schedule a job.
-      if (timestamp > sLastTimestamp) {
-        PersistableBundle bundle = LocationHelpers.locationToBundle(location, PersistableBundle.class);
-        data.putPersistableBundle(Integer.valueOf(length).toString(), bundle);
-
-        sLastTimestamp = timestamp;
-        ++length;
+    if (mJournal != null) {
+      try {
+        mJournal.sync();
+      } catch (IOException e) {
+        Log.e(TAG, "Couldn't sync the location journal: " + e.getMessage());
       }
-    }
 
-    data.putInt("length", length);
-
-    if (length > 0) {
-      // Save last reported location, reset the distance and clear a list of locations.
-      mLastReportedLocation = mDeferredLocations.get(mDeferredLocations.size() - 1);
-      mDeferredDistance = 0.0;
-      mDeferredLocations.clear();
+      // The job reads the locations from the journal, so only the journal position is passed on.
+      data.putLong(JOURNAL_END_KEY, mJournal.getRecordCount());
+    }
 
-      // Schedule new job.
-      getTaskManagerUtils().scheduleJob(context, mTask, data);
+    for (int i = 0; i < mUnjournaledLocations.size(); i++) {
+      PersistableBundle bundle = LocationHelpers.locationToBundle(mUnjournaledLocations.get(i), PersistableBundle.class);
+      data.putPersistableBundle(String.valueOf(i), bundle);
     }
+    data.putInt(LENGTH_KEY, mUnjournaledLocations.size());
+    mUnjournaledLocations.clear();
+
+    // Save last reported location, reset the distance and forget deferred locations.
+    mLastReportedLocation = mLastDeferredLocation;
+    mDeferredDistance = 0.0;
+    mDeferredLocationsCount = 0;
+    mFirstDeferredLocation = null;
+    mLastDeferredLocation = null;
+
+    // Schedule new job.
+    getTaskManagerUtils().scheduleJob(context, mTask, data);
   }
 
   private boolean shouldReportDeferredLocations() {
-    if (mDeferredLocations.size() == 0) {
+    if (mDeferredLocationsCount == 0) {
       return false;
     }
     if (!mIsHostPaused) {
@@ -315,8 +403,8 @@ public class LocationTaskConsumer extends TaskConsumer implements TaskConsumerIn
       return true;
     }
 
-    Location oldestLocation = mLastReportedLocation != null ? mLastReportedLocation : mDeferredLocations.get(0);
-    Location newestLocation = mDeferredLocations.get(mDeferredLocations.size() - 1);
+    Location oldestLocation = mLastReportedLocation != null ? mLastReportedLocation : mFirstDeferredLocation;
+    Location newestLocation = mLastDeferredLocation;
     Arguments options = new MapHelper(mTask.getOptions());
     double distance = options.getDouble("deferredUpdatesDistance");
     long interval = options.getLong("deferredUpdatesInterval");
@@ -324,6 +412,182 @@ public class LocationTaskConsumer extends TaskConsumer implements TaskConsumerIn
     return newestLocation.getTime() - oldestLocation.getTime() >= interval && mDeferredDistance >= distance;
   }
 
+  private void openJournal() {
+    Context context = getContext();
+    if (context == null) {
+      Log.w(TAG, "The context has been abandoned.");
+      return;
+    }
+
+    String name = UUID.nameUUIDFromBytes((mTask.getAppId() + ":" + mTask.getName()).getBytes()).toString();
+    mJournal = new LocationJournal(new File(context.getFilesDir(), JOURNALS_DIRECTORY), name);
+
+    try {
+      mJournal.open();
+    } catch (IOException e) {
+      Log.e(TAG, "Couldn't open the location journal: " + e.getMessage());
+      mJournal = null;
+      return;
+    }
+
+    // Locations journaled before the process died are treated as deferred again. Their distance is
+    // not restored, so they're reported once the time and distance thresholds are met again.
+    long undelivered = mJournal.getRecordCount() - mJournal.getCursor();
+    if (undelivered > 0) {
+      mDeferredLocationsCount = (int) Math.min(Integer.MAX_VALUE, undelivered);
+      try {
+        mFirstDeferredLocation = toLocation(mJournal.read(mJournal.getCursor(), 1));
+        mLastDeferredLocation = toLocation(mJournal.read(mJournal.getRecordCount() - 1, 1));
+      } catch (IOException e) {
+        Log.e(TAG, "Couldn't read the location journal: " + e.getMessage());
+      }
+      if (mFirstDeferredLocation == null || mLastDeferredLocation == null) {
+        mDeferredLocationsCount = 0;
+        mFirstDeferredLocation = null;
+        mLastDeferredLocation = null;
+      }
+    }
+  }
+
+  private void deleteJournal() {
+    if (mJournal != null) {
+      mJournal.delete();
+      mJournal = null;
+    }
+    mUnjournaledLocations.clear();
+    mDeferredLocationsCount = 0;
+    mFirstDeferredLocation = null;
+    mLastDeferredLocation = null;
+  }
+
+  /**
+   * Keeps locations the journal couldn't take in memory and returns those that were kept, filtering
+   * out repeated broadcasts like the journal does.
+   */
+  private List<Location> deferUnjournaledLocations(List<Location> locations) {
+    List<Location> deferred = new ArrayList<>(locations.size());
+    for (Location location : locations) {
+      if (location.getTime() > mLastUnjournaledTimestamp) {
+        mLastUnjournaledTimestamp = location.getTime();
+        deferred.add(location);
+      }
+    }
+    mUnjournaledLocations.addAll(deferred);
+    return deferred;
+  }
+
+  private static ArrayList<Bundle> readLocationBundles(PersistableBundle data) {
+    int length = data != null ? data.getInt(LENGTH_KEY, 0) : 0;
+    ArrayList<Bundle> locationBundles = new ArrayList<>(length);
+
+    for (int i = 0; i < length; i++) {
+      PersistableBundle persistableLocationBundle = data.getPersistableBundle(String.valueOf(i));
+      if (persistableLocationBundle != null) {
+        Bundle locationBundle = new Bundle();
+        Bundle coordsBundle = new Bundle();
+        coordsBundle.putAll(persistableLocationBundle.getPersistableBundle("coords"));
+        locationBundle.putAll(persistableLocationBundle);
+        locationBundle.putBundle("coords", coordsBundle);
+        locationBundles.add(locationBundle);
+      }
+    }
+    return locationBundles;
+  }
+
+  /**
+   * Starts delivering journaled locations up to `end` and finishes the job once they're delivered,
+   * or right away if a job that is already delivering picks these up as well.
+   */
+  private void startDeliveryOnJournalThread(final long end, final JobService jobService, final JobParameters params) {
+    runOnJournalThread(new Runnable() {
+      @Override
+      public void run() {
+        synchronized (LocationTaskConsumer.this) {
+          mDeliveryEnd = Math.max(mDeliveryEnd, end);
+          if (mIsDelivering) {
+            jobService.jobFinished(params, false);
+            return;
+          }
+          mIsDelivering = true;
+        }
+
+        deliverJournaledLocations(new TaskExecutionCallback() {
+          @Override
+          public void onFinished(Map<String, Object> response) {
+            jobService.jobFinished(params, false);
+          }
+        });
+      }
+    });
+  }
+
+  /**
+   * Delivers journaled locations up to mDeliveryEnd one page at a time, moving the journal cursor
+   * after the task has handled each page, until there's nothing left to deliver.
+   */
+  private void deliverJournaledLocations(final TaskExecutionCallback callback) {
+    final LocationJournal journal = mJournal;
+    ArrayList<Bundle> locationBundles = new ArrayList<>();
+    final long from;
+
+    synchronized (this) {
+      from = journal != null ? journal.getCursor() : 0;
+      if (journal != null && mTask != null && from < Math.min(mDeliveryEnd, journal.getRecordCount())) {
+        try {
+          locationBundles = journal.read(from, (int) Math.min(DELIVERY_PAGE_SIZE, mDeliveryEnd - from));
+        } catch (IOException e) {
+          Log.e(TAG, "Couldn't read the location journal: " + e.getMessage());
+        }
+      }
+
+      if (locationBundles.isEmpty()) {
+        mIsDelivering = false;
+        callback.onFinished(null);
+        return;
+      }
+    }
+
+    final int count = locationBundles.size();
+    executeTaskWithLocationBundles(locationBundles, new TaskExecutionCallback() {
+      @Override
+      public void onFinished(Map<String, Object> response) {
+        runOnJournalThread(new Runnable() {
+          @Override
+          public void run() {
+            synchronized (LocationTaskConsumer.this) {
+              try {
+                journal.commit(from + count);
+              } catch (IOException e) {
+                Log.e(TAG, "Couldn't move the location journal cursor: " + e.getMessage());
+                mIsDelivering = false;
+                callback.onFinished(null);
+                return;
+              }
+              // The journal restarts from 0 once everything is delivered
+              if (journal.getRecordCount() == 0) {
+                mDeliveryEnd = 0;
+              }
+            }
+            deliverJournaledLocations(callback);
+          }
+        });
+      }
+    });
+  }
+
+  private static Location toLocation(List<Bundle> locationBundles) {
+    if (locationBundles.isEmpty()) {
+      return null;
+    }
+    Bundle bundle = locationBundles.get(0);
+    Bundle coords = bundle.getBundle("coords");
+    Location location = new Location("journal");
+    location.setTime((long) bundle.getDouble("timestamp"));
+    location.setLatitude(coords.getDouble("latitude"));
+    location.setLongitude(coords.getDouble("longitude"));
+    return location;
+  }
+
   private PendingIntent preparePendingIntent() {
     return getTaskManagerUtils().createTaskIntent(getContext(), mTask);
   }
@@ -341,7 +605,14 @@ public class LocationTaskConsumer extends TaskConsumer implements TaskConsumerIn
   @Override
   public void onHostResume() {
     mIsHostPaused = false;
-    maybeReportDeferredLocations();
+    runOnJournalThread(new Runnable() {
+      @Override
+      public void run() {
+        if (mTask != null) {
+          maybeReportDeferredLocations();
+        }
+      }
+    });
   }
 
   @Override
@@ -6,8 +6,8 @@ import android.content.Context;
 import android.hardware.Sensor;
 import android.hardware.SensorEvent;
 import android.hardware.SensorManager;
-import android.os.Bundle;
 
+import org.unimodules.core.NumericEventFrames;
 import org.unimodules.core.Promise;
 import org.unimodules.core.interfaces.ExpoMethod;
 import org.unimodules.interfaces.sensors.SensorService;
@@ -33,11 +33,15 @@ public class BarometerModule extends BaseSensorModule {
     return getModuleRegistry().getModule(BarometerService.class);
   }
 
-  protected Bundle eventToMap(SensorEvent sensorEvent) {
-    Bundle map = new Bundle();
+  @Override
+  protected int getReadingSize() {
+    return 1;
+  }
+
+  @Override
+  protected void putReading(SensorEvent sensorEvent, NumericEventFrames readings) {
     // TODO: Bacon: Can we get relative altitude?
-    map.putDouble("pressure", sensorEvent.values[0]);
-    return map;
+    readings.put(sensorEvent.values[0]);
   }
 
   @ExpoMethod
@@ -58,6 +62,12 @@ public class BarometerModule extends BaseSensorModule {
     promise.resolve(null);
   }
 
+  @ExpoMethod
+  public void setMaxReportLatency(int maxReportLatency, Promise promise) {
+    super.setMaxReportLatency(maxReportLatency);
+    promise.resolve(null);
+  }
+
   @ExpoMethod
   public void isAvailableAsync(Promise promise) {
     SensorManager mSensorManager = (SensorManager) getContext().getSystemService(Context.SENSOR_SERVICE);
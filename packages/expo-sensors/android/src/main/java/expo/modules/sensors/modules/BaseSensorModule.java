@@ -4,11 +4,13 @@ import android.content.Context;
 import android.hardware.Sensor;
 import android.hardware.SensorEvent;
 import android.hardware.SensorEventListener2;
-import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 
 import org.unimodules.core.ExportedModule;
 import org.unimodules.core.ModuleRegistry;
+import org.unimodules.core.NumericEventFrames;
 import org.unimodules.core.interfaces.LifecycleEventListener;
 import org.unimodules.core.interfaces.ModuleRegistryConsumer;
 import org.unimodules.core.interfaces.services.EventEmitter;
@@ -21,9 +23,19 @@ public abstract class BaseSensorModule extends ExportedModule implements SensorE
   private ModuleRegistry mModuleRegistry;
   private boolean mIsObserving = false;
 
+  // Readings that arrived since the last event. Hardware delivers a batch of readings as a burst of
+  // onSensorChanged calls, so they're all sent to JS in one event once the burst is over. Emitted
+  // through the numeric fast path and reused for every event.
+  private final Handler mHandler = new Handler(Looper.getMainLooper());
+  private final Object mReadingsLock = new Object();
+  private NumericEventFrames mReadings;
+  private boolean mIsEmitScheduled = false;
+
   protected abstract String getEventName();
   protected abstract SensorService getSensorService();
-  protected abstract Bundle eventToMap(SensorEvent sensorEvent);
+  // Number of values putReading puts for every reading
+  protected abstract int getReadingSize();
+  protected abstract void putReading(SensorEvent sensorEvent, NumericEventFrames readings);
 
   BaseSensorModule(Context context) {
     super(context);
@@ -50,11 +62,15 @@ public abstract class BaseSensorModule extends ExportedModule implements SensorE
 
   @Override
   public void onSensorChanged(SensorEvent sensorEvent) {
-    EventEmitter eventEmitter = mModuleRegistry.getModule(EventEmitter.class);
-    if (eventEmitter != null) {
-      eventEmitter.emit(getEventName(), eventToMap(sensorEvent));
-    } else {
-      Log.e("E_SENSOR_MODULE", "Could not emit " + getEventName() + " event, no event emitter present.");
+    synchronized (mReadingsLock) {
+      if (mReadings == null) {
+        mReadings = new NumericEventFrames(getReadingSize());
+      }
+      putReading(sensorEvent, mReadings);
+      if (!mIsEmitScheduled) {
+        mIsEmitScheduled = true;
+        mHandler.post(mEmitReadingsRunnable);
+      }
     }
   }
 
@@ -72,6 +88,10 @@ public abstract class BaseSensorModule extends ExportedModule implements SensorE
     getSensorKernelServiceSubscription().setUpdateInterval(updateInterval);
   }
 
+  public void setMaxReportLatency(int maxReportLatency) {
+    getSensorKernelServiceSubscription().setMaxReportLatency(maxReportLatency);
+  }
+
   private SensorServiceSubscription getSensorKernelServiceSubscription() {
     if (mSensorServiceSubscription != null) {
       return mSensorServiceSubscription;
@@ -89,6 +109,11 @@ public abstract class BaseSensorModule extends ExportedModule implements SensorE
   public void stopObserving() {
     mIsObserving = false;
     getSensorKernelServiceSubscription().stop();
+    synchronized (mReadingsLock) {
+      if (mReadings != null) {
+        mReadings.clear();
+      }
+    }
   }
 
   @Override
@@ -107,4 +132,25 @@ public abstract class BaseSensorModule extends ExportedModule implements SensorE
   public void onHostDestroy() {
     getSensorKernelServiceSubscription().release();
   }
+
+  private final Runnable mEmitReadingsRunnable = new Runnable() {
+    @Override
+    public void run() {
+      synchronized (mReadingsLock) {
+        mIsEmitScheduled = false;
+        if (mReadings == null || mReadings.isEmpty()) {
+          return;
+        }
+
+        EventEmitter eventEmitter = mModuleRegistry.getModule(EventEmitter.class);
+        if (eventEmitter != null) {
+          // Copies the readings out, so the buffer can be reused right away
+          eventEmitter.emit(getEventName(), mReadings);
+        } else {
+          Log.e("E_SENSOR_MODULE", "Could not emit " + getEventName() + " event, no event emitter present.");
+        }
+        mReadings.clear();
+      }
+    }
+  };
 }
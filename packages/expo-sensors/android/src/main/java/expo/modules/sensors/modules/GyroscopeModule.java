@@ -6,8 +6,8 @@ import android.content.Context;
 import android.hardware.Sensor;
 import android.hardware.SensorEvent;
 import android.hardware.SensorManager;
-import android.os.Bundle;
 
+import org.unimodules.core.NumericEventFrames;
 import org.unimodules.core.Promise;
 import org.unimodules.core.interfaces.ExpoMethod;
 import org.unimodules.interfaces.sensors.SensorService;
@@ -33,12 +33,16 @@ public class GyroscopeModule extends BaseSensorModule {
     return getModuleRegistry().getModule(GyroscopeService.class);
   }
 
-  protected Bundle eventToMap(SensorEvent sensorEvent) {
-    Bundle map = new Bundle();
-    map.putDouble("x", sensorEvent.values[0]);
-    map.putDouble("y", sensorEvent.values[1]);
-    map.putDouble("z", sensorEvent.values[2]);
-    return map;
+  @Override
+  protected int getReadingSize() {
+    return 3;
+  }
+
+  @Override
+  protected void putReading(SensorEvent sensorEvent, NumericEventFrames readings) {
+    readings.put(sensorEvent.values[0]);
+    readings.put(sensorEvent.values[1]);
+    readings.put(sensorEvent.values[2]);
   }
 
   @ExpoMethod
@@ -59,6 +63,12 @@ public class GyroscopeModule extends BaseSensorModule {
     promise.resolve(null);
   }
 
+  @ExpoMethod
+  public void setMaxReportLatency(int maxReportLatency, Promise promise) {
+    super.setMaxReportLatency(maxReportLatency);
+    promise.resolve(null);
+  }
+
   @ExpoMethod
   public void isAvailableAsync(Promise promise) {
     SensorManager mSensorManager = (SensorManager) getContext().getSystemService(Context.SENSOR_SERVICE);
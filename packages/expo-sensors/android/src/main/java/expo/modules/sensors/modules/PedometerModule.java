@@ -5,8 +5,8 @@ package expo.modules.sensors.modules;
 import android.content.Context;
 import android.content.pm.PackageManager;
 import android.hardware.SensorEvent;
-import android.os.Bundle;
 
+import org.unimodules.core.NumericEventFrames;
 import org.unimodules.core.Promise;
 import org.unimodules.core.interfaces.ExpoMethod;
 import org.unimodules.interfaces.sensors.SensorService;
@@ -34,13 +34,17 @@ public class PedometerModule extends BaseSensorModule {
     return getModuleRegistry().getModule(PedometerService.class);
   }
 
-  protected Bundle eventToMap(SensorEvent sensorEvent) {
+  @Override
+  protected int getReadingSize() {
+    return 1;
+  }
+
+  @Override
+  protected void putReading(SensorEvent sensorEvent, NumericEventFrames readings) {
     if (stepsAtTheBeginning == null) {
       stepsAtTheBeginning = (int) sensorEvent.values[0] - 1;
     }
-    Bundle map = new Bundle();
-    map.putDouble("steps", sensorEvent.values[0] - stepsAtTheBeginning);
-    return map;
+    readings.put(sensorEvent.values[0] - stepsAtTheBeginning);
   }
 
   @ExpoMethod
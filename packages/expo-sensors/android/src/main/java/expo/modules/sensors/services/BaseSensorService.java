@@ -10,6 +10,9 @@ import android.hardware.SensorManager;
 public abstract class BaseSensorService extends BaseService implements SensorEventListener2 {
   private Sensor mSensor;
   private SensorManager mSensorManager;
+  private boolean mIsObserving = false;
+  private int mSamplingPeriodUs;
+  private int mMaxReportLatencyUs;
 
   BaseSensorService(Context reactContext) {
     super(reactContext);
@@ -21,13 +24,34 @@ public abstract class BaseSensorService extends BaseService implements SensorEve
 
   // Public API
 
-  protected void startObserving() {
+  /**
+   * Registers for samples every `samplingPeriodUs`, which the sensor may deliver up to
+   * `maxReportLatencyUs` late, in batches, if it has a hardware FIFO. Calling it again while
+   * observing re-registers only if the rate changed.
+   */
+  protected void startObserving(int samplingPeriodUs, int maxReportLatencyUs) {
+    if (mIsObserving && mSamplingPeriodUs == samplingPeriodUs && mMaxReportLatencyUs == maxReportLatencyUs) {
+      return;
+    }
+
+    if (mIsObserving) {
+      mSensorManager.unregisterListener(this);
+      mIsObserving = false;
+    }
+
     if ((mSensor = mSensorManager.getDefaultSensor(getSensorType())) != null) {
-      mSensorManager.registerListener(this, mSensor, SensorManager.SENSOR_DELAY_FASTEST);
+      if (maxReportLatencyUs > 0 && mSensor.getFifoMaxEventCount() > 0) {
+        mIsObserving = mSensorManager.registerListener(this, mSensor, samplingPeriodUs, maxReportLatencyUs);
+      } else {
+        mIsObserving = mSensorManager.registerListener(this, mSensor, samplingPeriodUs);
+      }
+      mSamplingPeriodUs = samplingPeriodUs;
+      mMaxReportLatencyUs = maxReportLatencyUs;
     }
   }
 
   protected void stopObserving() {
     mSensorManager.unregisterListener(this);
+    mIsObserving = false;
   }
 }
@@ -7,6 +7,7 @@ import android.hardware.SensorEventListener2;
 public class SensorServiceSubscription implements org.unimodules.interfaces.sensors.SensorServiceSubscription {
   private boolean mIsEnabled = false;
   private Long mUpdateInterval = null;
+  private Long mMaxReportLatency = null;
   private boolean mHasBeenReleased = false;
   private final SubscribableSensorService mSubscribableSensorService;
   private final SensorEventListener2 mSensorEventListener;
@@ -39,6 +40,17 @@ public class SensorServiceSubscription implements org.unimodules.interfaces.sens
   public void setUpdateInterval(long updateInterval) {
     assertSubscriptionIsAlive();
     mUpdateInterval = updateInterval;
+    mSubscribableSensorService.onSubscriptionRateChanged(this);
+  }
+
+  public Long getMaxReportLatency() {
+    return mMaxReportLatency;
+  }
+
+  public void setMaxReportLatency(long maxReportLatency) {
+    assertSubscriptionIsAlive();
+    mMaxReportLatency = maxReportLatency;
+    mSubscribableSensorService.onSubscriptionRateChanged(this);
   }
 
   public void stop() {
@@ -19,7 +19,13 @@ import org.unimodules.interfaces.sensors.SensorService;
 public abstract class SubscribableSensorService extends BaseSensorService implements SensorService {
   protected static int DEFAULT_UPDATE_INTERVAL = 100;
 
+  // Sensors don't sample at exactly the requested period, so a reading up to this much of the
+  // update interval early still counts as due.
+  private static final double UPDATE_INTERVAL_TOLERANCE = 0.1;
+
   private int mListenersCount = 0;
+  // Timestamp of the last reading delivered to each subscription, in SensorEvent.timestamp
+  // nanoseconds. Readings from a hardware batch arrive all at once, so wall clock time can't be used.
   private Map<SensorServiceSubscription, Long> mSensorEventListenerLastUpdateMap = new WeakHashMap<>();
 
   SubscribableSensorService(Context reactContext) {
@@ -56,6 +62,12 @@ public abstract class SubscribableSensorService extends BaseSensorService implem
     updateObserving();
   }
 
+  void onSubscriptionRateChanged(SensorServiceSubscription sensorServiceSubscription) {
+    if (sensorServiceSubscription.isEnabled()) {
+      updateObserving();
+    }
+  }
+
   void removeSubscription(SensorServiceSubscription sensorServiceSubscription) {
     mSensorEventListenerLastUpdateMap.remove(sensorServiceSubscription);
   }
@@ -65,25 +77,16 @@ public abstract class SubscribableSensorService extends BaseSensorService implem
   @Override
   public void onSensorChanged(SensorEvent sensorEvent) {
     if (sensorEvent.sensor.getType() == getSensorType()) {
-      long currentTime = System.currentTimeMillis();
       Set<SensorServiceSubscription> listeners = mSensorEventListenerLastUpdateMap.keySet();
 
       for(SensorServiceSubscription sensorServiceSubscription : listeners) {
         if (sensorServiceSubscription != null && sensorServiceSubscription.isEnabled()) {
-          long lastUpdate = 0;
-          if (mSensorEventListenerLastUpdateMap.containsKey(sensorServiceSubscription)) {
-            lastUpdate = mSensorEventListenerLastUpdateMap.get(sensorServiceSubscription);
-          }
-
-          long updateInterval = DEFAULT_UPDATE_INTERVAL;
-          if (sensorServiceSubscription.getUpdateInterval() != null) {
-            updateInterval = sensorServiceSubscription.getUpdateInterval();
-          }
-
+          Long lastUpdate = mSensorEventListenerLastUpdateMap.get(sensorServiceSubscription);
+          long updateIntervalNs = (long) (getUpdateInterval(sensorServiceSubscription) * 1000000 * (1 - UPDATE_INTERVAL_TOLERANCE));
 
-          if ((currentTime - lastUpdate) > updateInterval) {
+          if (lastUpdate == null || lastUpdate == 0 || sensorEvent.timestamp - lastUpdate >= updateIntervalNs) {
             sensorServiceSubscription.getSensorEventListener().onSensorChanged(sensorEvent);
-            mSensorEventListenerLastUpdateMap.put(sensorServiceSubscription, currentTime);
+            mSensorEventListenerLastUpdateMap.put(sensorServiceSubscription, sensorEvent.timestamp);
           }
         }
       }
@@ -117,9 +120,33 @@ public abstract class SubscribableSensorService extends BaseSensorService implem
   private void updateObserving() {
     // Start/stop observing according to the experience state
     if (mListenersCount > 0 && getExperienceIsForegrounded()) {
-      super.startObserving();
+      // Sample as often as the most frequent subscriber asked for, and only batch as much as the
+      // least patient one allows
+      long samplingPeriod = Long.MAX_VALUE;
+      long maxReportLatency = Long.MAX_VALUE;
+      for (SensorServiceSubscription subscription : mSensorEventListenerLastUpdateMap.keySet()) {
+        if (subscription != null && subscription.isEnabled()) {
+          samplingPeriod = Math.min(samplingPeriod, getUpdateInterval(subscription));
+          maxReportLatency = Math.min(maxReportLatency, subscription.getMaxReportLatency() != null ? subscription.getMaxReportLatency() : 0);
+        }
+      }
+
+      if (samplingPeriod == Long.MAX_VALUE) {
+        samplingPeriod = DEFAULT_UPDATE_INTERVAL;
+        maxReportLatency = 0;
+      }
+      super.startObserving(millisToMicros(samplingPeriod), millisToMicros(maxReportLatency));
     } else {
       super.stopObserving();
     }
   }
+
+  private static long getUpdateInterval(SensorServiceSubscription subscription) {
+    Long updateInterval = subscription.getUpdateInterval();
+    return updateInterval != null ? Math.max(0, updateInterval) : DEFAULT_UPDATE_INTERVAL;
+  }
+
+  private static int millisToMicros(long millis) {
+    return (int) Math.min(Integer.MAX_VALUE / 1000, Math.max(0, millis)) * 1000;
+  }
 }
@@ -8,4 +8,4 @@ type BarometerMeasurement = {
 
 class BarometerSensor extends DeviceSensor<BarometerMeasurement> {}
 
-export default new BarometerSensor(ExpoBarometer, 'barometerDidUpdate');
+export default new BarometerSensor(ExpoBarometer, 'barometerDidUpdate', ['pressure']);
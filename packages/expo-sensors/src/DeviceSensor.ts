@@ -1,4 +1,10 @@
-import { EventEmitter, Subscription, Platform } from '@unimodules/core';
+import {
+  EventEmitter,
+  Subscription,
+  Platform,
+  decodeNumericEventFrames,
+  isNumericEventFrames,
+} from '@unimodules/core';
 
 type Listener<E> = (event: E) => void;
 
@@ -13,16 +19,35 @@ export default class DeviceSensor<M> {
   _nativeEmitter: EventEmitter;
   _nativeEventName: string;
   _listenerCount: number;
+  _numericEventFields: (keyof M)[];
 
-  constructor(nativeSensorModule: NativeSensorModule, nativeEventName: string) {
+  /**
+   * `numericEventFields` names the values of a reading sent through the numeric event fast path,
+   * in the order native code puts them.
+   */
+  constructor(
+    nativeSensorModule: NativeSensorModule,
+    nativeEventName: string,
+    numericEventFields: (keyof M)[] = []
+  ) {
     this._nativeModule = nativeSensorModule;
     this._nativeEmitter = new EventEmitter(nativeSensorModule);
     this._nativeEventName = nativeEventName;
     this._listenerCount = 0;
+    this._numericEventFields = numericEventFields;
   }
 
   addListener(listener: Listener<M>): Subscription {
-    let subscription = this._nativeEmitter.addListener(this._nativeEventName, listener);
+    // Android sends every reading since the previous event in one batch of numeric frames
+    let subscription = this._nativeEmitter.addListener(this._nativeEventName, (event: any) => {
+      if (isNumericEventFrames(event)) {
+        decodeNumericEventFrames<any>(event, this._numericEventFields).forEach(reading =>
+          listener(reading)
+        );
+      } else {
+        listener(event);
+      }
+    });
     subscription.remove = () => this.removeSubscription(subscription);
     this._listenerCount++;
     return subscription;
@@ -53,6 +78,19 @@ export default class DeviceSensor<M> {
       this._nativeModule.setUpdateInterval(intervalMs);
     }
   }
+
+  /**
+   * Lets the sensor hold on to readings for up to `latencyMs` and deliver them in batches, which
+   * saves battery when readings don't need to arrive right away. Readings are still sampled at the
+   * update interval.
+   */
+  setMaxReportLatency(latencyMs: number): void {
+    if (!this._nativeModule.setMaxReportLatency) {
+      console.warn(`expo-sensors: setMaxReportLatency() is not supported on ${Platform.OS}`);
+    } else {
+      this._nativeModule.setMaxReportLatency(latencyMs);
+    }
+  }
   async isAvailableAsync(): Promise<boolean> {
     if (!this._nativeModule.isAvailableAsync) {
       return false;
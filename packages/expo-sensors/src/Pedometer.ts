@@ -1,4 +1,4 @@
-import { EventEmitter } from '@unimodules/core';
+import { EventEmitter, decodeNumericEventFrames, isNumericEventFrames } from '@unimodules/core';
 import invariant from 'invariant';
 import { UnavailabilityError } from '@unimodules/core';
 import ExponentPedometer from './ExponentPedometer';
@@ -10,7 +10,14 @@ type PedometerUpdateCallback = (result: PedometerResult) => void;
 type PedometerListener = { remove: () => void };
 
 export function watchStepCount(callback: PedometerUpdateCallback): PedometerListener {
-  return PedometerEventEmitter.addListener('Exponent.pedometerUpdate', callback);
+  // Android sends every reading since the previous event in one batch of numeric frames
+  return PedometerEventEmitter.addListener('Exponent.pedometerUpdate', (event: any) => {
+    if (isNumericEventFrames(event)) {
+      decodeNumericEventFrames<PedometerResult>(event, ['steps']).forEach(result => callback(result));
+    } else {
+      callback(event);
+    }
+  });
 }
 
 export async function getStepCountAsync(start: Date, end: Date): Promise<PedometerResult> {
@@ -9,4 +9,8 @@ type ThreeAxisMeasurement = {
 /**
  * A base class for subscribable sensors that take {x, y, z} measurements.
  */
-export default class ThreeAxisSensor extends DeviceSensor<ThreeAxisMeasurement> {}
+export default class ThreeAxisSensor extends DeviceSensor<ThreeAxisMeasurement> {
+  constructor(nativeSensorModule: any, nativeEventName: string) {
+    super(nativeSensorModule, nativeEventName, ['x', 'y', 'z']);
+  }
+}
@@ -1,6 +1,6 @@
 import { NativeModulesProxy } from '@unimodules/core';
 
-import { mockPlatformIOS } from '../../test/mocking';
+import { mockPlatformAndroid, mockPlatformIOS } from '../../test/mocking';
 import Accelerometer from '../Accelerometer';
 
 afterEach(() => {
@@ -32,6 +32,17 @@ it(`notifies listeners`, () => {
   expect(mockListener).toHaveBeenCalledWith(mockEvent);
 });
 
+it(`notifies listeners of every reading in a batch`, () => {
+  mockPlatformAndroid();
+  const mockListener = jest.fn();
+  Accelerometer.addListener(mockListener);
+
+  Accelerometer._nativeEmitter.emit('accelerometerDidUpdate', [3, 0.2, 0.1, 0.3, 0.3, 0.2, 0.1]);
+  expect(mockListener).toHaveBeenCalledTimes(2);
+  expect(mockListener).toHaveBeenNthCalledWith(1, { x: 0.2, y: 0.1, z: 0.3 });
+  expect(mockListener).toHaveBeenNthCalledWith(2, { x: 0.3, y: 0.2, z: 0.1 });
+});
+
 it(`sets the update interval`, async () => {
   const NativeAccelerometer = NativeModulesProxy.ExponentAccelerometer;
   await Accelerometer.setUpdateInterval(1234);
@@ -0,0 +1,296 @@
+package expo.modules.taskManager;
+
+import android.os.Bundle;
+import android.os.Parcel;
+import android.util.Base64;
+import android.util.Log;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Events waiting for an app's task manager, which isn't there yet while the app is being loaded.
+ *
+ * Every event is appended to its app's log, a file with one JSON object per line, so events received
+ * during a headless launch aren't lost if the process dies before the app finished loading. The log
+ * is only appended to and never synced, as surviving the process is what matters here, and it's
+ * deleted once the app's events have been handed to its task manager. Queues are restored from the
+ * logs when the task service starts and delivered as soon as the app's task manager is set.
+ *
+ * Logs hold events as they were received. Events coalesced in memory are restored one by one.
+ * Bodies are logged as parceled bundles, which keep the exact types of their values.
+ *
+ * Also keeps track of how many events are waiting and how long they waited before being delivered.
+ */
+public class TaskEventQueue {
+  private static final String TAG = "TaskEventQueue";
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+  private static final String LOG_EXTENSION = ".jsonl";
+
+  public static class QueuedEvent {
+    public final String taskName;
+    public final Bundle body;
+    // Wall clock time, as it has to survive restarts
+    public final long enqueuedAt;
+
+    QueuedEvent(String taskName, Bundle body, long enqueuedAt) {
+      this.taskName = taskName;
+      this.body = body;
+      this.enqueuedAt = enqueuedAt;
+    }
+  }
+
+  private final File mDirectory;
+  // { "<appId>": List(QueuedEvent...) }
+  private final Map<String, List<QueuedEvent>> mQueues = new HashMap<>();
+
+  private int mMaxDepth = 0;
+  private int mDeliveredEventsCount = 0;
+  private int mCoalescedEventsCount = 0;
+  private long mLastLatencyMs = 0;
+  private long mMaxLatencyMs = 0;
+
+  TaskEventQueue(File directory) {
+    mDirectory = directory;
+  }
+
+  /**
+   * Loads the queues logged by a previous process.
+   */
+  synchronized void restore() {
+    File[] files = mDirectory.listFiles();
+    if (files == null) {
+      return;
+    }
+
+    for (File file : files) {
+      if (!file.getName().endsWith(LOG_EXTENSION)) {
+        file.delete();
+        continue;
+      }
+
+      try {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), UTF_8));
+        try {
+          String header = reader.readLine();
+          if (header == null) {
+            file.delete();
+            continue;
+          }
+
+          String appId = new JSONObject(header).getString("appId");
+          List<QueuedEvent> queue = new ArrayList<>();
+          String line;
+
+          while ((line = reader.readLine()) != null) {
+            if (line.isEmpty()) {
+              continue;
+            }
+            try {
+              JSONObject event = new JSONObject(line);
+              queue.add(new QueuedEvent(event.getString("taskName"), unparcelBundle(event.getString("body")), event.getLong("enqueuedAt")));
+            } catch (JSONException | RuntimeException e) {
+              // Cut short by the process dying in the middle of a write
+              Log.w(TAG, "Skipping malformed event in " + file.getName() + ": " + e.getMessage());
+            }
+          }
+          if (queue.size() > 0) {
+            mQueues.put(appId, queue);
+          } else {
+            file.delete();
+          }
+        } finally {
+          reader.close();
+        }
+      } catch (IOException | JSONException e) {
+        Log.e(TAG, "Couldn't restore events queue from " + file.getName() + ": " + e.getMessage());
+        file.delete();
+      }
+    }
+    updateMaxDepth();
+  }
+
+  synchronized void add(String appId, String taskName, Bundle body) {
+    List<QueuedEvent> queue = mQueues.get(appId);
+    if (queue == null) {
+      queue = new ArrayList<>();
+      mQueues.put(appId, queue);
+    }
+    QueuedEvent event = new QueuedEvent(taskName, body, System.currentTimeMillis());
+    // A new queue starts a new log, over whatever is left of a previous one
+    log(appId, event, queue.isEmpty());
+    queue.add(event);
+    updateMaxDepth();
+  }
+
+  /**
+   * Returns the latest event of the task that is still waiting, or null.
+   */
+  synchronized QueuedEvent getLastEventForTask(String appId, String taskName) {
+    List<QueuedEvent> queue = mQueues.get(appId);
+    if (queue != null) {
+      for (int i = queue.size() - 1; i >= 0; i--) {
+        if (queue.get(i).taskName.equals(taskName)) {
+          return queue.get(i);
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * To be called after the body of a queued event has been changed to hold another event too, with
+   * the body of the event that has been merged into it.
+   */
+  synchronized void didCoalesceEvent(String appId, String taskName, Bundle body) {
+    mCoalescedEventsCount++;
+    if (mQueues.containsKey(appId)) {
+      log(appId, new QueuedEvent(taskName, body, System.currentTimeMillis()), false);
+    }
+  }
+
+  synchronized List<QueuedEvent> getEvents(String appId) {
+    List<QueuedEvent> queue = mQueues.get(appId);
+    return queue != null ? new ArrayList<>(queue) : Collections.<QueuedEvent>emptyList();
+  }
+
+  synchronized List<String> getAppIds() {
+    return new ArrayList<>(mQueues.keySet());
+  }
+
+  /**
+   * Removes all events of the app from the queue and returns them, to be delivered. The log is kept
+   * until {@link #didDeliver(String)}, so the events survive the process dying during delivery.
+   */
+  synchronized List<QueuedEvent> drain(String appId) {
+    List<QueuedEvent> queue = mQueues.remove(appId);
+    if (queue == null) {
+      return Collections.emptyList();
+    }
+
+    long now = System.currentTimeMillis();
+    for (QueuedEvent event : queue) {
+      mLastLatencyMs = Math.max(0, now - event.enqueuedAt);
+      mMaxLatencyMs = Math.max(mMaxLatencyMs, mLastLatencyMs);
+    }
+    mDeliveredEventsCount += queue.size();
+    return queue;
+  }
+
+  /**
+   * To be called once the events returned by {@link #drain(String)} have been delivered.
+   */
+  synchronized void didDeliver(String appId) {
+    // Events queued since started a new log
+    if (!mQueues.containsKey(appId)) {
+      getLogFile(appId).delete();
+    }
+  }
+
+  /**
+   * Drops all events of the app without delivering them.
+   */
+  synchronized void clear(String appId) {
+    mQueues.remove(appId);
+    getLogFile(appId).delete();
+  }
+
+  synchronized int getDepth() {
+    int depth = 0;
+    for (List<QueuedEvent> queue : mQueues.values()) {
+      depth += queue.size();
+    }
+    return depth;
+  }
+
+  synchronized Bundle getMetrics() {
+    Bundle metrics = new Bundle();
+    metrics.putInt("depth", getDepth());
+    metrics.putInt("maxDepth", mMaxDepth);
+    metrics.putInt("deliveredEventsCount", mDeliveredEventsCount);
+    metrics.putInt("coalescedEventsCount", mCoalescedEventsCount);
+    metrics.putDouble("lastLatencyMs", mLastLatencyMs);
+    metrics.putDouble("maxLatencyMs", mMaxLatencyMs);
+    return metrics;
+  }
+
+  //region private
+
+  private void updateMaxDepth() {
+    mMaxDepth = Math.max(mMaxDepth, getDepth());
+  }
+
+  private File getLogFile(String appId) {
+    return new File(mDirectory, UUID.nameUUIDFromBytes(appId.getBytes(UTF_8)).toString() + LOG_EXTENSION);
+  }
+
+  private void log(String appId, QueuedEvent event, boolean isNewLog) {
+    if (!mDirectory.exists() && !mDirectory.mkdirs()) {
+      Log.e(TAG, "Couldn't create " + mDirectory);
+      return;
+    }
+
+    try {
+      StringBuilder lines = new StringBuilder();
+      if (isNewLog) {
+        lines.append(new JSONObject().put("appId", appId).toString());
+      }
+
+      JSONObject json = new JSONObject();
+      json.put("taskName", event.taskName);
+      json.put("enqueuedAt", event.enqueuedAt);
+      json.put("body", parcelBundle(event.body));
+      // Lines are started rather than terminated, so an event appended after one that was cut short
+      // still gets a line of its own
+      lines.append('\n').append(json.toString());
+
+      FileOutputStream outputStream = new FileOutputStream(getLogFile(appId), !isNewLog);
+      try {
+        outputStream.write(lines.toString().getBytes(UTF_8));
+      } finally {
+        outputStream.close();
+      }
+    } catch (IOException | JSONException e) {
+      Log.e(TAG, "Couldn't log event for app '" + appId + "': " + e.getMessage());
+    }
+  }
+
+  private static String parcelBundle(Bundle bundle) {
+    Parcel parcel = Parcel.obtain();
+    try {
+      parcel.writeBundle(bundle);
+      return Base64.encodeToString(parcel.marshall(), Base64.NO_WRAP);
+    } finally {
+      parcel.recycle();
+    }
+  }
+
+  // Logs are only read back on the same device, by the app that wrote them
+  private static Bundle unparcelBundle(String string) {
+    byte[] bytes = Base64.decode(string, Base64.NO_WRAP);
+    Parcel parcel = Parcel.obtain();
+    try {
+      parcel.unmarshall(bytes, 0, bytes.length);
+      parcel.setDataPosition(0);
+      return parcel.readBundle(TaskEventQueue.class.getClassLoader());
+    } finally {
+      parcel.recycle();
+    }
+  }
+
+  //endregion
+}
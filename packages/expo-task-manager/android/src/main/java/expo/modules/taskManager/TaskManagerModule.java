@@ -104,6 +104,14 @@ public class TaskManagerModule extends ExportedModule implements ModuleRegistryC
     }
   }
 
+  @ExpoMethod
+  public void getEventsQueueMetricsAsync(final Promise promise) {
+    if (!checkTaskService(promise)) {
+      return;
+    }
+    promise.resolve(mTaskService.getEventsQueueMetrics());
+  }
+
   @ExpoMethod
   public void startObserving(final Promise promise) {
     Handler handler = new Handler();
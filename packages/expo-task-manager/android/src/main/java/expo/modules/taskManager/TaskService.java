@@ -15,6 +15,7 @@ import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.File;
 import java.lang.ref.WeakReference;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
@@ -32,6 +33,7 @@ import org.unimodules.interfaces.taskManager.TaskServiceInterface;
 import org.unimodules.interfaces.taskManager.TaskConsumerInterface;
 import org.unimodules.interfaces.taskManager.TaskInterface;
 import org.unimodules.interfaces.taskManager.TaskManagerInterface;
+import org.unimodules.interfaces.taskManager.TaskConsumer;
 import expo.loaders.provider.interfaces.AppLoaderInterface;
 import expo.loaders.provider.AppLoaderProvider;
 import expo.loaders.provider.interfaces.AppRecordInterface;
@@ -48,6 +50,7 @@ public class TaskService implements SingletonModule, TaskServiceInterface {
   private static final String TAG = "TaskService";
   private static final String SHARED_PREFERENCES_NAME = "TaskManagerModule";
   private static final int MAX_TASK_EXECUTION_TIME_MS = 15000; // 15 seconds
+  private static final String EVENTS_QUEUES_DIRECTORY = "ExpoTaskEventsQueues";
 
   private WeakReference<Context> mContextRef;
   private TaskManagerUtilsInterface mTaskManagerUtils;
@@ -64,8 +67,11 @@ public class TaskService implements SingletonModule, TaskServiceInterface {
   // { "<appId>": List(eventIds...) }
   private static final Map<String, List<String>> sEvents = new HashMap<>();
 
-  // { "<appId>": List(eventBodies...) }
-  private static final Map<String, List<Bundle>> sEventsQueues = new HashMap<>();
+  // Events waiting for the task manager, persisted so they survive the process being killed during a headless launch.
+  private static TaskEventQueue sEventsQueue = null;
+
+  // Events merged into another queued event. { "<eventId>": List(coalescedEventIds...) }
+  private static final Map<String, List<String>> sCoalescedEvents = new HashMap<>();
 
   // { "<appId>": AppRecordInterface }
   private static final Map<String, AppRecordInterface> sAppRecords = new HashMap<>();
@@ -80,6 +86,7 @@ public class TaskService implements SingletonModule, TaskServiceInterface {
     if (sTasksTable == null) {
       sTasksTable = new HashMap<>();
       restoreTasks();
+      restoreEventsQueues(context);
     }
   }
 
@@ -205,12 +212,17 @@ public class TaskService implements SingletonModule, TaskServiceInterface {
   public void notifyTaskFinished(String taskName, final String appId, Map<String, Object> response) {
     String eventId = (String) response.get("eventId");
     List<String> appEvents = sEvents.get(appId);
+    List<String> coalescedEventIds = sCoalescedEvents.remove(eventId);
 
     Log.i(TAG, "Finished task '" + taskName + "' with eventId '" + eventId + "'.");
 
     if (appEvents != null) {
       appEvents.remove(eventId);
 
+      if (coalescedEventIds != null) {
+        appEvents.removeAll(coalescedEventIds);
+      }
+
       if (appEvents.size() == 0) {
         sEvents.remove(appId);
 
@@ -233,6 +245,17 @@ public class TaskService implements SingletonModule, TaskServiceInterface {
     if (taskCallback != null) {
       taskCallback.onFinished(response);
     }
+
+    // The events merged into this one are finished as well.
+    if (coalescedEventIds != null) {
+      for (String coalescedEventId : coalescedEventIds) {
+        TaskExecutionCallback coalescedCallback = sTaskCallbacks.remove(coalescedEventId);
+
+        if (coalescedCallback != null) {
+          coalescedCallback.onFinished(response);
+        }
+      }
+    }
   }
 
   @Override
@@ -252,17 +275,18 @@ public class TaskService implements SingletonModule, TaskServiceInterface {
     // Set task manager in appropriate map.
     taskManagers.put(appId, new WeakReference<>(taskManager));
 
-    // Execute events waiting for the task manager.
-    List<Bundle> eventsQueue = sEventsQueues.get(appId);
+    // Execute events waiting for the task manager and remove events queue for that app.
+    List<TaskEventQueue.QueuedEvent> queuedEvents = sEventsQueue.drain(appId);
 
-    if (eventsQueue != null) {
-      for (Bundle body : eventsQueue) {
-        taskManager.executeTaskWithBody(body);
-      }
+    for (TaskEventQueue.QueuedEvent event : queuedEvents) {
+      taskManager.executeTaskWithBody(event.body);
     }
+    sEventsQueue.didDeliver(appId);
 
-    // Remove events queue for that app.
-    sEventsQueues.remove(appId);
+    if (queuedEvents.size() > 0) {
+      Bundle metrics = sEventsQueue.getMetrics();
+      Log.i(TAG, "Executed " + queuedEvents.size() + " queued event(s) for app '" + appId + "', waited up to " + (long) metrics.getDouble("lastLatencyMs") + "ms.");
+    }
 
     if (!isHeadless) {
       // Maybe update app url in user defaults. It might change only in non-headless mode.
@@ -393,11 +417,11 @@ public class TaskService implements SingletonModule, TaskServiceInterface {
     }
 
     // The app is not fully loaded as its task manager is not there yet.
-    // We need to add event's body to the queue from which events will be executed once the task manager is ready.
-    if (!sEventsQueues.containsKey(appId)) {
-      sEventsQueues.put(appId, new ArrayList<Bundle>());
+    // We need to add event's body to the queue from which events will be executed once the task manager is ready,
+    // unless the task's consumer can merge it with an event that is already waiting there.
+    if (!maybeCoalesceEvent(task, body)) {
+      sEventsQueue.add(appId, task.getName(), body);
     }
-    sEventsQueues.get(appId).add(body);
 
     if (!sAppRecords.containsKey(appId)) {
       // No app record yet - let's spin it up!
@@ -410,11 +434,20 @@ public class TaskService implements SingletonModule, TaskServiceInterface {
           Log.e(TAG, "Error occurred while unregistering invalid task.", e);
         }
         appEvents.remove(eventId);
-        sEventsQueues.remove(appId);
+        sEventsQueue.clear(appId);
       }
     }
   }
 
+  /**
+   * Returns metrics of the queue of events waiting for task managers: its current and maximum depth,
+   * number of delivered and coalesced events and the latest and maximum time events spent waiting.
+   */
+  @Override
+  public Bundle getEventsQueueMetrics() {
+    return sEventsQueue.getMetrics();
+  }
+
   //endregion
   //region helpers
 
@@ -445,6 +478,48 @@ public class TaskService implements SingletonModule, TaskServiceInterface {
     consumer.didRegister(task);
   }
 
+  /**
+   *  Merges the event into the latest queued event of the same task if the task's consumer supports that.
+   *  Events with errors are never merged.
+   */
+  private boolean maybeCoalesceEvent(TaskInterface task, Bundle body) {
+    String appId = task.getAppId();
+    TaskEventQueue.QueuedEvent queuedEvent = sEventsQueue.getLastEventForTask(appId, task.getName());
+
+    if (queuedEvent == null || !(task.getConsumer() instanceof TaskConsumer)) {
+      return false;
+    }
+    if (queuedEvent.body.getBundle("error") != null || body.getBundle("error") != null) {
+      return false;
+    }
+
+    Bundle coalescedData = ((TaskConsumer) task.getConsumer()).coalesceEventData(queuedEvent.body.getBundle("data"), body.getBundle("data"));
+
+    if (coalescedData == null) {
+      return false;
+    }
+
+    Bundle queuedExecutionInfo = queuedEvent.body.getBundle("executionInfo");
+    Bundle executionInfo = body.getBundle("executionInfo");
+
+    if (queuedExecutionInfo == null || executionInfo == null) {
+      return false;
+    }
+
+    String queuedEventId = queuedExecutionInfo.getString("eventId");
+    List<String> coalescedEventIds = sCoalescedEvents.get(queuedEventId);
+
+    if (coalescedEventIds == null) {
+      coalescedEventIds = new ArrayList<>();
+      sCoalescedEvents.put(queuedEventId, coalescedEventIds);
+    }
+    coalescedEventIds.add(executionInfo.getString("eventId"));
+
+    queuedEvent.body.putBundle("data", coalescedData);
+    sEventsQueue.didCoalesceEvent(appId, task.getName(), body);
+    return true;
+  }
+
   private Bundle createExecutionEventBody(TaskInterface task, Bundle data, Error error) {
     Bundle body = new Bundle();
     Bundle executionInfo = new Bundle();
@@ -559,6 +634,38 @@ public class TaskService implements SingletonModule, TaskServiceInterface {
     }
   }
 
+  /**
+   *  Restores events that were waiting for the task manager when the process was killed.
+   *  They are executed once the app is loaded again, but they don't trigger loading it on their own.
+   */
+  private void restoreEventsQueues(Context context) {
+    sEventsQueue = new TaskEventQueue(new File(context.getFilesDir(), EVENTS_QUEUES_DIRECTORY));
+    sEventsQueue.restore();
+
+    for (String appId : sEventsQueue.getAppIds()) {
+      Map<String, TaskInterface> appTasks = sTasksTable.get(appId);
+
+      if (appTasks == null || appTasks.size() == 0) {
+        // Tasks of that app are no longer registered.
+        sEventsQueue.clear(appId);
+        continue;
+      }
+
+      List<String> appEvents = new ArrayList<>();
+
+      for (TaskEventQueue.QueuedEvent event : sEventsQueue.getEvents(appId)) {
+        Bundle executionInfo = event.body.getBundle("executionInfo");
+
+        if (executionInfo != null) {
+          appEvents.add(executionInfo.getString("eventId"));
+        }
+      }
+      sEvents.put(appId, appEvents);
+
+      Log.i(TAG, "Restored " + appEvents.size() + " queued event(s) for app '" + appId + "'.");
+    }
+  }
+
   private void saveTasksForAppWithId(String appId) {
     SharedPreferences preferences = getSharedPreferences();
     Map<String, TaskInterface> appRow = sTasksTable.get(appId);
@@ -652,7 +759,7 @@ public class TaskService implements SingletonModule, TaskServiceInterface {
         }
         if (!success) {
           sEvents.remove(appId);
-          sEventsQueues.remove(appId);
+          sEventsQueue.clear(appId);
           sAppRecords.remove(appId);
 
           // Host unreachable? Unregister all tasks for that app.
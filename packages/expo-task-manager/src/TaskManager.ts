@@ -22,6 +22,15 @@ interface RegisteredTask {
   options: any,
 }
 
+interface EventsQueueMetrics {
+  depth: number,
+  maxDepth: number,
+  deliveredEventsCount: number,
+  coalescedEventsCount: number,
+  lastLatencyMs: number,
+  maxLatencyMs: number,
+}
+
 type Task = (body: TaskBody) => void;
 
 const eventEmitter = new EventEmitter(ExpoTaskManager);
@@ -102,6 +111,15 @@ export async function unregisterAllTasksAsync(): Promise<void> {
   await ExpoTaskManager.unregisterAllTasksAsync();
 }
 
+// Android only, metrics of the queue holding events until the app is loaded to handle them
+export async function getEventsQueueMetricsAsync(): Promise<EventsQueueMetrics> {
+  if (!ExpoTaskManager.getEventsQueueMetricsAsync) {
+    throw new UnavailabilityError('TaskManager', 'getEventsQueueMetricsAsync')
+  }
+
+  return ExpoTaskManager.getEventsQueueMetricsAsync();
+}
+
 eventEmitter.addListener<TaskBody>(ExpoTaskManager.EVENT_NAME, async ({ data, error, executionInfo }) => {
   const { eventId, taskName } = executionInfo;
   const task = tasks.get(taskName);
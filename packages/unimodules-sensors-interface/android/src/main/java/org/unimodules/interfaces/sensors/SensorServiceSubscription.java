@@ -5,6 +5,8 @@ public interface SensorServiceSubscription {
   boolean isEnabled();
   Long getUpdateInterval();
   void setUpdateInterval(long updateInterval);
+  Long getMaxReportLatency();
+  void setMaxReportLatency(long maxReportLatency);
   void stop();
   void release();
 }
@@ -4,6 +4,7 @@ import android.app.job.JobParameters;
 import android.app.job.JobService;
 import android.content.Context;
 import android.content.Intent;
+import android.os.Bundle;
 
 import java.lang.ref.WeakReference;
 import java.util.Map;
@@ -58,4 +59,13 @@ public abstract class TaskConsumer implements TaskConsumerInterface {
   }
 
   //endregion
+
+  /**
+   *  Called when an event is about to be queued until the app is loaded, while an earlier event of the same task is still waiting there.
+   *  Override it and return data of a single event that stands for both of them to have them delivered as one,
+   *  or return `null` to have them delivered separately (default).
+   */
+  public Bundle coalesceEventData(Bundle queuedData, Bundle data) {
+    return null;
+  }
 }
@@ -82,4 +82,9 @@ public interface TaskServiceInterface extends SingletonModule {
    *  Executes the task with given data bundle and given error.
    */
   void executeTask(TaskInterface task, Bundle data, Error error, TaskExecutionCallback callback);
+
+  /**
+   *  Returns metrics of the queue of events waiting for apps to load.
+   */
+  Bundle getEventsQueueMetrics();
 }